@@ -14,6 +14,7 @@ import com.google.android.gms.vision.MultiProcessor;
 import com.google.android.gms.vision.Tracker;
 import com.google.android.gms.vision.face.Face;
 import com.google.android.gms.vision.face.FaceDetector;
+import com.google.common.collect.ImmutableList;
 
 import org.joda.time.Instant;
 import org.junit.Before;
@@ -30,9 +31,9 @@ import de.drowsydriveralarm.event.EyesOpenedEvent;
 import de.drowsydriveralarm.event.LikelyDrowsyEvent;
 import de.drowsydriveralarm.event.NormalEyeBlinkEvent;
 import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
-import de.drowsydriveralarm.eventproducer.DrowsyEventDetector;
 import de.drowsydriveralarm.eventproducer.DrowsyEventDetectorConfig;
 import de.drowsydriveralarm.eventproducer.TestingDrowsyEventDetectorConfig;
+import de.drowsydriveralarm.eventproducer.VisionDrowsyEventDetector;
 
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.instanceOf;
@@ -46,7 +47,7 @@ public class EventTest {
 
     private Context appContext;
     private EventListener eventListener;
-    private DrowsyEventDetector drowsyEventDetector;
+    private VisionDrowsyEventDetector drowsyEventDetector;
     private FaceDetector detector;
 
     @Before
@@ -58,7 +59,7 @@ public class EventTest {
         this.appContext = InstrumentationRegistry.getTargetContext();
         final TestingDrowsyEventDetectorConfig configFactory = new TestingDrowsyEventDetectorConfig(this.createSharedPreferences());
         this.drowsyEventDetector =
-                new DrowsyEventDetector(
+                new VisionDrowsyEventDetector(
                         DrowsyEventDetectorConfig
                                 .builder()
                                 .withEyeOpenProbabilityThreshold(configFactory.getEyeOpenProbabilityThreshold())
@@ -66,11 +67,12 @@ public class EventTest {
                                 .withSlowEyelidClosureMinDuration(configFactory.getSlowEyelidClosureMinDuration())
                                 .withTimeWindow(configFactory.getTimeWindow())
                                 .build(),
-                        true,
+                        ImmutableList.<FrameRecorder> of(),
+                        ImmutableList.of(),
                         clock);
         this.eventListener = new EventListener();
         this.drowsyEventDetector.getEventBus().register(this.eventListener);
-        this.detector = FaceDetectorFactory.createFaceDetector(this.appContext);
+        this.detector = FaceDetectorFactory.createStillImageFaceDetector(this.appContext);
         // using LargestFaceFocusingProcessor instead of MultiProcessor like in production code leads to an exception on device while running test
         this.detector.setProcessor(new MultiProcessor.Builder<>(this.createFactory()).build());
     }
@@ -97,6 +99,20 @@ public class EventTest {
                         return "0.08";
                     case "timeWindow":
                         return "15000";
+                    case "drowsyExitThreshold":
+                        return "0.12";
+                    case "likelyDrowsyExitThreshold":
+                        return "0.06";
+                    case "drowsinessLevelMinDwell":
+                        return "3000";
+                    case "reorderLatencyBudget":
+                        return "0";
+                    case "calibrationDuration":
+                        return "0";
+                    case "eyeOpenProbabilityFilter":
+                        return "none";
+                    case "drowsinessTrendHorizon":
+                        return "0";
                 }
                 return null;
             }
@@ -380,11 +396,12 @@ public class EventTest {
 
     @NonNull
     private MultiProcessor.Factory<Face> createFactory() {
+        final Tracker<Face> faceTracker = this.drowsyEventDetector.createFaceTracker(new Tracker<Face>());
         return new MultiProcessor.Factory<Face>() {
 
             @Override
             public Tracker<Face> create(final Face face) {
-                return EventTest.this.drowsyEventDetector.getEventProducingGraphicFaceTracker();
+                return faceTracker;
             }
         };
     }
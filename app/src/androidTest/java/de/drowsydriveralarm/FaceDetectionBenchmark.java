@@ -0,0 +1,122 @@
+package de.drowsydriveralarm;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.face.Face;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import de.drowsydriveralarm.eventproducer.EyeOpenProbabilityThresholds;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Compares the per-frame detection latency of the video detector (tracking on) with the still image detector
+ * (tracking off) and with the camera detector the app runs, which crops around the face and skips frames while the
+ * eyes are stably open. The frames alternate between open and closed eyes every few frames like a blinking driver.
+ * Results are logged with tag {@value #TAG}.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FaceDetectionBenchmark {
+
+    private static final String TAG = "FaceDetectionBenchmark";
+    private static final int WARMUP_FRAMES = 30;
+    private static final int MEASURED_FRAMES = 300;
+    private static final int FRAMES_PER_EYE_STATE = 10;
+    private static final long FRAME_INTERVAL_MILLIS = 33;
+    private static final float EYE_OPEN_PROBABILITY_THRESHOLD = 0.5f;
+
+    private Context appContext;
+    private Bitmap eyesOpened;
+    private Bitmap eyesClosed;
+
+    @Before
+    public void setup() {
+        this.appContext = InstrumentationRegistry.getTargetContext();
+        this.eyesOpened = BitmapFactory.decodeResource(this.appContext.getResources(), R.drawable.eyes_opened);
+        this.eyesClosed = BitmapFactory.decodeResource(this.appContext.getResources(), R.drawable.eyes_closed);
+    }
+
+    @Test
+    public void benchmarkVideoFaceDetector() {
+        this.benchmark("tracking on", FaceDetectorFactory.createVideoFaceDetector(this.appContext));
+    }
+
+    @Test
+    public void benchmarkStillImageFaceDetector() {
+        this.benchmark("tracking off", FaceDetectorFactory.createStillImageFaceDetector(this.appContext));
+    }
+
+    @Test
+    public void benchmarkCameraFaceDetector() {
+        this.benchmark(
+                "camera pipeline",
+                FaceDetectorFactory.createCameraFaceDetector(this.appContext, new EyeOpenProbabilityThresholds(EYE_OPEN_PROBABILITY_THRESHOLD)));
+    }
+
+    private void benchmark(final String name, final Detector<Face> detector) {
+        try {
+            assertThat(detector.isOperational(), is(true));
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                detector.detect(this.createFrame(i));
+            }
+
+            final long[] latencies = new long[MEASURED_FRAMES];
+            for (int i = 0; i < MEASURED_FRAMES; i++) {
+                latencies[i] = measureDetection(detector, this.createFrame(WARMUP_FRAMES + i));
+            }
+            log(name, latencies);
+        } finally {
+            detector.release();
+        }
+    }
+
+    private static long measureDetection(final Detector<Face> detector, final Frame frame) {
+        final long start = System.nanoTime();
+        detector.detect(frame);
+        return System.nanoTime() - start;
+    }
+
+    private Frame createFrame(final int frameNumber) {
+        final boolean eyesOpen = (frameNumber / FRAMES_PER_EYE_STATE) % 2 == 0;
+        return new Frame
+                .Builder()
+                .setBitmap(eyesOpen ? this.eyesOpened : this.eyesClosed)
+                .setId(frameNumber)
+                .setTimestampMillis(frameNumber * FRAME_INTERVAL_MILLIS)
+                .build();
+    }
+
+    private static void log(final String name, final long[] latencies) {
+        final long[] sortedLatencies = latencies.clone();
+        Arrays.sort(sortedLatencies);
+        long sum = 0;
+        for (final long latency : sortedLatencies) {
+            sum += latency;
+        }
+        Log.i(TAG, String.format(
+                "%s: mean %.2f ms, median %.2f ms, p95 %.2f ms over %d frames",
+                name,
+                toMillis(sum / sortedLatencies.length),
+                toMillis(sortedLatencies[sortedLatencies.length / 2]),
+                toMillis(sortedLatencies[(int) (sortedLatencies.length * 0.95)]),
+                sortedLatencies.length));
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
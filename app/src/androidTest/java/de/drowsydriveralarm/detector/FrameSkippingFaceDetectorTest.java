@@ -0,0 +1,158 @@
+package de.drowsydriveralarm.detector;
+
+import android.graphics.ImageFormat;
+import android.graphics.PointF;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.face.Face;
+import com.google.android.gms.vision.face.Landmark;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+
+import de.drowsydriveralarm.eventproducer.EyeOpenProbabilityThresholds;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+// SparseArray and PointF are not usable in the unit tests on the JVM
+@RunWith(AndroidJUnit4.class)
+public class FrameSkippingFaceDetectorTest {
+
+    private CountingDetector delegate;
+    private FrameSkippingFaceDetector detector;
+
+    @Before
+    public void setup() {
+        this.delegate = new CountingDetector();
+        this.detector = new FrameSkippingFaceDetector(this.delegate, new EyeOpenProbabilityThresholds(0.5f), 3, 2);
+    }
+
+    @Test
+    public void shouldDetectEveryFrameWhileEyesAreClosed() {
+        // Given
+        this.delegate.setFace(createFace(0.1f, 0.1f));
+
+        // When
+        this.detectFrames(10);
+
+        // Then
+        assertThat(this.delegate.getDetections(), is(10));
+    }
+
+    @Test
+    public void shouldDetectEveryThirdFrameWhileEyesAreStablyOpen() {
+        // Given
+        this.delegate.setFace(createFace(0.9f, 0.9f));
+
+        // When
+        this.detectFrames(2);
+        this.detectFrames(9);
+
+        // Then
+        assertThat(this.delegate.getDetections(), is(2 + 3));
+    }
+
+    @Test
+    public void shouldDetectEveryFrameAgainWhenEyesClose() {
+        // Given
+        this.delegate.setFace(createFace(0.9f, 0.9f));
+        this.detectFrames(3);
+
+        // When
+        this.delegate.setFace(createFace(0.1f, 0.9f));
+        this.detectFrames(2);
+        this.detectFrames(5);
+
+        // Then
+        // frames up to the next regular detection are still skipped, which then notices the closed eye
+        assertThat(this.delegate.getDetections(), is(2 + 1 + 5));
+    }
+
+    @Test
+    public void shouldReportLastFacesWithUnknownEyesForSkippedFrame() {
+        // Given
+        this.delegate.setFace(createFace(0.9f, 0.9f));
+        this.detectFrames(2);
+        this.detector.detect(createFrame());
+
+        // When
+        final SparseArray<Face> skippedFaces = this.detector.detect(createFrame());
+
+        // Then
+        assertThat(skippedFaces.size(), is(1));
+        final Face face = skippedFaces.get(7);
+        assertThat(face.getPosition().x, is(100f));
+        assertThat(face.getLandmarks().size(), is(1));
+        assertThat(face.getIsLeftEyeOpenProbability(), is(Face.UNCOMPUTED_PROBABILITY));
+        assertThat(face.getIsRightEyeOpenProbability(), is(Face.UNCOMPUTED_PROBABILITY));
+    }
+
+    @Test
+    public void shouldCompareEachEyeWithItsThreshold() {
+        // Given
+        this.detector = new FrameSkippingFaceDetector(this.delegate, new EyeOpenProbabilityThresholds(0.7f), 3, 2);
+        this.delegate.setFace(createFace(0.6f, 0.9f));
+
+        // When
+        this.detectFrames(6);
+
+        // Then
+        assertThat(this.delegate.getDetections(), is(6));
+    }
+
+    private void detectFrames(final int numberOfFrames) {
+        for (int i = 0; i < numberOfFrames; i++) {
+            this.detector.detect(createFrame());
+        }
+    }
+
+    private static Frame createFrame() {
+        return new Frame
+                .Builder()
+                .setImageData(ByteBuffer.wrap(new byte[4 * 4 * 3 / 2]), 4, 4, ImageFormat.NV21)
+                .build();
+    }
+
+    private static Face createFace(final float isLeftEyeOpenProbability, final float isRightEyeOpenProbability) {
+        return new Face(
+                7,
+                new PointF(100, 100),
+                40,
+                60,
+                0,
+                0,
+                new Landmark[]{new Landmark(new PointF(110, 120), Landmark.LEFT_EYE)},
+                isLeftEyeOpenProbability,
+                isRightEyeOpenProbability,
+                0);
+    }
+
+    private static class CountingDetector extends Detector<Face> {
+
+        private Face face;
+        private int detections;
+
+        @Override
+        public SparseArray<Face> detect(final Frame frame) {
+            this.detections++;
+            final SparseArray<Face> faces = new SparseArray<>();
+            faces.put(this.face.getId(), this.face);
+            return faces;
+        }
+
+        public void setFace(final Face face) {
+            this.face = face;
+        }
+
+        public int getDetections() {
+            return this.detections;
+        }
+    }
+}
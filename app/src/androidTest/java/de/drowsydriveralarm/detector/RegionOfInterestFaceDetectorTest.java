@@ -0,0 +1,287 @@
+package de.drowsydriveralarm.detector;
+
+import android.graphics.ImageFormat;
+import android.graphics.PointF;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.face.Face;
+import com.google.android.gms.vision.face.Landmark;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+// SparseArray and PointF are not usable in the unit tests on the JVM
+@RunWith(AndroidJUnit4.class)
+public class RegionOfInterestFaceDetectorTest {
+
+    private static final int RAW_WIDTH = 640;
+    private static final int RAW_HEIGHT = 480;
+    private static final float PADDING = 0.5f;
+    private static final int FULL_FRAME_INTERVAL = 3;
+
+    private RecordingDetector delegate;
+    private RegionOfInterestFaceDetector detector;
+
+    @Before
+    public void setup() {
+        this.delegate = new RecordingDetector();
+        this.detector = new RegionOfInterestFaceDetector(this.delegate, PADDING, FULL_FRAME_INTERVAL);
+    }
+
+    @Test
+    public void shouldDetectFullFrameWithoutKnownFace() {
+        // When
+        this.detector.detect(createFrame(0));
+
+        // Then
+        assertThat(this.delegate.getFrame(0).getMetadata().getWidth(), is(RAW_WIDTH));
+        assertThat(this.delegate.getFrame(0).getMetadata().getHeight(), is(RAW_HEIGHT));
+    }
+
+    @Test
+    public void shouldDetectOnPaddedCropAroundPreviousFace() {
+        // Given
+        this.delegate.addFaces(createFace(100, 100, 40, 60));
+        this.detector.detect(createFrame(0));
+
+        // When
+        this.delegate.addFaces(createFace(20, 30, 40, 60));
+        this.detector.detect(createFrame(0));
+
+        // Then
+        // the face padded by half its size: [80, 160) x [70, 190)
+        final Frame crop = this.delegate.getFrame(1);
+        assertThat(crop.getMetadata().getWidth(), is(80));
+        assertThat(crop.getMetadata().getHeight(), is(120));
+        for (final int row : new int[]{0, 119}) {
+            assertThat(getRow(crop, row, 80), is(getRow(createFrame(0), 70 + row, RAW_WIDTH, 80, 80)));
+        }
+    }
+
+    @Test
+    public void shouldTranslateFaceFoundInCropToFullFrame() {
+        // Given
+        this.delegate.addFaces(createFace(100, 100, 40, 60));
+        this.detector.detect(createFrame(0));
+
+        // When
+        this.delegate.addFaces(createFace(22, 31, 40, 60));
+        final SparseArray<Face> faces = this.detector.detect(createFrame(0));
+
+        // Then
+        assertThat(faces.size(), is(1));
+        final Face face = faces.valueAt(0);
+        assertThat(face.getPosition().x, is(102f));
+        assertThat(face.getPosition().y, is(101f));
+        assertThat(face.getLandmarks().get(0).getPosition().x, is(112f));
+        assertThat(face.getLandmarks().get(0).getPosition().y, is(121f));
+        assertThat(face.getWidth(), is(40f));
+        assertThat(face.getHeight(), is(60f));
+    }
+
+    @Test
+    public void shouldCropAndTranslateRotatedFrame() {
+        // Given
+        // upright, the frame is RAW_HEIGHT wide and RAW_WIDTH high
+        this.delegate.addFaces(createFace(100, 100, 40, 60));
+        this.detector.detect(createFrame(1));
+
+        // When
+        this.delegate.addFaces(createFace(20, 30, 40, 60));
+        final SparseArray<Face> faces = this.detector.detect(createFrame(1));
+
+        // Then
+        // the upright region [80, 160) x [70, 190) is the raw region [70, 190) x [320, 400)
+        final Frame crop = this.delegate.getFrame(1);
+        assertThat(crop.getMetadata().getWidth(), is(120));
+        assertThat(crop.getMetadata().getHeight(), is(80));
+        assertThat(crop.getMetadata().getRotation(), is(1));
+        assertThat(getRow(crop, 0, 120), is(getRow(createFrame(1), 320, RAW_WIDTH, 70, 120)));
+        assertThat(faces.valueAt(0).getPosition().x, is(100f));
+        assertThat(faces.valueAt(0).getPosition().y, is(100f));
+    }
+
+    @Test
+    public void shouldDetectFullFrameEveryFullFrameInterval() {
+        // Given
+        for (int i = 0; i < 2 * (FULL_FRAME_INTERVAL + 1); i++) {
+            this.delegate.addFaces(createFace(100, 100, 40, 60));
+        }
+
+        // When
+        for (int i = 0; i < 2 * (FULL_FRAME_INTERVAL + 1); i++) {
+            this.detector.detect(createFrame(0));
+        }
+
+        // Then
+        assertThat(this.delegate.getFrameWidths(), is(Arrays.asList(RAW_WIDTH, 80, 80, 80, RAW_WIDTH, 80, 80, 80)));
+    }
+
+    @Test
+    public void shouldDetectFullFrameWhenCropHasNoFace() {
+        // Given
+        this.delegate.addFaces(createFace(100, 100, 40, 60));
+        this.detector.detect(createFrame(0));
+
+        // When
+        this.delegate.addFaces();
+        this.delegate.addFaces(createFace(300, 200, 40, 60));
+        final SparseArray<Face> faces = this.detector.detect(createFrame(0));
+
+        // Then
+        assertThat(this.delegate.getFrameWidths(), is(Arrays.asList(RAW_WIDTH, 80, RAW_WIDTH)));
+        assertThat(faces.valueAt(0).getPosition().x, is(300f));
+    }
+
+    @Test
+    public void shouldKeepFaceIdWhileFaceIsFound() {
+        // Given
+        this.delegate.addFaces(createFace(100, 100, 40, 60));
+        final int faceId = this.detector.detect(createFrame(0)).keyAt(0);
+
+        // When
+        this.delegate.addFaces(createFace(20, 30, 40, 60));
+        this.delegate.addFaces(createFace(20, 30, 40, 60));
+        final SparseArray<Face> faces = this.detector.detect(createFrame(0));
+        final SparseArray<Face> nextFaces = this.detector.detect(createFrame(0));
+
+        // Then
+        assertThat(faces.keyAt(0), is(faceId));
+        assertThat(faces.valueAt(0).getId(), is(faceId));
+        assertThat(nextFaces.keyAt(0), is(faceId));
+    }
+
+    @Test
+    public void shouldAssignNewFaceIdAfterFrameWithoutFace() {
+        // Given
+        this.delegate.addFaces(createFace(100, 100, 40, 60));
+        final int faceId = this.detector.detect(createFrame(0)).keyAt(0);
+
+        // When
+        this.delegate.addFaces();
+        this.delegate.addFaces();
+        final SparseArray<Face> missingFaces = this.detector.detect(createFrame(0));
+        this.delegate.addFaces(createFace(100, 100, 40, 60));
+        final SparseArray<Face> faces = this.detector.detect(createFrame(0));
+
+        // Then
+        assertThat(missingFaces.size(), is(0));
+        assertThat(faces.keyAt(0), is(not(faceId)));
+        assertThat(faces.valueAt(0).getId(), is(faces.keyAt(0)));
+    }
+
+    @Test
+    public void shouldReportLargestFaceOnly() {
+        // Given
+        this.delegate.addFaces(createFace(1, 300, 200, 20, 30), createFace(2, 100, 100, 40, 60));
+
+        // When
+        final SparseArray<Face> faces = this.detector.detect(createFrame(0));
+
+        // Then
+        assertThat(faces.size(), is(1));
+        assertThat(faces.valueAt(0).getPosition().x, is(100f));
+    }
+
+    private static Frame createFrame(final int rotation) {
+        final byte[] nv21 = new byte[RAW_WIDTH * RAW_HEIGHT * 3 / 2];
+        for (int i = 0; i < RAW_WIDTH * RAW_HEIGHT; i++) {
+            nv21[i] = (byte) (i % RAW_WIDTH + 3 * (i / RAW_WIDTH));
+        }
+        return new Frame
+                .Builder()
+                .setImageData(ByteBuffer.wrap(nv21), RAW_WIDTH, RAW_HEIGHT, ImageFormat.NV21)
+                .setRotation(rotation)
+                .build();
+    }
+
+    private static Face createFace(final float x, final float y, final float width, final float height) {
+        return createFace(7, x, y, width, height);
+    }
+
+    private static Face createFace(final int id, final float x, final float y, final float width, final float height) {
+        return new Face(
+                id,
+                new PointF(x, y),
+                width,
+                height,
+                0,
+                0,
+                new Landmark[]{new Landmark(new PointF(x + 10, y + 20), Landmark.LEFT_EYE)},
+                0.9f,
+                0.9f,
+                0);
+    }
+
+    private static byte[] getRow(final Frame frame, final int row, final int width) {
+        return getRow(frame, row, width, 0, width);
+    }
+
+    private static byte[] getRow(final Frame frame, final int row, final int frameWidth, final int left, final int width) {
+        final ByteBuffer luminance = frame.getGrayscaleImageData().duplicate();
+        luminance.position(row * frameWidth + left);
+        final byte[] pixels = new byte[width];
+        luminance.get(pixels);
+        return pixels;
+    }
+
+    /**
+     * Returns the faces added in turn, no face once they are used up.
+     */
+    private static class RecordingDetector extends Detector<Face> {
+
+        private final Deque<Face[]> faces = new ArrayDeque<>();
+        private final List<Frame> frames = new ArrayList<>();
+
+        @Override
+        public SparseArray<Face> detect(final Frame frame) {
+            // the crop buffer is reused for the next crop
+            final ByteBuffer luminance = frame.getGrayscaleImageData().duplicate();
+            final byte[] copy = new byte[luminance.remaining()];
+            luminance.get(copy);
+            this.frames.add(new Frame
+                    .Builder()
+                    .setImageData(ByteBuffer.wrap(copy), frame.getMetadata().getWidth(), frame.getMetadata().getHeight(), ImageFormat.NV21)
+                    .setRotation(frame.getMetadata().getRotation())
+                    .build());
+
+            final SparseArray<Face> detectedFaces = new SparseArray<>();
+            final Face[] nextFaces = this.faces.isEmpty() ? new Face[0] : this.faces.remove();
+            for (final Face face : nextFaces) {
+                detectedFaces.put(face.getId(), face);
+            }
+            return detectedFaces;
+        }
+
+        void addFaces(final Face... faces) {
+            this.faces.add(faces);
+        }
+
+        Frame getFrame(final int i) {
+            return this.frames.get(i);
+        }
+
+        List<Integer> getFrameWidths() {
+            final List<Integer> widths = new ArrayList<>();
+            for (final Frame frame : this.frames) {
+                widths.add(frame.getMetadata().getWidth());
+            }
+            return widths;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package de.drowsydriveralarm.detector;
+
+import android.graphics.ImageFormat;
+import android.graphics.PointF;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.face.Face;
+import com.google.android.gms.vision.face.Landmark;
+import com.google.common.eventbus.EventBus;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+
+import de.drowsydriveralarm.EventListener;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.DetectorStalledEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.eventproducer.DetectorStallWatchdog;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+// SparseArray and PointF are not usable in the unit tests on the JVM
+@RunWith(AndroidJUnit4.class)
+public class StallWatchingFaceDetectorTest {
+
+    private static final long FRAME_MILLIS = 33;
+
+    private EventListener listener;
+    private MockedClock clock;
+    private DetectorStallWatchdog watchdog;
+    private VisibleFaceDetector delegate;
+    private StallWatchingFaceDetector detector;
+
+    @Before
+    public void setup() {
+        final EventBus eventBus = new EventBus();
+        this.listener = new EventListener();
+        eventBus.register(this.listener);
+        this.clock = new MockedClock();
+        this.watchdog = new DetectorStallWatchdog(eventBus, this.clock, new Duration(FRAME_MILLIS), new Duration(1000));
+        this.delegate = new VisibleFaceDetector();
+        this.detector = new StallWatchingFaceDetector(this.delegate, this.watchdog);
+    }
+
+    @Test
+    public void shouldNotPostStalledEventWhileFramesWithoutFaceArrive() {
+        // Given
+        this.delegate.setFaceVisible(true);
+        this.detectFrames(0, 495);
+
+        // When
+        this.delegate.setFaceVisible(false);
+        this.detectFrames(495, 2970);
+
+        // Then
+        assertThat(this.listener.getEvents(), is(empty()));
+        assertThat(this.watchdog.getDroppedFrames(), is(0L));
+    }
+
+    @Test
+    public void shouldPostStalledEventWhenFramesStop() {
+        // Given
+        this.delegate.setFaceVisible(false);
+        this.detectFrames(0, 330);
+
+        // When
+        this.clock.setNow(new Instant(1297));
+        this.watchdog.onTick();
+
+        // Then
+        assertThat(this.listener.getEvents(), contains((Event) new DetectorStalledEvent(new Instant(297), new Duration(1000))));
+    }
+
+    private void detectFrames(final long fromMillis, final long toMillis) {
+        for (long millis = fromMillis; millis < toMillis; millis += FRAME_MILLIS) {
+            this.clock.setNow(new Instant(millis));
+            this.detector.detect(createFrame(millis));
+            this.watchdog.onTick();
+        }
+    }
+
+    private static Frame createFrame(final long timestampMillis) {
+        return new Frame
+                .Builder()
+                .setImageData(ByteBuffer.wrap(new byte[4 * 4 * 3 / 2]), 4, 4, ImageFormat.NV21)
+                .setTimestampMillis(timestampMillis)
+                .build();
+    }
+
+    private static class VisibleFaceDetector extends Detector<Face> {
+
+        private boolean faceVisible;
+
+        @Override
+        public SparseArray<Face> detect(final Frame frame) {
+            final SparseArray<Face> faces = new SparseArray<>();
+            if (this.faceVisible) {
+                faces.put(
+                        1,
+                        new Face(
+                                1,
+                                new PointF(100, 100),
+                                40,
+                                60,
+                                0,
+                                0,
+                                new Landmark[]{new Landmark(new PointF(110, 120), Landmark.LEFT_EYE)},
+                                0.9f,
+                                0.9f,
+                                0));
+            }
+            return faces;
+        }
+
+        void setFaceVisible(final boolean faceVisible) {
+            this.faceVisible = faceVisible;
+        }
+    }
+}
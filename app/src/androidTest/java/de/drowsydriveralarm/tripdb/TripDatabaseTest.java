@@ -0,0 +1,187 @@
+package de.drowsydriveralarm.tripdb;
+
+import android.content.Context;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.util.Log;
+
+import com.google.common.base.Optional;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.List;
+
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.PendingSlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(AndroidJUnit4.class)
+public class TripDatabaseTest {
+
+    private static final String TAG = "TripDatabaseTest";
+    private static final String DATABASE_NAME = "trips-test.db";
+    private static final long FRAME_MILLIS = 33;
+    private static final long FRAMES_PER_SECOND = 1000 / FRAME_MILLIS;
+    private static final Duration RETENTION = Duration.standardDays(1);
+
+    private Context context;
+    private MockedClock clock;
+
+    @Before
+    public void setup() {
+        this.context = InstrumentationRegistry.getTargetContext();
+        this.context.deleteDatabase(DATABASE_NAME);
+        this.clock = new MockedClock();
+    }
+
+    @After
+    public void teardown() {
+        this.context.deleteDatabase(DATABASE_NAME);
+    }
+
+    @Test
+    public void shouldWriteEventsFasterThanFrameRate() throws IOException {
+        // Given
+        final int frames = (int) (10 * 60 * FRAMES_PER_SECOND);
+        final TripDatabaseWriter tripDatabaseWriter = this.createTripDatabaseWriter(new Instant(0), frames);
+        tripDatabaseWriter.start();
+        tripDatabaseWriter.recordFrame(createFrameFeatures(0));
+
+        // When
+        final long startNanos = System.nanoTime();
+        for (int frame = 0; frame < frames; frame++) {
+            tripDatabaseWriter.recordSlowEyelidClosureEvent(new SlowEyelidClosureEvent(new Instant(frame * FRAME_MILLIS), new Duration(FRAME_MILLIS)));
+        }
+        tripDatabaseWriter.close();
+        final long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1000000);
+
+        // Then
+        final long eventsPerSecond = frames * 1000L / elapsedMillis;
+        Log.i(TAG, "wrote " + frames + " events in " + elapsedMillis + " ms, " + eventsPerSecond + " per second");
+        assertThat(tripDatabaseWriter.getDroppedEvents(), is(0L));
+        assertThat(tripDatabaseWriter.getWrittenEvents(), is((long) frames));
+        assertThat(eventsPerSecond, is(greaterThan(10 * FRAMES_PER_SECOND)));
+        assertThat(this.openTripDatabase().getSlowEyelidClosures(new Instant(0), new Instant(Long.MAX_VALUE)), hasSize(frames));
+    }
+
+    @Test
+    public void shouldQueryTimeRange() throws IOException {
+        // Given
+        this.clock.setNow(new Instant(5000));
+        final TripDatabaseWriter tripDatabaseWriter = this.createTripDatabaseWriter(new Instant(1000), 16);
+        tripDatabaseWriter.start();
+        tripDatabaseWriter.recordFrame(createFrameFeatures(5000));
+        tripDatabaseWriter.recordSlowEyelidClosureEvent(new SlowEyelidClosureEvent(new Instant(1500), new Duration(500)));
+        tripDatabaseWriter.recordSlowEyelidClosureEvent(new PendingSlowEyelidClosureEvent(new Instant(2500), new Duration(500)));
+        tripDatabaseWriter.recordSlowEyelidClosureEvent(new SlowEyelidClosureEvent(new Instant(2500), new Duration(600)));
+        tripDatabaseWriter.recordDrowsyEvent(new DrowsyEvent(new Instant(3000), 0.2));
+        tripDatabaseWriter.close();
+
+        // When
+        final TripDatabase tripDatabase = this.openTripDatabase();
+        final List<SlowEyelidClosureEvent> slowEyelidClosures = tripDatabase.getSlowEyelidClosures(new Instant(2000), new Instant(3000));
+        final List<DrowsyEvent> alarms = tripDatabase.getAlarms(new Instant(2000), new Instant(3001));
+        final List<Trip> trips = tripDatabase.getTrips(new Instant(0), new Instant(2000));
+
+        // Then
+        assertThat(slowEyelidClosures, contains(new SlowEyelidClosureEvent(new Instant(2500), new Duration(600))));
+        assertThat(alarms, contains(new DrowsyEvent(new Instant(3000), 0.2)));
+        assertThat(trips, contains(new Trip(new Instant(1000), Optional.of(new Instant(5000)))));
+    }
+
+    @Test
+    public void shouldDeleteWhatIsOlderThanRetention() throws IOException {
+        // Given
+        final TripDatabaseWriter oldTripDatabaseWriter = this.createTripDatabaseWriter(new Instant(0), 16);
+        oldTripDatabaseWriter.start();
+        oldTripDatabaseWriter.recordFrame(createFrameFeatures(0));
+        oldTripDatabaseWriter.recordDrowsyEvent(new DrowsyEvent(new Instant(1000), 0.2));
+        oldTripDatabaseWriter.close();
+
+        // When
+        final Instant now = new Instant(0).plus(RETENTION).plus(Duration.standardHours(1));
+        this.clock.setNow(now);
+        final TripDatabaseWriter tripDatabaseWriter = this.createTripDatabaseWriter(now, 16);
+        tripDatabaseWriter.start();
+        tripDatabaseWriter.close();
+
+        // Then
+        final TripDatabase tripDatabase = this.openTripDatabase();
+        assertThat(tripDatabase.getAlarms(new Instant(0), now), is(empty()));
+        assertThat(tripDatabase.getTrips(new Instant(0), new Instant(Long.MAX_VALUE)), contains(new Trip(now, Optional.of(now))));
+    }
+
+    @Test
+    public void shouldKeepEventsOfFrameTimeInWallClockTimeOnPrune() throws IOException {
+        // Given
+        // the frame timestamps are relative to the start of the camera, the clock is wall clock
+        final Instant tripStart = new Instant(1500000000000L);
+        this.clock.setNow(tripStart);
+        final TripDatabaseWriter tripDatabaseWriter = this.createTripDatabaseWriter(tripStart, 16);
+        for (long millis = 0; millis <= 2000; millis += FRAME_MILLIS) {
+            this.clock.setNow(tripStart.plus(millis));
+            tripDatabaseWriter.recordFrame(createFrameFeatures(1000 + millis));
+        }
+
+        // When
+        tripDatabaseWriter.recordSlowEyelidClosureEvent(new SlowEyelidClosureEvent(new Instant(2500), new Duration(500)));
+        tripDatabaseWriter.recordDrowsyEvent(new DrowsyEvent(new Instant(2980), 0.2));
+        tripDatabaseWriter.start();
+        tripDatabaseWriter.close();
+
+        // Then
+        final TripDatabase tripDatabase = this.openTripDatabase();
+        assertThat(
+                tripDatabase.getSlowEyelidClosures(new Instant(0), new Instant(Long.MAX_VALUE)),
+                contains(new SlowEyelidClosureEvent(tripStart.plus(1500), new Duration(500))));
+        assertThat(tripDatabase.getAlarms(new Instant(0), new Instant(Long.MAX_VALUE)), contains(new DrowsyEvent(tripStart.plus(1980), 0.2)));
+        assertThat(tripDatabaseWriter.getFailedWrites(), is(0L));
+    }
+
+    @Test
+    public void shouldDropEventsBeforeFirstFrame() throws IOException {
+        // Given
+        final TripDatabaseWriter tripDatabaseWriter = this.createTripDatabaseWriter(new Instant(0), 16);
+        tripDatabaseWriter.start();
+
+        // When
+        tripDatabaseWriter.recordDrowsyEvent(new DrowsyEvent(new Instant(1000), 0.2));
+        tripDatabaseWriter.close();
+
+        // Then
+        assertThat(tripDatabaseWriter.getDroppedEvents(), is(1L));
+        assertThat(this.openTripDatabase().getAlarms(new Instant(0), new Instant(Long.MAX_VALUE)), is(empty()));
+    }
+
+    private TripDatabaseWriter createTripDatabaseWriter(final Instant tripStart, final int capacity) {
+        return new TripDatabaseWriter(this.openTripDatabase(), tripStart, capacity, 256, Duration.millis(100), RETENTION, this.clock);
+    }
+
+    private static FrameFeatures createFrameFeatures(final long timestampMillis) {
+        return FrameFeatures
+                .builder()
+                .withTimestampMillis(timestampMillis)
+                .withLeftEyeRecognized(true)
+                .withRightEyeRecognized(true)
+                .build();
+    }
+
+    private TripDatabase openTripDatabase() {
+        return new TripDatabase(this.context, DATABASE_NAME);
+    }
+}
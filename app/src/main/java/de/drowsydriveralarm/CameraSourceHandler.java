@@ -6,26 +6,44 @@ import android.util.Log;
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.GoogleApiAvailability;
 import com.google.android.gms.vision.CameraSource;
-import com.google.android.gms.vision.face.FaceDetector;
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.face.Face;
 import com.google.android.gms.vision.face.LargestFaceFocusingProcessor;
 
 import java.io.IOException;
 
+import de.drowsydriveralarm.detector.StallWatchingFaceDetector;
+import de.drowsydriveralarm.eventproducer.VisionDrowsyEventDetector;
+
 import static android.content.ContentValues.TAG;
 
 class CameraSourceHandler {
 
     private static final int RC_HANDLE_GMS = 9001;
+    private static final long DEADLINE_TICK_PERIOD_MILLIS = 50;
 
     private final FaceTrackerActivity faceTrackerActivity;
     private CameraSource cameraSource;
+    private VisionDrowsyEventDetector drowsyEventDetector;
+    private DeadlineTicker deadlineTicker;
+    private Thread closingThread;
 
     public CameraSourceHandler(final FaceTrackerActivity faceTrackerActivity) {
         this.faceTrackerActivity = faceTrackerActivity;
     }
 
     public void createCameraSource() {
-        final FaceDetector detector = FaceDetectorFactory.createFaceDetector(this.faceTrackerActivity.getApplicationContext());
+        this.awaitPreviousDrowsyEventDetectorClosed();
+        final GraphicFaceTrackerFactory graphicFaceTrackerFactory = new GraphicFaceTrackerFactory(this.faceTrackerActivity);
+        this.drowsyEventDetector = graphicFaceTrackerFactory.createDrowsyEventDetector();
+        this.deadlineTicker = new DeadlineTicker(this.drowsyEventDetector, DEADLINE_TICK_PERIOD_MILLIS);
+        // the thresholds the calibrator adjusts while driving
+        final Detector<Face> detector =
+                new StallWatchingFaceDetector(
+                        FaceDetectorFactory.createCameraFaceDetector(
+                                this.faceTrackerActivity.getApplicationContext(),
+                                this.drowsyEventDetector.getDrowsyEventDetector().getEyeOpenProbabilityThresholds()),
+                        this.drowsyEventDetector.getDetectorStallWatchdog());
         if (!detector.isOperational()) {
             Log.w(TAG, "Face detector dependencies are not yet available.");
         }
@@ -33,7 +51,7 @@ class CameraSourceHandler {
         final LargestFaceFocusingProcessor processor =
                 new LargestFaceFocusingProcessor.Builder(
                         detector,
-                        new GraphicFaceTrackerFactory(this.faceTrackerActivity).createFaceTracker())
+                        graphicFaceTrackerFactory.createFaceTracker(this.drowsyEventDetector))
                 .build();
         detector.setProcessor(processor);
 
@@ -51,10 +69,15 @@ class CameraSourceHandler {
     }
 
     public void releaseCameraSource() {
+        this.stopDeadlineTicker();
         if (this.cameraSource != null) {
             this.cameraSource.release();
             this.cameraSource = null;
         }
+        if (this.drowsyEventDetector != null) {
+            this.closingThread = closeInBackground(this.drowsyEventDetector);
+            this.drowsyEventDetector = null;
+        }
     }
 
     public void startCameraSource() {
@@ -67,10 +90,50 @@ class CameraSourceHandler {
         if (this.getCameraSource() != null) {
             try {
                 this.faceTrackerActivity.getPreview().start(this.getCameraSource(), this.faceTrackerActivity.getGraphicOverlay());
+                this.deadlineTicker.start();
             } catch (final IOException e) {
                 Log.e(TAG, "Unable to start camera source.", e);
                 this.releaseCameraSource();
             }
         }
     }
+
+    public void stopDeadlineTicker() {
+        if (this.deadlineTicker != null) {
+            this.deadlineTicker.stop();
+        }
+    }
+
+    // closing waits for the recorders writing, which must not block the main thread
+    private static Thread closeInBackground(final VisionDrowsyEventDetector drowsyEventDetector) {
+        final Thread thread = new Thread(
+                new Runnable() {
+
+                    @Override
+                    public void run() {
+                        try {
+                            drowsyEventDetector.close();
+                        } catch (final IOException e) {
+                            Log.w(TAG, "Unable to close drowsy event detector.", e);
+                        }
+                    }
+                },
+                "CloseDrowsyEventDetector");
+        thread.start();
+        return thread;
+    }
+
+    // the recorders of the next detector open the same files, only blocks if resumed right after being paused
+    private void awaitPreviousDrowsyEventDetectorClosed() {
+        if (this.closingThread == null) {
+            return;
+        }
+
+        try {
+            this.closingThread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.closingThread = null;
+    }
 }
@@ -0,0 +1,48 @@
+package de.drowsydriveralarm;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import de.drowsydriveralarm.eventproducer.VisionDrowsyEventDetector;
+
+/**
+ * Ticks the {@link VisionDrowsyEventDetector} periodically, so its deadlines expire even if the camera delivers no frames.
+ */
+class DeadlineTicker {
+
+    private final VisionDrowsyEventDetector drowsyEventDetector;
+    private final long tickPeriodMillis;
+    private ScheduledExecutorService executor;
+
+    DeadlineTicker(final VisionDrowsyEventDetector drowsyEventDetector, final long tickPeriodMillis) {
+        this.drowsyEventDetector = drowsyEventDetector;
+        this.tickPeriodMillis = tickPeriodMillis;
+    }
+
+    public synchronized void start() {
+        if (this.executor != null) {
+            return;
+        }
+
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+        this.executor.scheduleAtFixedRate(
+                new Runnable() {
+
+                    @Override
+                    public void run() {
+                        DeadlineTicker.this.drowsyEventDetector.onTick();
+                    }
+                },
+                this.tickPeriodMillis,
+                this.tickPeriodMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+}
@@ -11,8 +11,14 @@ import com.google.common.eventbus.Subscribe;
 import de.drowsydriveralarm.event.AppActiveEvent;
 import de.drowsydriveralarm.event.AppIdleEvent;
 import de.drowsydriveralarm.event.AwakeEvent;
+import de.drowsydriveralarm.event.DetectorResumedEvent;
+import de.drowsydriveralarm.event.DetectorStalledEvent;
+import de.drowsydriveralarm.event.DrowsinessTrendEvent;
 import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.HeadNodEvent;
+import de.drowsydriveralarm.event.HeadSlumpEvent;
 import de.drowsydriveralarm.event.LikelyDrowsyEvent;
+import de.drowsydriveralarm.eventproducer.FaceFeatures;
 
 /**
  * Face tracker for each detected individual. This maintains a face graphic within the app's
@@ -25,6 +31,8 @@ class DisplayingGraphicFaceTracker extends Tracker<Face> {
     private final FaceGraphic faceGraphic;
     private final MediaPlayer mediaPlayer;
     private final FaceTrackerActivity faceTrackerActivity;
+    private final DrowsinessLight drowsinessLight = new DrowsinessLight();
+    private int appActiveIdleResource = R.drawable.red_light;
 
     DisplayingGraphicFaceTracker(final FaceTrackerActivity faceTrackerActivity) {
         this.faceGraphic = new FaceGraphic(faceTrackerActivity.getGraphicOverlay());
@@ -34,11 +42,13 @@ class DisplayingGraphicFaceTracker extends Tracker<Face> {
 
     @Subscribe
     public void onDrowsyEvent(final DrowsyEvent event) {
+        this.drowsinessLight.setLevel(DrowsinessLight.DROWSY);
+        final int lightResource = this.getDrowsinessLightResource();
         this.faceTrackerActivity.runOnUiThread(new Runnable() {
             @Override
             public void run() {
                 DisplayingGraphicFaceTracker.this.faceTrackerActivity.getEyesInfoView().setText("" + event);
-                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getDrowsinessView().setImageResource(R.drawable.red_light);
+                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getDrowsinessView().setImageResource(lightResource);
                 DisplayingGraphicFaceTracker.this.mediaPlayer.start();
             }
         });
@@ -46,42 +56,123 @@ class DisplayingGraphicFaceTracker extends Tracker<Face> {
 
     @Subscribe
     public void onLikelyDrowsyEvent(final LikelyDrowsyEvent event) {
+        this.drowsinessLight.setLevel(DrowsinessLight.LIKELY_DROWSY);
+        this.showDrowsiness("" + event);
+    }
+
+    /**
+     * Warns early by the yellow light, the drowsiness level itself has not changed yet.
+     */
+    @Subscribe
+    public void onDrowsinessTrendEvent(final DrowsinessTrendEvent event) {
+        this.drowsinessLight.onTrend(event);
+        this.showDrowsiness("" + event);
+    }
+
+    /**
+     * Only shows the nod, the {@code DrowsyEventProducer} raises the drowsiness level for it.
+     */
+    @Subscribe
+    public void onHeadNodEvent(final HeadNodEvent event) {
+        this.showEyesInfo("" + event);
+    }
+
+    /**
+     * Only shows the slump, the {@code DrowsyEventProducer} raises the drowsiness level to drowsy for it, which sounds
+     * the alarm.
+     */
+    @Subscribe
+    public void onHeadSlumpEvent(final HeadSlumpEvent event) {
+        this.showEyesInfo("" + event);
+    }
+
+    @Subscribe
+    public void onAwakeEvent(final AwakeEvent event) {
+        this.drowsinessLight.setLevel(DrowsinessLight.AWAKE);
+        this.showDrowsiness("" + event);
+    }
+
+    @Subscribe
+    public void onAppActiveEvent(final AppActiveEvent event) {
+        this.showAppActiveIdle(R.drawable.green_light);
+    }
+
+    @Subscribe
+    public void onAppIdleEvent(final AppIdleEvent event) {
+        this.showAppActiveIdle(R.drawable.red_light);
+    }
+
+    /**
+     * Without frames neither the eyes nor the app state are known anymore, so the active light must not stay green.
+     */
+    @Subscribe
+    public void onDetectorStalledEvent(final DetectorStalledEvent event) {
         this.faceTrackerActivity.runOnUiThread(new Runnable() {
             @Override
             public void run() {
                 DisplayingGraphicFaceTracker.this.faceTrackerActivity.getEyesInfoView().setText("" + event);
-                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getDrowsinessView().setImageResource(R.drawable.yellow_light);
+                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getAppActiveIdleView().setImageResource(R.drawable.yellow_light);
             }
         });
     }
 
     @Subscribe
-    public void onAwakeEvent(final AwakeEvent event) {
+    public void onDetectorResumedEvent(final DetectorResumedEvent event) {
         this.faceTrackerActivity.runOnUiThread(new Runnable() {
             @Override
             public void run() {
-                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getEyesInfoView().setText("" + event);
-                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getDrowsinessView().setImageResource(R.drawable.green_light);
+                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getAppActiveIdleView().setImageResource(DisplayingGraphicFaceTracker.this.appActiveIdleResource);
             }
         });
     }
 
-    @Subscribe
-    public void onAppActiveEvent(final AppActiveEvent event) {
+    private void showDrowsiness(final String text) {
+        final int lightResource = this.getDrowsinessLightResource();
         this.faceTrackerActivity.runOnUiThread(new Runnable() {
             @Override
             public void run() {
-                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getAppActiveIdleView().setImageResource(R.drawable.green_light);
+                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getEyesInfoView().setText(text);
+                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getDrowsinessView().setImageResource(lightResource);
             }
         });
     }
 
-    @Subscribe
-    public void onAppIdleEvent(final AppIdleEvent event) {
+    private void showEyesInfo(final String text) {
+        this.faceTrackerActivity.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getEyesInfoView().setText(text);
+            }
+        });
+    }
+
+    private void showDrowsinessLight() {
+        final int lightResource = this.getDrowsinessLightResource();
+        this.faceTrackerActivity.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getDrowsinessView().setImageResource(lightResource);
+            }
+        });
+    }
+
+    private int getDrowsinessLightResource() {
+        switch (this.drowsinessLight.getLight()) {
+            case DrowsinessLight.DROWSY:
+                return R.drawable.red_light;
+            case DrowsinessLight.LIKELY_DROWSY:
+                return R.drawable.yellow_light;
+            default:
+                return R.drawable.green_light;
+        }
+    }
+
+    private void showAppActiveIdle(final int resource) {
         this.faceTrackerActivity.runOnUiThread(new Runnable() {
             @Override
             public void run() {
-                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getAppActiveIdleView().setImageResource(R.drawable.red_light);
+                DisplayingGraphicFaceTracker.this.appActiveIdleResource = resource;
+                DisplayingGraphicFaceTracker.this.faceTrackerActivity.getAppActiveIdleView().setImageResource(resource);
             }
         });
     }
@@ -103,6 +194,7 @@ class DisplayingGraphicFaceTracker extends Tracker<Face> {
         Log.i(TAG, "onUpdate called");
         this.faceTrackerActivity.getGraphicOverlay().add(this.faceGraphic);
         this.faceGraphic.updateFace(face);
+        this.expireDrowsinessTrend(detectionResults);
     }
 
     /**
@@ -114,6 +206,13 @@ class DisplayingGraphicFaceTracker extends Tracker<Face> {
     public void onMissing(final FaceDetector.Detections<Face> detectionResults) {
         Log.i(TAG, "onMissing called");
         this.faceTrackerActivity.getGraphicOverlay().remove(this.faceGraphic);
+        this.expireDrowsinessTrend(detectionResults);
+    }
+
+    private void expireDrowsinessTrend(final FaceDetector.Detections<Face> detectionResults) {
+        if (this.drowsinessLight.onFrame(FaceFeatures.getInstantOf(detectionResults).getMillis())) {
+            this.showDrowsinessLight();
+        }
     }
 
     /**
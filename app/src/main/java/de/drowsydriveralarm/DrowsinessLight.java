@@ -0,0 +1,46 @@
+package de.drowsydriveralarm;
+
+import de.drowsydriveralarm.event.DrowsinessTrendEvent;
+
+/**
+ * The drowsiness the light shows: the drowsiness level, but at least likely drowsy while a
+ * {@link DrowsinessTrendEvent} warns that PERCLOS is rising towards drowsy.
+ * <p>
+ * The trend is reported once per rise, so the warning holds until the drowsy threshold would have been reached,
+ * or until the level changes. Frames are timed by their timestamps like the events.
+ */
+class DrowsinessLight {
+
+    static final int AWAKE = 0;
+    static final int LIKELY_DROWSY = 1;
+    static final int DROWSY = 2;
+
+    private int level = AWAKE;
+    private boolean trending;
+    private long trendUntilMillis;
+
+    synchronized void setLevel(final int level) {
+        this.level = level;
+        this.trending = false;
+    }
+
+    synchronized void onTrend(final DrowsinessTrendEvent event) {
+        this.trending = true;
+        this.trendUntilMillis = event.getInstant().getMillis() + event.getTimeToDrowsy().getMillis();
+    }
+
+    /**
+     * @return whether the light changed as the trend warning expired
+     */
+    synchronized boolean onFrame(final long frameMillis) {
+        if (this.trending && frameMillis >= this.trendUntilMillis) {
+            this.trending = false;
+            return this.level < LIKELY_DROWSY;
+        }
+        return false;
+    }
+
+    synchronized int getLight() {
+        return Math.max(this.level, this.trending ? LIKELY_DROWSY : AWAKE);
+    }
+}
@@ -2,17 +2,64 @@ package de.drowsydriveralarm;
 
 import android.content.Context;
 
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.face.Face;
 import com.google.android.gms.vision.face.FaceDetector;
 
+import de.drowsydriveralarm.detector.FrameSkippingFaceDetector;
+import de.drowsydriveralarm.detector.RegionOfInterestFaceDetector;
+import de.drowsydriveralarm.eventproducer.EyeOpenProbabilityThresholds;
+
 public class FaceDetectorFactory {
 
-    public static FaceDetector createFaceDetector(final Context context) {
+    private static final float FACE_REGION_PADDING = 0.5f;
+    private static final int FULL_FRAME_INTERVAL = 10;
+    private static final int OPEN_EYES_FRAME_INTERVAL = 3;
+    private static final int STABLE_OPEN_EYES_FRAMES = 5;
+
+    /**
+     * Detector for the frames of the camera as used by the app: detects on crops around the face, see
+     * {@link RegionOfInterestFaceDetector}, and skips frames while the eyes are stably open, see
+     * {@link FrameSkippingFaceDetector}.
+     * <p>
+     * The crops change in size and position from frame to frame and alternate with full frames, which would break
+     * the tracking of the Vision detector, so it detects every frame from scratch without tracking or prominence, and
+     * the {@code RegionOfInterestFaceDetector} tracks the largest face itself.
+     */
+    public static Detector<Face> createCameraFaceDetector(final Context context, final EyeOpenProbabilityThresholds eyeOpenProbabilityThresholds) {
+        return new FrameSkippingFaceDetector(
+                new RegionOfInterestFaceDetector(
+                        createFaceDetector(context, false, false),
+                        FACE_REGION_PADDING,
+                        FULL_FRAME_INTERVAL),
+                eyeOpenProbabilityThresholds,
+                OPEN_EYES_FRAME_INTERVAL,
+                STABLE_OPEN_EYES_FRAMES);
+    }
+
+    /**
+     * Detector for the full frames of a camera: faces are tracked from frame to frame, which lets the detector
+     * search near the face's last position and keeps the face id stable.
+     */
+    public static FaceDetector createVideoFaceDetector(final Context context) {
+        return createFaceDetector(context, true, true);
+    }
+
+    /**
+     * Detector for unrelated still images (e.g. in tests): every image is detected from scratch, tracking would
+     * mistake two images for consecutive frames of the same scene.
+     */
+    public static FaceDetector createStillImageFaceDetector(final Context context) {
+        return createFaceDetector(context, false, true);
+    }
+
+    private static FaceDetector createFaceDetector(final Context context, final boolean trackingEnabled, final boolean prominentFaceOnly) {
         return new FaceDetector
                 .Builder(context)
                 .setClassificationType(FaceDetector.ALL_CLASSIFICATIONS)
                 .setMode(FaceDetector.ACCURATE_MODE)
-                .setTrackingEnabled(false) // true hat im Test nicht funktioniert, wo Einzelbilder statt Videos verwendet werden
-                .setProminentFaceOnly(true)
+                .setTrackingEnabled(trackingEnabled)
+                .setProminentFaceOnly(prominentFaceOnly)
                 .build();
     }
 }
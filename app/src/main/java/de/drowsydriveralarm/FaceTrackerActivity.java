@@ -110,6 +110,7 @@ public final class FaceTrackerActivity extends AppCompatActivity {
     protected void onPause() {
         super.onPause();
         this.preview.stop();
+        this.cameraSourceHandler.stopDeadlineTicker();
     }
 
     @Override
@@ -6,44 +6,149 @@ import android.util.Log;
 
 import com.google.android.gms.vision.Tracker;
 import com.google.android.gms.vision.face.Face;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import java.io.File;
+import java.io.IOException;
 
-import de.drowsydriveralarm.eventproducer.DrowsyEventDetector;
 import de.drowsydriveralarm.eventproducer.DrowsyEventDetectorConfig;
 import de.drowsydriveralarm.eventproducer.FaceTrackingActiveAndIdleEventProducer;
-import de.drowsydriveralarm.eventproducer.IDrowsyEventDetectorConfig;
 import de.drowsydriveralarm.eventproducer.TestingDrowsyEventDetectorConfig;
+import de.drowsydriveralarm.eventproducer.VisionDrowsyEventDetector;
+import de.drowsydriveralarm.history.TripRecorder;
+import de.drowsydriveralarm.history.TripStore;
+import de.drowsydriveralarm.journal.EventJournalWriter;
+import de.drowsydriveralarm.recorder.FlightRecorder;
+import de.drowsydriveralarm.rollup.DrowsinessRollups;
+import de.drowsydriveralarm.tripdb.TripDatabase;
+import de.drowsydriveralarm.tripdb.TripDatabaseWriter;
 
 class GraphicFaceTrackerFactory {
 
     private static final String TAG = "FaceTrackerFactory";
+    private static final String EVENT_JOURNAL_FILE = "events.journal";
+    private static final long EVENT_JOURNAL_MAX_BYTES = 4 * 1024 * 1024;
+    private static final Duration EVENT_JOURNAL_FLUSH_INTERVAL = Duration.standardSeconds(5);
+    private static final String FLIGHT_RECORDINGS_DIRECTORY = "flight-recordings";
+    private static final int FLIGHT_RECORDINGS_MAX_DUMPS = 20;
+    private static final Duration FLIGHT_RECORDER_WINDOW = Duration.standardSeconds(30);
+    // the window at 30 frames per second
+    private static final int FLIGHT_RECORDER_FRAMES = 1024;
+    private static final int FLIGHT_RECORDER_EVENTS = 256;
+    private static final String TRIPS_DIRECTORY = "trips";
+    // about 36 minutes at 30 frames per second
+    private static final int TRIP_SEGMENT_FRAMES = 64 * 1024;
+    private static final String ROLLUPS_FILE = "drowsiness.rollups";
+    private static final int TRIP_DATABASE_CAPACITY = 1024;
+    private static final int TRIP_DATABASE_MAX_BATCH_EVENTS = 256;
+    private static final Duration TRIP_DATABASE_BATCH_INTERVAL = Duration.standardSeconds(1);
+    private static final Duration TRIP_DATABASE_RETENTION = Duration.standardDays(365);
 
     private final FaceTrackerActivity faceTrackerActivity;
+    private final TestingDrowsyEventDetectorConfig configFactory;
+    private final SystemClock clock = new SystemClock();
 
     public GraphicFaceTrackerFactory(final FaceTrackerActivity faceTrackerActivity) {
         this.faceTrackerActivity = faceTrackerActivity;
+        this.configFactory = new TestingDrowsyEventDetectorConfig(PreferenceManager.getDefaultSharedPreferences(faceTrackerActivity));
     }
 
     @NonNull
-    public Tracker<Face> createFaceTracker() {
-        final IDrowsyEventDetectorConfig configFactory = new TestingDrowsyEventDetectorConfig(PreferenceManager.getDefaultSharedPreferences(this.faceTrackerActivity));
+    public VisionDrowsyEventDetector createDrowsyEventDetector() {
         final DrowsyEventDetectorConfig drowsyEventDetectorConfig = DrowsyEventDetectorConfig
                 .builder()
-                .withEyeOpenProbabilityThreshold(configFactory.getEyeOpenProbabilityThreshold())
-                .withConfig(configFactory.getConfig())
-                .withSlowEyelidClosureMinDuration(configFactory.getSlowEyelidClosureMinDuration())
-                .withTimeWindow(configFactory.getTimeWindow())
+                .withEyeOpenProbabilityThreshold(this.configFactory.getEyeOpenProbabilityThreshold())
+                .withConfig(this.configFactory.getConfig())
+                .withSlowEyelidClosureMinDuration(this.configFactory.getSlowEyelidClosureMinDuration())
+                .withTimeWindow(this.configFactory.getTimeWindow())
+                .withReorderLatencyBudget(this.configFactory.getReorderLatencyBudget())
+                .withCalibrationDuration(this.configFactory.getCalibrationDuration())
+                .withEyeOpenProbabilityFilter(this.configFactory.getEyeOpenProbabilityFilter())
                 .build();
         Log.i(TAG, "" + drowsyEventDetectorConfig);
-        final SystemClock clock = new SystemClock();
-        final DrowsyEventDetector drowsyEventDetector = new DrowsyEventDetector(drowsyEventDetectorConfig, true, clock);
+        final Instant tripStart = this.clock.now();
+        final ImmutableList<FrameRecorder> frameRecorders =
+                ImmutableList
+                        .<FrameRecorder> builder()
+                        .add(this.createFlightRecorder())
+                        .addAll(this.startTrip(tripStart).asSet())
+                        .addAll(this.openDrowsinessRollups().asSet())
+                        .add(this.startTripDatabaseWriter(tripStart))
+                        .build();
+        return new VisionDrowsyEventDetector(
+                drowsyEventDetectorConfig,
+                frameRecorders,
+                ImmutableList.copyOf(this.createEventJournalWriter().asSet()),
+                this.clock);
+    }
+
+    private FlightRecorder createFlightRecorder() {
+        return new FlightRecorder(
+                new File(this.faceTrackerActivity.getFilesDir(), FLIGHT_RECORDINGS_DIRECTORY),
+                FLIGHT_RECORDINGS_MAX_DUMPS,
+                FLIGHT_RECORDER_WINDOW,
+                FLIGHT_RECORDER_FRAMES,
+                FLIGHT_RECORDER_EVENTS);
+    }
+
+    private Optional<TripRecorder> startTrip(final Instant tripStart) {
+        final TripStore tripStore = new TripStore(new File(this.faceTrackerActivity.getFilesDir(), TRIPS_DIRECTORY), TRIP_SEGMENT_FRAMES, EVENT_JOURNAL_FLUSH_INTERVAL);
+        try {
+            return Optional.of(tripStore.startTrip(tripStart.getMillis()));
+        } catch (final IOException e) {
+            Log.w(TAG, "Unable to start trip.", e);
+            return Optional.absent();
+        }
+    }
 
+    private TripDatabaseWriter startTripDatabaseWriter(final Instant tripStart) {
+        final TripDatabaseWriter tripDatabaseWriter =
+                new TripDatabaseWriter(
+                        new TripDatabase(this.faceTrackerActivity.getApplicationContext(), TripDatabase.DATABASE_NAME),
+                        tripStart,
+                        TRIP_DATABASE_CAPACITY,
+                        TRIP_DATABASE_MAX_BATCH_EVENTS,
+                        TRIP_DATABASE_BATCH_INTERVAL,
+                        TRIP_DATABASE_RETENTION,
+                        this.clock);
+        tripDatabaseWriter.start();
+        return tripDatabaseWriter;
+    }
+
+    private Optional<DrowsinessRollups> openDrowsinessRollups() {
+        try {
+            return Optional.of(new DrowsinessRollups(new File(this.faceTrackerActivity.getFilesDir(), ROLLUPS_FILE), this.clock));
+        } catch (final IOException e) {
+            Log.w(TAG, "Unable to open drowsiness rollups.", e);
+            return Optional.absent();
+        }
+    }
+
+    private Optional<EventJournalWriter> createEventJournalWriter() {
+        try {
+            return Optional.of(new EventJournalWriter(new File(this.faceTrackerActivity.getFilesDir(), EVENT_JOURNAL_FILE), EVENT_JOURNAL_MAX_BYTES, EVENT_JOURNAL_FLUSH_INTERVAL));
+        } catch (final IOException e) {
+            Log.w(TAG, "Unable to open event journal.", e);
+            return Optional.absent();
+        }
+    }
+
+    @NonNull
+    public Tracker<Face> createFaceTracker(final VisionDrowsyEventDetector drowsyEventDetector) {
         final Tracker<Face> tracker = new DisplayingGraphicFaceTracker(this.faceTrackerActivity);
         drowsyEventDetector.getEventBus().register(tracker);
 
-        return new CompositeFaceTracker(
+        // the reorder buffer in front of all trackers, so none sees time going backwards
+        return drowsyEventDetector.createFaceTracker(
                 new CompositeFaceTracker(
-                        drowsyEventDetector.getEventProducingGraphicFaceTracker(),
-                        tracker),
-                new FaceTrackingActiveAndIdleEventProducer(drowsyEventDetector.getEventBus(), clock));
+                        tracker,
+                        new FaceTrackingActiveAndIdleEventProducer(
+                                drowsyEventDetector.getEventBus(),
+                                this.clock,
+                                this.configFactory.getAppStateHoldTime())));
     }
 }
@@ -184,6 +184,14 @@ public class SettingsActivity extends AppCompatPreferenceActivity {
             bindPreferenceSummaryToValue(this.findPreference("eyeOpenProbabilityThreshold"));
             bindPreferenceSummaryToValue(this.findPreference("likelyDrowsyThreshold"));
             bindPreferenceSummaryToValue(this.findPreference("timeWindow"));
+            bindPreferenceSummaryToValue(this.findPreference("appStateHoldTime"));
+            bindPreferenceSummaryToValue(this.findPreference("drowsyExitThreshold"));
+            bindPreferenceSummaryToValue(this.findPreference("likelyDrowsyExitThreshold"));
+            bindPreferenceSummaryToValue(this.findPreference("drowsinessLevelMinDwell"));
+            bindPreferenceSummaryToValue(this.findPreference("reorderLatencyBudget"));
+            bindPreferenceSummaryToValue(this.findPreference("calibrationDuration"));
+            bindPreferenceSummaryToValue(this.findPreference("eyeOpenProbabilityFilter"));
+            bindPreferenceSummaryToValue(this.findPreference("drowsinessTrendHorizon"));
 
             final Preference resetButton = this.findPreference("reset");
             resetButton.setOnPreferenceClickListener(new Preference.OnPreferenceClickListener() {
@@ -210,6 +218,14 @@ public class SettingsActivity extends AppCompatPreferenceActivity {
                     this.updatePreferenceSummary(preferences, "eyeOpenProbabilityThreshold");
                     this.updatePreferenceSummary(preferences, "likelyDrowsyThreshold");
                     this.updatePreferenceSummary(preferences, "timeWindow");
+                    this.updatePreferenceSummary(preferences, "appStateHoldTime");
+                    this.updatePreferenceSummary(preferences, "drowsyExitThreshold");
+                    this.updatePreferenceSummary(preferences, "likelyDrowsyExitThreshold");
+                    this.updatePreferenceSummary(preferences, "drowsinessLevelMinDwell");
+                    this.updatePreferenceSummary(preferences, "reorderLatencyBudget");
+                    this.updatePreferenceSummary(preferences, "calibrationDuration");
+                    this.updatePreferenceSummary(preferences, "eyeOpenProbabilityFilter");
+                    this.updatePreferenceSummary(preferences, "drowsinessTrendHorizon");
                 }
 
                 private void updatePreferenceSummary(final SharedPreferences preferences, final String key) {
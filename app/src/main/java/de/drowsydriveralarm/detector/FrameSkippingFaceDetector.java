@@ -0,0 +1,119 @@
+package de.drowsydriveralarm.detector;
+
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.face.Face;
+import com.google.android.gms.vision.face.Landmark;
+
+import de.drowsydriveralarm.eventproducer.EyeOpenProbabilityThresholds;
+
+/**
+ * Runs the wrapped detector on every frame while the eyes may be closing or closed, but only on every
+ * {@code openFrameInterval}-th frame once the eyes have been open for {@code stableOpenFrames} detections in a row.
+ * <p>
+ * A skipped frame reports the faces of the last detection again, but with their eye open probabilities
+ * {@link Face#UNCOMPUTED_PROBABILITY}. So trackers get an update carrying the timestamp of the skipped frame instead
+ * of a missing face, which would be taken for the driver leaving the camera, and the eyes are unknown instead of
+ * open for the skipped frames. If the next detection finds the eyes closed, the {@code EyesClosedEventProducer}
+ * back-dates the closure to the first skipped frame, so the durations of {@code DurationEventProducer} and the timing
+ * of {@code PendingSlowEyelidClosureEventProducer} are not shortened. From then on every frame is detected until the
+ * eyes are stably open again.
+ * <p>
+ * The eyes are open if both probabilities are at least the current thresholds of the eyes, which the
+ * {@code EyeOpenProbabilityCalibrator} may change while driving.
+ */
+public class FrameSkippingFaceDetector extends Detector<Face> {
+
+    private final Detector<Face> delegate;
+    private final EyeOpenProbabilityThresholds eyeOpenProbabilityThresholds;
+    private final int openFrameInterval;
+    private final int stableOpenFrames;
+
+    private SparseArray<Face> lastFaces;
+    private SparseArray<Face> lastFacesWithUnknownEyes;
+    private int consecutiveOpenDetections;
+    private int framesSinceDetection;
+
+    public FrameSkippingFaceDetector(final Detector<Face> delegate, final EyeOpenProbabilityThresholds eyeOpenProbabilityThresholds, final int openFrameInterval, final int stableOpenFrames) {
+        this.delegate = delegate;
+        this.eyeOpenProbabilityThresholds = eyeOpenProbabilityThresholds;
+        this.openFrameInterval = openFrameInterval;
+        this.stableOpenFrames = stableOpenFrames;
+    }
+
+    @Override
+    public SparseArray<Face> detect(final Frame frame) {
+        if (this.shallSkip()) {
+            this.framesSinceDetection++;
+            if (this.lastFacesWithUnknownEyes == null) {
+                this.lastFacesWithUnknownEyes = withUnknownEyes(this.lastFaces);
+            }
+            return this.lastFacesWithUnknownEyes;
+        }
+
+        this.lastFaces = this.delegate.detect(frame);
+        this.lastFacesWithUnknownEyes = null;
+        this.framesSinceDetection = 0;
+        this.consecutiveOpenDetections = this.areEyesOpen(this.lastFaces) ? this.consecutiveOpenDetections + 1 : 0;
+        return this.lastFaces;
+    }
+
+    @Override
+    public boolean isOperational() {
+        return this.delegate.isOperational();
+    }
+
+    @Override
+    public boolean setFocus(final int id) {
+        return this.delegate.setFocus(id);
+    }
+
+    @Override
+    public void release() {
+        super.release();
+        this.delegate.release();
+    }
+
+    private boolean shallSkip() {
+        return this.consecutiveOpenDetections >= this.stableOpenFrames && this.framesSinceDetection < this.openFrameInterval - 1;
+    }
+
+    private boolean areEyesOpen(final SparseArray<Face> faces) {
+        if (faces.size() == 0) {
+            return false;
+        }
+
+        final float leftEyeThreshold = this.eyeOpenProbabilityThresholds.getLeftEyeThreshold();
+        final float rightEyeThreshold = this.eyeOpenProbabilityThresholds.getRightEyeThreshold();
+        for (int i = 0; i < faces.size(); i++) {
+            final Face face = faces.valueAt(i);
+            if (face.getIsLeftEyeOpenProbability() < leftEyeThreshold || face.getIsRightEyeOpenProbability() < rightEyeThreshold) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static SparseArray<Face> withUnknownEyes(final SparseArray<Face> faces) {
+        final SparseArray<Face> facesWithUnknownEyes = new SparseArray<>(faces.size());
+        for (int i = 0; i < faces.size(); i++) {
+            final Face face = faces.valueAt(i);
+            facesWithUnknownEyes.append(
+                    faces.keyAt(i),
+                    new Face(
+                            face.getId(),
+                            face.getPosition(),
+                            face.getWidth(),
+                            face.getHeight(),
+                            face.getEulerY(),
+                            face.getEulerZ(),
+                            face.getLandmarks().toArray(new Landmark[0]),
+                            Face.UNCOMPUTED_PROBABILITY,
+                            Face.UNCOMPUTED_PROBABILITY,
+                            face.getIsSmilingProbability()));
+        }
+        return facesWithUnknownEyes;
+    }
+}
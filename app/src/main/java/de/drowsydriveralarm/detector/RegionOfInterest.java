@@ -0,0 +1,133 @@
+package de.drowsydriveralarm.detector;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * Integer rectangle [left, right) x [top, bottom) within a frame.
+ * <p>
+ * Rotations are given as the number of clockwise quarter turns which bring the raw camera image upright
+ * (the value of {@link com.google.android.gms.vision.Frame.Metadata#getRotation()}). Faces are reported in
+ * upright coordinates while the image data of a frame is stored unrotated.
+ */
+class RegionOfInterest {
+
+    private final int left;
+    private final int top;
+    private final int right;
+    private final int bottom;
+
+    RegionOfInterest(final int left, final int top, final int right, final int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    static RegionOfInterest fromFace(final float x, final float y, final float width, final float height, final float padding, final int frameWidth, final int frameHeight) {
+        final float paddingX = width * padding;
+        final float paddingY = height * padding;
+        return new RegionOfInterest(
+                (int) Math.floor(x - paddingX),
+                (int) Math.floor(y - paddingY),
+                (int) Math.ceil(x + width + paddingX),
+                (int) Math.ceil(y + height + paddingY))
+                .clampTo(frameWidth, frameHeight);
+    }
+
+    public int getLeft() {
+        return this.left;
+    }
+
+    public int getTop() {
+        return this.top;
+    }
+
+    public int getWidth() {
+        return this.right - this.left;
+    }
+
+    public int getHeight() {
+        return this.bottom - this.top;
+    }
+
+    public boolean isEmpty() {
+        return this.getWidth() <= 0 || this.getHeight() <= 0;
+    }
+
+    RegionOfInterest clampTo(final int frameWidth, final int frameHeight) {
+        return new RegionOfInterest(
+                clamp(this.left, frameWidth),
+                clamp(this.top, frameHeight),
+                clamp(this.right, frameWidth),
+                clamp(this.bottom, frameHeight));
+    }
+
+    /**
+     * NV21 stores chroma subsampled by two in both directions, so crops must start and end on even pixels.
+     */
+    RegionOfInterest alignToEven(final int frameWidth, final int frameHeight) {
+        return new RegionOfInterest(
+                this.left & ~1,
+                this.top & ~1,
+                Math.min((this.right + 1) & ~1, frameWidth & ~1),
+                Math.min((this.bottom + 1) & ~1, frameHeight & ~1));
+    }
+
+    RegionOfInterest toRaw(final int rotation, final int rawWidth, final int rawHeight) {
+        switch (rotation) {
+            case 1:
+                return normalized(this.top, rawHeight - this.left, this.bottom, rawHeight - this.right);
+            case 2:
+                return normalized(rawWidth - this.left, rawHeight - this.top, rawWidth - this.right, rawHeight - this.bottom);
+            case 3:
+                return normalized(rawWidth - this.top, this.left, rawWidth - this.bottom, this.right);
+            default:
+                return this;
+        }
+    }
+
+    RegionOfInterest toUpright(final int rotation, final int rawWidth, final int rawHeight) {
+        switch (rotation) {
+            case 1:
+                return normalized(rawHeight - this.top, this.left, rawHeight - this.bottom, this.right);
+            case 2:
+                return normalized(rawWidth - this.left, rawHeight - this.top, rawWidth - this.right, rawHeight - this.bottom);
+            case 3:
+                return normalized(this.top, rawWidth - this.left, this.bottom, rawWidth - this.right);
+            default:
+                return this;
+        }
+    }
+
+    private static RegionOfInterest normalized(final int x1, final int y1, final int x2, final int y2) {
+        return new RegionOfInterest(Math.min(x1, x2), Math.min(y1, y2), Math.max(x1, x2), Math.max(y1, y2));
+    }
+
+    private static int clamp(final int value, final int max) {
+        return Math.max(0, Math.min(value, max));
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        final RegionOfInterest that = (RegionOfInterest) o;
+        return this.left == that.left && this.top == that.top && this.right == that.right && this.bottom == that.bottom;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.left, this.top, this.right, this.bottom);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("left", this.left)
+                .add("top", this.top)
+                .add("right", this.right)
+                .add("bottom", this.bottom)
+                .toString();
+    }
+}
@@ -0,0 +1,200 @@
+package de.drowsydriveralarm.detector;
+
+import android.graphics.ImageFormat;
+import android.graphics.PointF;
+import android.support.annotation.NonNull;
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.face.Face;
+import com.google.android.gms.vision.face.Landmark;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Detects faces on a padded crop around the face found in the previous frame instead of on the whole frame.
+ * <p>
+ * A full frame is detected every {@code fullFrameInterval} frames, whenever no face is known and whenever the
+ * crop does not contain a face anymore. Faces found within a crop are translated back into the coordinates of
+ * the full frame, so trackers downstream (e.g. {@code FaceGraphic}) see no difference.
+ * <p>
+ * Only the largest face is reported. As the wrapped detector sees crops of changing size alternating with full
+ * frames, it cannot track faces, so it is expected to detect every frame from scratch, and this detector tracks
+ * the face itself: the face keeps its id as long as every frame contains a face, and gets a new id after a frame
+ * without face, so a {@code FocusingProcessor} sees the face missing and found again as a new face.
+ */
+public class RegionOfInterestFaceDetector extends Detector<Face> {
+
+    private static final byte NEUTRAL_CHROMA = (byte) 128;
+
+    private final Detector<Face> delegate;
+    private final float padding;
+    private final int fullFrameInterval;
+
+    private RegionOfInterest faceRegion;
+    private boolean faceTracked;
+    private int faceId;
+    private int framesSinceFullFrameDetection;
+    private byte[] cropBuffer = new byte[0];
+
+    /**
+     * @param padding           fraction of the face's width (height) added to the left and right (top and bottom) of the crop
+     * @param fullFrameInterval maximum number of frames between two full frame detections
+     */
+    public RegionOfInterestFaceDetector(final Detector<Face> delegate, final float padding, final int fullFrameInterval) {
+        this.delegate = delegate;
+        this.padding = padding;
+        this.fullFrameInterval = fullFrameInterval;
+    }
+
+    @Override
+    public SparseArray<Face> detect(final Frame frame) {
+        Face face = this.shallDetectOnFullFrame() ? null : this.detectOnFaceRegion(frame);
+        if (face == null) {
+            face = this.detectOnFullFrame(frame);
+        }
+        return this.track(face, frame.getMetadata());
+    }
+
+    @Override
+    public boolean isOperational() {
+        return this.delegate.isOperational();
+    }
+
+    @Override
+    public boolean setFocus(final int id) {
+        return this.delegate.setFocus(id);
+    }
+
+    @Override
+    public void release() {
+        super.release();
+        this.delegate.release();
+    }
+
+    private boolean shallDetectOnFullFrame() {
+        return this.faceRegion == null || this.framesSinceFullFrameDetection >= this.fullFrameInterval;
+    }
+
+    private Face detectOnFullFrame(final Frame frame) {
+        this.framesSinceFullFrameDetection = 0;
+        return getLargestFace(this.delegate.detect(frame));
+    }
+
+    private Face detectOnFaceRegion(final Frame frame) {
+        final Frame.Metadata metadata = frame.getMetadata();
+        final int rotation = metadata.getRotation();
+        final RegionOfInterest rawRegion =
+                this.faceRegion
+                        .toRaw(rotation, metadata.getWidth(), metadata.getHeight())
+                        .alignToEven(metadata.getWidth(), metadata.getHeight());
+        if (rawRegion.isEmpty()) {
+            return null;
+        }
+
+        final RegionOfInterest uprightRegion = rawRegion.toUpright(rotation, metadata.getWidth(), metadata.getHeight());
+        final Face face = getLargestFace(this.delegate.detect(this.crop(frame, rawRegion)));
+        this.framesSinceFullFrameDetection++;
+        // a face region is only known while the face is tracked
+        return face == null ? null : translate(face, this.faceId, uprightRegion.getLeft(), uprightRegion.getTop());
+    }
+
+    private Frame crop(final Frame frame, final RegionOfInterest rawRegion) {
+        final Frame.Metadata metadata = frame.getMetadata();
+        final ByteBuffer luminance = frame.getGrayscaleImageData().duplicate();
+        final int width = rawRegion.getWidth();
+        final int height = rawRegion.getHeight();
+        final int size = width * height * 3 / 2;
+        if (this.cropBuffer.length < size) {
+            this.cropBuffer = new byte[size];
+        }
+        for (int row = 0; row < height; row++) {
+            luminance.position((rawRegion.getTop() + row) * metadata.getWidth() + rawRegion.getLeft());
+            luminance.get(this.cropBuffer, row * width, width);
+        }
+        Arrays.fill(this.cropBuffer, width * height, size, NEUTRAL_CHROMA);
+
+        return new Frame
+                .Builder()
+                .setImageData(ByteBuffer.wrap(this.cropBuffer, 0, size), width, height, ImageFormat.NV21)
+                .setId(metadata.getId())
+                .setTimestampMillis(metadata.getTimestampMillis())
+                .setRotation(metadata.getRotation())
+                .build();
+    }
+
+    private SparseArray<Face> track(final Face face, final Frame.Metadata metadata) {
+        final SparseArray<Face> faces = new SparseArray<>(1);
+        if (face == null) {
+            this.faceRegion = null;
+            this.faceTracked = false;
+            return faces;
+        }
+
+        if (!this.faceTracked) {
+            this.faceId++;
+            this.faceTracked = true;
+        }
+        this.rememberFaceRegion(face, metadata);
+        faces.append(this.faceId, face.getId() == this.faceId ? face : translate(face, this.faceId, 0, 0));
+        return faces;
+    }
+
+    private void rememberFaceRegion(final Face face, final Frame.Metadata metadata) {
+        final boolean rotatedByQuarterTurn = metadata.getRotation() % 2 == 1;
+        final RegionOfInterest region =
+                RegionOfInterest.fromFace(
+                        face.getPosition().x,
+                        face.getPosition().y,
+                        face.getWidth(),
+                        face.getHeight(),
+                        this.padding,
+                        rotatedByQuarterTurn ? metadata.getHeight() : metadata.getWidth(),
+                        rotatedByQuarterTurn ? metadata.getWidth() : metadata.getHeight());
+        this.faceRegion = region.isEmpty() ? null : region;
+    }
+
+    private static Face getLargestFace(final SparseArray<Face> faces) {
+        Face largestFace = null;
+        for (int i = 0; i < faces.size(); i++) {
+            final Face face = faces.valueAt(i);
+            if (largestFace == null || face.getWidth() * face.getHeight() > largestFace.getWidth() * largestFace.getHeight()) {
+                largestFace = face;
+            }
+        }
+        return largestFace;
+    }
+
+    @NonNull
+    private static Face translate(final Face face, final int id, final float dx, final float dy) {
+        return new Face(
+                id,
+                translate(face.getPosition(), dx, dy),
+                face.getWidth(),
+                face.getHeight(),
+                face.getEulerY(),
+                face.getEulerZ(),
+                translate(face.getLandmarks(), dx, dy),
+                face.getIsLeftEyeOpenProbability(),
+                face.getIsRightEyeOpenProbability(),
+                face.getIsSmilingProbability());
+    }
+
+    @NonNull
+    private static Landmark[] translate(final List<Landmark> landmarks, final float dx, final float dy) {
+        final Landmark[] translatedLandmarks = new Landmark[landmarks.size()];
+        for (int i = 0; i < landmarks.size(); i++) {
+            final Landmark landmark = landmarks.get(i);
+            translatedLandmarks[i] = new Landmark(translate(landmark.getPosition(), dx, dy), landmark.getType());
+        }
+        return translatedLandmarks;
+    }
+
+    @NonNull
+    private static PointF translate(final PointF point, final float dx, final float dy) {
+        return new PointF(point.x + dx, point.y + dy);
+    }
+}
@@ -0,0 +1,47 @@
+package de.drowsydriveralarm.detector;
+
+import android.util.SparseArray;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Frame;
+import com.google.android.gms.vision.face.Face;
+
+import de.drowsydriveralarm.eventproducer.DetectorStallWatchdog;
+
+/**
+ * Reports every frame to the {@link DetectorStallWatchdog} once the wrapped detector is done with it, whether it
+ * contains a face or not. A detection hanging is noticed by the watchdog as no frame arriving anymore.
+ */
+public class StallWatchingFaceDetector extends Detector<Face> {
+
+    private final Detector<Face> delegate;
+    private final DetectorStallWatchdog detectorStallWatchdog;
+
+    public StallWatchingFaceDetector(final Detector<Face> delegate, final DetectorStallWatchdog detectorStallWatchdog) {
+        this.delegate = delegate;
+        this.detectorStallWatchdog = detectorStallWatchdog;
+    }
+
+    @Override
+    public SparseArray<Face> detect(final Frame frame) {
+        final SparseArray<Face> faces = this.delegate.detect(frame);
+        this.detectorStallWatchdog.onFrame(frame.getMetadata().getTimestampMillis());
+        return faces;
+    }
+
+    @Override
+    public boolean isOperational() {
+        return this.delegate.isOperational();
+    }
+
+    @Override
+    public boolean setFocus(final int id) {
+        return this.delegate.setFocus(id);
+    }
+
+    @Override
+    public void release() {
+        super.release();
+        this.delegate.release();
+    }
+}
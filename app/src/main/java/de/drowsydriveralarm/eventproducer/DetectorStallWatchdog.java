@@ -0,0 +1,95 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.eventbus.EventBus;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import java.util.Arrays;
+
+import de.drowsydriveralarm.Clock;
+import de.drowsydriveralarm.event.DetectorResumedEvent;
+import de.drowsydriveralarm.event.DetectorStalledEvent;
+
+/**
+ * Watches the gaps between the frames the detector delivers.
+ * <p>
+ * Gets every frame from the {@code StallWatchingFaceDetector} wrapping the detector, with or without face, as a
+ * tracker would only get the frames while a face is tracked and take a driver leaving the camera for a stall.
+ * <p>
+ * Every gap between two frame timestamps goes into a histogram, gaps longer than one and a half expected frame
+ * intervals count the frames missing in between as dropped. As a stalled detector delivers no frames at all, the
+ * stall itself is noticed by {@link #onTick()}: when no frame arrived for {@code stallThreshold} of clock time a
+ * {@link DetectorStalledEvent} is posted, and the next frame posts a {@link DetectorResumedEvent}.
+ */
+public class DetectorStallWatchdog {
+
+    public static final int GAP_HISTOGRAM_BUCKET_MILLIS = 10;
+    public static final int GAP_HISTOGRAM_BUCKETS = 51;
+
+    private final EventBus eventBus;
+    private final Clock clock;
+    private final long expectedFrameIntervalMillis;
+    private final long stallThresholdMillis;
+    // the last bucket counts all gaps of 500 milliseconds and more
+    private final long[] gapHistogram = new long[GAP_HISTOGRAM_BUCKETS];
+
+    private boolean frameReceived;
+    private long lastFrameMillis;
+    private long lastFrameClockMillis;
+    private boolean stalled;
+    private long droppedFrames;
+
+    public DetectorStallWatchdog(final EventBus eventBus, final Clock clock, final Duration expectedFrameInterval, final Duration stallThreshold) {
+        this.eventBus = eventBus;
+        this.clock = clock;
+        this.expectedFrameIntervalMillis = expectedFrameInterval.getMillis();
+        this.stallThresholdMillis = stallThreshold.getMillis();
+    }
+
+    /**
+     * Records a frame the detector is done with.
+     */
+    public synchronized void onFrame(final long frameMillis) {
+        final long clockMillis = this.clock.now().getMillis();
+        if (this.frameReceived && frameMillis > this.lastFrameMillis) {
+            this.recordGap(frameMillis - this.lastFrameMillis);
+        }
+
+        if (this.stalled) {
+            this.stalled = false;
+            this.eventBus.post(new DetectorResumedEvent(new Instant(this.lastFrameMillis), new Duration(this.lastFrameMillis, frameMillis)));
+        }
+
+        this.frameReceived = true;
+        this.lastFrameMillis = Math.max(this.lastFrameMillis, frameMillis);
+        this.lastFrameClockMillis = clockMillis;
+    }
+
+    public synchronized void onTick() {
+        if (!this.frameReceived || this.stalled) {
+            return;
+        }
+
+        final long sinceLastFrameMillis = this.clock.now().getMillis() - this.lastFrameClockMillis;
+        if (sinceLastFrameMillis >= this.stallThresholdMillis) {
+            this.stalled = true;
+            this.eventBus.post(new DetectorStalledEvent(new Instant(this.lastFrameMillis), new Duration(sinceLastFrameMillis)));
+        }
+    }
+
+    public synchronized long[] getGapHistogram() {
+        return Arrays.copyOf(this.gapHistogram, this.gapHistogram.length);
+    }
+
+    public synchronized long getDroppedFrames() {
+        return this.droppedFrames;
+    }
+
+    private void recordGap(final long gapMillis) {
+        this.gapHistogram[(int) Math.min(gapMillis / GAP_HISTOGRAM_BUCKET_MILLIS, GAP_HISTOGRAM_BUCKETS - 1)]++;
+        if (2 * gapMillis > 3 * this.expectedFrameIntervalMillis) {
+            this.droppedFrames += (gapMillis + this.expectedFrameIntervalMillis / 2) / this.expectedFrameIntervalMillis - 1;
+        }
+    }
+}
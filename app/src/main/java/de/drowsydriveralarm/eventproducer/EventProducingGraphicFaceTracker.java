@@ -3,41 +3,28 @@ package de.drowsydriveralarm.eventproducer;
 import com.google.android.gms.vision.Detector;
 import com.google.android.gms.vision.Tracker;
 import com.google.android.gms.vision.face.Face;
+import com.google.common.base.Optional;
 import com.google.common.eventbus.EventBus;
 
-import org.joda.time.Instant;
-
 import de.drowsydriveralarm.Clock;
-import de.drowsydriveralarm.event.EventHelper;
-import de.drowsydriveralarm.event.UpdateEvent;
 
+/**
+ * Passes the faces of the detector on to the {@link FrameEventProducer}.
+ */
 public class EventProducingGraphicFaceTracker extends Tracker<Face> {
 
-    private final EventBus eventBus;
-    private final DrowsyEventProducer drowsyEventProducer;
-    private final Clock clock;
-
-    private ClockTime2FrameTimeConverter timeConverter;
+    private final FrameEventProducer frameEventProducer;
 
     public EventProducingGraphicFaceTracker(final EventBus eventBus, final DrowsyEventProducer drowsyEventProducer, final Clock clock) {
-        this.eventBus = eventBus;
-        this.drowsyEventProducer = drowsyEventProducer;
-        this.clock = clock;
+        this(new FrameEventProducer(eventBus, drowsyEventProducer, Optional.<DeadlineEventProducer> absent(), clock));
+    }
+
+    public EventProducingGraphicFaceTracker(final FrameEventProducer frameEventProducer) {
+        this.frameEventProducer = frameEventProducer;
     }
 
     @Override
     public void onUpdate(final Detector.Detections<Face> detections, final Face face) {
-        // TODO: use RetroLambda (https://github.com/orfjackal/retrolambda)
-        final Instant clockTime = this.clock.now();
-        if (this.timeConverter == null) {
-            this.timeConverter = ClockTime2FrameTimeConverter.fromClockTimeAndFrameTime(clockTime, EventHelper.getInstantOf(detections));
-        }
-
-        if (!BothEyesRecognizedPredicate.areBothEyesRecognized(face)) {
-            return;
-        }
-
-        this.eventBus.post(new UpdateEvent(detections, face));
-        this.drowsyEventProducer.maybeProduceDrowsyEvent(this.timeConverter.convertToFrameTime(clockTime));
+        this.frameEventProducer.onFrame(FaceFeatures.of(detections, face));
     }
 }
@@ -1,20 +1,27 @@
 package de.drowsydriveralarm.eventproducer;
 
-import android.support.annotation.NonNull;
-
 import com.google.android.gms.vision.face.Face;
 import com.google.android.gms.vision.face.Landmark;
 import com.google.common.base.Function;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 
-import java.util.Arrays;
 import java.util.List;
 
-class BothEyesRecognizedPredicate {
+class EyesRecognizedPredicate {
 
     public static boolean areBothEyesRecognized(final Face face) {
-        return getLandmarkTypes(face.getLandmarks()).containsAll(getBothEyes());
+        final ImmutableList<Integer> landmarkTypes = getLandmarkTypes(face.getLandmarks());
+        return landmarkTypes.contains(Landmark.LEFT_EYE) && landmarkTypes.contains(Landmark.RIGHT_EYE);
+    }
+
+    public static boolean isAnyEyeRecognized(final Face face) {
+        final ImmutableList<Integer> landmarkTypes = getLandmarkTypes(face.getLandmarks());
+        return landmarkTypes.contains(Landmark.LEFT_EYE) || landmarkTypes.contains(Landmark.RIGHT_EYE);
+    }
+
+    public static boolean isEyeRecognized(final Face face, final int eye) {
+        return getLandmarkTypes(face.getLandmarks()).contains(eye);
     }
 
     private static ImmutableList<Integer> getLandmarkTypes(final List<Landmark> landmarks) {
@@ -30,9 +37,4 @@ class BothEyesRecognizedPredicate {
                         })
                 .toList();
     }
-
-    @NonNull
-    private static List<Integer> getBothEyes() {
-        return Arrays.asList(Landmark.LEFT_EYE, Landmark.RIGHT_EYE);
-    }
 }
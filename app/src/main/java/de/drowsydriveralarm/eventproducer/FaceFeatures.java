@@ -0,0 +1,34 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.face.Face;
+import com.google.android.gms.vision.face.Landmark;
+
+import org.joda.time.Instant;
+
+import de.drowsydriveralarm.FrameFeatures;
+
+/**
+ * Converts the results of the Google Mobile Vision face detector into {@link FrameFeatures}.
+ */
+public class FaceFeatures {
+
+    public static FrameFeatures of(final Detector.Detections<Face> detections, final Face face) {
+        return FrameFeatures
+                .builder()
+                .withTimestampMillis(getInstantOf(detections).getMillis())
+                .withLeftEyeRecognized(EyesRecognizedPredicate.isEyeRecognized(face, Landmark.LEFT_EYE))
+                .withRightEyeRecognized(EyesRecognizedPredicate.isEyeRecognized(face, Landmark.RIGHT_EYE))
+                .withLeftEyeOpenProbability(face.getIsLeftEyeOpenProbability())
+                .withRightEyeOpenProbability(face.getIsRightEyeOpenProbability())
+                .withFaceCenterY(face.getPosition().y + face.getHeight() / 2)
+                .withFaceHeight(face.getHeight())
+                .withHeadYaw(face.getEulerY())
+                .withHeadRoll(face.getEulerZ())
+                .build();
+    }
+
+    public static Instant getInstantOf(final Detector.Detections<Face> detections) {
+        return new Instant(detections.getFrameMetadata().getTimestampMillis());
+    }
+}
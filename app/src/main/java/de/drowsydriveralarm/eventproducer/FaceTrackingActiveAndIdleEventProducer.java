@@ -1,97 +1,137 @@
 package de.drowsydriveralarm.eventproducer;
 
-import android.support.annotation.NonNull;
-
 import com.google.android.gms.vision.Detector;
 import com.google.android.gms.vision.Tracker;
 import com.google.android.gms.vision.face.Face;
-import com.google.common.base.Supplier;
+import com.google.common.base.Optional;
 import com.google.common.eventbus.EventBus;
 
+import org.joda.time.Duration;
 import org.joda.time.Instant;
 
 import de.drowsydriveralarm.Clock;
 import de.drowsydriveralarm.event.AppActiveEvent;
 import de.drowsydriveralarm.event.AppIdleEvent;
-import de.drowsydriveralarm.event.Event;
-import de.drowsydriveralarm.event.EventHelper;
 
+/**
+ * Posts an {@link AppActiveEvent} or {@link AppIdleEvent} when the app changes between active (any eye recognized,
+ * as the eye open probability falls back to a single eye) and idle (face missing or no eye recognized).
+ * <p>
+ * A change is debounced: the new state must be observed for at least {@code holdTime} without interruption
+ * before its event is posted. The event starts at the first frame of the new state and lasts until the frame
+ * which confirmed it. Frames which post no event are counted as suppressed.
+ * <p>
+ * All instants are frame time, as the instants of the other events: a new face is observed by the update for its
+ * frame following, the end of the tracking is at the last frame plus the clock time elapsed since.
+ */
 public class FaceTrackingActiveAndIdleEventProducer extends Tracker<Face> {
 
     private final EventBus eventBus;
     private final Clock clock;
+    private final Duration holdTime;
     private final ActiveState activeState = new ActiveState();
 
+    private boolean candidateActive;
+    private Optional<Instant> candidateSince = Optional.absent();
+    private Optional<Instant> lastFrameInstant = Optional.absent();
+    private long lastFrameNanos;
+    private long suppressedActiveFrames;
+    private long suppressedIdleFrames;
+
     public FaceTrackingActiveAndIdleEventProducer(final EventBus eventBus, final Clock clock) {
+        this(eventBus, clock, Duration.ZERO);
+    }
+
+    public FaceTrackingActiveAndIdleEventProducer(final EventBus eventBus, final Clock clock, final Duration holdTime) {
         this.eventBus = eventBus;
         this.clock = clock;
+        this.holdTime = holdTime;
     }
 
+    // the update for the frame of the new face follows, which knows both eyes and the timestamp of the frame
     @Override
     public void onNewItem(final int i, final Face face) {
-        this.maybePostAppActiveEvent(this.clock.now());
     }
 
     @Override
     public void onUpdate(final Detector.Detections<Face> detections, final Face face) {
-        if (!BothEyesRecognizedPredicate.areBothEyesRecognized(face)) {
-            this.eventBus.post(new AppIdleEvent(EventHelper.getInstantOf(detections)));
-        } else {
-            this.maybePostAppActiveEvent(EventHelper.getInstantOf(detections));
-        }
+        this.onObserved(EyesRecognizedPredicate.isAnyEyeRecognized(face), this.onFrame(detections));
     }
 
     @Override
     public void onMissing(final Detector.Detections<Face> detections) {
-        this.maybePostAppIdleEvent(EventHelper.getInstantOf(detections));
+        this.onObserved(false, this.onFrame(detections));
     }
 
     @Override
     public void onDone() {
-        this.maybePostAppIdleEvent(this.clock.now());
+        if (!this.lastFrameInstant.isPresent() || this.isInState(false)) {
+            return;
+        }
+
+        final Instant now = this.lastFrameInstant.get().plus((this.clock.nanoTime() - this.lastFrameNanos) / 1000000);
+        this.postEvent(false, this.isCandidate(false) ? this.candidateSince.get() : now, now);
     }
 
-    private void maybePostAppActiveEvent(final Instant instant) {
-        this.onTransitionFromUnknownOrIdle2ActivePostEvent(this.createAppActiveEvent(instant));
+    public long getSuppressedActiveFrames() {
+        return this.suppressedActiveFrames;
     }
 
-    private void maybePostAppIdleEvent(final Instant instant) {
-        this.onTransitionFromUnknownOrActive2IdlePostEvent(this.createAppIdleEvent(instant));
+    public long getSuppressedIdleFrames() {
+        return this.suppressedIdleFrames;
     }
 
-    private void onTransitionFromUnknownOrIdle2ActivePostEvent(final Supplier<Event> eventSupplier) {
-        if (this.activeState.isUnknown() || this.activeState.isIdle()) {
-            this.activeState.setActive();
-            this.eventBus.post(eventSupplier.get());
+    private void onObserved(final boolean active, final Instant instant) {
+        if (this.isInState(active)) {
+            this.candidateSince = Optional.absent();
+            this.countSuppressedFrame(active);
+            return;
         }
-    }
 
-    private void onTransitionFromUnknownOrActive2IdlePostEvent(final Supplier<Event> eventSupplier) {
-        if (this.activeState.isUnknown() || this.activeState.isActive()) {
-            this.activeState.setIdle();
-            this.eventBus.post(eventSupplier.get());
+        if (!this.isCandidate(active) || instant.isBefore(this.candidateSince.get())) {
+            this.candidateActive = active;
+            this.candidateSince = Optional.of(instant);
+        }
+
+        if (new Duration(this.candidateSince.get(), instant).isShorterThan(this.holdTime)) {
+            this.countSuppressedFrame(active);
+        } else {
+            this.postEvent(active, this.candidateSince.get(), instant);
         }
     }
 
-    @NonNull
-    private Supplier<Event> createAppActiveEvent(final Instant instant) {
-        return new Supplier<Event>() {
+    private Instant onFrame(final Detector.Detections<Face> detections) {
+        final Instant instant = FaceFeatures.getInstantOf(detections);
+        this.lastFrameInstant = Optional.of(instant);
+        this.lastFrameNanos = this.clock.nanoTime();
+        return instant;
+    }
+
+    private boolean isInState(final boolean active) {
+        return !this.activeState.isUnknown() && this.activeState.isActive() == active;
+    }
 
-            @Override
-            public Event get() {
-                return new AppActiveEvent(instant);
-            }
-        };
+    private boolean isCandidate(final boolean active) {
+        return this.candidateSince.isPresent() && this.candidateActive == active;
     }
 
-    @NonNull
-    private Supplier<Event> createAppIdleEvent(final Instant instant) {
-        return new Supplier<Event>() {
+    private void countSuppressedFrame(final boolean active) {
+        if (active) {
+            this.suppressedActiveFrames++;
+        } else {
+            this.suppressedIdleFrames++;
+        }
+    }
 
-            @Override
-            public Event get() {
-                return new AppIdleEvent(instant);
-            }
-        };
+    private void postEvent(final boolean active, final Instant since, final Instant until) {
+        final Duration duration = new Duration(since, until);
+        this.candidateSince = Optional.absent();
+        if (active) {
+            this.activeState.setActive();
+            this.eventBus.post(new AppActiveEvent(since, duration));
+        } else {
+            this.activeState.setIdle();
+            this.eventBus.post(new AppIdleEvent(since, duration));
+        }
     }
 }
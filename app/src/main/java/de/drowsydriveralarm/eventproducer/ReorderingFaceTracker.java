@@ -0,0 +1,166 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Tracker;
+import com.google.android.gms.vision.face.Face;
+
+import org.joda.time.Duration;
+
+import de.drowsydriveralarm.Clock;
+
+/**
+ * Passes frames on to the wrapped tracker in the order of their timestamps, so the event producers and the display
+ * behind it never see time going backwards.
+ * <p>
+ * A frame is held back until a frame {@code latencyBudget} newer has arrived, until it has waited
+ * {@code latencyBudget} of clock time (see {@link #onTick()}), or until the buffer is full. Frames arriving within
+ * the budget are sorted in. A frame with the timestamp of a frame already seen is dropped as duplicate, a frame
+ * older than the last frame passed on is dropped as late. With a budget of zero, the default, no frame is held back
+ * and the buffer merely drops duplicate and late frames.
+ * <p>
+ * The buffer is a set of preallocated arrays, so there is no allocation per frame.
+ */
+public class ReorderingFaceTracker extends Tracker<Face> {
+
+    private final Tracker<Face> tracker;
+    private final Clock clock;
+    private final long latencyBudgetMillis;
+    private final long[] timestamps;
+    private final long[] arrivalNanos;
+    private final Detector.Detections<Face>[] detections;
+    // null for a frame without face, which is passed on by onMissing
+    private final Face[] faces;
+
+    private int size;
+    private boolean released;
+    private long lastReleasedTimestamp;
+    private long duplicateFrames;
+    private long lateFrames;
+
+    @SuppressWarnings("unchecked")
+    public ReorderingFaceTracker(final Tracker<Face> tracker, final Clock clock, final Duration latencyBudget, final int capacity) {
+        this.tracker = tracker;
+        this.clock = clock;
+        this.latencyBudgetMillis = latencyBudget.getMillis();
+        this.timestamps = new long[capacity];
+        this.arrivalNanos = new long[capacity];
+        this.detections = new Detector.Detections[capacity];
+        this.faces = new Face[capacity];
+    }
+
+    @Override
+    public synchronized void onNewItem(final int id, final Face face) {
+        this.tracker.onNewItem(id, face);
+    }
+
+    @Override
+    public synchronized void onUpdate(final Detector.Detections<Face> detections, final Face face) {
+        this.onFrame(detections, face);
+    }
+
+    @Override
+    public synchronized void onMissing(final Detector.Detections<Face> detections) {
+        this.onFrame(detections, null);
+    }
+
+    @Override
+    public synchronized void onDone() {
+        this.releaseOldest(this.size);
+        this.tracker.onDone();
+    }
+
+    /**
+     * Passes on the frames which have waited for the latency budget, to be called periodically as a stalled detector
+     * delivers no newer frames.
+     */
+    public synchronized void onTick() {
+        final long nowNanos = this.clock.nanoTime();
+        int count = 0;
+        while (count < this.size && (nowNanos - this.arrivalNanos[count]) / 1000000 >= this.latencyBudgetMillis) {
+            count++;
+        }
+        this.releaseOldest(count);
+    }
+
+    public synchronized long getDuplicateFrames() {
+        return this.duplicateFrames;
+    }
+
+    public synchronized long getLateFrames() {
+        return this.lateFrames;
+    }
+
+    private void onFrame(final Detector.Detections<Face> detections, final Face face) {
+        final long timestamp = FaceFeatures.getInstantOf(detections).getMillis();
+        if (this.released && timestamp < this.lastReleasedTimestamp) {
+            this.lateFrames++;
+            return;
+        }
+        if (this.released && timestamp == this.lastReleasedTimestamp || this.isBuffered(timestamp)) {
+            this.duplicateFrames++;
+            return;
+        }
+
+        if (this.size == this.timestamps.length) {
+            this.releaseOldest(1);
+        }
+        this.insert(timestamp, detections, face);
+        this.releaseOldest(this.countOutOfBudget());
+    }
+
+    private boolean isBuffered(final long timestamp) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.timestamps[i] == timestamp) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void insert(final long timestamp, final Detector.Detections<Face> detections, final Face face) {
+        int i = this.size;
+        while (i > 0 && this.timestamps[i - 1] > timestamp) {
+            this.timestamps[i] = this.timestamps[i - 1];
+            this.arrivalNanos[i] = this.arrivalNanos[i - 1];
+            this.detections[i] = this.detections[i - 1];
+            this.faces[i] = this.faces[i - 1];
+            i--;
+        }
+        this.timestamps[i] = timestamp;
+        this.arrivalNanos[i] = this.clock.nanoTime();
+        this.detections[i] = detections;
+        this.faces[i] = face;
+        this.size++;
+    }
+
+    private int countOutOfBudget() {
+        final long newestTimestamp = this.timestamps[this.size - 1];
+        int count = 0;
+        while (count < this.size && newestTimestamp - this.timestamps[count] >= this.latencyBudgetMillis) {
+            count++;
+        }
+        return count;
+    }
+
+    private void releaseOldest(final int count) {
+        for (int i = 0; i < count; i++) {
+            if (this.faces[i] != null) {
+                this.tracker.onUpdate(this.detections[i], this.faces[i]);
+            } else {
+                this.tracker.onMissing(this.detections[i]);
+            }
+            this.released = true;
+            this.lastReleasedTimestamp = this.timestamps[i];
+        }
+
+        System.arraycopy(this.timestamps, count, this.timestamps, 0, this.size - count);
+        System.arraycopy(this.arrivalNanos, count, this.arrivalNanos, 0, this.size - count);
+        System.arraycopy(this.detections, count, this.detections, 0, this.size - count);
+        System.arraycopy(this.faces, count, this.faces, 0, this.size - count);
+        this.size -= count;
+        for (int i = this.size; i < this.size + count; i++) {
+            this.detections[i] = null;
+            this.faces[i] = null;
+        }
+    }
+}
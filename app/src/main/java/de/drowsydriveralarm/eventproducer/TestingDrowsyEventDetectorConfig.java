@@ -19,6 +19,10 @@ public class TestingDrowsyEventDetectorConfig implements IDrowsyEventDetectorCon
                 .builder()
                 .withDrowsyThreshold(this.getDrowsyThreshold())
                 .withLikelyDrowsyThreshold(this.getLikelyDrowsyThreshold())
+                .withDrowsyExitThreshold(this.getDrowsyExitThreshold())
+                .withLikelyDrowsyExitThreshold(this.getLikelyDrowsyExitThreshold())
+                .withMinDwell(this.getDrowsinessLevelMinDwell())
+                .withTrendHorizon(this.getDrowsinessTrendHorizon())
                 .build();
     }
 
@@ -31,6 +35,22 @@ public class TestingDrowsyEventDetectorConfig implements IDrowsyEventDetectorCon
         return Double.valueOf(this.sharedPreferences.getString("drowsyThreshold", "0.15"));
     }
 
+    private Double getLikelyDrowsyExitThreshold() {
+        return Double.valueOf(this.sharedPreferences.getString("likelyDrowsyExitThreshold", "0.06"));
+    }
+
+    private Double getDrowsyExitThreshold() {
+        return Double.valueOf(this.sharedPreferences.getString("drowsyExitThreshold", "0.12"));
+    }
+
+    private Duration getDrowsinessLevelMinDwell() {
+        return new Duration(Long.valueOf(this.sharedPreferences.getString("drowsinessLevelMinDwell", "3000")));
+    }
+
+    private Duration getDrowsinessTrendHorizon() {
+        return new Duration(Long.valueOf(this.sharedPreferences.getString("drowsinessTrendHorizon", "60000")));
+    }
+
     // TODO: make durationMillis configurable from 300 to 500 milliseconds
     @Override
     public Duration getSlowEyelidClosureMinDuration() {
@@ -47,4 +67,26 @@ public class TestingDrowsyEventDetectorConfig implements IDrowsyEventDetectorCon
     public Duration getTimeWindow() {
         return new Duration(Long.valueOf(this.sharedPreferences.getString("timeWindow", "15000")));
     }
+
+    @Override
+    public Duration getReorderLatencyBudget() {
+        return new Duration(Long.valueOf(this.sharedPreferences.getString("reorderLatencyBudget", "0")));
+    }
+
+    @Override
+    public Duration getCalibrationDuration() {
+        return new Duration(Long.valueOf(this.sharedPreferences.getString("calibrationDuration", "120000")));
+    }
+
+    @Override
+    public String getEyeOpenProbabilityFilter() {
+        return this.sharedPreferences.getString("eyeOpenProbabilityFilter", "median");
+    }
+
+    /**
+     * minimum time the app must be active (idle) before an {@code AppActiveEvent} ({@code AppIdleEvent}) is posted
+     */
+    public Duration getAppStateHoldTime() {
+        return new Duration(Long.valueOf(this.sharedPreferences.getString("appStateHoldTime", "500")));
+    }
 }
@@ -0,0 +1,150 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.android.gms.vision.Tracker;
+import com.google.android.gms.vision.face.Face;
+import com.google.common.base.Optional;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.eventbus.EventBus;
+
+import org.joda.time.Duration;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.drowsydriveralarm.Clock;
+import de.drowsydriveralarm.CompositeFaceTracker;
+import de.drowsydriveralarm.FrameRecorder;
+import de.drowsydriveralarm.recorder.FlightRecorder;
+import de.drowsydriveralarm.rollup.DrowsinessRollups;
+
+/**
+ * The {@link DrowsyEventDetector} fed by the Google Mobile Vision face detector.
+ * <p>
+ * The recorders are registered on its event bus, the {@link FrameRecorder}s receive every frame as well. The
+ * recorders which are {@link Closeable} are closed along with it.
+ */
+public class VisionDrowsyEventDetector {
+
+    private static final Duration EXPECTED_FRAME_INTERVAL = Duration.millis(33);
+    private static final Duration STALL_THRESHOLD = Duration.millis(1000);
+    private static final int REORDER_CAPACITY = 8;
+
+    private final DrowsyEventDetector drowsyEventDetector;
+    private final EventProducingGraphicFaceTracker eventProducingGraphicFaceTracker;
+    private final Clock clock;
+    private final Duration reorderLatencyBudget;
+    private volatile Optional<ReorderingFaceTracker> reorderingFaceTracker = Optional.absent();
+    private final DetectorStallWatchdog detectorStallWatchdog;
+    // in the order they are closed
+    private final ImmutableList<Object> recorders;
+
+    /**
+     * @param frameRecorders record the frames and the events, e.g. the {@link FlightRecorder}
+     * @param eventRecorders record the events only, e.g. the {@code EventJournalWriter}
+     */
+    public VisionDrowsyEventDetector(final IDrowsyEventDetectorConfig config, final List<FrameRecorder> frameRecorders, final List<?> eventRecorders, final Clock clock) {
+        final EventBus eventBus = new EventBus();
+        DrowsyEventDetector.registerEventSubscribersOnEventBus(ImmutableList.<Object> copyOf(eventRecorders), eventBus);
+        this.recorders =
+                ImmutableList
+                        .<Object> builder()
+                        .addAll(frameRecorders)
+                        .addAll(eventRecorders)
+                        .build();
+        this.drowsyEventDetector = new DrowsyEventDetector(config, eventBus, frameRecorders, clock);
+        this.eventProducingGraphicFaceTracker = new EventProducingGraphicFaceTracker(this.drowsyEventDetector.getFrameEventProducer());
+        this.clock = clock;
+        this.reorderLatencyBudget = config.getReorderLatencyBudget();
+        this.detectorStallWatchdog = new DetectorStallWatchdog(eventBus, clock, EXPECTED_FRAME_INTERVAL, STALL_THRESHOLD);
+    }
+
+    /**
+     * Lets pending deadlines expire and notices a stalled detector although no frame arrived, to be called periodically.
+     */
+    public void onTick() {
+        if (this.reorderingFaceTracker.isPresent()) {
+            this.reorderingFaceTracker.get().onTick();
+        }
+        this.drowsyEventDetector.onTick();
+        this.detectorStallWatchdog.onTick();
+    }
+
+    /**
+     * Closes every recorder, e.g. waits for the flight recording being dumped, ends the trip, writes the rollups and
+     * the events journaled or queued for the trip database so far. A recorder failing to close does not keep the
+     * others open. Blocks, so not to be called on the main thread.
+     *
+     * @throws IOException if any recorder failed to close, naming every failure and caused by the first one
+     */
+    public void close() throws IOException {
+        final List<Exception> failures = new ArrayList<>();
+        for (final Object recorder : this.recorders) {
+            if (recorder instanceof Closeable) {
+                try {
+                    ((Closeable) recorder).close();
+                } catch (final IOException | RuntimeException e) {
+                    failures.add(e);
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IOException("Unable to close " + failures.size() + " recorders: " + failures, failures.get(0));
+        }
+    }
+
+    public DrowsyEventDetector getDrowsyEventDetector() {
+        return this.drowsyEventDetector;
+    }
+
+    /**
+     * To dump the frames and events of the last seconds on demand, if present.
+     */
+    public Optional<FlightRecorder> getFlightRecorder() {
+        return this.getRecorder(FlightRecorder.class);
+    }
+
+    /**
+     * To query the drowsiness of past days, if present.
+     */
+    public Optional<DrowsinessRollups> getDrowsinessRollups() {
+        return this.getRecorder(DrowsinessRollups.class);
+    }
+
+    public EventBus getEventBus() {
+        return this.drowsyEventDetector.getEventBus();
+    }
+
+    /**
+     * Creates the tracker to receive the frames of the detector, which puts them in order for
+     * {@link #getEventProducingGraphicFaceTracker()} and the given tracker, e.g. one displaying the face, so no tracker
+     * sees time going backwards. The tracker created last is ticked by {@link #onTick()}.
+     */
+    public ReorderingFaceTracker createFaceTracker(final Tracker<Face> tracker) {
+        final ReorderingFaceTracker reorderingFaceTracker =
+                new ReorderingFaceTracker(
+                        new CompositeFaceTracker(this.eventProducingGraphicFaceTracker, tracker),
+                        this.clock,
+                        this.reorderLatencyBudget,
+                        REORDER_CAPACITY);
+        this.reorderingFaceTracker = Optional.of(reorderingFaceTracker);
+        return reorderingFaceTracker;
+    }
+
+    public EventProducingGraphicFaceTracker getEventProducingGraphicFaceTracker() {
+        return this.eventProducingGraphicFaceTracker;
+    }
+
+    /**
+     * Has to receive every frame of the detector, see {@code StallWatchingFaceDetector}.
+     */
+    public DetectorStallWatchdog getDetectorStallWatchdog() {
+        return this.detectorStallWatchdog;
+    }
+
+    private <T> Optional<T> getRecorder(final Class<T> type) {
+        return FluentIterable.from(this.recorders).filter(type).first();
+    }
+}
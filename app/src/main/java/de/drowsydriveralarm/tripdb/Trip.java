@@ -0,0 +1,51 @@
+package de.drowsydriveralarm.tripdb;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+
+import org.joda.time.Instant;
+
+/**
+ * A trip of the {@link TripDatabase}, without an end while driving or if the app crashed.
+ */
+public class Trip {
+
+    private final Instant start;
+    private final Optional<Instant> end;
+
+    public Trip(final Instant start, final Optional<Instant> end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public Instant getStart() {
+        return this.start;
+    }
+
+    public Optional<Instant> getEnd() {
+        return this.end;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        final Trip that = (Trip) o;
+        return Objects.equal(this.start, that.start) && Objects.equal(this.end, that.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.start, this.end);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects
+                .toStringHelper(this)
+                .add("start", this.start)
+                .add("end", this.end)
+                .toString();
+    }
+}
@@ -0,0 +1,185 @@
+package de.drowsydriveralarm.tripdb;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+
+import com.google.common.base.Optional;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+
+/**
+ * The trips, alarms, i.e. {@link DrowsyEvent}s, and {@link SlowEyelidClosureEvent}s for the trip history and
+ * reports, in a SQLite database in write-ahead logging mode, so queries do not wait for the
+ * {@link TripDatabaseWriter} writing and vice versa.
+ * <p>
+ * Alarms and slow eyelid closures are indexed by their time to query time ranges. All times are millis since the
+ * epoch.
+ */
+public class TripDatabase extends SQLiteOpenHelper {
+
+    public static final String DATABASE_NAME = "trips.db";
+
+    private static final int VERSION = 1;
+
+    private static final String TRIPS = "trips";
+    private static final String ALARMS = "alarms";
+    private static final String SLOW_EYELID_CLOSURES = "slow_eyelid_closures";
+
+    public TripDatabase(final Context context, final String name) {
+        super(context, name, null, VERSION);
+        this.setWriteAheadLoggingEnabled(true);
+    }
+
+    @Override
+    public void onCreate(final SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TRIPS + " (start_millis INTEGER PRIMARY KEY, end_millis INTEGER)");
+        db.execSQL("CREATE TABLE " + ALARMS + " (trip_start_millis INTEGER NOT NULL, millis INTEGER NOT NULL, perclos REAL NOT NULL)");
+        db.execSQL("CREATE INDEX alarms_millis ON " + ALARMS + " (millis)");
+        db.execSQL("CREATE TABLE " + SLOW_EYELID_CLOSURES + " (trip_start_millis INTEGER NOT NULL, start_millis INTEGER NOT NULL, duration_millis INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX slow_eyelid_closures_start_millis ON " + SLOW_EYELID_CLOSURES + " (start_millis)");
+    }
+
+    @Override
+    public void onUpgrade(final SQLiteDatabase db, final int oldVersion, final int newVersion) {
+    }
+
+    /**
+     * The trips started within [from, to), oldest first.
+     */
+    public List<Trip> getTrips(final Instant from, final Instant to) {
+        final Cursor cursor = this.getReadableDatabase().rawQuery(
+                "SELECT start_millis, end_millis FROM " + TRIPS + " WHERE start_millis >= ? AND start_millis < ? ORDER BY start_millis",
+                args(from, to));
+        try {
+            final List<Trip> trips = new ArrayList<>();
+            while (cursor.moveToNext()) {
+                trips.add(new Trip(
+                        new Instant(cursor.getLong(0)),
+                        cursor.isNull(1) ? Optional.<Instant> absent() : Optional.of(new Instant(cursor.getLong(1)))));
+            }
+            return trips;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * The alarms within [from, to), oldest first.
+     */
+    public List<DrowsyEvent> getAlarms(final Instant from, final Instant to) {
+        final Cursor cursor = this.getReadableDatabase().rawQuery(
+                "SELECT millis, perclos FROM " + ALARMS + " WHERE millis >= ? AND millis < ? ORDER BY millis",
+                args(from, to));
+        try {
+            final List<DrowsyEvent> alarms = new ArrayList<>();
+            while (cursor.moveToNext()) {
+                alarms.add(new DrowsyEvent(new Instant(cursor.getLong(0)), cursor.getDouble(1)));
+            }
+            return alarms;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * The slow eyelid closures started within [from, to), oldest first.
+     */
+    public List<SlowEyelidClosureEvent> getSlowEyelidClosures(final Instant from, final Instant to) {
+        final Cursor cursor = this.getReadableDatabase().rawQuery(
+                "SELECT start_millis, duration_millis FROM " + SLOW_EYELID_CLOSURES + " WHERE start_millis >= ? AND start_millis < ? ORDER BY start_millis",
+                args(from, to));
+        try {
+            final List<SlowEyelidClosureEvent> slowEyelidClosures = new ArrayList<>();
+            while (cursor.moveToNext()) {
+                slowEyelidClosures.add(new SlowEyelidClosureEvent(new Instant(cursor.getLong(0)), new Duration(cursor.getLong(1))));
+            }
+            return slowEyelidClosures;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Deletes the trips started before the time, and the alarms and slow eyelid closures before it, in one
+     * transaction.
+     */
+    public void deleteBefore(final Instant before) {
+        final SQLiteDatabase db = this.getWritableDatabase();
+        final String[] args = {Long.toString(before.getMillis())};
+        db.beginTransactionNonExclusive();
+        try {
+            db.delete(TRIPS, "start_millis < ?", args);
+            db.delete(ALARMS, "millis < ?", args);
+            db.delete(SLOW_EYELID_CLOSURES, "start_millis < ?", args);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    void insertTrip(final Instant start) {
+        final SQLiteStatement statement = this.getWritableDatabase().compileStatement("INSERT OR REPLACE INTO " + TRIPS + " (start_millis) VALUES (?)");
+        try {
+            statement.bindLong(1, start.getMillis());
+            statement.executeInsert();
+        } finally {
+            statement.close();
+        }
+    }
+
+    void updateTripEnd(final Instant start, final Instant end) {
+        final SQLiteStatement statement = this.getWritableDatabase().compileStatement("UPDATE " + TRIPS + " SET end_millis = ? WHERE start_millis = ?");
+        try {
+            statement.bindLong(1, end.getMillis());
+            statement.bindLong(2, start.getMillis());
+            statement.executeUpdateDelete();
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Inserts the alarms and slow eyelid closures of the trip in one transaction, ignoring other events.
+     */
+    void insertEvents(final Instant tripStart, final List<Event> events) {
+        final SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransactionNonExclusive();
+        final SQLiteStatement insertAlarm = db.compileStatement("INSERT INTO " + ALARMS + " (trip_start_millis, millis, perclos) VALUES (?, ?, ?)");
+        final SQLiteStatement insertSlowEyelidClosure = db.compileStatement("INSERT INTO " + SLOW_EYELID_CLOSURES + " (trip_start_millis, start_millis, duration_millis) VALUES (?, ?, ?)");
+        try {
+            for (final Event event : events) {
+                if (event instanceof DrowsyEvent) {
+                    insertAlarm.bindLong(1, tripStart.getMillis());
+                    insertAlarm.bindLong(2, event.getInstant().getMillis());
+                    insertAlarm.bindDouble(3, ((DrowsyEvent) event).getPerclos());
+                    insertAlarm.executeInsert();
+                } else if (event instanceof SlowEyelidClosureEvent) {
+                    insertSlowEyelidClosure.bindLong(1, tripStart.getMillis());
+                    insertSlowEyelidClosure.bindLong(2, event.getInstant().getMillis());
+                    insertSlowEyelidClosure.bindLong(3, ((SlowEyelidClosureEvent) event).getDuration().getMillis());
+                    insertSlowEyelidClosure.executeInsert();
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            insertAlarm.close();
+            insertSlowEyelidClosure.close();
+            db.endTransaction();
+        }
+    }
+
+    private static String[] args(final Instant from, final Instant to) {
+        return new String[]{Long.toString(from.getMillis()), Long.toString(to.getMillis())};
+    }
+}
@@ -0,0 +1,232 @@
+package de.drowsydriveralarm.tripdb;
+
+import android.database.SQLException;
+import android.util.Log;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.drowsydriveralarm.Clock;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.FrameRecorder;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+import de.drowsydriveralarm.eventproducer.ClockFrameTimeSynchronizer;
+
+/**
+ * Writes a trip with its alarms and slow eyelid closures posted on the event bus to the {@link TripDatabase}.
+ * <p>
+ * The subscribers only offer the events to a bounded in-memory queue, so the thread posting never touches the
+ * database. A thread of its own writes the events queued in transactions of at most {@code maxBatchEvents} events,
+ * waiting {@code batchInterval} for more events while the queue is drained. Events are dropped while that queue is
+ * full. The thread deletes what is older than {@code retention} when started and then every
+ * {@link #PRUNE_INTERVAL}. A failing insert, prune or update is counted and the thread goes on.
+ * <p>
+ * The database keeps wall clock time. The instants of the events are frame time, e.g. relative to the start of the
+ * camera, and converted by a {@link ClockFrameTimeSynchronizer} fed by the frames recorded. Events before the first
+ * frame are not converted and dropped.
+ */
+public class TripDatabaseWriter implements Runnable, FrameRecorder, Closeable {
+
+    public static final Duration PRUNE_INTERVAL = Duration.standardHours(1);
+
+    private static final String TAG = "TripDatabaseWriter";
+
+    private final TripDatabase tripDatabase;
+    private final Instant tripStart;
+    private final int maxBatchEvents;
+    private final Duration batchInterval;
+    private final Duration retention;
+    private final Clock clock;
+    private final BlockingQueue<Event> events;
+    private final Thread thread;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    // guarded by this
+    // remembers about 10 seconds of frames at 30 frames per second, as the FrameEventProducer
+    private final ClockFrameTimeSynchronizer timeSynchronizer = new ClockFrameTimeSynchronizer(1.0 / 300, 0.001);
+    private volatile boolean closed;
+    private volatile long writtenEvents;
+    private volatile long failedWrites;
+
+    public TripDatabaseWriter(final TripDatabase tripDatabase, final Instant tripStart, final int capacity, final int maxBatchEvents, final Duration batchInterval, final Duration retention, final Clock clock) {
+        Preconditions.checkArgument(maxBatchEvents > 0, "maxBatchEvents must be positive");
+        this.tripDatabase = tripDatabase;
+        this.tripStart = tripStart;
+        this.maxBatchEvents = maxBatchEvents;
+        this.batchInterval = batchInterval;
+        this.retention = retention;
+        this.clock = clock;
+        this.events = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this, TAG);
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Writes the events already recorded and the end of the trip, and closes the database.
+     *
+     * @throws InterruptedIOException if interrupted while waiting, with the interrupt status set again
+     */
+    @Override
+    public void close() throws IOException {
+        this.closed = true;
+        this.thread.interrupt();
+        try {
+            this.thread.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the trip being written.");
+        }
+    }
+
+    @Override
+    public synchronized void recordFrame(final FrameFeatures features) {
+        this.timeSynchronizer.addSample(this.clock.nanoTime(), features.getTimestampMillis());
+    }
+
+    @Subscribe
+    public void recordDrowsyEvent(final DrowsyEvent event) {
+        final Optional<Instant> instant = this.toWallClockTime(event.getInstant());
+        if (!instant.isPresent()) {
+            this.droppedEvents.incrementAndGet();
+            return;
+        }
+
+        this.offer(new DrowsyEvent(instant.get(), event.getPerclos()));
+    }
+
+    // not the PendingSlowEyelidClosureEvents extending SlowEyelidClosureEvent
+    @Subscribe
+    public void recordSlowEyelidClosureEvent(final SlowEyelidClosureEvent event) {
+        if (event.getClass() != SlowEyelidClosureEvent.class) {
+            return;
+        }
+
+        final Optional<Instant> instant = this.toWallClockTime(event.getInstant());
+        if (!instant.isPresent()) {
+            this.droppedEvents.incrementAndGet();
+            return;
+        }
+
+        this.offer(new SlowEyelidClosureEvent(instant.get(), event.getDuration()));
+    }
+
+    public long getDroppedEvents() {
+        return this.droppedEvents.get();
+    }
+
+    public long getWrittenEvents() {
+        return this.writtenEvents;
+    }
+
+    public long getFailedWrites() {
+        return this.failedWrites;
+    }
+
+    @Override
+    public void run() {
+        try {
+            this.insertTrip();
+            long nextPruneMillis = Long.MIN_VALUE;
+            final List<Event> batch = new ArrayList<>(this.maxBatchEvents);
+            while (!this.closed || !this.events.isEmpty()) {
+                this.events.drainTo(batch, this.maxBatchEvents);
+                if (!batch.isEmpty()) {
+                    this.write(batch);
+                }
+                final Instant now = this.clock.now();
+                if (now.getMillis() >= nextPruneMillis) {
+                    this.deleteBefore(now.minus(this.retention));
+                    nextPruneMillis = now.plus(PRUNE_INTERVAL).getMillis();
+                }
+                if (batch.size() < this.maxBatchEvents) {
+                    this.await();
+                }
+                batch.clear();
+            }
+            this.updateTripEnd();
+        } finally {
+            this.tripDatabase.close();
+        }
+    }
+
+    private synchronized Optional<Instant> toWallClockTime(final Instant frameTime) {
+        if (!this.timeSynchronizer.isSynchronized()) {
+            return Optional.absent();
+        }
+
+        return Optional.of(this.timeSynchronizer.toWallClockTime(frameTime, this.clock));
+    }
+
+    private void offer(final Event event) {
+        if (!this.events.offer(event)) {
+            this.droppedEvents.incrementAndGet();
+        }
+    }
+
+    private void insertTrip() {
+        try {
+            this.tripDatabase.insertTrip(this.tripStart);
+        } catch (final SQLException e) {
+            Log.w(TAG, "Unable to insert trip " + this.tripStart + ".", e);
+            this.failedWrites++;
+        }
+    }
+
+    private void deleteBefore(final Instant before) {
+        try {
+            this.tripDatabase.deleteBefore(before);
+        } catch (final SQLException e) {
+            Log.w(TAG, "Unable to delete what is before " + before + ".", e);
+            this.failedWrites++;
+        }
+    }
+
+    private void updateTripEnd() {
+        try {
+            this.tripDatabase.updateTripEnd(this.tripStart, this.clock.now());
+        } catch (final SQLException e) {
+            Log.w(TAG, "Unable to update the end of trip " + this.tripStart + ".", e);
+            this.failedWrites++;
+        }
+    }
+
+    private void write(final List<Event> batch) {
+        try {
+            this.tripDatabase.insertEvents(this.tripStart, batch);
+            this.writtenEvents += batch.size();
+        } catch (final SQLException e) {
+            Log.w(TAG, "Unable to write " + batch.size() + " events.", e);
+            this.failedWrites++;
+        }
+    }
+
+    // interrupted to be closed
+    private void await() {
+        if (this.closed) {
+            return;
+        }
+        try {
+            Thread.sleep(this.batchInterval.getMillis());
+        } catch (final InterruptedException e) {
+            // writes the events left and ends
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package de.drowsydriveralarm;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.drowsydriveralarm.event.DrowsinessTrendEvent;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class DrowsinessLightTest {
+
+    private DrowsinessLight light;
+
+    @Before
+    public void setup() {
+        this.light = new DrowsinessLight();
+    }
+
+    @Test
+    public void shouldShowTrendWhileAwake() {
+        // When
+        this.light.onTrend(new DrowsinessTrendEvent(new Instant(1000), 0.1, Duration.standardSeconds(60)));
+
+        // Then
+        assertThat(this.light.getLight(), is(DrowsinessLight.LIKELY_DROWSY));
+    }
+
+    @Test
+    public void shouldNotLowerDrowsyLevelByTrend() {
+        // Given
+        this.light.setLevel(DrowsinessLight.DROWSY);
+
+        // When
+        this.light.onTrend(new DrowsinessTrendEvent(new Instant(1000), 0.1, Duration.standardSeconds(60)));
+
+        // Then
+        assertThat(this.light.getLight(), is(DrowsinessLight.DROWSY));
+    }
+
+    @Test
+    public void shouldClearTrendWhenDrowsyThresholdWouldHaveBeenReached() {
+        // Given
+        this.light.onTrend(new DrowsinessTrendEvent(new Instant(1000), 0.1, Duration.standardSeconds(60)));
+
+        // When
+        final boolean changedBefore = this.light.onFrame(60999);
+        final boolean changed = this.light.onFrame(61000);
+
+        // Then
+        assertThat(changedBefore, is(false));
+        assertThat(changed, is(true));
+        assertThat(this.light.getLight(), is(DrowsinessLight.AWAKE));
+    }
+
+    @Test
+    public void shouldClearTrendWhenLevelChanges() {
+        // Given
+        this.light.setLevel(DrowsinessLight.LIKELY_DROWSY);
+        this.light.onTrend(new DrowsinessTrendEvent(new Instant(1000), 0.1, Duration.standardSeconds(60)));
+
+        // When
+        this.light.setLevel(DrowsinessLight.AWAKE);
+
+        // Then
+        assertThat(this.light.getLight(), is(DrowsinessLight.AWAKE));
+    }
+}
@@ -0,0 +1,65 @@
+package de.drowsydriveralarm.detector;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RegionOfInterestTest {
+
+    private static final int RAW_WIDTH = 640;
+    private static final int RAW_HEIGHT = 480;
+
+    @Test
+    public void shouldPadFace() {
+        // When
+        final RegionOfInterest region = RegionOfInterest.fromFace(100, 100, 40, 60, 0.5f, RAW_WIDTH, RAW_HEIGHT);
+
+        // Then
+        assertThat(region, is(new RegionOfInterest(80, 70, 160, 190)));
+    }
+
+    @Test
+    public void shouldClampPaddedFaceToFrame() {
+        // When
+        final RegionOfInterest region = RegionOfInterest.fromFace(-10, 450, 100, 100, 0.5f, RAW_WIDTH, RAW_HEIGHT);
+
+        // Then
+        assertThat(region, is(new RegionOfInterest(0, 400, 140, RAW_HEIGHT)));
+    }
+
+    @Test
+    public void shouldAlignToEvenPixels() {
+        // When
+        final RegionOfInterest region = new RegionOfInterest(81, 71, 159, 639).alignToEven(RAW_WIDTH, RAW_HEIGHT);
+
+        // Then
+        assertThat(region, is(new RegionOfInterest(80, 70, 160, RAW_HEIGHT)));
+    }
+
+    @Test
+    public void shouldMapUnrotatedRegion() {
+        this.shouldMapRegion(0, new RegionOfInterest(10, 20, 110, 220), new RegionOfInterest(10, 20, 110, 220));
+    }
+
+    @Test
+    public void shouldMapRegionRotatedByQuarterTurn() {
+        // upright frame is 480 x 640, upright x runs along raw -y, upright y along raw x
+        this.shouldMapRegion(1, new RegionOfInterest(10, 20, 110, 220), new RegionOfInterest(20, 370, 220, 470));
+    }
+
+    @Test
+    public void shouldMapRegionRotatedByHalfTurn() {
+        this.shouldMapRegion(2, new RegionOfInterest(10, 20, 110, 220), new RegionOfInterest(530, 260, 630, 460));
+    }
+
+    @Test
+    public void shouldMapRegionRotatedByThreeQuarterTurns() {
+        this.shouldMapRegion(3, new RegionOfInterest(10, 20, 110, 220), new RegionOfInterest(420, 10, 620, 110));
+    }
+
+    private void shouldMapRegion(final int rotation, final RegionOfInterest upright, final RegionOfInterest raw) {
+        assertThat(upright.toRaw(rotation, RAW_WIDTH, RAW_HEIGHT), is(raw));
+        assertThat(raw.toUpright(rotation, RAW_WIDTH, RAW_HEIGHT), is(upright));
+    }
+}
@@ -0,0 +1,104 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.eventbus.EventBus;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.drowsydriveralarm.EventListener;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.DetectorResumedEvent;
+import de.drowsydriveralarm.event.DetectorStalledEvent;
+import de.drowsydriveralarm.event.Event;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class DetectorStallWatchdogTest {
+
+    private EventListener listener;
+    private MockedClock clock;
+    private DetectorStallWatchdog watchdog;
+
+    @Before
+    public void setup() {
+        final EventBus eventBus = new EventBus();
+        this.listener = new EventListener();
+        eventBus.register(this.listener);
+        this.clock = new MockedClock();
+        this.watchdog = new DetectorStallWatchdog(eventBus, this.clock, new Duration(33), new Duration(1000));
+    }
+
+    @Test
+    public void shouldRecordGapsInHistogram() {
+        // When
+        this.receiveFrame(0);
+        this.receiveFrame(33);
+        this.receiveFrame(66);
+        this.receiveFrame(200);
+
+        // Then
+        final long[] gapHistogram = this.watchdog.getGapHistogram();
+        assertThat(gapHistogram[3], is(2L));
+        assertThat(gapHistogram[13], is(1L));
+    }
+
+    @Test
+    public void shouldCountDroppedFrames() {
+        // When
+        this.receiveFrame(0);
+        this.receiveFrame(33);
+        this.receiveFrame(99);
+        this.receiveFrame(231);
+
+        // Then
+        // 1 frame missing between 33 and 99, 3 frames missing between 99 and 231
+        assertThat(this.watchdog.getDroppedFrames(), is(4L));
+    }
+
+    @Test
+    public void shouldNotPostStalledEventWhileFramesArrive() {
+        // Given
+        this.receiveFrame(0);
+        this.receiveFrame(500);
+
+        // When
+        this.tick(1400);
+
+        // Then
+        assertThat(this.listener.getEvents(), empty());
+    }
+
+    @Test
+    public void shouldPostSingleStalledEventAndResumedEvent() {
+        // Given
+        this.receiveFrame(0);
+
+        // When
+        this.tick(999);
+        this.tick(1000);
+        this.tick(1500);
+        this.receiveFrame(2000);
+
+        // Then
+        assertThat(
+                this.listener.getEvents(),
+                contains(
+                        (Event) new DetectorStalledEvent(new Instant(0), new Duration(1000)),
+                        new DetectorResumedEvent(new Instant(0), new Duration(2000))));
+    }
+
+    private void receiveFrame(final long millis) {
+        this.clock.setNow(new Instant(millis));
+        this.watchdog.onFrame(millis);
+    }
+
+    private void tick(final long millis) {
+        this.clock.setNow(new Instant(millis));
+        this.watchdog.onTick();
+    }
+}
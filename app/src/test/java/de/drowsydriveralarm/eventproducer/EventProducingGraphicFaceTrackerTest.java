@@ -36,6 +36,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.core.IsCollectionContaining.hasItems;
 import static org.hamcrest.core.IsNot.not;
+import static org.mockito.Mockito.doReturn;
 
 public class EventProducingGraphicFaceTrackerTest {
 
@@ -152,6 +153,31 @@ public class EventProducingGraphicFaceTrackerTest {
         assertThat(this.eventListener.filterEventsBy(EyesClosedEvent.class), contains(new EyesClosedEvent(new Instant(1))));
     }
 
+    @Test
+    public void shouldBackDateEyesClosedEventToFirstSkippedFrame() {
+        // When
+        this.tracker.onUpdate(getFaceDetections(new Instant(0)), createFaceWithEyesOpened());
+        this.tracker.onUpdate(getFaceDetections(new Instant(33)), createFace(Face.UNCOMPUTED_PROBABILITY, Face.UNCOMPUTED_PROBABILITY));
+        this.tracker.onUpdate(getFaceDetections(new Instant(66)), createFace(Face.UNCOMPUTED_PROBABILITY, Face.UNCOMPUTED_PROBABILITY));
+        this.tracker.onUpdate(getFaceDetections(new Instant(99)), createFaceWithEyesClosed());
+        this.tracker.onUpdate(getFaceDetections(new Instant(600)), createFaceWithEyesOpened());
+
+        // Then
+        assertThat(this.eventListener.filterEventsBy(EyesClosedEvent.class), contains(new EyesClosedEvent(new Instant(33))));
+        assertThat(this.eventListener.getEvents(), hasItem(new SlowEyelidClosureEvent(new Instant(33), new Duration(567))));
+    }
+
+    @Test
+    public void shouldNotBackDateEyesClosedEventAfterLongUnknownEyes() {
+        // When
+        this.tracker.onUpdate(getFaceDetections(new Instant(0)), createFaceWithEyesOpened());
+        this.tracker.onUpdate(getFaceDetections(new Instant(33)), createFace(Face.UNCOMPUTED_PROBABILITY, Face.UNCOMPUTED_PROBABILITY));
+        this.tracker.onUpdate(getFaceDetections(new Instant(1000)), createFaceWithEyesClosed());
+
+        // Then
+        assertThat(this.eventListener.filterEventsBy(EyesClosedEvent.class), contains(new EyesClosedEvent(new Instant(1000))));
+    }
+
     @Test
     public void shouldCreateASingleEyesClosedEvent() {
         // When
@@ -230,13 +256,40 @@ public class EventProducingGraphicFaceTrackerTest {
     }
 
     @Test
-    public void shouldCreateNoEventsWhenLEFT_EYENWasNotDetected() {
-        this.shouldCreateNoEventsForFaceWithLandmarks(Arrays.asList(createLandmark(Landmark.RIGHT_EYE)));
+    public void shouldCreateEyesClosedEventFromRIGHT_EYEWhenLEFT_EYEWasNotDetected() {
+        // Given
+        final Face face = createFaceWithLandmarks(Arrays.asList(createLandmark(Landmark.RIGHT_EYE)));
+        doReturn(0.8f).when(face).getIsLeftEyeOpenProbability();
+        doReturn(0.1f).when(face).getIsRightEyeOpenProbability();
+
+        // When
+        this.tracker.onUpdate(getFaceDetections(new Instant(100)), face);
+
+        // Then
+        assertThat(this.eventListener.filterEventsBy(EyesClosedEvent.class), contains(new EyesClosedEvent(new Instant(100))));
+    }
+
+    @Test
+    public void shouldCreateEyesOpenedEventFromLEFT_EYEWhenRIGHT_EYEWasNotDetected() {
+        // Given
+        final Face face = createFaceWithLandmarks(Arrays.asList(createLandmark(Landmark.LEFT_EYE)));
+        doReturn(0.9f).when(face).getIsLeftEyeOpenProbability();
+        doReturn(Face.UNCOMPUTED_PROBABILITY).when(face).getIsRightEyeOpenProbability();
+
+        // When
+        this.tracker.onUpdate(getFaceDetections(new Instant(100)), face);
+
+        // Then
+        assertThat(this.eventListener.filterEventsBy(EyesOpenedEvent.class), contains(new EyesOpenedEvent(new Instant(100))));
     }
 
     @Test
-    public void shouldCreateNoEventsWhenRIGHT_EYENWasNotDetected() {
-        this.shouldCreateNoEventsForFaceWithLandmarks(Arrays.asList(createLandmark(Landmark.LEFT_EYE)));
+    public void shouldCreateNoEyesClosedEventFromSingleEyeNearThreshold() {
+        // When
+        this.tracker.onUpdate(getFaceDetections(new Instant(100)), createFace(Face.UNCOMPUTED_PROBABILITY, 0.4f));
+
+        // Then
+        assertThat(this.eventListener.filterEventsBy(EyesClosedEvent.class), is(empty()));
     }
 
     private void shouldCreateNoEventsForFaceWithLandmarks(final List<Landmark> landmarks) {
@@ -6,6 +6,7 @@ import com.google.android.gms.vision.face.Landmark;
 import com.google.common.eventbus.EventBus;
 
 import org.hamcrest.collection.IsIterableContainingInOrder;
+import org.joda.time.Duration;
 import org.joda.time.Instant;
 import org.junit.Before;
 import org.junit.Test;
@@ -28,15 +29,16 @@ import static de.drowsydriveralarm.eventproducer.VisionHelper.createFaceWithEyes
 import static de.drowsydriveralarm.eventproducer.VisionHelper.createFaceWithLandmarks;
 import static de.drowsydriveralarm.eventproducer.VisionHelper.createLandmark;
 import static de.drowsydriveralarm.eventproducer.VisionHelper.getFaceDetections;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItem;
-import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.hamcrest.core.Is.isA;
 
 public class FaceTrackingActiveAndIdleEventProducerTest {
 
     private EventListener eventListener;
     private Tracker<Face> tracker;
+    private FaceTrackingActiveAndIdleEventProducer activeAndIdleEventProducer;
 
     @Before
     public void setup() {
@@ -44,6 +46,10 @@ public class FaceTrackingActiveAndIdleEventProducerTest {
     }
 
     public void setup(final Clock clock) {
+        this.setup(clock, Duration.ZERO);
+    }
+
+    public void setup(final Clock clock, final Duration holdTime) {
         // Given
         this.eventListener = new EventListener();
         final EventBus eventBus = new EventBus();
@@ -52,9 +58,10 @@ public class FaceTrackingActiveAndIdleEventProducerTest {
         final EventSubscriberProvider eventSubscriberProvider = new EventSubscriberProvider(eventBus, config);
         DrowsyEventDetector.registerEventSubscribersOnEventBus(eventSubscriberProvider.getEventSubscribers(), eventBus);
 
+        this.activeAndIdleEventProducer = new FaceTrackingActiveAndIdleEventProducer(eventBus, clock, holdTime);
         this.tracker =
                 new CompositeFaceTracker(
-                        new FaceTrackingActiveAndIdleEventProducer(eventBus, clock),
+                        this.activeAndIdleEventProducer,
                         new EventProducingGraphicFaceTracker(
                                 eventBus,
                                 new DrowsyEventProducer(
@@ -65,12 +72,16 @@ public class FaceTrackingActiveAndIdleEventProducerTest {
     }
 
     @Test
-    public void shouldCreateAppActiveEvent_onNewItem() {
+    public void shouldCreateAppActiveEventAtFrameOfNewItem() {
         // When
         this.tracker.onNewItem(1, createFaceWithEyesClosed());
+        this.tracker.onUpdate(getFaceDetections(new Instant(500)), createFaceWithEyesClosed());
 
         // Then
-        assertThat(this.eventListener.getEvents(), hasItem(isA(AppActiveEvent.class)));
+        assertThat(
+                this.eventListener.filterEventsBy(AppActiveEvent.class, AppIdleEvent.class),
+                IsIterableContainingInOrder.<Event> contains(
+                        new AppActiveEvent(new Instant(500), Duration.ZERO)));
     }
 
     @Test
@@ -95,6 +106,7 @@ public class FaceTrackingActiveAndIdleEventProducerTest {
     @Test
     public void shouldCreateAppIdleEvent_onDone() {
         // When
+        this.tracker.onUpdate(getFaceDetections(new Instant(0)), createFaceWithEyesClosed());
         this.tracker.onDone();
 
         // Then
@@ -140,13 +152,13 @@ public class FaceTrackingActiveAndIdleEventProducerTest {
         // Then
         assertThat(
                 this.eventListener.filterEventsBy(AppActiveEvent.class, AppIdleEvent.class),
-                contains(
-                        new AppActiveEvent(new Instant(0)),
-                        new AppIdleEvent(new Instant(20)),
-                        new AppActiveEvent(new Instant(30)),
-                        new AppIdleEvent(new Instant(100)),
-                        new AppActiveEvent(new Instant(110)),
-                        new AppIdleEvent(new Instant(120))));
+                IsIterableContainingInOrder.<Event> contains(
+                        new AppActiveEvent(new Instant(10), Duration.ZERO),
+                        new AppIdleEvent(new Instant(20), Duration.ZERO),
+                        new AppActiveEvent(new Instant(30), Duration.ZERO),
+                        new AppIdleEvent(new Instant(100), Duration.ZERO),
+                        new AppActiveEvent(new Instant(110), Duration.ZERO),
+                        new AppIdleEvent(new Instant(120), Duration.ZERO)));
     }
 
     @Test
@@ -185,10 +197,10 @@ public class FaceTrackingActiveAndIdleEventProducerTest {
         // Then
         assertThat(
                 this.eventListener.filterEventsBy(AppActiveEvent.class, AppIdleEvent.class),
-                contains(
-                        new AppIdleEvent(new Instant(0)),
-                        new AppActiveEvent(new Instant(30)),
-                        new AppIdleEvent(new Instant(60))));
+                IsIterableContainingInOrder.<Event> contains(
+                        new AppIdleEvent(new Instant(0), Duration.ZERO),
+                        new AppActiveEvent(new Instant(40), Duration.ZERO),
+                        new AppIdleEvent(new Instant(60), Duration.ZERO)));
     }
 
     @Test
@@ -227,27 +239,122 @@ public class FaceTrackingActiveAndIdleEventProducerTest {
         // Then
         assertThat(
                 this.eventListener.filterEventsBy(AppActiveEvent.class, AppIdleEvent.class),
-                contains(
-                        new AppActiveEvent(new Instant(0)),
-                        new AppIdleEvent(new Instant(60))));
+                IsIterableContainingInOrder.<Event> contains(
+                        new AppActiveEvent(new Instant(10), Duration.ZERO),
+                        new AppIdleEvent(new Instant(60), Duration.ZERO)));
+    }
+
+    @Test
+    public void shouldCreateSingleAppIdleEventForEyesNotRecognizedOnEveryFrame() {
+        // Given
+        final MockedClock clock = new MockedClock();
+        this.setup(clock, new Duration(100));
+
+        // When
+        for (int millis = 0; millis <= 1000; millis += 33) {
+            clock.setNow(new Instant(millis));
+            this.tracker.onUpdate(
+                    getFaceDetections(new Instant(millis)),
+                    createFaceWithLandmarks(Collections.<Landmark> emptyList()));
+        }
+
+        // Then
+        assertThat(
+                this.eventListener.filterEventsBy(AppActiveEvent.class, AppIdleEvent.class),
+                IsIterableContainingInOrder.<Event> contains(
+                        new AppIdleEvent(new Instant(0), new Duration(132))));
+        assertThat(this.activeAndIdleEventProducer.getSuppressedIdleFrames(), is(30L));
+    }
+
+    @Test
+    public void shouldSuppressStatesShorterThanHoldTime() {
+        // Given
+        final MockedClock clock = new MockedClock();
+        this.setup(clock, new Duration(50));
+
+        // When
+        clock.setNow(new Instant(0));
+        this.tracker.onNewItem(1, createFaceWithEyesOpened());
+        this.tracker.onUpdate(getFaceDetections(new Instant(0)), createFaceWithEyesOpened());
+        this.tracker.onUpdate(getFaceDetections(new Instant(30)), createFaceWithEyesOpened());
+        this.tracker.onUpdate(getFaceDetections(new Instant(60)), createFaceWithEyesOpened());
+        this.tracker.onMissing(getFaceDetections(new Instant(90)));
+        this.tracker.onUpdate(getFaceDetections(new Instant(120)), createFaceWithEyesOpened());
+        this.tracker.onMissing(getFaceDetections(new Instant(150)));
+        this.tracker.onMissing(getFaceDetections(new Instant(180)));
+        this.tracker.onMissing(getFaceDetections(new Instant(210)));
+
+        // Then
+        assertThat(
+                this.eventListener.filterEventsBy(AppActiveEvent.class, AppIdleEvent.class),
+                IsIterableContainingInOrder.<Event> contains(
+                        new AppActiveEvent(new Instant(0), new Duration(60)),
+                        new AppIdleEvent(new Instant(150), new Duration(60))));
+        assertThat(this.activeAndIdleEventProducer.getSuppressedActiveFrames(), is(3L));
+        assertThat(this.activeAndIdleEventProducer.getSuppressedIdleFrames(), is(3L));
+    }
+
+    @Test
+    public void shouldCreatePendingAppIdleEvent_onDone() {
+        // Given
+        final MockedClock clock = new MockedClock();
+        this.setup(clock, new Duration(100));
+        this.tracker.onUpdate(getFaceDetections(new Instant(0)), createFaceWithEyesOpened());
+        clock.setNow(new Instant(100));
+        this.tracker.onUpdate(getFaceDetections(new Instant(100)), createFaceWithEyesOpened());
+        clock.setNow(new Instant(130));
+        this.tracker.onMissing(getFaceDetections(new Instant(130)));
+
+        // When
+        clock.setNow(new Instant(160));
+        this.tracker.onDone();
+
+        // Then
+        assertThat(
+                this.eventListener.filterEventsBy(AppActiveEvent.class, AppIdleEvent.class),
+                IsIterableContainingInOrder.<Event> contains(
+                        new AppActiveEvent(new Instant(0), new Duration(100)),
+                        new AppIdleEvent(new Instant(130), new Duration(30))));
+    }
+
+    @Test
+    public void shouldCreateAppIdleEventInFrameTime_onDone() {
+        // Given
+        // the frame timestamps are relative to the start of the camera, the clock is wall clock
+        final MockedClock clock = new MockedClock();
+        this.setup(clock);
+        clock.setNow(new Instant(1500000000000L));
+        this.tracker.onUpdate(getFaceDetections(new Instant(1000)), createFaceWithEyesOpened());
+
+        // When
+        clock.setNow(new Instant(1500000000200L));
+        this.tracker.onDone();
+
+        // Then
+        assertThat(
+                this.eventListener.filterEventsBy(AppActiveEvent.class, AppIdleEvent.class),
+                IsIterableContainingInOrder.<Event> contains(
+                        new AppActiveEvent(new Instant(1000), Duration.ZERO),
+                        new AppIdleEvent(new Instant(1200), Duration.ZERO)));
     }
 
     @Test
     public void shouldCreateAppIdleEventWhenFaceRecognizedButEyesNotRecognized() {
-        this.shouldCreateNoEventsForFaceWithLandmarks(Collections.<Landmark> emptyList());
+        this.shouldCreateEventForFaceWithLandmarks(Collections.<Landmark> emptyList(), new AppIdleEvent(new Instant(0), Duration.ZERO));
     }
 
+    // the eye open probability falls back to the eye recognized
     @Test
-    public void shouldCreateAppIdleEventWhenFaceRecognizedButLEFT_EYENotRecognized() {
-        this.shouldCreateNoEventsForFaceWithLandmarks(Arrays.asList(createLandmark(Landmark.RIGHT_EYE)));
+    public void shouldCreateAppActiveEventWhenOnlyRIGHT_EYERecognized() {
+        this.shouldCreateEventForFaceWithLandmarks(Arrays.asList(createLandmark(Landmark.RIGHT_EYE)), new AppActiveEvent(new Instant(0), Duration.ZERO));
     }
 
     @Test
-    public void shouldCreateAppIdleEventWhenFaceRecognizedButRIGHT_EYENotRecognized() {
-        this.shouldCreateNoEventsForFaceWithLandmarks(Arrays.asList(createLandmark(Landmark.LEFT_EYE)));
+    public void shouldCreateAppActiveEventWhenOnlyLEFT_EYERecognized() {
+        this.shouldCreateEventForFaceWithLandmarks(Arrays.asList(createLandmark(Landmark.LEFT_EYE)), new AppActiveEvent(new Instant(0), Duration.ZERO));
     }
 
-    private void shouldCreateNoEventsForFaceWithLandmarks(final List<Landmark> landmarks) {
+    private void shouldCreateEventForFaceWithLandmarks(final List<Landmark> landmarks, final Event event) {
         // When
         final MockedClock clock = new MockedClock();
         this.setup(clock);
@@ -258,7 +365,6 @@ public class FaceTrackingActiveAndIdleEventProducerTest {
         // Then
         assertThat(
                 this.eventListener.filterEventsBy(AppActiveEvent.class, AppIdleEvent.class),
-                IsIterableContainingInOrder.<Event> contains(
-                        new AppIdleEvent(new Instant(0))));
+                IsIterableContainingInOrder.contains(event));
     }
 }
@@ -0,0 +1,165 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.android.gms.vision.Detector;
+import com.google.android.gms.vision.Tracker;
+import com.google.android.gms.vision.face.Face;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.drowsydriveralarm.MockedClock;
+
+import static de.drowsydriveralarm.eventproducer.VisionHelper.createFaceWithEyesOpened;
+import static de.drowsydriveralarm.eventproducer.VisionHelper.getFaceDetections;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class ReorderingFaceTrackerTest {
+
+    private final List<Long> releasedFrames = new ArrayList<>();
+    private MockedClock clock;
+    private Tracker<Face> tracker;
+    private ReorderingFaceTracker reorderingFaceTracker;
+
+    @Before
+    public void setup() {
+        this.clock = new MockedClock();
+        this.clock.setNow(new Instant(0));
+        this.tracker = new Tracker<Face>() {
+
+            @Override
+            public void onUpdate(final Detector.Detections<Face> detections, final Face face) {
+                ReorderingFaceTrackerTest.this.releasedFrames.add(FaceFeatures.getInstantOf(detections).getMillis());
+            }
+
+            @Override
+            public void onMissing(final Detector.Detections<Face> detections) {
+                ReorderingFaceTrackerTest.this.releasedFrames.add(-FaceFeatures.getInstantOf(detections).getMillis());
+            }
+        };
+        this.reorderingFaceTracker = new ReorderingFaceTracker(this.tracker, this.clock, new Duration(100), 4);
+    }
+
+    @Test
+    public void shouldReleaseFramesInOrderOfTimestamps() {
+        // When
+        this.receiveFrame(0);
+        this.receiveFrame(66);
+        this.receiveFrame(33);
+        this.receiveMissingFrame(99);
+        this.receiveFrame(140);
+
+        // Then
+        assertThat(this.releasedFrames, contains(0L, 33L));
+    }
+
+    @Test
+    public void shouldHoldBackFramesWithinLatencyBudget() {
+        // When
+        this.receiveFrame(0);
+        this.receiveFrame(33);
+        this.receiveFrame(66);
+
+        // Then
+        assertThat(this.releasedFrames, empty());
+    }
+
+    @Test
+    public void shouldDropDuplicateFrames() {
+        // When
+        this.receiveFrame(0);
+        this.receiveFrame(33);
+        this.receiveFrame(33);
+        this.receiveFrame(133);
+        this.receiveFrame(33);
+
+        // Then
+        assertThat(this.releasedFrames, contains(0L, 33L));
+        assertThat(this.reorderingFaceTracker.getDuplicateFrames(), is(2L));
+        assertThat(this.reorderingFaceTracker.getLateFrames(), is(0L));
+    }
+
+    @Test
+    public void shouldDropLateFrames() {
+        // Given
+        this.receiveFrame(0);
+        this.receiveFrame(33);
+        this.receiveFrame(133);
+
+        // When
+        this.receiveFrame(20);
+
+        // Then
+        assertThat(this.releasedFrames, contains(0L, 33L));
+        assertThat(this.reorderingFaceTracker.getLateFrames(), is(1L));
+    }
+
+    @Test
+    public void shouldReleaseOldestFrameWhenFull() {
+        // When
+        this.receiveFrame(0);
+        this.receiveFrame(10);
+        this.receiveFrame(20);
+        this.receiveFrame(30);
+        this.receiveFrame(40);
+
+        // Then
+        assertThat(this.releasedFrames, contains(0L));
+    }
+
+    @Test
+    public void shouldReleaseFramesAfterLatencyBudgetOnTick() {
+        // Given
+        this.receiveFrame(0);
+        this.clock.setNow(new Instant(50));
+        this.receiveFrame(33);
+
+        // When
+        this.clock.setNow(new Instant(120));
+        this.reorderingFaceTracker.onTick();
+
+        // Then
+        assertThat(this.releasedFrames, contains(0L));
+    }
+
+    @Test
+    public void shouldReleaseAllFramesOnDone() {
+        // Given
+        this.receiveFrame(33);
+        this.receiveFrame(0);
+
+        // When
+        this.reorderingFaceTracker.onDone();
+
+        // Then
+        assertThat(this.releasedFrames, contains(0L, 33L));
+    }
+
+    @Test
+    public void shouldNotHoldBackFramesWithZeroLatencyBudget() {
+        // Given
+        this.reorderingFaceTracker = new ReorderingFaceTracker(this.tracker, this.clock, Duration.ZERO, 4);
+
+        // When
+        this.receiveFrame(0);
+        this.receiveFrame(33);
+
+        // Then
+        assertThat(this.releasedFrames, contains(0L, 33L));
+    }
+
+    private void receiveFrame(final long millis) {
+        this.reorderingFaceTracker.onUpdate(getFaceDetections(new Instant(millis)), createFaceWithEyesOpened());
+    }
+
+    private void receiveMissingFrame(final long millis) {
+        this.reorderingFaceTracker.onMissing(getFaceDetections(new Instant(millis)));
+    }
+}
@@ -17,6 +17,13 @@ class SharedPreferencesTestFactory {
         when(sharedPreferences.getString(eq("eyeOpenProbabilityThreshold"), anyString())).thenReturn("0.5");
         when(sharedPreferences.getString(eq("likelyDrowsyThreshold"), anyString())).thenReturn("0.08");
         when(sharedPreferences.getString(eq("timeWindow"), anyString())).thenReturn("15000");
+        when(sharedPreferences.getString(eq("drowsyExitThreshold"), anyString())).thenReturn("0.12");
+        when(sharedPreferences.getString(eq("likelyDrowsyExitThreshold"), anyString())).thenReturn("0.06");
+        when(sharedPreferences.getString(eq("drowsinessLevelMinDwell"), anyString())).thenReturn("3000");
+        when(sharedPreferences.getString(eq("reorderLatencyBudget"), anyString())).thenReturn("0");
+        when(sharedPreferences.getString(eq("calibrationDuration"), anyString())).thenReturn("0");
+        when(sharedPreferences.getString(eq("eyeOpenProbabilityFilter"), anyString())).thenReturn("none");
+        when(sharedPreferences.getString(eq("drowsinessTrendHorizon"), anyString())).thenReturn("0");
         return sharedPreferences;
     }
 }
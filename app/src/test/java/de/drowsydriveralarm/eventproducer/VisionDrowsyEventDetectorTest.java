@@ -0,0 +1,70 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import de.drowsydriveralarm.FrameRecorder;
+import de.drowsydriveralarm.SystemClock;
+import de.drowsydriveralarm.history.TripRecorder;
+import de.drowsydriveralarm.journal.EventJournalWriter;
+import de.drowsydriveralarm.recorder.FlightRecorder;
+import de.drowsydriveralarm.rollup.DrowsinessRollups;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class VisionDrowsyEventDetectorTest {
+
+    private TripRecorder tripRecorder;
+    private DrowsinessRollups drowsinessRollups;
+    private EventJournalWriter eventJournalWriter;
+    private VisionDrowsyEventDetector drowsyEventDetector;
+
+    @Before
+    public void setup() {
+        // Given
+        this.tripRecorder = mock(TripRecorder.class);
+        this.drowsinessRollups = mock(DrowsinessRollups.class);
+        this.eventJournalWriter = mock(EventJournalWriter.class);
+        this.drowsyEventDetector =
+                new VisionDrowsyEventDetector(
+                        new TestingDrowsyEventDetectorConfig(SharedPreferencesTestFactory.createSharedPreferences()),
+                        ImmutableList.<FrameRecorder> of(this.tripRecorder, this.drowsinessRollups),
+                        ImmutableList.of(this.eventJournalWriter),
+                        new SystemClock());
+    }
+
+    @Test
+    public void shouldCloseEveryRecorderAlthoughOneFails() throws IOException {
+        // Given
+        final IOException failure = new IOException("disk full");
+        doThrow(failure).when(this.tripRecorder).close();
+
+        // When
+        try {
+            this.drowsyEventDetector.close();
+            fail();
+        } catch (final IOException e) {
+            // Then
+            assertThat(e.getCause(), is(sameInstance((Throwable) failure)));
+        }
+        verify(this.drowsinessRollups).close();
+        verify(this.eventJournalWriter).close();
+    }
+
+    @Test
+    public void shouldFindRecorderByType() {
+        assertThat(this.drowsyEventDetector.getDrowsinessRollups(), is(Optional.of(this.drowsinessRollups)));
+        assertThat(this.drowsyEventDetector.getFlightRecorder(), is(Optional.<FlightRecorder> absent()));
+    }
+}
@@ -46,6 +46,7 @@ public class VisionHelper {
     static Face createFaceWithLandmarks(final List<Landmark> landmarks) {
         final Face face = Mockito.mock(Face.class);
         doReturn(landmarks).when(face).getLandmarks();
+        doReturn(new PointF(0, 0)).when(face).getPosition();
         return face;
     }
 
@@ -1,7 +1,5 @@
 package de.drowsydriveralarm;
 
-import android.support.annotation.NonNull;
-
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.eventbus.Subscribe;
@@ -13,7 +11,10 @@ import de.drowsydriveralarm.event.AppActiveEvent;
 import de.drowsydriveralarm.event.AppIdleEvent;
 import de.drowsydriveralarm.event.Event;
 
-class AppIdleCalculator {
+/**
+ * Sums up the idle time of the app between {@link AppIdleEvent}s and {@link AppActiveEvent}s.
+ */
+public class AppIdleCalculator {
 
     private Duration appIdleDuration = new Duration(0);
     private Optional<AppIdleEvent> idleEventBeforeActiveEvent = Optional.absent();
@@ -42,7 +43,6 @@ class AppIdleCalculator {
                 : this.appIdleDuration;
     }
 
-    @NonNull
     private Duration getAppIdleDuration(final AppActiveEvent appActiveEvent) {
         return this.getPendingAppIdleDuration(appActiveEvent.getInstant());
     }
@@ -55,7 +55,6 @@ class AppIdleCalculator {
         return event.isPresent() && now.isBefore(event.get().getInstant());
     }
 
-    @NonNull
     private Duration getPendingAppIdleDuration(final Instant now) {
         return this.idleEventBeforeActiveEvent.isPresent()
                 ? new Duration(this.idleEventBeforeActiveEvent.get().getInstant(), now)
@@ -0,0 +1,13 @@
+package de.drowsydriveralarm;
+
+import org.joda.time.Instant;
+
+public interface Clock {
+
+    Instant now();
+
+    /**
+     * Monotonic time in nanoseconds with an arbitrary origin, for measuring elapsed time only.
+     */
+    long nanoTime();
+}
@@ -0,0 +1,77 @@
+package de.drowsydriveralarm;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Many frames in columns, one array per feature and one index per frame, e.g. a recorded trip to be evaluated
+ * offline. Holds the results of the evaluation in columns as well.
+ * <p>
+ * Which eyes are recognized is given by the bits {@link #LEFT_EYE_RECOGNIZED} and {@link #RIGHT_EYE_RECOGNIZED} of
+ * the landmark flags of a frame. Frames without any eye recognized are skipped as by the single frame path, their
+ * eyes state is {@link #SKIPPED} and their PERCLOS is {@link Double#NaN}.
+ */
+public class FrameBatch {
+
+    public static final byte LEFT_EYE_RECOGNIZED = 1;
+    public static final byte RIGHT_EYE_RECOGNIZED = 2;
+
+    public static final byte SKIPPED = -1;
+
+    private final long[] timestampsMillis;
+    private final float[] leftEyeOpenProbabilities;
+    private final float[] rightEyeOpenProbabilities;
+    private final byte[] landmarkFlags;
+    private final byte[] eyesStates;
+    private final double[] perclos;
+
+    /**
+     * @param timestampsMillis ascending
+     * @param leftEyeOpenProbabilities within [0, 1] or {@link FrameFeatures#UNCOMPUTED_PROBABILITY}
+     * @param rightEyeOpenProbabilities within [0, 1] or {@link FrameFeatures#UNCOMPUTED_PROBABILITY}
+     */
+    public FrameBatch(final long[] timestampsMillis, final float[] leftEyeOpenProbabilities, final float[] rightEyeOpenProbabilities, final byte[] landmarkFlags) {
+        Preconditions.checkArgument(leftEyeOpenProbabilities.length == timestampsMillis.length, "leftEyeOpenProbabilities must have one entry per timestamp");
+        Preconditions.checkArgument(rightEyeOpenProbabilities.length == timestampsMillis.length, "rightEyeOpenProbabilities must have one entry per timestamp");
+        Preconditions.checkArgument(landmarkFlags.length == timestampsMillis.length, "landmarkFlags must have one entry per timestamp");
+        this.timestampsMillis = timestampsMillis;
+        this.leftEyeOpenProbabilities = leftEyeOpenProbabilities;
+        this.rightEyeOpenProbabilities = rightEyeOpenProbabilities;
+        this.landmarkFlags = landmarkFlags;
+        this.eyesStates = new byte[timestampsMillis.length];
+        this.perclos = new double[timestampsMillis.length];
+    }
+
+    public int size() {
+        return this.timestampsMillis.length;
+    }
+
+    public long[] getTimestampsMillis() {
+        return this.timestampsMillis;
+    }
+
+    public float[] getLeftEyeOpenProbabilities() {
+        return this.leftEyeOpenProbabilities;
+    }
+
+    public float[] getRightEyeOpenProbabilities() {
+        return this.rightEyeOpenProbabilities;
+    }
+
+    public byte[] getLandmarkFlags() {
+        return this.landmarkFlags;
+    }
+
+    /**
+     * The state of the eyes per frame as classified by the {@code EyesStateClassifier}, or {@link #SKIPPED}.
+     */
+    public byte[] getEyesStates() {
+        return this.eyesStates;
+    }
+
+    /**
+     * PERCLOS per frame after the frame was evaluated, or {@link Double#NaN} if it was skipped.
+     */
+    public double[] getPerclos() {
+        return this.perclos;
+    }
+}
@@ -0,0 +1,176 @@
+package de.drowsydriveralarm;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * What the drowsiness detection needs to know about the face in a single frame, independent of the face detector
+ * producing it. The detector specific adapters convert their results into this.
+ * <p>
+ * Geometry is in the pixels of the frame, angles are in degrees.
+ */
+public class FrameFeatures {
+
+    /**
+     * Probability of an eye the detector did not classify.
+     */
+    public static final float UNCOMPUTED_PROBABILITY = -1.0f;
+
+    private final long timestampMillis;
+    private final boolean leftEyeRecognized;
+    private final boolean rightEyeRecognized;
+    private final float leftEyeOpenProbability;
+    private final float rightEyeOpenProbability;
+    private final float faceCenterY;
+    private final float faceHeight;
+    private final float headYaw;
+    private final float headRoll;
+
+    private FrameFeatures(final FrameFeaturesBuilder builder) {
+        this.timestampMillis = builder.timestampMillis;
+        this.leftEyeRecognized = builder.leftEyeRecognized;
+        this.rightEyeRecognized = builder.rightEyeRecognized;
+        this.leftEyeOpenProbability = builder.leftEyeOpenProbability;
+        this.rightEyeOpenProbability = builder.rightEyeOpenProbability;
+        this.faceCenterY = builder.faceCenterY;
+        this.faceHeight = builder.faceHeight;
+        this.headYaw = builder.headYaw;
+        this.headRoll = builder.headRoll;
+    }
+
+    public static FrameFeaturesBuilder builder() {
+        return new FrameFeaturesBuilder();
+    }
+
+    public long getTimestampMillis() {
+        return this.timestampMillis;
+    }
+
+    public boolean isLeftEyeRecognized() {
+        return this.leftEyeRecognized;
+    }
+
+    public boolean isRightEyeRecognized() {
+        return this.rightEyeRecognized;
+    }
+
+    public boolean areBothEyesRecognized() {
+        return this.leftEyeRecognized && this.rightEyeRecognized;
+    }
+
+    public boolean isAnyEyeRecognized() {
+        return this.leftEyeRecognized || this.rightEyeRecognized;
+    }
+
+    /**
+     * @return within [0, 1] or {@link #UNCOMPUTED_PROBABILITY}
+     */
+    public float getLeftEyeOpenProbability() {
+        return this.leftEyeOpenProbability;
+    }
+
+    /**
+     * @return within [0, 1] or {@link #UNCOMPUTED_PROBABILITY}
+     */
+    public float getRightEyeOpenProbability() {
+        return this.rightEyeOpenProbability;
+    }
+
+    /**
+     * Vertical position of the center of the face, growing downwards.
+     */
+    public float getFaceCenterY() {
+        return this.faceCenterY;
+    }
+
+    public float getFaceHeight() {
+        return this.faceHeight;
+    }
+
+    /**
+     * Rotation of the head about the vertical axis, 0 when facing the camera.
+     */
+    public float getHeadYaw() {
+        return this.headYaw;
+    }
+
+    /**
+     * Rotation of the head about the axis pointing out of the image, 0 when upright.
+     */
+    public float getHeadRoll() {
+        return this.headRoll;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("timestampMillis", this.timestampMillis)
+                .add("leftEyeOpenProbability", this.leftEyeOpenProbability)
+                .add("rightEyeOpenProbability", this.rightEyeOpenProbability)
+                .toString();
+    }
+
+    public static class FrameFeaturesBuilder {
+
+        private long timestampMillis;
+        private boolean leftEyeRecognized;
+        private boolean rightEyeRecognized;
+        private float leftEyeOpenProbability = UNCOMPUTED_PROBABILITY;
+        private float rightEyeOpenProbability = UNCOMPUTED_PROBABILITY;
+        private float faceCenterY;
+        private float faceHeight;
+        private float headYaw;
+        private float headRoll;
+
+        private FrameFeaturesBuilder() {
+        }
+
+        public FrameFeaturesBuilder withTimestampMillis(final long timestampMillis) {
+            this.timestampMillis = timestampMillis;
+            return this;
+        }
+
+        public FrameFeaturesBuilder withLeftEyeRecognized(final boolean leftEyeRecognized) {
+            this.leftEyeRecognized = leftEyeRecognized;
+            return this;
+        }
+
+        public FrameFeaturesBuilder withRightEyeRecognized(final boolean rightEyeRecognized) {
+            this.rightEyeRecognized = rightEyeRecognized;
+            return this;
+        }
+
+        public FrameFeaturesBuilder withLeftEyeOpenProbability(final float leftEyeOpenProbability) {
+            this.leftEyeOpenProbability = leftEyeOpenProbability;
+            return this;
+        }
+
+        public FrameFeaturesBuilder withRightEyeOpenProbability(final float rightEyeOpenProbability) {
+            this.rightEyeOpenProbability = rightEyeOpenProbability;
+            return this;
+        }
+
+        public FrameFeaturesBuilder withFaceCenterY(final float faceCenterY) {
+            this.faceCenterY = faceCenterY;
+            return this;
+        }
+
+        public FrameFeaturesBuilder withFaceHeight(final float faceHeight) {
+            this.faceHeight = faceHeight;
+            return this;
+        }
+
+        public FrameFeaturesBuilder withHeadYaw(final float headYaw) {
+            this.headYaw = headYaw;
+            return this;
+        }
+
+        public FrameFeaturesBuilder withHeadRoll(final float headRoll) {
+            this.headRoll = headRoll;
+            return this;
+        }
+
+        public FrameFeatures build() {
+            return new FrameFeatures(this);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package de.drowsydriveralarm;
+
+/**
+ * Records the features of every frame, e.g. to review them later. Registered on the event bus as well, to record the
+ * events along with the frames.
+ */
+public interface FrameRecorder {
+
+    void recordFrame(FrameFeatures features);
+}
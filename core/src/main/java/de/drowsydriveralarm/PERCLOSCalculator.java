@@ -1,7 +1,5 @@
 package de.drowsydriveralarm;
 
-import android.support.annotation.NonNull;
-
 import org.joda.time.Duration;
 import org.joda.time.Instant;
 import org.joda.time.Interval;
@@ -23,7 +21,6 @@ public class PERCLOSCalculator {
         return (double) sumDurations.getMillis() / (double) this.timeWindow.getMillis();
     }
 
-    @NonNull
     private Interval getTimeWindowInterval(final Instant timewindowEnd) {
         return new Interval(this.timeWindow, timewindowEnd);
     }
@@ -8,4 +8,9 @@ public class SystemClock implements Clock {
     public Instant now() {
         return Instant.now();
     }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
 }
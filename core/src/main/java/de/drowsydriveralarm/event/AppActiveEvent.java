@@ -0,0 +1,11 @@
+package de.drowsydriveralarm.event;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+public class AppActiveEvent extends DurationEvent {
+
+    public AppActiveEvent(final Instant instant, final Duration duration) {
+        super(instant, duration);
+    }
+}
@@ -0,0 +1,11 @@
+package de.drowsydriveralarm.event;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+public class AppIdleEvent extends DurationEvent {
+
+    public AppIdleEvent(final Instant instant, final Duration duration) {
+        super(instant, duration);
+    }
+}
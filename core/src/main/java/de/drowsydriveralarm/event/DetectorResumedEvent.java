@@ -0,0 +1,11 @@
+package de.drowsydriveralarm.event;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+public class DetectorResumedEvent extends DurationEvent {
+
+    public DetectorResumedEvent(final Instant instant, final Duration duration) {
+        super(instant, duration);
+    }
+}
@@ -0,0 +1,11 @@
+package de.drowsydriveralarm.event;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+public class DetectorStalledEvent extends DurationEvent {
+
+    public DetectorStalledEvent(final Instant instant, final Duration duration) {
+        super(instant, duration);
+    }
+}
@@ -0,0 +1,52 @@
+package de.drowsydriveralarm.event;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+/**
+ * PERCLOS is rising and will reach the drowsy threshold in {@code timeToDrowsy} if the trend continues.
+ */
+public class DrowsinessTrendEvent extends Event {
+
+    private final double perclos;
+    private final Duration timeToDrowsy;
+
+    public DrowsinessTrendEvent(final Instant instant, final double perclos, final Duration timeToDrowsy) {
+        super(instant);
+        this.perclos = perclos;
+        this.timeToDrowsy = timeToDrowsy;
+    }
+
+    public double getPerclos() {
+        return this.perclos;
+    }
+
+    public Duration getTimeToDrowsy() {
+        return this.timeToDrowsy;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o == null || this.getClass() != o.getClass()) return false;
+        if (!super.equals(o)) return false;
+        final DrowsinessTrendEvent that = (DrowsinessTrendEvent) o;
+        return Double.compare(that.perclos, this.perclos) == 0 && Objects.equal(this.timeToDrowsy, that.timeToDrowsy);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(super.hashCode(), this.perclos, this.timeToDrowsy);
+    }
+
+    @Override
+    protected MoreObjects.ToStringHelper getToStringHelper() {
+        return super
+                .getToStringHelper()
+                .add("perclos", this.perclos)
+                .add("timeToDrowsy", this.timeToDrowsy);
+    }
+}
@@ -14,6 +14,10 @@ public abstract class DrowsyEventBase extends Event {
         this.perclos = perclos;
     }
 
+    public double getPerclos() {
+        return this.perclos;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,10 @@
+package de.drowsydriveralarm.event;
+
+import org.joda.time.Instant;
+
+public class EventHelper {
+
+    public static Instant getInstantOf(final UpdateEvent event) {
+        return new Instant(event.getFeatures().getTimestampMillis());
+    }
+}
@@ -0,0 +1,14 @@
+package de.drowsydriveralarm.event;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+/**
+ * The head dropped and came back up within a short time, as when nodding off.
+ */
+public class HeadNodEvent extends DurationEvent {
+
+    public HeadNodEvent(final Instant instant, final Duration duration) {
+        super(instant, duration);
+    }
+}
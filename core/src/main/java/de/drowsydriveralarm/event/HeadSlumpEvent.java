@@ -0,0 +1,14 @@
+package de.drowsydriveralarm.event;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+/**
+ * The head has been dropped or tilted for {@code duration} and is still.
+ */
+public class HeadSlumpEvent extends DurationEvent {
+
+    public HeadSlumpEvent(final Instant instant, final Duration duration) {
+        super(instant, duration);
+    }
+}
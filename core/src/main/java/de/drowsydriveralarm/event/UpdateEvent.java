@@ -0,0 +1,28 @@
+package de.drowsydriveralarm.event;
+
+import com.google.common.base.MoreObjects;
+
+import org.joda.time.Instant;
+
+import de.drowsydriveralarm.FrameFeatures;
+
+public class UpdateEvent extends Event {
+
+    private final FrameFeatures features;
+
+    public UpdateEvent(final FrameFeatures features) {
+        super(new Instant(features.getTimestampMillis()));
+        this.features = features;
+    }
+
+    public FrameFeatures getFeatures() {
+        return this.features;
+    }
+
+    @Override
+    protected MoreObjects.ToStringHelper getToStringHelper() {
+        return super
+                .getToStringHelper()
+                .add("features", this.features);
+    }
+}
@@ -0,0 +1,128 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.event.DurationEvent;
+import de.drowsydriveralarm.event.EventHelper;
+import de.drowsydriveralarm.event.EyesClosedEvent;
+import de.drowsydriveralarm.event.NormalEyeBlinkEvent;
+import de.drowsydriveralarm.event.PendingSlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.UpdateEvent;
+import de.drowsydriveralarm.statistics.RollingHistogram;
+import de.drowsydriveralarm.statistics.RollingWindow;
+
+import static de.drowsydriveralarm.eventproducer.EyeOpenProbabilityThresholds.isDefined;
+
+/**
+ * Fatigue indicators over the blinks within a rolling time window: blink rate, distribution of blink durations, mean
+ * closure speed and variance of the intervals between blinks. A blink is a normal eye blink or a slow eyelid closure.
+ * <p>
+ * The closure speed is the drop of the eye open probability per second between the last frame with eyes opened and
+ * the frame the eyes are closed in.
+ * <p>
+ * Every event updates the statistics in constant time, memory is fixed by the number of slots.
+ */
+public class BlinkStatistics {
+
+    private static final int DURATION_SUB_BUCKET_BITS = 4;
+    private static final long MAX_DURATION_MILLIS = 10000;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final long windowMillis;
+    private final RollingHistogram durations;
+    private final RollingWindow intervals;
+    private final RollingWindow closureSpeeds;
+
+    private long lastBlinkMillis = NONE;
+    private long previousUpdateMillis = NONE;
+    private float previousEyeOpenProbability;
+    private long lastUpdateMillis = NONE;
+    private float lastEyeOpenProbability;
+
+    public BlinkStatistics(final Duration window, final int slots) {
+        this.windowMillis = window.getMillis();
+        this.durations = new RollingHistogram(window, slots, DURATION_SUB_BUCKET_BITS, MAX_DURATION_MILLIS);
+        this.intervals = new RollingWindow(window, slots);
+        this.closureSpeeds = new RollingWindow(window, slots);
+    }
+
+    @Subscribe
+    public synchronized void recordNormalEyeBlinkEvent(final NormalEyeBlinkEvent event) {
+        this.recordBlink(event);
+    }
+
+    @Subscribe
+    public synchronized void recordSlowEyelidClosureEvent(final SlowEyelidClosureEvent event) {
+        if (!(event instanceof PendingSlowEyelidClosureEvent)) {
+            this.recordBlink(event);
+        }
+    }
+
+    @Subscribe
+    public void recordUpdateEvent(final UpdateEvent event) {
+        final FrameFeatures features = event.getFeatures();
+        this.recordFrame(EventHelper.getInstantOf(event).getMillis(), features.getLeftEyeOpenProbability(), features.getRightEyeOpenProbability());
+    }
+
+    synchronized void recordFrame(final long timeMillis, final float leftEyeOpenProbability, final float rightEyeOpenProbability) {
+        this.previousUpdateMillis = this.lastUpdateMillis;
+        this.previousEyeOpenProbability = this.lastEyeOpenProbability;
+        if (isDefined(leftEyeOpenProbability) && isDefined(rightEyeOpenProbability)) {
+            this.lastUpdateMillis = timeMillis;
+            this.lastEyeOpenProbability = (leftEyeOpenProbability + rightEyeOpenProbability) / 2;
+        } else {
+            this.lastUpdateMillis = NONE;
+        }
+    }
+
+    @Subscribe
+    public synchronized void recordEyesClosedEvent(final EyesClosedEvent event) {
+        final long closedMillis = event.getInstant().getMillis();
+        if (this.previousUpdateMillis == NONE || this.lastUpdateMillis != closedMillis || closedMillis <= this.previousUpdateMillis) {
+            return;
+        }
+
+        final double seconds = (closedMillis - this.previousUpdateMillis) / 1000.0;
+        this.closureSpeeds.add(closedMillis, (this.previousEyeOpenProbability - this.lastEyeOpenProbability) / seconds);
+    }
+
+    public synchronized double getBlinkRatePerMinute(final Instant now) {
+        return this.durations.getTotalCount(now.getMillis()) * (double) Duration.standardMinutes(1).getMillis() / this.windowMillis;
+    }
+
+    /**
+     * @param quantile within [0, 1], e.g. 0.5 for the median blink duration
+     */
+    public synchronized Duration getBlinkDurationQuantile(final double quantile, final Instant now) {
+        return new Duration(this.durations.getQuantile(now.getMillis(), quantile));
+    }
+
+    /**
+     * @return eye open probability per second
+     */
+    public synchronized double getMeanClosureSpeed(final Instant now) {
+        return this.closureSpeeds.getMean(now.getMillis());
+    }
+
+    /**
+     * @return variance of the intervals between the starts of consecutive blinks in square milliseconds
+     */
+    public synchronized double getInterBlinkIntervalVariance(final Instant now) {
+        return this.intervals.getVariance(now.getMillis());
+    }
+
+    private void recordBlink(final DurationEvent event) {
+        final long blinkMillis = event.getInstant().getMillis();
+        this.durations.record(blinkMillis, event.getDuration().getMillis());
+        if (this.lastBlinkMillis != NONE && blinkMillis > this.lastBlinkMillis) {
+            this.intervals.add(blinkMillis, blinkMillis - this.lastBlinkMillis);
+        }
+        this.lastBlinkMillis = Math.max(this.lastBlinkMillis, blinkMillis);
+    }
+
+}
@@ -0,0 +1,132 @@
+package de.drowsydriveralarm.eventproducer;
+
+import org.joda.time.Instant;
+
+import de.drowsydriveralarm.Clock;
+
+/**
+ * Converts the monotonic {@link Clock#nanoTime()} into frame time.
+ * <p>
+ * Every frame contributes a pair (clock time, frame timestamp) to an exponentially weighted least squares fit of
+ * {@code frameTime = offset + skew * clockTime}, so both the offset and the drift between the two clocks are tracked
+ * over long drives. An update takes a handful of multiplications.
+ * <p>
+ * A frame whose timestamp deviates from the fit by more than {@code OUTLIER_SIGMAS} standard deviations of the
+ * residuals (e.g. a frame delayed by garbage collection) is rejected. If {@code MAX_CONSECUTIVE_OUTLIERS} frames in
+ * a row are rejected, the frame clock has jumped (e.g. the camera was restarted) and the fit starts over.
+ * <p>
+ * Converted times never decrease until the fit starts over. Not thread-safe.
+ */
+public class ClockFrameTimeSynchronizer {
+
+    private static final double NANOS_PER_MILLI = 1000000.0;
+    private static final int WARMUP_SAMPLES = 30;
+    private static final double OUTLIER_SIGMAS = 4;
+    // residuals below 2 milliseconds are never outliers, frame timestamps have millisecond resolution
+    private static final double MIN_RESIDUAL_VARIANCE = 4;
+    private static final int MAX_CONSECUTIVE_OUTLIERS = 30;
+
+    private final double smoothingFactor;
+    private final double maxSkew;
+
+    private long clockOriginNanos;
+    private long frameOriginMillis;
+    private long samples;
+    private int consecutiveOutliers;
+    private double meanClockMillis;
+    private double meanFrameMillis;
+    private double clockVariance;
+    private double covariance;
+    private double residualVariance;
+    private long lastFrameTimeMillis = Long.MIN_VALUE;
+
+    /**
+     * @param smoothingFactor weight of a new sample, about the reciprocal of the number of frames the fit remembers
+     * @param maxSkew         maximum relative rate difference of the two clocks, e.g. 0.001 for 1000 ppm
+     */
+    public ClockFrameTimeSynchronizer(final double smoothingFactor, final double maxSkew) {
+        this.smoothingFactor = smoothingFactor;
+        this.maxSkew = maxSkew;
+    }
+
+    public boolean isSynchronized() {
+        return this.samples > 0;
+    }
+
+    public void addSample(final long clockNanos, final long frameMillis) {
+        if (this.samples == 0) {
+            this.clockOriginNanos = clockNanos;
+            this.frameOriginMillis = frameMillis;
+        }
+
+        final double x = this.toClockMillis(clockNanos);
+        final double y = frameMillis - this.frameOriginMillis;
+        final double residual = y - this.predict(x);
+        if (this.isOutlier(residual)) {
+            if (++this.consecutiveOutliers >= MAX_CONSECUTIVE_OUTLIERS) {
+                this.reset();
+                this.addSample(clockNanos, frameMillis);
+            }
+            return;
+        }
+
+        this.consecutiveOutliers = 0;
+        this.samples++;
+        final double weight = Math.max(this.smoothingFactor, 1.0 / this.samples);
+        final double dx = x - this.meanClockMillis;
+        final double dy = y - this.meanFrameMillis;
+        this.meanClockMillis += weight * dx;
+        this.meanFrameMillis += weight * dy;
+        this.clockVariance = (1 - weight) * (this.clockVariance + weight * dx * dx);
+        this.covariance = (1 - weight) * (this.covariance + weight * dx * dy);
+        if (this.samples > 1) {
+            this.residualVariance += weight * (residual * residual - this.residualVariance);
+        }
+    }
+
+    public Instant toFrameTime(final long clockNanos) {
+        final long frameTimeMillis = this.frameOriginMillis + Math.round(this.predict(this.toClockMillis(clockNanos)));
+        this.lastFrameTimeMillis = Math.max(this.lastFrameTimeMillis, frameTimeMillis);
+        return new Instant(this.lastFrameTimeMillis);
+    }
+
+    /**
+     * The wall clock time of a frame time: now less the frame time passed since.
+     */
+    public Instant toWallClockTime(final Instant frameTime, final Clock clock) {
+        return clock.now().minus(this.toFrameTime(clock.nanoTime()).getMillis() - frameTime.getMillis());
+    }
+
+    double getSkew() {
+        if (this.samples < 2 || this.clockVariance <= 0) {
+            return 1;
+        }
+
+        final double skew = this.covariance / this.clockVariance;
+        return Math.max(1 - this.maxSkew, Math.min(skew, 1 + this.maxSkew));
+    }
+
+    private double predict(final double clockMillis) {
+        return this.meanFrameMillis + this.getSkew() * (clockMillis - this.meanClockMillis);
+    }
+
+    private boolean isOutlier(final double residual) {
+        return this.samples >= WARMUP_SAMPLES
+                && residual * residual > OUTLIER_SIGMAS * OUTLIER_SIGMAS * Math.max(this.residualVariance, MIN_RESIDUAL_VARIANCE);
+    }
+
+    private double toClockMillis(final long clockNanos) {
+        return (clockNanos - this.clockOriginNanos) / NANOS_PER_MILLI;
+    }
+
+    private void reset() {
+        this.samples = 0;
+        this.consecutiveOutliers = 0;
+        this.meanClockMillis = 0;
+        this.meanFrameMillis = 0;
+        this.clockVariance = 0;
+        this.covariance = 0;
+        this.residualVariance = 0;
+        this.lastFrameTimeMillis = Long.MIN_VALUE;
+    }
+}
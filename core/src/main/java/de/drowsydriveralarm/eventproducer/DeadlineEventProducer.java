@@ -0,0 +1,83 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.base.Optional;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import de.drowsydriveralarm.event.EyesClosedEvent;
+import de.drowsydriveralarm.event.EyesOpenedEvent;
+import de.drowsydriveralarm.event.PendingSlowEyelidClosureEvent;
+
+/**
+ * Keeps the drowsy decision going while the eyes are closed, even if no frames arrive.
+ * <p>
+ * When the eyes close, a deadline is scheduled for the instant the closure becomes a slow eyelid closure. When it
+ * expires, a {@link PendingSlowEyelidClosureEvent} is posted, the drowsiness level is updated and the next deadline
+ * is scheduled for the instant PERCLOS would reach the drowsy threshold. Opening the eyes cancels the deadline.
+ * <p>
+ * Deadlines are in frame time and expire when {@link #advanceTo(Instant)} is called, e.g. by a timer.
+ */
+public class DeadlineEventProducer extends EventProducer {
+
+    private static final long TICK_MILLIS = 10;
+    private static final int NUMBER_OF_BUCKETS = 256;
+
+    private final Duration slowEyelidClosureMinDuration;
+    private final DrowsyEventProducer drowsyEventProducer;
+    private final TimingWheel<Instant> timingWheel = new TimingWheel<>(TICK_MILLIS, NUMBER_OF_BUCKETS);
+    private final TimingWheel.ExpiryListener<Instant> expiryListener = new TimingWheel.ExpiryListener<Instant>() {
+
+        @Override
+        public void onExpired(final Instant eyesClosed, final long deadlineMillis) {
+            DeadlineEventProducer.this.onDeadline(eyesClosed, new Instant(deadlineMillis));
+        }
+    };
+
+    private Optional<TimingWheel.Timeout<Instant>> deadline = Optional.absent();
+
+    public DeadlineEventProducer(final Duration slowEyelidClosureMinDuration, final DrowsyEventProducer drowsyEventProducer, final EventBus eventBus) {
+        super(eventBus);
+        this.slowEyelidClosureMinDuration = slowEyelidClosureMinDuration;
+        this.drowsyEventProducer = drowsyEventProducer;
+    }
+
+    @Subscribe
+    public void scheduleSlowEyelidClosureDeadline(final EyesClosedEvent eyesClosedEvent) {
+        this.cancelDeadline();
+        final Instant eyesClosed = eyesClosedEvent.getInstant();
+        this.scheduleDeadline(eyesClosed.plus(this.slowEyelidClosureMinDuration), eyesClosed);
+    }
+
+    @Subscribe
+    public void cancelDeadline(final EyesOpenedEvent eyesOpenedEvent) {
+        this.cancelDeadline();
+    }
+
+    public void advanceTo(final Instant now) {
+        this.timingWheel.advanceTo(now.getMillis(), this.expiryListener);
+    }
+
+    private void onDeadline(final Instant eyesClosed, final Instant deadline) {
+        this.deadline = Optional.absent();
+        this.postEvent(new PendingSlowEyelidClosureEvent(eyesClosed, new Duration(eyesClosed, deadline)));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(deadline);
+        final Optional<Instant> drowsyThresholdCrossing = this.drowsyEventProducer.getDrowsyThresholdCrossing(deadline);
+        if (drowsyThresholdCrossing.isPresent()) {
+            this.scheduleDeadline(drowsyThresholdCrossing.get(), eyesClosed);
+        }
+    }
+
+    private void scheduleDeadline(final Instant deadline, final Instant eyesClosed) {
+        this.deadline = Optional.of(this.timingWheel.schedule(deadline.getMillis(), eyesClosed));
+    }
+
+    private void cancelDeadline() {
+        if (this.deadline.isPresent()) {
+            this.deadline.get().cancel();
+            this.deadline = Optional.absent();
+        }
+    }
+}
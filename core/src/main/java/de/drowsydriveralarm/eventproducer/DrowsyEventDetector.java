@@ -0,0 +1,151 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.eventbus.EventBus;
+
+import java.util.Collection;
+import java.util.List;
+
+import de.drowsydriveralarm.Clock;
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.FrameRecorder;
+
+/**
+ * The drowsiness detection independent of any face detector: receives the frames by {@link #getFrameEventProducer()}
+ * and posts its events on {@link #getEventBus()}.
+ */
+public class DrowsyEventDetector {
+
+    private final EventBus eventBus;
+    private final DrowsyEventProducer drowsyEventProducer;
+    private final BlinkStatistics blinkStatistics;
+    private final EyeOpenProbabilityThresholds eyeOpenProbabilityThresholds;
+    private final EyesStateClassifier eyesStateClassifier;
+    private final FrameEventProducer frameEventProducer;
+    private final EyesOpenedEventProducer eyesOpenedEventProducer;
+    private final EyesClosedEventProducer eyesClosedEventProducer;
+    private final PendingSlowEyelidClosureEventProducer pendingSlowEyelidClosureEventProducer;
+    private final Optional<EyeOpenProbabilityCalibrator> eyeOpenProbabilityCalibrator;
+
+    public DrowsyEventDetector(final IDrowsyEventDetectorConfig config, final Clock clock) {
+        this(config, new EventBus(), clock);
+    }
+
+    public DrowsyEventDetector(final IDrowsyEventDetectorConfig config, final EventBus eventBus, final Clock clock) {
+        this(config, eventBus, ImmutableList.<FrameRecorder> of(), clock);
+    }
+
+    /**
+     * @param frameRecorders record the frames and the events of this detector
+     */
+    public DrowsyEventDetector(final IDrowsyEventDetectorConfig config, final EventBus eventBus, final List<FrameRecorder> frameRecorders, final Clock clock) {
+        this.eventBus = eventBus;
+        final EventSubscriberProvider eventSubscriberProvider = new EventSubscriberProvider(this.eventBus, config);
+        registerEventSubscribersOnEventBus(eventSubscriberProvider.getEventSubscribers(), this.eventBus);
+
+        this.blinkStatistics = eventSubscriberProvider.getBlinkStatistics();
+        this.eyeOpenProbabilityThresholds = eventSubscriberProvider.getEyeOpenProbabilityThresholds();
+        this.eyesStateClassifier = eventSubscriberProvider.getEyesStateClassifier();
+        this.eyesOpenedEventProducer = eventSubscriberProvider.getEyesOpenedEventProducer();
+        this.eyesClosedEventProducer = eventSubscriberProvider.getEyesClosedEventProducer();
+        this.pendingSlowEyelidClosureEventProducer = eventSubscriberProvider.getPendingSlowEyelidClosureEventProducer();
+        this.eyeOpenProbabilityCalibrator = eventSubscriberProvider.getEyeOpenProbabilityCalibrator();
+        this.drowsyEventProducer = new DrowsyEventProducer(config.getConfig(), this.eventBus, eventSubscriberProvider.getSlowEyelidClosureEventsProvider());
+        // for the head pose events
+        this.eventBus.register(this.drowsyEventProducer);
+        final DeadlineEventProducer deadlineEventProducer = new DeadlineEventProducer(config.getSlowEyelidClosureMinDuration(), this.drowsyEventProducer, this.eventBus);
+        this.eventBus.register(deadlineEventProducer);
+        registerEventSubscribersOnEventBus(ImmutableList.<Object> copyOf(frameRecorders), this.eventBus);
+        this.frameEventProducer = new FrameEventProducer(this.eventBus, this.drowsyEventProducer, Optional.of(deadlineEventProducer), ImmutableList.copyOf(frameRecorders), clock);
+    }
+
+    static void registerEventSubscribersOnEventBus(final Collection<Object> eventSubscribers, final EventBus eventBus) {
+        for(final Object eventSubscriber: eventSubscribers) {
+            eventBus.register(eventSubscriber);
+        }
+    }
+
+    /**
+     * Evaluates the frames of the batch in one loop, without an {@link de.drowsydriveralarm.event.UpdateEvent} per
+     * frame, and writes the eyes state and PERCLOS of every frame into the batch. The state is shared with the single
+     * frame path and the same events are posted, but:
+     * <ul>
+     * <li>PERCLOS is decided at the timestamp of the frame, not at the frame time corresponding to the clock,</li>
+     * <li>the head pose is not evaluated, as the batch has no geometry of the face,</li>
+     * <li>deadlines are not expired, {@link #onTick()} remains responsible for that.</li>
+     * </ul>
+     * Every frame still passes the classifier, the calibrator and the producers one after the other, as the calibrated
+     * thresholds and the recorded closures of a frame are input to the next one. Only the event and allocation per
+     * frame are saved, which makes the batch about two to three times as fast as the single frame path, not more.
+     */
+    public void processBatch(final FrameBatch batch) {
+        final long[] timestampsMillis = batch.getTimestampsMillis();
+        final float[] leftEyeOpenProbabilities = batch.getLeftEyeOpenProbabilities();
+        final float[] rightEyeOpenProbabilities = batch.getRightEyeOpenProbabilities();
+        final byte[] landmarkFlags = batch.getLandmarkFlags();
+        final byte[] eyesStates = batch.getEyesStates();
+        final double[] perclos = batch.getPerclos();
+        // not to interleave with single frames
+        synchronized (this.frameEventProducer) {
+            for (int i = 0; i < batch.size(); i++) {
+                final boolean leftEyeRecognized = (landmarkFlags[i] & FrameBatch.LEFT_EYE_RECOGNIZED) != 0;
+                final boolean rightEyeRecognized = (landmarkFlags[i] & FrameBatch.RIGHT_EYE_RECOGNIZED) != 0;
+                if (!leftEyeRecognized && !rightEyeRecognized) {
+                    eyesStates[i] = FrameBatch.SKIPPED;
+                    perclos[i] = Double.NaN;
+                    continue;
+                }
+
+                final long timeMillis = timestampsMillis[i];
+                final float leftEyeOpenProbability = leftEyeOpenProbabilities[i];
+                final float rightEyeOpenProbability = rightEyeOpenProbabilities[i];
+                final int eyesState = this.eyesStateClassifier.classify(timeMillis, leftEyeRecognized, leftEyeOpenProbability, rightEyeRecognized, rightEyeOpenProbability);
+                eyesStates[i] = (byte) eyesState;
+                if (this.eyeOpenProbabilityCalibrator.isPresent()) {
+                    this.eyeOpenProbabilityCalibrator.get().recordFrame(timeMillis, leftEyeOpenProbability, rightEyeOpenProbability);
+                }
+                this.blinkStatistics.recordFrame(timeMillis, leftEyeOpenProbability, rightEyeOpenProbability);
+                // the pending slow eyelid closure first, as the single frame path sees the eyes closed or opened events after the frame
+                this.pendingSlowEyelidClosureEventProducer.onEyesState(timeMillis, eyesState);
+                this.eyesOpenedEventProducer.onEyesState(timeMillis, eyesState);
+                this.eyesClosedEventProducer.onEyesState(timeMillis, eyesState);
+                perclos[i] = this.drowsyEventProducer.maybeProduceDrowsyEvent(timeMillis);
+            }
+        }
+    }
+
+    /**
+     * Lets pending deadlines expire although no frame arrived, to be called periodically.
+     */
+    public void onTick() {
+        this.frameEventProducer.onTick();
+    }
+
+    public EventBus getEventBus() {
+        return this.eventBus;
+    }
+
+    public FrameEventProducer getFrameEventProducer() {
+        return this.frameEventProducer;
+    }
+
+    public DrowsyEventProducer getDrowsyEventProducer() {
+        return this.drowsyEventProducer;
+    }
+
+    public BlinkStatistics getBlinkStatistics() {
+        return this.blinkStatistics;
+    }
+
+    public EyeOpenProbabilityThresholds getEyeOpenProbabilityThresholds() {
+        return this.eyeOpenProbabilityThresholds;
+    }
+
+    /**
+     * Counts the frames classified by both eyes, by a single eye and undecided.
+     */
+    public EyesStateClassifier getEyesStateClassifier() {
+        return this.eyesStateClassifier;
+    }
+}
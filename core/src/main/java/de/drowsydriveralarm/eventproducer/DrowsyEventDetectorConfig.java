@@ -10,12 +10,18 @@ public class DrowsyEventDetectorConfig implements IDrowsyEventDetectorConfig {
     private final DrowsyEventProducer.Config config;
     private final Duration slowEyelidClosureMinDuration;
     private final Duration timeWindow;
+    private final Duration reorderLatencyBudget;
+    private final Duration calibrationDuration;
+    private final String eyeOpenProbabilityFilter;
 
     DrowsyEventDetectorConfig(final DrowsyEventDetectorConfigBuilder builder) {
         this.eyeOpenProbabilityThreshold = builder.getEyeOpenProbabilityThreshold();
         this.config = builder.getConfig();
         this.slowEyelidClosureMinDuration = builder.getSlowEyelidClosureMinDuration();
         this.timeWindow = builder.getTimeWindow();
+        this.reorderLatencyBudget = builder.getReorderLatencyBudget();
+        this.calibrationDuration = builder.getCalibrationDuration();
+        this.eyeOpenProbabilityFilter = builder.getEyeOpenProbabilityFilter();
     }
 
     public static DrowsyEventDetectorConfigBuilder builder() {
@@ -42,6 +48,21 @@ public class DrowsyEventDetectorConfig implements IDrowsyEventDetectorConfig {
         return this.timeWindow;
     }
 
+    @Override
+    public Duration getReorderLatencyBudget() {
+        return this.reorderLatencyBudget;
+    }
+
+    @Override
+    public Duration getCalibrationDuration() {
+        return this.calibrationDuration;
+    }
+
+    @Override
+    public String getEyeOpenProbabilityFilter() {
+        return this.eyeOpenProbabilityFilter;
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -49,6 +70,9 @@ public class DrowsyEventDetectorConfig implements IDrowsyEventDetectorConfig {
                 .add("config", this.config)
                 .add("slowEyelidClosureMinDuration", this.slowEyelidClosureMinDuration)
                 .add("timeWindow", this.timeWindow)
+                .add("reorderLatencyBudget", this.reorderLatencyBudget)
+                .add("calibrationDuration", this.calibrationDuration)
+                .add("eyeOpenProbabilityFilter", this.eyeOpenProbabilityFilter)
                 .toString();
     }
 
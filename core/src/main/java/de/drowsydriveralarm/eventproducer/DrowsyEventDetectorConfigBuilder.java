@@ -2,12 +2,17 @@ package de.drowsydriveralarm.eventproducer;
 
 import org.joda.time.Duration;
 
+import de.drowsydriveralarm.filter.SignalFilters;
+
 public class DrowsyEventDetectorConfigBuilder {
 
     private float eyeOpenProbabilityThreshold;
     private DrowsyEventProducer.Config config;
     private Duration slowEyelidClosureMinDuration;
     private Duration timeWindow;
+    private Duration reorderLatencyBudget = Duration.ZERO;
+    private Duration calibrationDuration = Duration.ZERO;
+    private String eyeOpenProbabilityFilter = SignalFilters.NONE;
 
     DrowsyEventDetectorConfigBuilder() {
     }
@@ -32,6 +37,21 @@ public class DrowsyEventDetectorConfigBuilder {
         return this;
     }
 
+    public DrowsyEventDetectorConfigBuilder withReorderLatencyBudget(final Duration reorderLatencyBudget) {
+        this.reorderLatencyBudget = reorderLatencyBudget;
+        return this;
+    }
+
+    public DrowsyEventDetectorConfigBuilder withCalibrationDuration(final Duration calibrationDuration) {
+        this.calibrationDuration = calibrationDuration;
+        return this;
+    }
+
+    public DrowsyEventDetectorConfigBuilder withEyeOpenProbabilityFilter(final String eyeOpenProbabilityFilter) {
+        this.eyeOpenProbabilityFilter = eyeOpenProbabilityFilter;
+        return this;
+    }
+
     public float getEyeOpenProbabilityThreshold() {
         return this.eyeOpenProbabilityThreshold;
     }
@@ -48,6 +68,18 @@ public class DrowsyEventDetectorConfigBuilder {
         return this.timeWindow;
     }
 
+    public Duration getReorderLatencyBudget() {
+        return this.reorderLatencyBudget;
+    }
+
+    public Duration getCalibrationDuration() {
+        return this.calibrationDuration;
+    }
+
+    public String getEyeOpenProbabilityFilter() {
+        return this.eyeOpenProbabilityFilter;
+    }
+
     public DrowsyEventDetectorConfig build() {
         return new DrowsyEventDetectorConfig(this);
     }
@@ -0,0 +1,301 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import de.drowsydriveralarm.event.AwakeEvent;
+import de.drowsydriveralarm.event.DrowsinessTrendEvent;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.DurationEvent;
+import de.drowsydriveralarm.event.HeadNodEvent;
+import de.drowsydriveralarm.event.HeadSlumpEvent;
+import de.drowsydriveralarm.event.LikelyDrowsyEvent;
+
+/**
+ * Classifies PERCLOS into the drowsiness levels awake, likely drowsy and drowsy and posts an event whenever the
+ * level changes.
+ * <p>
+ * A level is entered as soon as PERCLOS reaches its enter threshold, but is only left when PERCLOS falls below
+ * its (lower) exit threshold and the level has been held for at least the minimum dwell time. So PERCLOS
+ * hovering around a threshold does not make the level flap, while escalation is as fast as before.
+ * <p>
+ * The head pose raises the level as well: a {@link HeadNodEvent} to at least likely drowsy for
+ * {@code HEAD_NOD_HOLD_MILLIS}, a {@link HeadSlumpEvent} to drowsy for {@code HEAD_SLUMP_HOLD_MILLIS}, after the end of
+ * the nod or slump. Then the level is lowered like after PERCLOS falling.
+ * <p>
+ * If a trend horizon is configured, a {@link DrowsinessTrendEvent} warns in advance when PERCLOS is rising fast enough
+ * to reach the drowsy threshold within that horizon.
+ */
+public class DrowsyEventProducer extends EventProducer {
+
+    private static final int UNKNOWN = -1;
+    private static final int AWAKE = 0;
+    private static final int LIKELY_DROWSY = 1;
+    private static final int DROWSY = 2;
+
+    static final long HEAD_NOD_HOLD_MILLIS = Duration.standardSeconds(60).getMillis();
+    static final long HEAD_SLUMP_HOLD_MILLIS = Duration.standardSeconds(30).getMillis();
+
+    private final Config config;
+    private final SlowEyelidClosureEventsProvider slowEyelidClosureEventsProvider;
+    private final Optional<PerclosTrend> perclosTrend;
+
+    private int level = UNKNOWN;
+    private long levelSinceMillis;
+    private long headNodUntilMillis = Long.MIN_VALUE;
+    private long headSlumpUntilMillis = Long.MIN_VALUE;
+
+    public DrowsyEventProducer(final Config config, final EventBus eventBus, final SlowEyelidClosureEventsProvider slowEyelidClosureEventsProvider) {
+        super(eventBus);
+        this.config = config;
+        this.slowEyelidClosureEventsProvider = slowEyelidClosureEventsProvider;
+        this.perclosTrend = config.getTrendHorizon().getMillis() > 0
+                ? Optional.of(new PerclosTrend(config.getDrowsyThreshold(), config.getTrendHorizon()))
+                : Optional.<PerclosTrend> absent();
+    }
+
+    @Subscribe
+    public void onHeadNodEvent(final HeadNodEvent event) {
+        this.headNodUntilMillis = Math.max(this.headNodUntilMillis, getEndMillis(event) + HEAD_NOD_HOLD_MILLIS);
+    }
+
+    @Subscribe
+    public void onHeadSlumpEvent(final HeadSlumpEvent event) {
+        this.headSlumpUntilMillis = Math.max(this.headSlumpUntilMillis, getEndMillis(event) + HEAD_SLUMP_HOLD_MILLIS);
+    }
+
+    public void maybeProduceDrowsyEvent(final Instant now) {
+        this.maybeProduceDrowsyEvent(now.getMillis());
+    }
+
+    /**
+     * @return the PERCLOS the level was decided on
+     */
+    double maybeProduceDrowsyEvent(final long nowMillis) {
+        final double perclos = this.getPerclos(nowMillis);
+        this.maybePostTrendEvent(nowMillis, perclos);
+        final int nextLevel = Math.max(this.getNextLevel(perclos, nowMillis), this.getHeadPoseLevel(nowMillis));
+        if (nextLevel != this.level) {
+            this.level = nextLevel;
+            this.levelSinceMillis = nowMillis;
+            this.postLevelEvent(new Instant(nowMillis), perclos);
+        }
+        return perclos;
+    }
+
+    /**
+     * Earliest instant at which PERCLOS reaches the drowsy threshold if the eyes stay closed from {@code now} on,
+     * absent if it has already been reached. Closures leaving the time window may delay the actual crossing.
+     */
+    Optional<Instant> getDrowsyThresholdCrossing(final Instant now) {
+        final long timeWindowMillis = this.slowEyelidClosureEventsProvider.getTimeWindow().getMillis();
+        final long closedMillis = Math.round(this.getPerclos(now.getMillis()) * timeWindowMillis);
+        final long drowsyMillis = (long) Math.ceil(this.config.getDrowsyThreshold() * timeWindowMillis);
+        return closedMillis < drowsyMillis
+                ? Optional.of(now.plus(drowsyMillis - closedMillis))
+                : Optional.<Instant> absent();
+    }
+
+    private int getHeadPoseLevel(final long nowMillis) {
+        if (nowMillis < this.headSlumpUntilMillis) {
+            return DROWSY;
+        }
+        if (nowMillis < this.headNodUntilMillis) {
+            return LIKELY_DROWSY;
+        }
+        return AWAKE;
+    }
+
+    private static long getEndMillis(final DurationEvent event) {
+        return event.getInstant().getMillis() + event.getDuration().getMillis();
+    }
+
+    private void maybePostTrendEvent(final long nowMillis, final double perclos) {
+        if (!this.perclosTrend.isPresent()) {
+            return;
+        }
+
+        final Optional<Duration> timeToDrowsy = this.perclosTrend.get().update(nowMillis, perclos);
+        if (timeToDrowsy.isPresent()) {
+            this.postEvent(new DrowsinessTrendEvent(new Instant(nowMillis), perclos, timeToDrowsy.get()));
+        }
+    }
+
+    private int getNextLevel(final double perclos, final long nowMillis) {
+        final int enteredLevel = this.getEnteredLevel(perclos);
+        if (enteredLevel >= this.level) {
+            return enteredLevel;
+        }
+
+        final boolean dwelled = nowMillis - this.levelSinceMillis >= this.config.getMinDwell().getMillis();
+        return dwelled ? Math.max(enteredLevel, this.getHeldLevel(perclos)) : this.level;
+    }
+
+    private int getEnteredLevel(final double perclos) {
+        if (perclos >= this.config.getDrowsyThreshold()) {
+            return DROWSY;
+        }
+        if (perclos >= this.config.getLikelyDrowsyThreshold()) {
+            return LIKELY_DROWSY;
+        }
+        return AWAKE;
+    }
+
+    private int getHeldLevel(final double perclos) {
+        if (this.level == DROWSY && perclos >= this.config.getDrowsyExitThreshold()) {
+            return DROWSY;
+        }
+        if (this.level >= LIKELY_DROWSY && perclos >= this.config.getLikelyDrowsyExitThreshold()) {
+            return LIKELY_DROWSY;
+        }
+        return AWAKE;
+    }
+
+    private void postLevelEvent(final Instant now, final double perclos) {
+        switch (this.level) {
+            case DROWSY:
+                this.postEvent(new DrowsyEvent(now, perclos));
+                break;
+            case LIKELY_DROWSY:
+                this.postEvent(new LikelyDrowsyEvent(now, perclos));
+                break;
+            default:
+                this.postEvent(new AwakeEvent(now, perclos));
+                break;
+        }
+    }
+
+    // same as the PERCLOSCalculator, but without allocating for every frame
+    private double getPerclos(final long nowMillis) {
+        final long closedMillis = this.slowEyelidClosureEventsProvider.getClosedMillisWithinTimeWindow(nowMillis);
+        return (double) closedMillis / (double) this.slowEyelidClosureEventsProvider.getTimeWindow().getMillis();
+    }
+
+    public static class Config {
+
+        private final double drowsyThreshold;
+        private final double likelyDrowsyThreshold;
+        private final double drowsyExitThreshold;
+        private final double likelyDrowsyExitThreshold;
+        private final Duration minDwell;
+        private final Duration trendHorizon;
+
+        private Config(final ConfigBuilder builder) {
+            this.drowsyThreshold = builder.drowsyThreshold;
+            this.likelyDrowsyThreshold = builder.likelyDrowsyThreshold;
+            this.drowsyExitThreshold = builder.drowsyExitThreshold != null ? builder.drowsyExitThreshold : builder.drowsyThreshold;
+            this.likelyDrowsyExitThreshold = builder.likelyDrowsyExitThreshold != null ? builder.likelyDrowsyExitThreshold : builder.likelyDrowsyThreshold;
+            this.minDwell = builder.minDwell;
+            this.trendHorizon = builder.trendHorizon;
+            Preconditions.checkArgument(this.drowsyExitThreshold <= this.drowsyThreshold, "drowsyExitThreshold must not exceed drowsyThreshold");
+            Preconditions.checkArgument(this.likelyDrowsyExitThreshold <= this.likelyDrowsyThreshold, "likelyDrowsyExitThreshold must not exceed likelyDrowsyThreshold");
+            Preconditions.checkArgument(this.trendHorizon.getMillis() >= 0, "trendHorizon must not be negative");
+        }
+
+        public static ConfigBuilder builder() {
+            return new ConfigBuilder();
+        }
+
+        public double getDrowsyThreshold() {
+            return this.drowsyThreshold;
+        }
+
+        public double getLikelyDrowsyThreshold() {
+            return this.likelyDrowsyThreshold;
+        }
+
+        public double getDrowsyExitThreshold() {
+            return this.drowsyExitThreshold;
+        }
+
+        public double getLikelyDrowsyExitThreshold() {
+            return this.likelyDrowsyExitThreshold;
+        }
+
+        public Duration getMinDwell() {
+            return this.minDwell;
+        }
+
+        public Duration getTrendHorizon() {
+            return this.trendHorizon;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this)
+                    .add("drowsyThreshold", this.drowsyThreshold)
+                    .add("likelyDrowsyThreshold", this.likelyDrowsyThreshold)
+                    .add("drowsyExitThreshold", this.drowsyExitThreshold)
+                    .add("likelyDrowsyExitThreshold", this.likelyDrowsyExitThreshold)
+                    .add("minDwell", this.minDwell)
+                    .add("trendHorizon", this.trendHorizon)
+                    .toString();
+        }
+
+        public static class ConfigBuilder {
+
+            private double drowsyThreshold;
+            private double likelyDrowsyThreshold;
+            private Double drowsyExitThreshold;
+            private Double likelyDrowsyExitThreshold;
+            private Duration minDwell = Duration.ZERO;
+            private Duration trendHorizon = Duration.ZERO;
+
+            private ConfigBuilder() {
+            }
+
+            public ConfigBuilder withDrowsyThreshold(final double drowsyThreshold) {
+                this.drowsyThreshold = drowsyThreshold;
+                return this;
+            }
+
+            public ConfigBuilder withLikelyDrowsyThreshold(final double likelyDrowsyThreshold) {
+                this.likelyDrowsyThreshold = likelyDrowsyThreshold;
+                return this;
+            }
+
+            /**
+             * PERCLOS below which drowsy is left, defaults to the drowsy threshold.
+             */
+            public ConfigBuilder withDrowsyExitThreshold(final double drowsyExitThreshold) {
+                this.drowsyExitThreshold = drowsyExitThreshold;
+                return this;
+            }
+
+            /**
+             * PERCLOS below which likely drowsy is left, defaults to the likely drowsy threshold.
+             */
+            public ConfigBuilder withLikelyDrowsyExitThreshold(final double likelyDrowsyExitThreshold) {
+                this.likelyDrowsyExitThreshold = likelyDrowsyExitThreshold;
+                return this;
+            }
+
+            /**
+             * Minimum time a level is held before it may be lowered, defaults to zero.
+             */
+            public ConfigBuilder withMinDwell(final Duration minDwell) {
+                this.minDwell = minDwell;
+                return this;
+            }
+
+            /**
+             * How far ahead a rising PERCLOS is projected to warn by a {@code DrowsinessTrendEvent}, defaults to zero
+             * for no warning.
+             */
+            public ConfigBuilder withTrendHorizon(final Duration trendHorizon) {
+                this.trendHorizon = trendHorizon;
+                return this;
+            }
+
+            public Config build() {
+                return new Config(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.eventbus.EventBus;
+
+import org.joda.time.Duration;
+
+import java.util.Collection;
+
+import de.drowsydriveralarm.filter.SignalFilters;
+
+class EventSubscriberProvider {
+
+    private static final Duration BLINK_STATISTICS_WINDOW = Duration.standardMinutes(1);
+    private static final int BLINK_STATISTICS_SLOTS = 12;
+
+    private final Collection<Object> eventSubscribers;
+    private final SlowEyelidClosureEventsProvider slowEyelidClosureEventsProvider;
+    private final BlinkStatistics blinkStatistics;
+    private final EyeOpenProbabilityThresholds eyeOpenProbabilityThresholds;
+    private final EyesStateClassifier eyesStateClassifier;
+    private final EyesOpenedEventProducer eyesOpenedEventProducer;
+    private final EyesClosedEventProducer eyesClosedEventProducer;
+    private final PendingSlowEyelidClosureEventProducer pendingSlowEyelidClosureEventProducer;
+    private final Optional<EyeOpenProbabilityCalibrator> eyeOpenProbabilityCalibrator;
+
+    public EventSubscriberProvider(final EventBus eventBus, final IDrowsyEventDetectorConfig config) {
+        this.slowEyelidClosureEventsProvider = new SlowEyelidClosureEventsProvider(config.getTimeWindow());
+        this.blinkStatistics = new BlinkStatistics(BLINK_STATISTICS_WINDOW, BLINK_STATISTICS_SLOTS);
+        this.eyeOpenProbabilityThresholds = new EyeOpenProbabilityThresholds(config.getEyeOpenProbabilityThreshold());
+        this.eyesStateClassifier =
+                new EyesStateClassifier(
+                        this.eyeOpenProbabilityThresholds,
+                        SignalFilters.create(config.getEyeOpenProbabilityFilter()),
+                        SignalFilters.create(config.getEyeOpenProbabilityFilter()));
+        this.eyesOpenedEventProducer = new EyesOpenedEventProducer(this.eyesStateClassifier, eventBus);
+        this.eyesClosedEventProducer = new EyesClosedEventProducer(this.eyesStateClassifier, eventBus);
+        this.pendingSlowEyelidClosureEventProducer = new PendingSlowEyelidClosureEventProducer(this.eyesStateClassifier, config.getSlowEyelidClosureMinDuration(), eventBus);
+        this.eyeOpenProbabilityCalibrator = config.getCalibrationDuration().getMillis() > 0
+                ? Optional.of(new EyeOpenProbabilityCalibrator(this.eyeOpenProbabilityThresholds, config.getEyeOpenProbabilityThreshold(), config.getCalibrationDuration()))
+                : Optional.<EyeOpenProbabilityCalibrator> absent();
+        final ImmutableList.Builder<Object> eventSubscribers =
+                ImmutableList.
+                        builder()
+                        .add(this.eyesOpenedEventProducer)
+                        .add(this.eyesClosedEventProducer)
+                        .add(new NormalEyeBlinkEventProducer(config.getSlowEyelidClosureMinDuration(), eventBus))
+                        .add(new SlowEyelidClosureEventProducer(config.getSlowEyelidClosureMinDuration(), eventBus))
+                        .add(this.pendingSlowEyelidClosureEventProducer)
+                        .add(this.slowEyelidClosureEventsProvider)
+                        .add(this.blinkStatistics)
+                        .add(new HeadPoseEventProducer(eventBus));
+        if (this.eyeOpenProbabilityCalibrator.isPresent()) {
+            eventSubscribers.add(this.eyeOpenProbabilityCalibrator.get());
+        }
+        this.eventSubscribers = eventSubscribers.build();
+    }
+
+    public Collection<Object> getEventSubscribers() {
+        return this.eventSubscribers;
+    }
+
+    public SlowEyelidClosureEventsProvider getSlowEyelidClosureEventsProvider() {
+        return this.slowEyelidClosureEventsProvider;
+    }
+
+    public BlinkStatistics getBlinkStatistics() {
+        return this.blinkStatistics;
+    }
+
+    public EyeOpenProbabilityThresholds getEyeOpenProbabilityThresholds() {
+        return this.eyeOpenProbabilityThresholds;
+    }
+
+    public EyesStateClassifier getEyesStateClassifier() {
+        return this.eyesStateClassifier;
+    }
+
+    public EyesOpenedEventProducer getEyesOpenedEventProducer() {
+        return this.eyesOpenedEventProducer;
+    }
+
+    public EyesClosedEventProducer getEyesClosedEventProducer() {
+        return this.eyesClosedEventProducer;
+    }
+
+    public PendingSlowEyelidClosureEventProducer getPendingSlowEyelidClosureEventProducer() {
+        return this.pendingSlowEyelidClosureEventProducer;
+    }
+
+    public Optional<EyeOpenProbabilityCalibrator> getEyeOpenProbabilityCalibrator() {
+        return this.eyeOpenProbabilityCalibrator;
+    }
+}
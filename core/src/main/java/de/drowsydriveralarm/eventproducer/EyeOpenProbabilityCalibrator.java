@@ -0,0 +1,77 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.event.UpdateEvent;
+import de.drowsydriveralarm.statistics.P2QuantileEstimator;
+
+import static de.drowsydriveralarm.eventproducer.EyeOpenProbabilityThresholds.isDefined;
+
+/**
+ * Adapts the eye open probability thresholds to the driver: during the first {@code calibrationDuration} of the drive
+ * the median eye open probability of each eye is estimated, which is the driver's resting eye openness as the eyes are
+ * open most of the time. Afterwards the threshold of each eye is set to the configured threshold scaled by that
+ * median, so a driver whose eyes rest at a probability of 0.6 gets a threshold of 0.3 instead of 0.5.
+ */
+public class EyeOpenProbabilityCalibrator {
+
+    static final long MIN_SAMPLES = 100;
+    static final float MIN_THRESHOLD = 0.05f;
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private final EyeOpenProbabilityThresholds eyeOpenProbabilityThresholds;
+    private final float eyeOpenProbabilityThreshold;
+    private final long calibrationMillis;
+    private final P2QuantileEstimator leftEyeMedian = new P2QuantileEstimator(0.5);
+    private final P2QuantileEstimator rightEyeMedian = new P2QuantileEstimator(0.5);
+
+    private long startMillis = NOT_STARTED;
+    private boolean calibrated;
+
+    public EyeOpenProbabilityCalibrator(final EyeOpenProbabilityThresholds eyeOpenProbabilityThresholds, final float eyeOpenProbabilityThreshold, final Duration calibrationDuration) {
+        this.eyeOpenProbabilityThresholds = eyeOpenProbabilityThresholds;
+        this.eyeOpenProbabilityThreshold = eyeOpenProbabilityThreshold;
+        this.calibrationMillis = calibrationDuration.getMillis();
+    }
+
+    @Subscribe
+    public void recordUpdateEvent(final UpdateEvent event) {
+        final FrameFeatures features = event.getFeatures();
+        this.recordFrame(event.getInstant().getMillis(), features.getLeftEyeOpenProbability(), features.getRightEyeOpenProbability());
+    }
+
+    synchronized void recordFrame(final long nowMillis, final float leftEyeOpenProbability, final float rightEyeOpenProbability) {
+        if (this.calibrated) {
+            return;
+        }
+
+        if (this.startMillis == NOT_STARTED) {
+            this.startMillis = nowMillis;
+        }
+
+        if (isDefined(leftEyeOpenProbability)) {
+            this.leftEyeMedian.add(leftEyeOpenProbability);
+        }
+        if (isDefined(rightEyeOpenProbability)) {
+            this.rightEyeMedian.add(rightEyeOpenProbability);
+        }
+
+        if (nowMillis - this.startMillis >= this.calibrationMillis
+                && this.leftEyeMedian.getCount() >= MIN_SAMPLES
+                && this.rightEyeMedian.getCount() >= MIN_SAMPLES) {
+            this.eyeOpenProbabilityThresholds.setThresholds(this.getThreshold(this.leftEyeMedian), this.getThreshold(this.rightEyeMedian));
+            this.calibrated = true;
+        }
+    }
+
+    public synchronized boolean isCalibrated() {
+        return this.calibrated;
+    }
+
+    private float getThreshold(final P2QuantileEstimator median) {
+        return Math.max(MIN_THRESHOLD, (float) (this.eyeOpenProbabilityThreshold * median.getQuantile()));
+    }
+}
@@ -0,0 +1,46 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.base.MoreObjects;
+
+import de.drowsydriveralarm.FrameFeatures;
+
+/**
+ * The eye open probability thresholds of the left and right eye, shared by the {@link EyesStateClassifier}s of the
+ * producers deciding whether the eyes are opened or closed. Starts with one threshold for both eyes and may be changed by the
+ * {@link EyeOpenProbabilityCalibrator} while driving.
+ */
+public class EyeOpenProbabilityThresholds {
+
+    private volatile float leftEyeThreshold;
+    private volatile float rightEyeThreshold;
+
+    public EyeOpenProbabilityThresholds(final float eyeOpenProbabilityThreshold) {
+        this.leftEyeThreshold = eyeOpenProbabilityThreshold;
+        this.rightEyeThreshold = eyeOpenProbabilityThreshold;
+    }
+
+    public float getLeftEyeThreshold() {
+        return this.leftEyeThreshold;
+    }
+
+    public float getRightEyeThreshold() {
+        return this.rightEyeThreshold;
+    }
+
+    void setThresholds(final float leftEyeThreshold, final float rightEyeThreshold) {
+        this.leftEyeThreshold = leftEyeThreshold;
+        this.rightEyeThreshold = rightEyeThreshold;
+    }
+
+    static boolean isDefined(final float probability) {
+        return probability != FrameFeatures.UNCOMPUTED_PROBABILITY;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("leftEyeThreshold", this.leftEyeThreshold)
+                .add("rightEyeThreshold", this.rightEyeThreshold)
+                .toString();
+    }
+}
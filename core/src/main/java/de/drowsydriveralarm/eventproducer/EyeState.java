@@ -0,0 +1,51 @@
+package de.drowsydriveralarm.eventproducer;
+
+import de.drowsydriveralarm.filter.SignalFilter;
+
+import static de.drowsydriveralarm.eventproducer.EyeOpenProbabilityThresholds.isDefined;
+
+/**
+ * State of a single eye: opened or closed as long as the eye's open probability is computed, unknown otherwise. The
+ * probability is smoothed by a {@link SignalFilter}, which starts over whenever the eye is unknown.
+ */
+class EyeState {
+
+    static final int UNKNOWN = 0;
+    static final int OPENED = 1;
+    static final int CLOSED = 2;
+
+    private final SignalFilter filter;
+    private int state = UNKNOWN;
+    private float distanceToThreshold;
+
+    EyeState(final SignalFilter filter) {
+        this.filter = filter;
+    }
+
+    void update(final long timeMillis, final boolean recognized, final float eyeOpenProbability, final float threshold) {
+        if (!recognized || !isDefined(eyeOpenProbability)) {
+            this.state = UNKNOWN;
+            this.filter.reset();
+            return;
+        }
+
+        final double filteredEyeOpenProbability = this.filter.filter(timeMillis, eyeOpenProbability);
+        this.state = filteredEyeOpenProbability >= threshold ? OPENED : CLOSED;
+        this.distanceToThreshold = (float) Math.abs(filteredEyeOpenProbability - threshold);
+    }
+
+    int getState() {
+        return this.state;
+    }
+
+    boolean isKnown() {
+        return this.state != UNKNOWN;
+    }
+
+    /**
+     * @return whether the eye open probability is at least {@code margin} away from the threshold
+     */
+    boolean isConfident(final float margin) {
+        return this.isKnown() && this.distanceToThreshold >= margin;
+    }
+}
@@ -0,0 +1,71 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.base.Optional;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import de.drowsydriveralarm.event.EventHelper;
+import de.drowsydriveralarm.event.EyesClosedEvent;
+import de.drowsydriveralarm.event.EyesOpenedEvent;
+import de.drowsydriveralarm.event.UpdateEvent;
+
+/**
+ * Posts an {@link EyesClosedEvent} when the eyes close after having been opened.
+ * <p>
+ * If the eyes went from opened to {@link EyesStateClassifier#UNKNOWN} to closed, e.g. because the detector skipped
+ * the frames in between, they closed at some time while unknown, so the closure is back-dated to the first unknown
+ * frame, provided the eyes were unknown for at most {@link #MAX_UNKNOWN_DURATION}.
+ */
+public class EyesClosedEventProducer extends EventProducer {
+
+    static final Duration MAX_UNKNOWN_DURATION = Duration.millis(200);
+
+    private final EyesStateClassifier eyesStateClassifier;
+    private Optional<Boolean> previouslyEyesOpened = Optional.absent();
+    private int previousEyesState = EyesStateClassifier.UNDECIDED;
+    private Optional<Long> unknownSinceMillis = Optional.absent();
+
+    public EyesClosedEventProducer(final EyesStateClassifier eyesStateClassifier, final EventBus eventBus) {
+        super(eventBus);
+        this.eyesStateClassifier = eyesStateClassifier;
+    }
+
+    @Subscribe
+    public void onEyesOpenedEvent(final EyesOpenedEvent event) {
+        this.previouslyEyesOpened = Optional.of(true);
+    }
+
+    @Subscribe
+    public void onUpdateEvent(final UpdateEvent actualEvent) {
+        this.onEyesState(EventHelper.getInstantOf(actualEvent).getMillis(), this.eyesStateClassifier.classify(actualEvent));
+    }
+
+    void onEyesState(final long timeMillis, final int eyesState) {
+        if (eyesState == EyesStateClassifier.UNKNOWN) {
+            if (this.previousEyesState == EyesStateClassifier.OPENED) {
+                this.unknownSinceMillis = Optional.of(timeMillis);
+            }
+        } else {
+            if (this.isPreviouslyEyesOpened() && eyesState == EyesStateClassifier.CLOSED) {
+                this.previouslyEyesOpened = Optional.of(false);
+                this.postEvent(new EyesClosedEvent(new Instant(this.getClosedMillis(timeMillis))));
+            }
+            this.unknownSinceMillis = Optional.absent();
+        }
+        this.previousEyesState = eyesState;
+    }
+
+    private long getClosedMillis(final long timeMillis) {
+        if (this.unknownSinceMillis.isPresent() && timeMillis - this.unknownSinceMillis.get() <= MAX_UNKNOWN_DURATION.getMillis()) {
+            return this.unknownSinceMillis.get();
+        }
+        return timeMillis;
+    }
+
+    private boolean isPreviouslyEyesOpened() {
+        return !this.previouslyEyesOpened.isPresent() || this.previouslyEyesOpened.get();
+    }
+}
@@ -1,10 +1,11 @@
 package de.drowsydriveralarm.eventproducer;
 
-import com.google.android.gms.vision.face.Face;
 import com.google.common.base.Optional;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 
+import org.joda.time.Instant;
+
 import de.drowsydriveralarm.event.EventHelper;
 import de.drowsydriveralarm.event.EyesClosedEvent;
 import de.drowsydriveralarm.event.EyesOpenedEvent;
@@ -12,16 +13,12 @@ import de.drowsydriveralarm.event.UpdateEvent;
 
 public class EyesOpenedEventProducer extends EventProducer {
 
-    private final float eyeOpenProbabilityThreshold;
+    private final EyesStateClassifier eyesStateClassifier;
     private Optional<Boolean> previouslyEyesClosed = Optional.absent();
 
-    public EyesOpenedEventProducer(final float eyeOpenProbabilityThreshold, final EventBus eventBus) {
+    public EyesOpenedEventProducer(final EyesStateClassifier eyesStateClassifier, final EventBus eventBus) {
         super(eventBus);
-        this.eyeOpenProbabilityThreshold = eyeOpenProbabilityThreshold;
-    }
-
-    static boolean isEyesOpen(final Face face, final float eyeOpenProbabilityThreshold) {
-        return face.getIsLeftEyeOpenProbability() >= eyeOpenProbabilityThreshold && face.getIsRightEyeOpenProbability() >= eyeOpenProbabilityThreshold;
+        this.eyesStateClassifier = eyesStateClassifier;
     }
 
     @Subscribe
@@ -31,9 +28,13 @@ public class EyesOpenedEventProducer extends EventProducer {
 
     @Subscribe
     public void onUpdateEvent(final UpdateEvent actualEvent) {
-        if (this.isPreviouslyEyesClosed() && isEyesOpen(actualEvent.getFace(), this.eyeOpenProbabilityThreshold)) {
+        this.onEyesState(EventHelper.getInstantOf(actualEvent).getMillis(), this.eyesStateClassifier.classify(actualEvent));
+    }
+
+    void onEyesState(final long timeMillis, final int eyesState) {
+        if (this.isPreviouslyEyesClosed() && eyesState == EyesStateClassifier.OPENED) {
             this.previouslyEyesClosed = Optional.of(false);
-            this.postEvent(new EyesOpenedEvent(EventHelper.getInstantOf(actualEvent)));
+            this.postEvent(new EyesOpenedEvent(new Instant(timeMillis)));
         }
     }
 
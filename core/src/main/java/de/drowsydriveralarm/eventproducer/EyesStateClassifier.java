@@ -0,0 +1,114 @@
+package de.drowsydriveralarm.eventproducer;
+
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.event.EventHelper;
+import de.drowsydriveralarm.event.UpdateEvent;
+import de.drowsydriveralarm.filter.SignalFilter;
+import de.drowsydriveralarm.filter.SignalFilters;
+
+/**
+ * Combines the states of the left and the right eye into the state of the eyes, shared by the producers deciding
+ * whether the eyes are opened or closed.
+ * <p>
+ * If both eyes are known, the eyes are opened (closed) if both eyes are opened (closed), and undecided if they
+ * disagree. If only one eye is known, because the other eye is not recognized or its open probability is not
+ * computed (e.g. by side lighting or a turned head), that eye alone decides, provided its open probability is at
+ * least {@code SINGLE_EYE_MARGIN} away from its threshold. If neither eye is known, the eyes are unknown, e.g. for the
+ * frames the detector skipped. The open probability of each eye is smoothed by a {@link SignalFilter} before it is
+ * compared to the threshold.
+ * <p>
+ * Every {@link UpdateEvent} is classified once, however many producers ask for it. The frames classified by both
+ * eyes, by a single eye and undecided are counted to measure the coverage.
+ */
+public class EyesStateClassifier {
+
+    public static final int UNDECIDED = 0;
+    public static final int OPENED = EyeState.OPENED;
+    public static final int CLOSED = EyeState.CLOSED;
+    public static final int UNKNOWN = 3;
+
+    static final float SINGLE_EYE_MARGIN = 0.2f;
+
+    private final EyeOpenProbabilityThresholds eyeOpenProbabilityThresholds;
+    private final EyeState leftEye;
+    private final EyeState rightEye;
+
+    private UpdateEvent lastEvent;
+    private int lastState = UNDECIDED;
+    private long framesByBothEyes;
+    private long framesBySingleEye;
+    private long framesUndecided;
+
+    public EyesStateClassifier(final EyeOpenProbabilityThresholds eyeOpenProbabilityThresholds) {
+        this(eyeOpenProbabilityThresholds, SignalFilters.none(), SignalFilters.none());
+    }
+
+    public EyesStateClassifier(final EyeOpenProbabilityThresholds eyeOpenProbabilityThresholds, final SignalFilter leftEyeFilter, final SignalFilter rightEyeFilter) {
+        this.eyeOpenProbabilityThresholds = eyeOpenProbabilityThresholds;
+        this.leftEye = new EyeState(leftEyeFilter);
+        this.rightEye = new EyeState(rightEyeFilter);
+    }
+
+    /**
+     * @return {@link #OPENED}, {@link #CLOSED}, {@link #UNDECIDED} or {@link #UNKNOWN}
+     */
+    public synchronized int classify(final UpdateEvent event) {
+        if (event != this.lastEvent) {
+            this.lastEvent = event;
+            final FrameFeatures features = event.getFeatures();
+            this.lastState =
+                    this.classify(
+                            EventHelper.getInstantOf(event).getMillis(),
+                            features.isLeftEyeRecognized(),
+                            features.getLeftEyeOpenProbability(),
+                            features.isRightEyeRecognized(),
+                            features.getRightEyeOpenProbability());
+        }
+        return this.lastState;
+    }
+
+    /**
+     * Classifies a frame given by its columns, without memoizing.
+     */
+    synchronized int classify(final long timeMillis, final boolean leftEyeRecognized, final float leftEyeOpenProbability, final boolean rightEyeRecognized, final float rightEyeOpenProbability) {
+        this.leftEye.update(timeMillis, leftEyeRecognized, leftEyeOpenProbability, this.eyeOpenProbabilityThresholds.getLeftEyeThreshold());
+        this.rightEye.update(timeMillis, rightEyeRecognized, rightEyeOpenProbability, this.eyeOpenProbabilityThresholds.getRightEyeThreshold());
+        return this.combineEyeStates();
+    }
+
+    public synchronized long getFramesByBothEyes() {
+        return this.framesByBothEyes;
+    }
+
+    public synchronized long getFramesBySingleEye() {
+        return this.framesBySingleEye;
+    }
+
+    /**
+     * @return the frames {@link #UNDECIDED} or {@link #UNKNOWN}
+     */
+    public synchronized long getFramesUndecided() {
+        return this.framesUndecided;
+    }
+
+    private int combineEyeStates() {
+        if (this.leftEye.isKnown() && this.rightEye.isKnown()) {
+            if (this.leftEye.getState() == this.rightEye.getState()) {
+                this.framesByBothEyes++;
+                return this.leftEye.getState();
+            }
+        } else if (!this.leftEye.isKnown() && !this.rightEye.isKnown()) {
+            this.framesUndecided++;
+            return UNKNOWN;
+        } else if (this.leftEye.isConfident(SINGLE_EYE_MARGIN)) {
+            this.framesBySingleEye++;
+            return this.leftEye.getState();
+        } else if (this.rightEye.isConfident(SINGLE_EYE_MARGIN)) {
+            this.framesBySingleEye++;
+            return this.rightEye.getState();
+        }
+
+        this.framesUndecided++;
+        return UNDECIDED;
+    }
+}
@@ -0,0 +1,69 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.eventbus.EventBus;
+
+import java.util.List;
+
+import de.drowsydriveralarm.Clock;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.FrameRecorder;
+import de.drowsydriveralarm.event.UpdateEvent;
+
+/**
+ * Entry point of the frames into the event producers: posts an {@link UpdateEvent} for every frame with an eye
+ * recognized and lets the {@link DrowsyEventProducer} decide on the drowsiness afterwards. Every frame, even without
+ * any eye recognized, is recorded by the {@link FrameRecorder}s.
+ */
+public class FrameEventProducer {
+
+    private final EventBus eventBus;
+    private final DrowsyEventProducer drowsyEventProducer;
+    private final Optional<DeadlineEventProducer> deadlineEventProducer;
+    private final List<FrameRecorder> frameRecorders;
+    private final Clock clock;
+
+    // remembers about 10 seconds of frames at 30 frames per second, clocks drift by less than 1000 ppm
+    private final ClockFrameTimeSynchronizer timeSynchronizer = new ClockFrameTimeSynchronizer(1.0 / 300, 0.001);
+
+    public FrameEventProducer(final EventBus eventBus, final DrowsyEventProducer drowsyEventProducer, final Optional<DeadlineEventProducer> deadlineEventProducer, final Clock clock) {
+        this(eventBus, drowsyEventProducer, deadlineEventProducer, ImmutableList.<FrameRecorder> of(), clock);
+    }
+
+    public FrameEventProducer(final EventBus eventBus, final DrowsyEventProducer drowsyEventProducer, final Optional<DeadlineEventProducer> deadlineEventProducer, final List<FrameRecorder> frameRecorders, final Clock clock) {
+        this.eventBus = eventBus;
+        this.drowsyEventProducer = drowsyEventProducer;
+        this.deadlineEventProducer = deadlineEventProducer;
+        this.frameRecorders = frameRecorders;
+        this.clock = clock;
+    }
+
+    /**
+     * Expires the deadlines up to the frame time corresponding to now. Called from a timer thread, so it is
+     * synchronized with {@link #onFrame(FrameFeatures)}.
+     */
+    public synchronized void onTick() {
+        if (!this.timeSynchronizer.isSynchronized() || !this.deadlineEventProducer.isPresent()) {
+            return;
+        }
+
+        this.deadlineEventProducer.get().advanceTo(this.timeSynchronizer.toFrameTime(this.clock.nanoTime()));
+    }
+
+    public synchronized void onFrame(final FrameFeatures features) {
+        final long clockNanos = this.clock.nanoTime();
+        this.timeSynchronizer.addSample(clockNanos, features.getTimestampMillis());
+        // without an iterator per frame
+        for (int i = 0; i < this.frameRecorders.size(); i++) {
+            this.frameRecorders.get(i).recordFrame(features);
+        }
+
+        if (!features.isAnyEyeRecognized()) {
+            return;
+        }
+
+        this.eventBus.post(new UpdateEvent(features));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(this.timeSynchronizer.toFrameTime(clockNanos));
+    }
+}
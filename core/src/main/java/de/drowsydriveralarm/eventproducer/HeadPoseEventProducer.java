@@ -0,0 +1,137 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.event.EventHelper;
+import de.drowsydriveralarm.event.HeadNodEvent;
+import de.drowsydriveralarm.event.HeadSlumpEvent;
+import de.drowsydriveralarm.event.UpdateEvent;
+
+/**
+ * Detects nodding and slumping from the head pose.
+ * <p>
+ * The face detector estimates yaw and roll of the head but no pitch, so the pitch is taken from the vertical position
+ * of the face center in face heights: a dropping head moves the face down.
+ * The resting pose is the mean pitch and roll of the last {@code RING_CAPACITY} frames without deviation, kept in a
+ * primitive ring with running sums, so every frame costs constant time.
+ * <p>
+ * A head dropping by at least {@code NOD_DROP} and coming back within {@code NOD_MAX_DURATION} is a nod. A head
+ * dropped or tilted by at least {@code SLUMP_ROLL_DEGREES} for {@code SLUMP_MIN_DURATION} is a slump, reported once.
+ * While the head is turned away, e.g. to a mirror, neither is detected.
+ * <p>
+ * A deviation lasting {@code REBASELINE_MIN_DURATION} is a new posture, e.g. after reclining the seat or moving the
+ * camera: the resting pose is learned anew from the next frames, so nods and slumps are detected relative to it.
+ */
+public class HeadPoseEventProducer extends EventProducer {
+
+    static final int RING_CAPACITY = 64;
+    static final int MIN_RESTING_FRAMES = 15;
+    static final float NOD_DROP = 0.15f;
+    static final long NOD_MAX_DURATION_MILLIS = 1500;
+    static final float SLUMP_ROLL_DEGREES = 20;
+    static final long SLUMP_MIN_DURATION_MILLIS = 2000;
+    static final long REBASELINE_MIN_DURATION_MILLIS = 10000;
+    static final float MAX_YAW_DEGREES = 30;
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final float[] pitches = new float[RING_CAPACITY];
+    private final float[] rolls = new float[RING_CAPACITY];
+    private int ringStart;
+    private int ringSize;
+    private double pitchSum;
+    private double rollSum;
+
+    private long deviationStartMillis = NONE;
+    private boolean dropped;
+    private boolean slumpReported;
+
+    public HeadPoseEventProducer(final EventBus eventBus) {
+        super(eventBus);
+    }
+
+    @Subscribe
+    public void onUpdateEvent(final UpdateEvent event) {
+        final FrameFeatures features = event.getFeatures();
+        if (features.getFaceHeight() <= 0 || Math.abs(features.getHeadYaw()) > MAX_YAW_DEGREES) {
+            this.deviationStartMillis = NONE;
+            return;
+        }
+
+        final float pitch = features.getFaceCenterY() / features.getFaceHeight();
+        final float roll = features.getHeadRoll();
+        if (this.ringSize < MIN_RESTING_FRAMES) {
+            this.addRestingPose(pitch, roll);
+            return;
+        }
+
+        final boolean drop = pitch - this.pitchSum / this.ringSize >= NOD_DROP;
+        final boolean tilt = Math.abs(roll - this.rollSum / this.ringSize) >= SLUMP_ROLL_DEGREES;
+        final long nowMillis = EventHelper.getInstantOf(event).getMillis();
+        if (drop || tilt) {
+            this.onDeviation(nowMillis, drop);
+        } else {
+            this.onRestingPose(nowMillis);
+            this.addRestingPose(pitch, roll);
+        }
+    }
+
+    private void onDeviation(final long nowMillis, final boolean drop) {
+        if (this.deviationStartMillis == NONE) {
+            this.deviationStartMillis = nowMillis;
+            this.dropped = false;
+            this.slumpReported = false;
+        }
+        this.dropped |= drop;
+
+        final long durationMillis = nowMillis - this.deviationStartMillis;
+        if (!this.slumpReported && durationMillis >= SLUMP_MIN_DURATION_MILLIS) {
+            this.slumpReported = true;
+            this.postEvent(new HeadSlumpEvent(new Instant(this.deviationStartMillis), new Duration(durationMillis)));
+        }
+        if (durationMillis >= REBASELINE_MIN_DURATION_MILLIS) {
+            this.clearRestingPose();
+            this.deviationStartMillis = NONE;
+        }
+    }
+
+    private void onRestingPose(final long nowMillis) {
+        if (this.deviationStartMillis == NONE) {
+            return;
+        }
+
+        final long durationMillis = nowMillis - this.deviationStartMillis;
+        if (this.dropped && durationMillis <= NOD_MAX_DURATION_MILLIS) {
+            this.postEvent(new HeadNodEvent(new Instant(this.deviationStartMillis), new Duration(durationMillis)));
+        }
+        this.deviationStartMillis = NONE;
+    }
+
+    private void addRestingPose(final float pitch, final float roll) {
+        final int index;
+        if (this.ringSize < RING_CAPACITY) {
+            index = (this.ringStart + this.ringSize) % RING_CAPACITY;
+            this.ringSize++;
+        } else {
+            index = this.ringStart;
+            this.pitchSum -= this.pitches[index];
+            this.rollSum -= this.rolls[index];
+            this.ringStart = (this.ringStart + 1) % RING_CAPACITY;
+        }
+        this.pitches[index] = pitch;
+        this.rolls[index] = roll;
+        this.pitchSum += pitch;
+        this.rollSum += roll;
+    }
+
+    private void clearRestingPose() {
+        this.ringStart = 0;
+        this.ringSize = 0;
+        this.pitchSum = 0;
+        this.rollSum = 0;
+    }
+}
@@ -0,0 +1,29 @@
+package de.drowsydriveralarm.eventproducer;
+
+import org.joda.time.Duration;
+
+public interface IDrowsyEventDetectorConfig {
+
+    float getEyeOpenProbabilityThreshold();
+
+    DrowsyEventProducer.Config getConfig();
+
+    Duration getSlowEyelidClosureMinDuration();
+
+    Duration getTimeWindow();
+
+    /**
+     * how long frames may be held back to put frames arriving out of order back in order
+     */
+    Duration getReorderLatencyBudget();
+
+    /**
+     * how long the eye open probabilities are observed to calibrate the thresholds to the driver, zero for no calibration
+     */
+    Duration getCalibrationDuration();
+
+    /**
+     * name of the filter smoothing the eye open probabilities, see {@link de.drowsydriveralarm.filter.SignalFilters}
+     */
+    String getEyeOpenProbabilityFilter();
+}
@@ -0,0 +1,205 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.base.Preconditions;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+
+import de.drowsydriveralarm.Clock;
+import de.drowsydriveralarm.FrameBatch;
+
+/**
+ * Hosts one {@link DrowsyEventDetector} per stream, e.g. per camera feed of a fleet, keyed by the id of the stream.
+ * <p>
+ * The streams are sharded over a fixed number of worker threads by their id. Every detector is created, fed and
+ * dropped by the thread of its shard only, so the state of a stream needs no locks shared between threads and the
+ * batches of a stream are evaluated in the order they were submitted. The events of a stream are posted on the
+ * event bus of its detector by the thread of its shard, see {@link StreamListener}.
+ * <p>
+ * Every shard queues at most {@code queueCapacity} batches, {@link #submit(String, FrameBatch)} blocks while the
+ * queue of the shard is full, {@link #offer(String, FrameBatch)} returns false then. Closing a stream is queued
+ * beyond that capacity, so it never blocks.
+ */
+public class MultiStreamDrowsyEventDetector {
+
+    /**
+     * Called by the thread of the shard of the stream.
+     */
+    public interface StreamListener {
+
+        /**
+         * The stream got its detector with the first batch, e.g. to register subscribers on its event bus.
+         */
+        void onStreamOpened(String streamId, DrowsyEventDetector drowsyEventDetector);
+
+        /**
+         * Evaluating a batch of the stream failed, its detector is dropped and the next batch starts over.
+         */
+        void onStreamFailed(String streamId, RuntimeException exception);
+    }
+
+    private final IDrowsyEventDetectorConfig config;
+    private final StreamListener streamListener;
+    private final Clock clock;
+    private final Shard[] shards;
+    private volatile boolean shutdown;
+
+    public MultiStreamDrowsyEventDetector(final IDrowsyEventDetectorConfig config, final int numberOfShards, final int queueCapacity, final StreamListener streamListener, final Clock clock) {
+        Preconditions.checkArgument(numberOfShards > 0, "numberOfShards must be positive");
+        Preconditions.checkArgument(queueCapacity > 0, "queueCapacity must be positive");
+        this.config = config;
+        this.streamListener = streamListener;
+        this.clock = clock;
+        this.shards = new Shard[numberOfShards];
+        for (int i = 0; i < numberOfShards; i++) {
+            this.shards[i] = new Shard(i, queueCapacity);
+        }
+        for (final Shard shard : this.shards) {
+            shard.start();
+        }
+    }
+
+    /**
+     * Queues the batch for the detector of the stream, blocking while the queue of its shard is full.
+     */
+    public void submit(final String streamId, final FrameBatch batch) throws InterruptedException {
+        Preconditions.checkNotNull(batch, "batch must not be null");
+        final Shard shard = this.getShard(streamId);
+        shard.batchPermits.acquire();
+        shard.tasks.add(new Task(streamId, batch));
+    }
+
+    /**
+     * Queues the batch for the detector of the stream unless the queue of its shard is full, without blocking.
+     *
+     * @return false if the queue of the shard is full, the batch is not queued then
+     */
+    public boolean offer(final String streamId, final FrameBatch batch) {
+        Preconditions.checkNotNull(batch, "batch must not be null");
+        final Shard shard = this.getShard(streamId);
+        if (!shard.batchPermits.tryAcquire()) {
+            return false;
+        }
+
+        shard.tasks.add(new Task(streamId, batch));
+        return true;
+    }
+
+    /**
+     * Drops the detector of the stream after its queued batches, a later batch starts over. Never blocks.
+     */
+    public void closeStream(final String streamId) {
+        this.getShard(streamId).tasks.add(new Task(streamId, null));
+    }
+
+    /**
+     * Evaluates the queued batches and stops the threads, accepting no more batches.
+     */
+    public void shutdown() throws InterruptedException {
+        this.shutdown = true;
+        for (final Shard shard : this.shards) {
+            shard.tasks.put(Task.STOP);
+        }
+    }
+
+    /**
+     * @return true if all threads stopped within the timeout
+     */
+    public boolean awaitTermination(final long timeoutMillis) throws InterruptedException {
+        final long deadlineMillis = System.currentTimeMillis() + timeoutMillis;
+        for (final Shard shard : this.shards) {
+            shard.thread.join(Math.max(1, deadlineMillis - System.currentTimeMillis()));
+            if (shard.thread.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getNumberOfShards() {
+        return this.shards.length;
+    }
+
+    int getShardIndex(final String streamId) {
+        return (streamId.hashCode() & Integer.MAX_VALUE) % this.shards.length;
+    }
+
+    private Shard getShard(final String streamId) {
+        Preconditions.checkNotNull(streamId, "streamId must not be null");
+        Preconditions.checkState(!this.shutdown, "shut down");
+        return this.shards[this.getShardIndex(streamId)];
+    }
+
+    private static class Task {
+
+        static final Task STOP = new Task(null, null);
+
+        final String streamId;
+        // null to close the stream
+        final FrameBatch batch;
+
+        Task(final String streamId, final FrameBatch batch) {
+            this.streamId = streamId;
+            this.batch = batch;
+        }
+    }
+
+    private class Shard implements Runnable {
+
+        // the closes and the stop are queued beyond the batches permitted
+        private final BlockingQueue<Task> tasks = new LinkedBlockingQueue<>();
+        private final Semaphore batchPermits;
+        private final Thread thread;
+        // confined to the thread
+        private final Map<String, DrowsyEventDetector> drowsyEventDetectors = new HashMap<>();
+
+        Shard(final int index, final int queueCapacity) {
+            this.batchPermits = new Semaphore(queueCapacity);
+            this.thread = new Thread(this, "DrowsyEventDetector-shard-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            this.thread.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (Task task = this.tasks.take(); task != Task.STOP; task = this.tasks.take()) {
+                    this.process(task);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void process(final Task task) {
+            if (task.batch == null) {
+                this.drowsyEventDetectors.remove(task.streamId);
+                return;
+            }
+            this.batchPermits.release();
+
+            try {
+                this.getDrowsyEventDetector(task.streamId).processBatch(task.batch);
+            } catch (final RuntimeException e) {
+                this.drowsyEventDetectors.remove(task.streamId);
+                MultiStreamDrowsyEventDetector.this.streamListener.onStreamFailed(task.streamId, e);
+            }
+        }
+
+        private DrowsyEventDetector getDrowsyEventDetector(final String streamId) {
+            DrowsyEventDetector drowsyEventDetector = this.drowsyEventDetectors.get(streamId);
+            if (drowsyEventDetector == null) {
+                drowsyEventDetector = new DrowsyEventDetector(MultiStreamDrowsyEventDetector.this.config, MultiStreamDrowsyEventDetector.this.clock);
+                this.drowsyEventDetectors.put(streamId, drowsyEventDetector);
+                MultiStreamDrowsyEventDetector.this.streamListener.onStreamOpened(streamId, drowsyEventDetector);
+            }
+            return drowsyEventDetector;
+        }
+    }
+}
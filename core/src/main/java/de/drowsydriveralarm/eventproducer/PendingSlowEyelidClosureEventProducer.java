@@ -17,12 +17,12 @@ import static de.drowsydriveralarm.eventproducer.SlowEyelidClosureEventProducer.
 public class PendingSlowEyelidClosureEventProducer extends EventProducer {
 
     private final Duration slowEyelidClosureMinDuration;
-    private final float eyeOpenProbabilityThreshold;
+    private final EyesStateClassifier eyesStateClassifier;
     private Optional<Instant> eyesClosed = Optional.absent();
 
-    public PendingSlowEyelidClosureEventProducer(final float eyeOpenProbabilityThreshold, final Duration slowEyelidClosureMinDuration, final EventBus eventBus) {
+    public PendingSlowEyelidClosureEventProducer(final EyesStateClassifier eyesStateClassifier, final Duration slowEyelidClosureMinDuration, final EventBus eventBus) {
         super(eventBus);
-        this.eyeOpenProbabilityThreshold = eyeOpenProbabilityThreshold;
+        this.eyesStateClassifier = eyesStateClassifier;
         this.slowEyelidClosureMinDuration = slowEyelidClosureMinDuration;
     }
 
@@ -42,8 +42,16 @@ public class PendingSlowEyelidClosureEventProducer extends EventProducer {
             return;
         }
 
-        final Duration duration = new Duration(this.eyesClosed.get(), updateEvent.getInstant());
-        if (!EyesOpenedEventProducer.isEyesOpen(updateEvent.getFace(), this.eyeOpenProbabilityThreshold) && isSlowEyelidClosure(duration, this.slowEyelidClosureMinDuration)) {
+        this.onEyesState(updateEvent.getInstant().getMillis(), this.eyesStateClassifier.classify(updateEvent));
+    }
+
+    void onEyesState(final long timeMillis, final int eyesState) {
+        if (!this.eyesClosed.isPresent()) {
+            return;
+        }
+
+        final Duration duration = new Duration(this.eyesClosed.get().getMillis(), timeMillis);
+        if (eyesState != EyesStateClassifier.OPENED && isSlowEyelidClosure(duration, this.slowEyelidClosureMinDuration)) {
             this.postEvent(new PendingSlowEyelidClosureEvent(this.eyesClosed.get(), duration));
         }
     }
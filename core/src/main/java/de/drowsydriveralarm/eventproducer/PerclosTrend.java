@@ -0,0 +1,63 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.base.Optional;
+
+import org.joda.time.Duration;
+
+import de.drowsydriveralarm.statistics.ExponentiallyWeightedLinearRegression;
+
+/**
+ * Follows the trend of PERCLOS by a linear regression over about the last {@code TIME_CONSTANT} and tells when PERCLOS,
+ * rising at that rate, would reach the drowsy threshold within the horizon.
+ * <p>
+ * A rise is reported once. The next rise is reported after PERCLOS reached the drowsy threshold, stopped rising, or
+ * would take more than twice the horizon to reach it.
+ */
+class PerclosTrend {
+
+    private static final Duration TIME_CONSTANT = Duration.standardMinutes(2);
+    private static final long WARMUP_MILLIS = Duration.standardSeconds(30).getMillis();
+
+    private final double drowsyThreshold;
+    private final long horizonMillis;
+    private final ExponentiallyWeightedLinearRegression regression = new ExponentiallyWeightedLinearRegression(TIME_CONSTANT);
+
+    private long firstMillis;
+    private boolean reported;
+
+    PerclosTrend(final double drowsyThreshold, final Duration horizon) {
+        this.drowsyThreshold = drowsyThreshold;
+        this.horizonMillis = horizon.getMillis();
+    }
+
+    /**
+     * @return the time PERCLOS needs to reach the drowsy threshold if it is to be reported now
+     */
+    Optional<Duration> update(final long nowMillis, final double perclos) {
+        if (this.regression.getSamples() == 0) {
+            this.firstMillis = nowMillis;
+        }
+        this.regression.add(nowMillis, perclos);
+        if (nowMillis - this.firstMillis < WARMUP_MILLIS) {
+            return Optional.absent();
+        }
+
+        final double slope = this.regression.getSlope();
+        if (perclos >= this.drowsyThreshold || slope <= 0) {
+            this.reported = false;
+            return Optional.absent();
+        }
+
+        final double timeToDrowsyMillis = (this.drowsyThreshold - perclos) / slope;
+        if (timeToDrowsyMillis > 2 * this.horizonMillis) {
+            this.reported = false;
+            return Optional.absent();
+        }
+        if (timeToDrowsyMillis > this.horizonMillis || this.reported) {
+            return Optional.absent();
+        }
+
+        this.reported = true;
+        return Optional.of(new Duration(Math.round(timeToDrowsyMillis)));
+    }
+}
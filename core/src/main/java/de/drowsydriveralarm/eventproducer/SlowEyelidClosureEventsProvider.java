@@ -1,8 +1,6 @@
 package de.drowsydriveralarm.eventproducer;
 
-import android.support.annotation.NonNull;
-import android.support.annotation.VisibleForTesting;
-
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.FluentIterable;
@@ -69,7 +67,21 @@ public class SlowEyelidClosureEventsProvider {
                 .toList();
     }
 
-    @NonNull
+    /**
+     * Sum of the durations of the recorded events within the time window ending at {@code timewindowEndMillis}.
+     */
+    public long getClosedMillisWithinTimeWindow(final long timewindowEndMillis) {
+        final long timewindowStartMillis = timewindowEndMillis - this.timeWindow.getMillis();
+        long closedMillis = 0;
+        for (int i = 0; i < this.events.size(); i++) {
+            final SlowEyelidClosureEvent event = this.events.get(i);
+            final long startMillis = Math.max(event.getInstant().getMillis(), timewindowStartMillis);
+            final long endMillis = Math.min(event.getInstant().getMillis() + event.getDuration().getMillis(), timewindowEndMillis);
+            closedMillis += Math.max(0, endMillis - startMillis);
+        }
+        return closedMillis;
+    }
+
     private Predicate<SlowEyelidClosureEvent> isEventPartlyWithinTimeWindow(final Instant timewindowEnd) {
         final Interval timeWindowInterval = new Interval(this.timeWindow, timewindowEnd);
         return new Predicate<SlowEyelidClosureEvent>() {
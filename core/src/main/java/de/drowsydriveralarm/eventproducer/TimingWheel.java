@@ -0,0 +1,112 @@
+package de.drowsydriveralarm.eventproducer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed timing wheel: a timeout is put into the bucket of its deadline's tick modulo the number of buckets, so
+ * scheduling, cancelling and advancing by one tick take constant time no matter how many timeouts are pending.
+ * A bucket may hold timeouts of later revolutions, which are kept until their tick has been reached.
+ * <p>
+ * Not thread safe, callers must synchronize.
+ */
+class TimingWheel<T> {
+
+    interface ExpiryListener<T> {
+
+        void onExpired(T payload, long deadlineMillis);
+    }
+
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private final long tickMillis;
+    private final List<List<Timeout<T>>> buckets;
+    private final int mask;
+    private long currentTick = NOT_STARTED;
+
+    /**
+     * @param numberOfBuckets is rounded up to a power of two
+     */
+    TimingWheel(final long tickMillis, final int numberOfBuckets) {
+        this.tickMillis = tickMillis;
+        final int size = Integer.highestOneBit(Math.max(1, numberOfBuckets - 1)) << 1;
+        this.buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            this.buckets.add(new ArrayList<Timeout<T>>());
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedules a timeout, which expires on the first {@link #advanceTo(long, ExpiryListener)} reaching its deadline.
+     * Deadlines already passed expire with the next tick.
+     */
+    Timeout<T> schedule(final long deadlineMillis, final T payload) {
+        final long deadlineTick = this.tickOf(deadlineMillis);
+        if (this.currentTick == NOT_STARTED) {
+            this.currentTick = deadlineTick - 1;
+        }
+
+        final Timeout<T> timeout = new Timeout<>(deadlineMillis, Math.max(deadlineTick, this.currentTick + 1), payload);
+        this.buckets.get((int) (timeout.deadlineTick & this.mask)).add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Expires all timeouts with a deadline up to the tick of {@code nowMillis}.
+     */
+    void advanceTo(final long nowMillis, final ExpiryListener<T> listener) {
+        if (this.currentTick == NOT_STARTED) {
+            this.currentTick = this.tickOf(nowMillis);
+            return;
+        }
+
+        final long nowTick = this.tickOf(nowMillis);
+        final long lastTick = this.currentTick + Math.min(nowTick - this.currentTick, this.buckets.size());
+        // currentTick moves along, so timeouts scheduled by the listener go into buckets not yet expired
+        while (this.currentTick < lastTick) {
+            this.currentTick++;
+            this.expire(this.buckets.get((int) (this.currentTick & this.mask)), nowTick, listener);
+        }
+        this.currentTick = Math.max(this.currentTick, nowTick);
+    }
+
+    private void expire(final List<Timeout<T>> bucket, final long nowTick, final ExpiryListener<T> listener) {
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            final Timeout<T> timeout = bucket.get(i);
+            if (timeout.cancelled || timeout.deadlineTick <= nowTick) {
+                bucket.set(i, bucket.get(bucket.size() - 1));
+                bucket.remove(bucket.size() - 1);
+                if (!timeout.cancelled) {
+                    timeout.cancelled = true;
+                    listener.onExpired(timeout.payload, timeout.deadlineMillis);
+                }
+            }
+        }
+    }
+
+    private long tickOf(final long millis) {
+        return Math.round(Math.floor((double) millis / this.tickMillis));
+    }
+
+    static class Timeout<T> {
+
+        private final long deadlineMillis;
+        private final long deadlineTick;
+        private final T payload;
+        private boolean cancelled;
+
+        private Timeout(final long deadlineMillis, final long deadlineTick, final T payload) {
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        /**
+         * The timeout won't expire anymore. Cancelling an expired timeout has no effect.
+         */
+        void cancel() {
+            this.cancelled = true;
+        }
+    }
+}
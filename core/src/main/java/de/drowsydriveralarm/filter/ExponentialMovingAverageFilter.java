@@ -0,0 +1,38 @@
+package de.drowsydriveralarm.filter;
+
+import org.joda.time.Duration;
+
+/**
+ * Exponential moving average with a time constant instead of a fixed weight, so irregular frame intervals weigh
+ * samples by the time they stood for. A step in the signal is followed to 63 % after one time constant.
+ */
+public class ExponentialMovingAverageFilter implements SignalFilter {
+
+    private final double timeConstantMillis;
+    private boolean initialized;
+    private long lastTimeMillis;
+    private double average;
+
+    public ExponentialMovingAverageFilter(final Duration timeConstant) {
+        this.timeConstantMillis = timeConstant.getMillis();
+    }
+
+    @Override
+    public double filter(final long timeMillis, final double value) {
+        if (!this.initialized) {
+            this.initialized = true;
+            this.average = value;
+        } else {
+            final long elapsedMillis = Math.max(0, timeMillis - this.lastTimeMillis);
+            final double weight = this.timeConstantMillis > 0 ? 1 - Math.exp(-elapsedMillis / this.timeConstantMillis) : 1;
+            this.average += weight * (value - this.average);
+        }
+        this.lastTimeMillis = timeMillis;
+        return this.average;
+    }
+
+    @Override
+    public void reset() {
+        this.initialized = false;
+    }
+}
@@ -0,0 +1,42 @@
+package de.drowsydriveralarm.filter;
+
+/**
+ * One-dimensional Kalman filter for a signal modelled as a random walk: the signal's variance grows by
+ * {@code processVariancePerSecond} per second, every sample is measured with {@code measurementVariance}.
+ * The larger the measurement variance relative to the process variance, the smoother and slower the output.
+ */
+public class KalmanFilter implements SignalFilter {
+
+    private final double processVariancePerMilli;
+    private final double measurementVariance;
+    private boolean initialized;
+    private long lastTimeMillis;
+    private double estimate;
+    private double estimateVariance;
+
+    public KalmanFilter(final double processVariancePerSecond, final double measurementVariance) {
+        this.processVariancePerMilli = processVariancePerSecond / 1000;
+        this.measurementVariance = measurementVariance;
+    }
+
+    @Override
+    public double filter(final long timeMillis, final double value) {
+        if (!this.initialized) {
+            this.initialized = true;
+            this.estimate = value;
+            this.estimateVariance = this.measurementVariance;
+        } else {
+            this.estimateVariance += this.processVariancePerMilli * Math.max(0, timeMillis - this.lastTimeMillis);
+            final double gain = this.estimateVariance / (this.estimateVariance + this.measurementVariance);
+            this.estimate += gain * (value - this.estimate);
+            this.estimateVariance *= 1 - gain;
+        }
+        this.lastTimeMillis = timeMillis;
+        return this.estimate;
+    }
+
+    @Override
+    public void reset() {
+        this.initialized = false;
+    }
+}
@@ -0,0 +1,48 @@
+package de.drowsydriveralarm.filter;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Median of the last {@code size} samples. Removes dips shorter than half the window completely and passes steps
+ * unchanged, delayed by {@code size / 2} samples.
+ */
+public class MedianFilter implements SignalFilter {
+
+    private final double[] ring;
+    private final double[] sorted;
+    private int count;
+    private int next;
+
+    public MedianFilter(final int size) {
+        Preconditions.checkArgument(size > 0 && size % 2 == 1, "size must be positive and odd");
+        this.ring = new double[size];
+        this.sorted = new double[size];
+    }
+
+    @Override
+    public double filter(final long timeMillis, final double value) {
+        this.ring[this.next] = value;
+        this.next = (this.next + 1) % this.ring.length;
+        this.count = Math.min(this.count + 1, this.ring.length);
+
+        // insertion sort, the window is small
+        for (int i = 0; i < this.count; i++) {
+            final double sample = this.ring[i];
+            int j = i;
+            while (j > 0 && this.sorted[j - 1] > sample) {
+                this.sorted[j] = this.sorted[j - 1];
+                j--;
+            }
+            this.sorted[j] = sample;
+        }
+        return this.count % 2 == 1
+                ? this.sorted[this.count / 2]
+                : (this.sorted[this.count / 2 - 1] + this.sorted[this.count / 2]) / 2;
+    }
+
+    @Override
+    public void reset() {
+        this.count = 0;
+        this.next = 0;
+    }
+}
@@ -0,0 +1,19 @@
+package de.drowsydriveralarm.filter;
+
+/**
+ * Smooths a noisy signal sample by sample. Implementations keep their state in primitive fields and allocate nothing
+ * per sample. Not thread safe, callers must synchronize.
+ */
+public interface SignalFilter {
+
+    /**
+     * @param timeMillis non-decreasing time of the sample
+     * @return the smoothed value
+     */
+    double filter(long timeMillis, double value);
+
+    /**
+     * Forgets all samples, e.g. after the signal was lost.
+     */
+    void reset();
+}
@@ -0,0 +1,60 @@
+package de.drowsydriveralarm.filter;
+
+import org.joda.time.Duration;
+
+/**
+ * Creates the filters for the eye open probabilities by name. Each filter is tuned to suppress dips of a single frame
+ * at 30 frames per second while delaying the onset of a real closure by at most two frames (67 milliseconds):
+ * <ul>
+ * <li>{@code none}: passes the probabilities unchanged</li>
+ * <li>{@code ema}: exponential moving average with a time constant of 60 milliseconds, delays a full closure by
+ * about 42 milliseconds</li>
+ * <li>{@code median}: median of the last 3 frames, delays a closure by one frame</li>
+ * <li>{@code kalman}: random walk Kalman filter with a steady state gain of about 0.4, delays a full closure by about
+ * two frames</li>
+ * </ul>
+ */
+public class SignalFilters {
+
+    public static final String NONE = "none";
+    public static final String EXPONENTIAL_MOVING_AVERAGE = "ema";
+    public static final String MEDIAN = "median";
+    public static final String KALMAN = "kalman";
+
+    private static final Duration EMA_TIME_CONSTANT = Duration.millis(60);
+    private static final int MEDIAN_SIZE = 3;
+    private static final double KALMAN_PROCESS_VARIANCE_PER_SECOND = 0.36;
+    private static final double KALMAN_MEASUREMENT_VARIANCE = 0.04;
+
+    private SignalFilters() {
+    }
+
+    public static SignalFilter create(final String name) {
+        switch (name) {
+            case NONE:
+                return none();
+            case EXPONENTIAL_MOVING_AVERAGE:
+                return new ExponentialMovingAverageFilter(EMA_TIME_CONSTANT);
+            case MEDIAN:
+                return new MedianFilter(MEDIAN_SIZE);
+            case KALMAN:
+                return new KalmanFilter(KALMAN_PROCESS_VARIANCE_PER_SECOND, KALMAN_MEASUREMENT_VARIANCE);
+            default:
+                throw new IllegalArgumentException("unknown filter: " + name);
+        }
+    }
+
+    public static SignalFilter none() {
+        return new SignalFilter() {
+
+            @Override
+            public double filter(final long timeMillis, final double value) {
+                return value;
+            }
+
+            @Override
+            public void reset() {
+            }
+        };
+    }
+}
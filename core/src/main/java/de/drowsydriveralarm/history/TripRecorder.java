@@ -0,0 +1,138 @@
+package de.drowsydriveralarm.history;
+
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.FrameRecorder;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.journal.EventJournalWriter;
+
+/**
+ * Appends the frames and events of a trip to the {@link TripStore}, see there for the files.
+ * <p>
+ * The frames are written into the mapped segment, so recording a frame is a copy into memory, which the operating
+ * system writes to the file even if the app crashes. A frame older than the previous one is dropped, as the frames
+ * of a trip must be in the order of their timestamps to be looked up.
+ */
+public class TripRecorder implements FrameRecorder, Closeable {
+
+    private static final long MAX_JOURNAL_BYTES = Long.MAX_VALUE;
+
+    private final File tripDirectory;
+    private final int segmentFrames;
+    private final EventJournalWriter eventJournalWriter;
+    private final FileOutputStream index;
+    private final ByteBuffer indexEntry = ByteBuffer.allocate(8);
+    // guarded by this
+    private RandomAccessFile segmentFile;
+    private MappedByteBuffer segment;
+    private int segmentSequence = -1;
+    private long numberOfFrames;
+    private long previousTimestampMillis = Long.MIN_VALUE;
+    private long droppedFrames;
+    private boolean closed;
+
+    TripRecorder(final File tripDirectory, final int segmentFrames, final Duration flushInterval) throws IOException {
+        this.tripDirectory = tripDirectory;
+        this.segmentFrames = segmentFrames;
+        this.index = new FileOutputStream(new File(tripDirectory, TripStore.INDEX_FILE), true);
+        this.eventJournalWriter = new EventJournalWriter(new File(tripDirectory, TripStore.EVENTS_FILE), MAX_JOURNAL_BYTES, flushInterval);
+    }
+
+    @Override
+    public synchronized void recordFrame(final FrameFeatures features) {
+        if (this.closed || features.getTimestampMillis() < this.previousTimestampMillis) {
+            this.droppedFrames++;
+            return;
+        }
+
+        try {
+            if (this.segment == null || !this.segment.hasRemaining()) {
+                this.rollSegment();
+            }
+            if (this.numberOfFrames % TripStore.INDEX_INTERVAL == 0) {
+                this.indexEntry.putLong(0, features.getTimestampMillis());
+                this.index.write(this.indexEntry.array());
+            }
+        } catch (final IOException e) {
+            this.droppedFrames++;
+            return;
+        }
+        this.segment.putLong(features.getTimestampMillis());
+        this.segment.putFloat(features.getLeftEyeOpenProbability());
+        this.segment.putFloat(features.getRightEyeOpenProbability());
+        this.segment.putFloat(features.getFaceCenterY());
+        this.segment.putFloat(features.getFaceHeight());
+        this.segment.putFloat(features.getHeadYaw());
+        this.segment.putFloat(features.getHeadRoll());
+        this.segment.putInt(TripStore.PRESENT
+                | (features.isLeftEyeRecognized() ? FrameBatch.LEFT_EYE_RECOGNIZED : 0)
+                | (features.isRightEyeRecognized() ? FrameBatch.RIGHT_EYE_RECOGNIZED : 0));
+        this.numberOfFrames++;
+        this.previousTimestampMillis = features.getTimestampMillis();
+    }
+
+    @Subscribe
+    public void recordEvent(final Event event) {
+        this.eventJournalWriter.recordEvent(event);
+    }
+
+    public synchronized long getNumberOfFrames() {
+        return this.numberOfFrames;
+    }
+
+    public synchronized long getDroppedFrames() {
+        return this.droppedFrames;
+    }
+
+    /**
+     * Cuts the last segment off after its frames and writes the events journaled so far.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+
+        this.closed = true;
+        try {
+            this.closeSegment();
+        } finally {
+            this.index.close();
+            this.eventJournalWriter.close();
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        this.closeSegment();
+        this.segmentSequence++;
+        this.segmentFile = new RandomAccessFile(TripStore.getSegmentFile(this.tripDirectory, this.segmentSequence), "rw");
+        this.segment = this.segmentFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, (long) this.segmentFrames * TripStore.RECORD_BYTES);
+    }
+
+    private void closeSegment() throws IOException {
+        if (this.segment == null) {
+            return;
+        }
+
+        this.segment.force();
+        try {
+            this.segmentFile.setLength(this.segment.position());
+        } finally {
+            this.segmentFile.close();
+            this.segment = null;
+        }
+    }
+}
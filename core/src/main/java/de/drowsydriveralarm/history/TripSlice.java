@@ -0,0 +1,120 @@
+package de.drowsydriveralarm.history;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.event.Event;
+
+/**
+ * The frames and events of a time range of a trip read from the {@link TripStore}. The frames are views of the mapped
+ * segment files, every access reads the record of the frame from there.
+ */
+public class TripSlice {
+
+    private final ByteBuffer[] segments;
+    // of the frames before every segment
+    private final int[] firstFrames;
+    private final int size;
+    private final List<Event> events;
+
+    TripSlice(final List<ByteBuffer> segments, final List<Event> events) {
+        this.segments = segments.toArray(new ByteBuffer[segments.size()]);
+        this.firstFrames = new int[this.segments.length];
+        int size = 0;
+        for (int i = 0; i < this.segments.length; i++) {
+            this.firstFrames[i] = size;
+            size += this.segments[i].limit() / TripStore.RECORD_BYTES;
+        }
+        this.size = size;
+        this.events = events;
+    }
+
+    /**
+     * The number of frames.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    public long getTimestampMillis(final int frame) {
+        return this.getSegment(frame).getLong(this.getOffset(frame) + TripStore.TIMESTAMP_OFFSET);
+    }
+
+    public float getLeftEyeOpenProbability(final int frame) {
+        return this.getSegment(frame).getFloat(this.getOffset(frame) + TripStore.LEFT_EYE_OPEN_PROBABILITY_OFFSET);
+    }
+
+    public float getRightEyeOpenProbability(final int frame) {
+        return this.getSegment(frame).getFloat(this.getOffset(frame) + TripStore.RIGHT_EYE_OPEN_PROBABILITY_OFFSET);
+    }
+
+    /**
+     * With the bits {@link FrameBatch#LEFT_EYE_RECOGNIZED} and {@link FrameBatch#RIGHT_EYE_RECOGNIZED}.
+     */
+    public byte getLandmarkFlags(final int frame) {
+        return (byte) (this.getSegment(frame).getInt(this.getOffset(frame) + TripStore.LANDMARK_FLAGS_OFFSET) & ~TripStore.PRESENT);
+    }
+
+    public FrameFeatures getFrame(final int frame) {
+        final ByteBuffer segment = this.getSegment(frame);
+        final int offset = this.getOffset(frame);
+        final byte landmarkFlags = this.getLandmarkFlags(frame);
+        return FrameFeatures
+                .builder()
+                .withTimestampMillis(segment.getLong(offset + TripStore.TIMESTAMP_OFFSET))
+                .withLeftEyeRecognized((landmarkFlags & FrameBatch.LEFT_EYE_RECOGNIZED) != 0)
+                .withRightEyeRecognized((landmarkFlags & FrameBatch.RIGHT_EYE_RECOGNIZED) != 0)
+                .withLeftEyeOpenProbability(segment.getFloat(offset + TripStore.LEFT_EYE_OPEN_PROBABILITY_OFFSET))
+                .withRightEyeOpenProbability(segment.getFloat(offset + TripStore.RIGHT_EYE_OPEN_PROBABILITY_OFFSET))
+                .withFaceCenterY(segment.getFloat(offset + TripStore.FACE_CENTER_Y_OFFSET))
+                .withFaceHeight(segment.getFloat(offset + TripStore.FACE_HEIGHT_OFFSET))
+                .withHeadYaw(segment.getFloat(offset + TripStore.HEAD_YAW_OFFSET))
+                .withHeadRoll(segment.getFloat(offset + TripStore.HEAD_ROLL_OFFSET))
+                .build();
+    }
+
+    /**
+     * Copies the frames into a batch, e.g. to evaluate them again by {@code DrowsyEventDetector.processBatch()}.
+     */
+    public FrameBatch toFrameBatch() {
+        final long[] timestampsMillis = new long[this.size];
+        final float[] leftEyeOpenProbabilities = new float[this.size];
+        final float[] rightEyeOpenProbabilities = new float[this.size];
+        final byte[] landmarkFlags = new byte[this.size];
+        for (int i = 0; i < this.size; i++) {
+            timestampsMillis[i] = this.getTimestampMillis(i);
+            leftEyeOpenProbabilities[i] = this.getLeftEyeOpenProbability(i);
+            rightEyeOpenProbabilities[i] = this.getRightEyeOpenProbability(i);
+            landmarkFlags[i] = this.getLandmarkFlags(i);
+        }
+        return new FrameBatch(timestampsMillis, leftEyeOpenProbabilities, rightEyeOpenProbabilities, landmarkFlags);
+    }
+
+    /**
+     * The events of the time range, oldest first.
+     */
+    public List<Event> getEvents() {
+        return this.events;
+    }
+
+    private ByteBuffer getSegment(final int frame) {
+        return this.segments[this.getSegmentIndex(frame)];
+    }
+
+    private int getOffset(final int frame) {
+        return (frame - this.firstFrames[this.getSegmentIndex(frame)]) * TripStore.RECORD_BYTES;
+    }
+
+    private int getSegmentIndex(final int frame) {
+        if (frame < 0 || frame >= this.size) {
+            throw new IndexOutOfBoundsException("frame " + frame + " of " + this.size);
+        }
+        int i = this.segments.length - 1;
+        while (this.firstFrames[i] > frame) {
+            i--;
+        }
+        return i;
+    }
+}
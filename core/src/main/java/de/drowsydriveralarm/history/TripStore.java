@@ -0,0 +1,259 @@
+package de.drowsydriveralarm.history;
+
+import com.google.common.base.Preconditions;
+
+import org.joda.time.Duration;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.journal.EventJournalReader;
+
+/**
+ * Keeps the frames and events of every trip in a directory of its own, named by the start of the trip, to look up
+ * the frames of a time range, e.g. to be shown or evaluated again by {@code DrowsyEventDetector.processBatch()}.
+ * <p>
+ * The frames of a trip are appended to segment files of {@code segmentFrames} frames, every frame a record of
+ * {@link #RECORD_BYTES}: the timestamp, the eye open probabilities, the geometry of the face and the landmark flags,
+ * which have the bit {@link #PRESENT} set. The timestamp of every {@link #INDEX_INTERVAL}th frame is appended to the
+ * index file. The events are written to an event journal.
+ * <p>
+ * Reading the frames of a time range maps the segment files and searches the index and then the records for the
+ * range, so the frames are neither read nor parsed before they are accessed by the {@link TripSlice}. The events of
+ * the trip are read and filtered, as they are few compared to the frames. Times are the timestamps of the frames.
+ */
+public class TripStore {
+
+    static final int RECORD_BYTES = 36;
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int LEFT_EYE_OPEN_PROBABILITY_OFFSET = 8;
+    static final int RIGHT_EYE_OPEN_PROBABILITY_OFFSET = 12;
+    static final int FACE_CENTER_Y_OFFSET = 16;
+    static final int FACE_HEIGHT_OFFSET = 20;
+    static final int HEAD_YAW_OFFSET = 24;
+    static final int HEAD_ROLL_OFFSET = 28;
+    static final int LANDMARK_FLAGS_OFFSET = 32;
+    static final int PRESENT = 0x80;
+
+    static final int INDEX_INTERVAL = 128;
+    static final String INDEX_FILE = "frames.idx";
+    static final String EVENTS_FILE = "events.journal";
+
+    private static final String TRIP_PREFIX = "trip-";
+    private static final String SEGMENT_PREFIX = "frames-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final File directory;
+    private final int segmentFrames;
+    private final Duration flushInterval;
+
+    /**
+     * @param flushInterval of the events
+     */
+    public TripStore(final File directory, final int segmentFrames, final Duration flushInterval) {
+        Preconditions.checkArgument(segmentFrames > 0, "segmentFrames must be positive");
+        this.directory = directory;
+        this.segmentFrames = segmentFrames;
+        this.flushInterval = flushInterval;
+    }
+
+    public TripRecorder startTrip(final long startMillis) throws IOException {
+        final File tripDirectory = this.getTripDirectory(startMillis);
+        if (tripDirectory.exists()) {
+            throw new IOException("trip exists: " + tripDirectory);
+        }
+        if (!tripDirectory.mkdirs()) {
+            throw new IOException("cannot create " + tripDirectory);
+        }
+        return new TripRecorder(tripDirectory, this.segmentFrames, this.flushInterval);
+    }
+
+    /**
+     * The starts of the trips, oldest first.
+     */
+    public List<Long> getTrips() {
+        final String[] names = this.directory.list(new FilenameFilter() {
+
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.startsWith(TRIP_PREFIX);
+            }
+        });
+        final List<Long> trips = new ArrayList<>();
+        if (names != null) {
+            for (final String name : names) {
+                trips.add(Long.parseLong(name.substring(TRIP_PREFIX.length())));
+            }
+        }
+        Collections.sort(trips);
+        return trips;
+    }
+
+    /**
+     * The frames and events of the trip within [fromMillis, toMillis).
+     */
+    public TripSlice readSlice(final long tripStartMillis, final long fromMillis, final long toMillis) throws IOException {
+        final File tripDirectory = this.getTripDirectory(tripStartMillis);
+        if (!tripDirectory.isDirectory()) {
+            throw new IOException("no trip " + tripStartMillis);
+        }
+
+        final Frames frames = new Frames(tripDirectory);
+        final long firstFrame = frames.findFirstFrameAtOrAfter(fromMillis);
+        final long endFrame = Math.max(firstFrame, frames.findFirstFrameAtOrAfter(toMillis));
+        return new TripSlice(frames.slice(firstFrame, endFrame), this.readEvents(tripDirectory, fromMillis, toMillis));
+    }
+
+    public void deleteTrip(final long tripStartMillis) throws IOException {
+        final File tripDirectory = this.getTripDirectory(tripStartMillis);
+        final File[] files = tripDirectory.listFiles();
+        if (files != null) {
+            for (final File file : files) {
+                delete(file);
+            }
+        }
+        delete(tripDirectory);
+    }
+
+    static File getSegmentFile(final File tripDirectory, final int sequence) {
+        return new File(tripDirectory, String.format("%s%010d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    private File getTripDirectory(final long startMillis) {
+        return new File(this.directory, TRIP_PREFIX + startMillis);
+    }
+
+    private List<Event> readEvents(final File tripDirectory, final long fromMillis, final long toMillis) throws IOException {
+        final File eventsFile = new File(tripDirectory, EVENTS_FILE);
+        final List<Event> events = new ArrayList<>();
+        if (eventsFile.length() == 0) {
+            return events;
+        }
+
+        for (final Event event : EventJournalReader.readAll(eventsFile)) {
+            final long millis = event.getInstant().getMillis();
+            if (millis >= fromMillis && millis < toMillis) {
+                events.add(event);
+            }
+        }
+        return events;
+    }
+
+    private static void delete(final File file) throws IOException {
+        if (!file.delete() && file.exists()) {
+            throw new IOException("cannot delete " + file);
+        }
+    }
+
+    private static ByteBuffer map(final File file) throws IOException {
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            // stays valid after closing the file
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, randomAccessFile.length());
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * The mapped segments of a trip, the frames numbered across the segments.
+     */
+    private static class Frames {
+
+        private final List<ByteBuffer> segments = new ArrayList<>();
+        // of the frames before every segment, and of all frames at the end
+        private final List<Long> firstFrames = new ArrayList<>();
+        private final LongBuffer index;
+
+        Frames(final File tripDirectory) throws IOException {
+            long numberOfFrames = 0;
+            for (int sequence = 0; getSegmentFile(tripDirectory, sequence).exists(); sequence++) {
+                final ByteBuffer segment = map(getSegmentFile(tripDirectory, sequence));
+                this.segments.add(segment);
+                this.firstFrames.add(numberOfFrames);
+                numberOfFrames += countFrames(segment);
+            }
+            this.firstFrames.add(numberOfFrames);
+            final File indexFile = new File(tripDirectory, INDEX_FILE);
+            this.index = indexFile.exists() ? map(indexFile).asLongBuffer() : LongBuffer.allocate(0);
+        }
+
+        long findFirstFrameAtOrAfter(final long millis) {
+            final long numberOfFrames = this.firstFrames.get(this.firstFrames.size() - 1);
+            // the index may have entries of frames not written when the recorder crashed
+            final int indexEntries = (int) Math.min(this.index.limit(), (numberOfFrames + INDEX_INTERVAL - 1) / INDEX_INTERVAL);
+            int low = 0;
+            int high = indexEntries;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (this.index.get(middle) < millis) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            // the frame is after the last index entry before millis, and not after the next entry
+            long lowFrame = Math.max(0, (long) (low - 1) * INDEX_INTERVAL);
+            long highFrame = low < indexEntries ? (long) low * INDEX_INTERVAL : numberOfFrames;
+            while (lowFrame < highFrame) {
+                final long middle = (lowFrame + highFrame) >>> 1;
+                if (this.getTimestampMillis(middle) < millis) {
+                    lowFrame = middle + 1;
+                } else {
+                    highFrame = middle;
+                }
+            }
+            return lowFrame;
+        }
+
+        /**
+         * Views of the records of the frames within [firstFrame, endFrame), one per segment.
+         */
+        List<ByteBuffer> slice(final long firstFrame, final long endFrame) {
+            final List<ByteBuffer> slices = new ArrayList<>();
+            for (int i = 0; i < this.segments.size(); i++) {
+                final long from = Math.max(firstFrame, this.firstFrames.get(i));
+                final long to = Math.min(endFrame, this.firstFrames.get(i + 1));
+                if (from < to) {
+                    final ByteBuffer slice = this.segments.get(i).duplicate();
+                    slice.limit((int) ((to - this.firstFrames.get(i)) * RECORD_BYTES));
+                    slice.position((int) ((from - this.firstFrames.get(i)) * RECORD_BYTES));
+                    slices.add(slice.slice());
+                }
+            }
+            return slices;
+        }
+
+        private long getTimestampMillis(final long frame) {
+            int i = 0;
+            while (this.firstFrames.get(i + 1) <= frame) {
+                i++;
+            }
+            return this.segments.get(i).getLong((int) ((frame - this.firstFrames.get(i)) * RECORD_BYTES) + TIMESTAMP_OFFSET);
+        }
+
+        // the segment of a crashed recorder is not cut off after its frames
+        private static long countFrames(final ByteBuffer segment) {
+            int low = 0;
+            int high = segment.limit() / RECORD_BYTES;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if ((segment.getInt(middle * RECORD_BYTES + LANDMARK_FLAGS_OFFSET) & PRESENT) != 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
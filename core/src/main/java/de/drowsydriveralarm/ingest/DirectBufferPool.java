@@ -0,0 +1,58 @@
+package de.drowsydriveralarm.ingest;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Direct buffers of one size to be reused, as allocating them is expensive. Not thread safe, meant to be confined to
+ * one thread like the selector thread of the {@link FeatureIngestServer}.
+ */
+public class DirectBufferPool {
+
+    private final int bufferSize;
+    private final int maxPooledBuffers;
+    private final Deque<ByteBuffer> buffers = new ArrayDeque<>();
+    private long allocatedBuffers;
+
+    public DirectBufferPool(final int bufferSize, final int maxPooledBuffers) {
+        Preconditions.checkArgument(bufferSize > 0, "bufferSize must be positive");
+        this.bufferSize = bufferSize;
+        this.maxPooledBuffers = maxPooledBuffers;
+    }
+
+    /**
+     * @return a cleared buffer
+     */
+    public ByteBuffer acquire() {
+        final ByteBuffer buffer = this.buffers.pollFirst();
+        if (buffer != null) {
+            return buffer;
+        }
+
+        this.allocatedBuffers++;
+        return ByteBuffer.allocateDirect(this.bufferSize);
+    }
+
+    public void release(final ByteBuffer buffer) {
+        Preconditions.checkArgument(buffer.isDirect() && buffer.capacity() == this.bufferSize, "buffer not from this pool");
+        if (this.buffers.size() < this.maxPooledBuffers) {
+            buffer.clear();
+            this.buffers.addFirst(buffer);
+        }
+    }
+
+    public int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    public int getPooledBuffers() {
+        return this.buffers.size();
+    }
+
+    public long getAllocatedBuffers() {
+        return this.allocatedBuffers;
+    }
+}
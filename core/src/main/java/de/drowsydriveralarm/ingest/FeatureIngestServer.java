@@ -0,0 +1,377 @@
+package de.drowsydriveralarm.ingest;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.eventproducer.MultiStreamDrowsyEventDetector;
+
+/**
+ * Accepts the frames of many head units by the {@link FeatureRecordProtocol} and feeds the frames of every vehicle
+ * into its own stream of a {@link MultiStreamDrowsyEventDetector}, whose {@code StreamListener} receives the alarms.
+ * <p>
+ * One thread serves all connections by a selector. A connection holds a buffer of the {@link DirectBufferPool} only
+ * while a record is partly received, so idle connections cost no buffer. The frames received by one read are
+ * offered as one {@link FrameBatch}, never blocking the thread. While the shard of a vehicle is busy, its connection
+ * is not read anymore and keeps the batch, which is offered again every {@link #RETRY_MILLIS}, so that head unit is
+ * slowed down by TCP while the other vehicles are served on.
+ * <p>
+ * Every vehicle is expected to have one connection: its stream is closed when the connection is closed, a connection
+ * violating the protocol is closed. A connection failing to be accepted or set up is closed as well, only a failure of
+ * the selector stops the server.
+ */
+public class FeatureIngestServer implements Runnable {
+
+    private static final int BACKLOG = 1024;
+    private static final long RETRY_MILLIS = 10;
+
+    private final MultiStreamDrowsyEventDetector multiStreamDrowsyEventDetector;
+    private final DirectBufferPool bufferPool;
+    private final Selector selector;
+    private final ServerSocketChannel serverSocketChannel;
+    private final Thread thread;
+    // confined to the thread
+    private final FrameColumns frameColumns = new FrameColumns();
+    // confined to the thread, the connections not read while their batch is not queued
+    private final Deque<SelectionKey> pausedKeys = new ArrayDeque<>();
+
+    private volatile boolean closed;
+    private volatile int connections;
+    private volatile long receivedFrames;
+    private volatile long protocolErrors;
+    private volatile long acceptErrors;
+    private volatile long pausedReads;
+
+    /**
+     * @param bufferPool its buffers must hold the longest record, {@link FeatureRecordProtocol#MAX_RECORD_BYTES}
+     */
+    public FeatureIngestServer(final InetSocketAddress address, final MultiStreamDrowsyEventDetector multiStreamDrowsyEventDetector, final DirectBufferPool bufferPool) throws IOException {
+        Preconditions.checkArgument(bufferPool.getBufferSize() >= FeatureRecordProtocol.MAX_RECORD_BYTES, "buffers too small for the longest record");
+        this.multiStreamDrowsyEventDetector = multiStreamDrowsyEventDetector;
+        this.bufferPool = bufferPool;
+        this.selector = Selector.open();
+        this.serverSocketChannel = ServerSocketChannel.open();
+        this.serverSocketChannel.configureBlocking(false);
+        this.serverSocketChannel.bind(address, BACKLOG);
+        this.serverSocketChannel.register(this.selector, SelectionKey.OP_ACCEPT);
+        this.thread = new Thread(this, "FeatureIngestServer");
+    }
+
+    public void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Closes all connections, frames not yet read are lost.
+     */
+    public void close() throws InterruptedException {
+        this.closed = true;
+        this.selector.wakeup();
+        this.thread.join();
+    }
+
+    public SocketAddress getLocalAddress() throws IOException {
+        return this.serverSocketChannel.getLocalAddress();
+    }
+
+    public int getConnections() {
+        return this.connections;
+    }
+
+    public long getReceivedFrames() {
+        return this.receivedFrames;
+    }
+
+    public long getProtocolErrors() {
+        return this.protocolErrors;
+    }
+
+    /**
+     * Counts the connections which could not be accepted or set up, the server keeps serving the others.
+     */
+    public long getAcceptErrors() {
+        return this.acceptErrors;
+    }
+
+    /**
+     * Counts the times a connection was not read anymore, as the shard of its vehicle was busy.
+     */
+    public long getPausedReads() {
+        return this.pausedReads;
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!this.closed) {
+                if (this.pausedKeys.isEmpty()) {
+                    this.selector.select();
+                } else {
+                    this.selector.select(RETRY_MILLIS);
+                    this.resumePausedKeys();
+                }
+                final Iterator<SelectionKey> selectedKeys = this.selector.selectedKeys().iterator();
+                while (selectedKeys.hasNext()) {
+                    final SelectionKey key = selectedKeys.next();
+                    selectedKeys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        this.accept();
+                    } else if (key.isReadable()) {
+                        this.read(key);
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            throw new IllegalStateException("selector failed", e);
+        } finally {
+            this.closeAll();
+        }
+    }
+
+    // a connection failing to be set up is closed, the others are served on
+    private void accept() {
+        while (true) {
+            final SocketChannel channel;
+            try {
+                channel = this.serverSocketChannel.accept();
+            } catch (final IOException e) {
+                // e.g. too many open files, the pending connections are accepted by one of the next selects
+                this.acceptErrors++;
+                return;
+            }
+            if (channel == null) {
+                return;
+            }
+
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                channel.register(this.selector, SelectionKey.OP_READ, new Connection(channel));
+                this.connections++;
+            } catch (final IOException e) {
+                // e.g. reset by the head unit before being accepted
+                this.acceptErrors++;
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    private void read(final SelectionKey key) {
+        final Connection connection = (Connection) key.attachment();
+        final ByteBuffer buffer = connection.buffer != null ? connection.buffer : this.bufferPool.acquire();
+        connection.buffer = null;
+        boolean open;
+        try {
+            open = connection.channel.read(buffer) >= 0;
+            if (open) {
+                buffer.flip();
+                this.parse(connection, buffer);
+            }
+        } catch (final ProtocolException e) {
+            this.protocolErrors++;
+            open = false;
+        } catch (final IOException e) {
+            open = false;
+        }
+        // the frames before a violation of the protocol count
+        this.offerFrames(key, connection);
+
+        if (!open) {
+            this.bufferPool.release(buffer);
+            if (connection.pendingBatch != null) {
+                // closed once the batch is queued
+                connection.closing = true;
+            } else {
+                this.close(key);
+            }
+        } else if (buffer.hasRemaining()) {
+            buffer.compact();
+            connection.buffer = buffer;
+        } else {
+            this.bufferPool.release(buffer);
+        }
+    }
+
+    private void parse(final Connection connection, final ByteBuffer buffer) throws ProtocolException {
+        while (buffer.remaining() >= FeatureRecordProtocol.LENGTH_PREFIX_BYTES) {
+            final int length = buffer.getShort(buffer.position()) & 0xFFFF;
+            if (length == 0 || length > FeatureRecordProtocol.MAX_RECORD_LENGTH) {
+                throw new ProtocolException("invalid length " + length);
+            }
+            if (buffer.remaining() < FeatureRecordProtocol.LENGTH_PREFIX_BYTES + length) {
+                return;
+            }
+
+            buffer.position(buffer.position() + FeatureRecordProtocol.LENGTH_PREFIX_BYTES);
+            final byte type = buffer.get();
+            switch (type) {
+                case FeatureRecordProtocol.HELLO:
+                    this.parseHello(connection, buffer, length - 1);
+                    break;
+                case FeatureRecordProtocol.FRAME:
+                    this.parseFrame(connection, buffer, length);
+                    break;
+                default:
+                    throw new ProtocolException("unknown type " + type);
+            }
+        }
+    }
+
+    private void parseHello(final Connection connection, final ByteBuffer buffer, final int vehicleIdLength) throws ProtocolException {
+        if (connection.vehicleId != null || vehicleIdLength == 0) {
+            throw new ProtocolException("unexpected hello");
+        }
+        final byte[] vehicleIdBytes = new byte[vehicleIdLength];
+        buffer.get(vehicleIdBytes);
+        connection.vehicleId = new String(vehicleIdBytes, Charsets.UTF_8);
+    }
+
+    private void parseFrame(final Connection connection, final ByteBuffer buffer, final int length) throws ProtocolException {
+        if (connection.vehicleId == null || length != FeatureRecordProtocol.FRAME_LENGTH) {
+            throw new ProtocolException("unexpected frame");
+        }
+        this.frameColumns.add(buffer.getLong(), buffer.getFloat(), buffer.getFloat(), buffer.get());
+    }
+
+    private void offerFrames(final SelectionKey key, final Connection connection) {
+        if (this.frameColumns.size == 0) {
+            return;
+        }
+
+        final FrameBatch batch = this.frameColumns.toBatch();
+        this.frameColumns.clear();
+        if (this.multiStreamDrowsyEventDetector.offer(connection.vehicleId, batch)) {
+            this.receivedFrames += batch.size();
+            return;
+        }
+
+        connection.pendingBatch = batch;
+        key.interestOps(0);
+        this.pausedKeys.add(key);
+        this.pausedReads++;
+    }
+
+    private void resumePausedKeys() {
+        final Iterator<SelectionKey> keys = this.pausedKeys.iterator();
+        while (keys.hasNext()) {
+            final SelectionKey key = keys.next();
+            final Connection connection = (Connection) key.attachment();
+            if (!this.multiStreamDrowsyEventDetector.offer(connection.vehicleId, connection.pendingBatch)) {
+                continue;
+            }
+
+            this.receivedFrames += connection.pendingBatch.size();
+            connection.pendingBatch = null;
+            keys.remove();
+            if (connection.closing) {
+                this.close(key);
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+    }
+
+    private void close(final SelectionKey key) {
+        final Connection connection = (Connection) key.attachment();
+        key.cancel();
+        closeQuietly(connection.channel);
+        if (connection.buffer != null) {
+            this.bufferPool.release(connection.buffer);
+            connection.buffer = null;
+        }
+        if (connection.vehicleId != null) {
+            this.multiStreamDrowsyEventDetector.closeStream(connection.vehicleId);
+        }
+        this.connections--;
+    }
+
+    private static void closeQuietly(final SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            // closed anyway
+        }
+    }
+
+    private void closeAll() {
+        try {
+            for (final SelectionKey key : this.selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    this.close(key);
+                }
+            }
+            this.serverSocketChannel.close();
+            this.selector.close();
+        } catch (final IOException e) {
+            // closed anyway
+        }
+    }
+
+    private static class Connection {
+
+        private final SocketChannel channel;
+        private String vehicleId;
+        // holds a partly received record
+        private ByteBuffer buffer;
+        // received but not yet queued, as the shard of the vehicle was busy
+        private FrameBatch pendingBatch;
+        private boolean closing;
+
+        Connection(final SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private static class FrameColumns {
+
+        private long[] timestampsMillis = new long[64];
+        private float[] leftEyeOpenProbabilities = new float[64];
+        private float[] rightEyeOpenProbabilities = new float[64];
+        private byte[] landmarkFlags = new byte[64];
+        private int size;
+
+        void add(final long timestampMillis, final float leftEyeOpenProbability, final float rightEyeOpenProbability, final byte landmarkFlag) {
+            if (this.size == this.timestampsMillis.length) {
+                this.timestampsMillis = Arrays.copyOf(this.timestampsMillis, 2 * this.size);
+                this.leftEyeOpenProbabilities = Arrays.copyOf(this.leftEyeOpenProbabilities, 2 * this.size);
+                this.rightEyeOpenProbabilities = Arrays.copyOf(this.rightEyeOpenProbabilities, 2 * this.size);
+                this.landmarkFlags = Arrays.copyOf(this.landmarkFlags, 2 * this.size);
+            }
+            this.timestampsMillis[this.size] = timestampMillis;
+            this.leftEyeOpenProbabilities[this.size] = leftEyeOpenProbability;
+            this.rightEyeOpenProbabilities[this.size] = rightEyeOpenProbability;
+            this.landmarkFlags[this.size] = landmarkFlag;
+            this.size++;
+        }
+
+        // copies, as the batch is evaluated by another thread
+        FrameBatch toBatch() {
+            return new FrameBatch(
+                    Arrays.copyOf(this.timestampsMillis, this.size),
+                    Arrays.copyOf(this.leftEyeOpenProbabilities, this.size),
+                    Arrays.copyOf(this.rightEyeOpenProbabilities, this.size),
+                    Arrays.copyOf(this.landmarkFlags, this.size));
+        }
+
+        void clear() {
+            this.size = 0;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package de.drowsydriveralarm.ingest;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The binary protocol by which a head unit sends the features of its frames, big endian.
+ * <p>
+ * Every record is prefixed by its length as an unsigned short, not counting the prefix, followed by its type:
+ * <ul>
+ * <li>{@link #HELLO}: the id of the vehicle in UTF-8 of at most {@link #MAX_VEHICLE_ID_BYTES} bytes, once as the first
+ * record of a connection,</li>
+ * <li>{@link #FRAME}: the timestamp in milliseconds as long, the left and right eye open probabilities as floats and
+ * the landmark flags of {@link de.drowsydriveralarm.FrameBatch} as byte.</li>
+ * </ul>
+ * A record is at most {@link #MAX_RECORD_LENGTH} long, so a server needs buffers of {@link #MAX_RECORD_BYTES} to
+ * receive any record.
+ */
+public class FeatureRecordProtocol {
+
+    public static final byte HELLO = 1;
+    public static final byte FRAME = 2;
+
+    public static final int MAX_VEHICLE_ID_BYTES = 255;
+
+    static final int LENGTH_PREFIX_BYTES = 2;
+    static final int FRAME_LENGTH = 1 + 8 + 4 + 4 + 1;
+    // the hello of the longest vehicle id
+    static final int MAX_RECORD_LENGTH = Math.max(1 + MAX_VEHICLE_ID_BYTES, FRAME_LENGTH);
+    public static final int MAX_RECORD_BYTES = LENGTH_PREFIX_BYTES + MAX_RECORD_LENGTH;
+
+    private FeatureRecordProtocol() {
+    }
+
+    public static void putHello(final ByteBuffer buffer, final String vehicleId) {
+        final byte[] vehicleIdBytes = vehicleId.getBytes(Charsets.UTF_8);
+        Preconditions.checkArgument(vehicleIdBytes.length <= MAX_VEHICLE_ID_BYTES, "vehicleId too long");
+        buffer.putShort((short) (1 + vehicleIdBytes.length));
+        buffer.put(HELLO);
+        buffer.put(vehicleIdBytes);
+    }
+
+    public static void putFrame(final ByteBuffer buffer, final long timestampMillis, final float leftEyeOpenProbability, final float rightEyeOpenProbability, final byte landmarkFlags) {
+        buffer.putShort((short) FRAME_LENGTH);
+        buffer.put(FRAME);
+        buffer.putLong(timestampMillis);
+        buffer.putFloat(leftEyeOpenProbability);
+        buffer.putFloat(rightEyeOpenProbability);
+        buffer.put(landmarkFlags);
+    }
+}
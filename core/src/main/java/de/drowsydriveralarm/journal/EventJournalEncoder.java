@@ -0,0 +1,60 @@
+package de.drowsydriveralarm.journal;
+
+import java.nio.ByteBuffer;
+
+import de.drowsydriveralarm.event.DrowsinessTrendEvent;
+import de.drowsydriveralarm.event.DrowsyEventBase;
+import de.drowsydriveralarm.event.DurationEvent;
+import de.drowsydriveralarm.event.Event;
+
+/**
+ * Encodes the records of the events as of the {@link EventJournalFormat}, remembering the instant of the previous
+ * record.
+ */
+class EventJournalEncoder {
+
+    private long previousMillis;
+
+    /**
+     * Starts a session, after which the instants are relative to zero again.
+     */
+    void encodeSession(final ByteBuffer buffer) {
+        buffer.put(EventJournalFormat.SESSION);
+        this.previousMillis = 0;
+    }
+
+    /**
+     * @param buffer with at least {@link EventJournalFormat#MAX_RECORD_BYTES} remaining
+     */
+    void encode(final ByteBuffer buffer, final byte tag, final Event event) {
+        this.encode(buffer, tag, event, event.getInstant().getMillis());
+    }
+
+    /**
+     * Encodes the event at the given instant instead of its own, e.g. converted to wall clock time.
+     *
+     * @param buffer with at least {@link EventJournalFormat#MAX_RECORD_BYTES} remaining
+     */
+    void encode(final ByteBuffer buffer, final byte tag, final Event event, final long millis) {
+        buffer.put(tag);
+        putVarint(buffer, EventJournalFormat.zigzag(millis - this.previousMillis));
+        this.previousMillis = millis;
+        if (event instanceof DurationEvent) {
+            putVarint(buffer, ((DurationEvent) event).getDuration().getMillis());
+        } else if (event instanceof DrowsyEventBase) {
+            buffer.putDouble(((DrowsyEventBase) event).getPerclos());
+        } else if (event instanceof DrowsinessTrendEvent) {
+            buffer.putDouble(((DrowsinessTrendEvent) event).getPerclos());
+            putVarint(buffer, ((DrowsinessTrendEvent) event).getTimeToDrowsy().getMillis());
+        }
+    }
+
+    private static void putVarint(final ByteBuffer buffer, final long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+}
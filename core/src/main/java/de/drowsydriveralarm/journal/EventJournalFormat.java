@@ -0,0 +1,92 @@
+package de.drowsydriveralarm.journal;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+
+import de.drowsydriveralarm.event.AppActiveEvent;
+import de.drowsydriveralarm.event.AppIdleEvent;
+import de.drowsydriveralarm.event.AwakeEvent;
+import de.drowsydriveralarm.event.DetectorResumedEvent;
+import de.drowsydriveralarm.event.DetectorStalledEvent;
+import de.drowsydriveralarm.event.DrowsinessTrendEvent;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.EyesClosedEvent;
+import de.drowsydriveralarm.event.EyesOpenedEvent;
+import de.drowsydriveralarm.event.HeadNodEvent;
+import de.drowsydriveralarm.event.HeadSlumpEvent;
+import de.drowsydriveralarm.event.LikelyDrowsyEvent;
+import de.drowsydriveralarm.event.NormalEyeBlinkEvent;
+import de.drowsydriveralarm.event.PendingSlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+
+/**
+ * The format of the event journal: the {@link #MAGIC} at the start of the file, then the records of the events.
+ * <p>
+ * A record starts with the tag of the class of its event. Then follows the instant of the event as zigzag varint
+ * of the milliseconds since the instant of the previous record, then the fields of the event class:
+ * <ul>
+ * <li>the duration of a {@code DurationEvent} as varint of milliseconds,</li>
+ * <li>the PERCLOS of a {@code DrowsyEventBase} as double,</li>
+ * <li>the PERCLOS as double and the time to drowsy as varint of milliseconds of a {@code DrowsinessTrendEvent}.</li>
+ * </ul>
+ * Every writer starts with a {@link #SESSION} record without fields, after which the instants are relative to zero
+ * again.
+ */
+class EventJournalFormat {
+
+    static final int MAGIC = 0x44444a31;
+
+    static final byte SESSION = 0;
+    static final byte EYES_OPENED = 1;
+    static final byte EYES_CLOSED = 2;
+    static final byte NORMAL_EYE_BLINK = 3;
+    static final byte SLOW_EYELID_CLOSURE = 4;
+    static final byte PENDING_SLOW_EYELID_CLOSURE = 5;
+    static final byte AWAKE = 6;
+    static final byte LIKELY_DROWSY = 7;
+    static final byte DROWSY = 8;
+    static final byte DROWSINESS_TREND = 9;
+    static final byte APP_ACTIVE = 10;
+    static final byte APP_IDLE = 11;
+    static final byte DETECTOR_STALLED = 12;
+    static final byte DETECTOR_RESUMED = 13;
+    static final byte HEAD_NOD = 14;
+    static final byte HEAD_SLUMP = 15;
+
+    /**
+     * tag, instant, double and duration
+     */
+    static final int MAX_RECORD_BYTES = 1 + 10 + 8 + 10;
+
+    static final Map<Class<? extends Event>, Byte> TAGS =
+            ImmutableMap.<Class<? extends Event>, Byte> builder()
+                    .put(EyesOpenedEvent.class, EYES_OPENED)
+                    .put(EyesClosedEvent.class, EYES_CLOSED)
+                    .put(NormalEyeBlinkEvent.class, NORMAL_EYE_BLINK)
+                    .put(SlowEyelidClosureEvent.class, SLOW_EYELID_CLOSURE)
+                    .put(PendingSlowEyelidClosureEvent.class, PENDING_SLOW_EYELID_CLOSURE)
+                    .put(AwakeEvent.class, AWAKE)
+                    .put(LikelyDrowsyEvent.class, LIKELY_DROWSY)
+                    .put(DrowsyEvent.class, DROWSY)
+                    .put(DrowsinessTrendEvent.class, DROWSINESS_TREND)
+                    .put(AppActiveEvent.class, APP_ACTIVE)
+                    .put(AppIdleEvent.class, APP_IDLE)
+                    .put(DetectorStalledEvent.class, DETECTOR_STALLED)
+                    .put(DetectorResumedEvent.class, DETECTOR_RESUMED)
+                    .put(HeadNodEvent.class, HEAD_NOD)
+                    .put(HeadSlumpEvent.class, HEAD_SLUMP)
+                    .build();
+
+    private EventJournalFormat() {
+    }
+
+    static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,192 @@
+package de.drowsydriveralarm.journal;
+
+import com.google.common.io.CountingInputStream;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.drowsydriveralarm.event.AppActiveEvent;
+import de.drowsydriveralarm.event.AppIdleEvent;
+import de.drowsydriveralarm.event.AwakeEvent;
+import de.drowsydriveralarm.event.DetectorResumedEvent;
+import de.drowsydriveralarm.event.DetectorStalledEvent;
+import de.drowsydriveralarm.event.DrowsinessTrendEvent;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.EyesClosedEvent;
+import de.drowsydriveralarm.event.EyesOpenedEvent;
+import de.drowsydriveralarm.event.HeadNodEvent;
+import de.drowsydriveralarm.event.HeadSlumpEvent;
+import de.drowsydriveralarm.event.LikelyDrowsyEvent;
+import de.drowsydriveralarm.event.NormalEyeBlinkEvent;
+import de.drowsydriveralarm.event.PendingSlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+
+/**
+ * Decodes the events of a journal written by the {@link EventJournalWriter}. A record torn by a crash while writing
+ * ends the journal.
+ */
+public class EventJournalReader {
+
+    private final DataInputStream in;
+    private long previousMillis;
+
+    public EventJournalReader(final InputStream in) throws IOException {
+        this(new DataInputStream(new BufferedInputStream(in)));
+        if (this.in.readInt() != EventJournalFormat.MAGIC) {
+            throw new IOException("not an event journal");
+        }
+    }
+
+    private EventJournalReader(final DataInputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Decodes a record encoded by {@link EventJournalWriter#encodeRecord(Event, Instant)}.
+     */
+    public static Event decodeRecord(final byte[] record) throws IOException {
+        final Event event = new EventJournalReader(new DataInputStream(new ByteArrayInputStream(record))).read();
+        if (event == null) {
+            throw new IOException("torn record");
+        }
+        return event;
+    }
+
+    public static List<Event> readAll(final File file) throws IOException {
+        final FileInputStream in = new FileInputStream(file);
+        try {
+            return readAll(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads the journal up to the end of the stream, which is left open.
+     */
+    public static List<Event> readAll(final InputStream in) throws IOException {
+        final EventJournalReader reader = new EventJournalReader(in);
+        final List<Event> events = new ArrayList<>();
+        for (Event event = reader.read(); event != null; event = reader.read()) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * The length of the journal up to the end of its last complete record, to cut off a record torn by a crash while
+     * writing before appending to the journal. 0 if the file is not an event journal.
+     */
+    static long getCompleteLength(final File file) throws IOException {
+        final CountingInputStream countingIn = new CountingInputStream(new BufferedInputStream(new FileInputStream(file)));
+        long length = 0;
+        try {
+            final EventJournalReader reader = new EventJournalReader(new DataInputStream(countingIn));
+            if (reader.in.readInt() != EventJournalFormat.MAGIC) {
+                return 0;
+            }
+            length = countingIn.getCount();
+            for (int tag = reader.in.read(); tag >= 0; tag = reader.in.read()) {
+                if (tag != EventJournalFormat.SESSION) {
+                    reader.read((byte) tag);
+                }
+                length = countingIn.getCount();
+            }
+            return length;
+        } catch (final IOException e) {
+            // torn or unknown record
+            return length;
+        } finally {
+            countingIn.close();
+        }
+    }
+
+    /**
+     * @return the next event, null at the end of the journal
+     */
+    public Event read() throws IOException {
+        try {
+            for (int tag = this.in.read(); tag >= 0; tag = this.in.read()) {
+                if (tag == EventJournalFormat.SESSION) {
+                    this.previousMillis = 0;
+                } else {
+                    return this.read((byte) tag);
+                }
+            }
+            return null;
+        } catch (final EOFException e) {
+            return null;
+        }
+    }
+
+    private Event read(final byte tag) throws IOException {
+        final Instant instant = this.readInstant();
+        switch (tag) {
+            case EventJournalFormat.EYES_OPENED:
+                return new EyesOpenedEvent(instant);
+            case EventJournalFormat.EYES_CLOSED:
+                return new EyesClosedEvent(instant);
+            case EventJournalFormat.NORMAL_EYE_BLINK:
+                return new NormalEyeBlinkEvent(instant, this.readDuration());
+            case EventJournalFormat.SLOW_EYELID_CLOSURE:
+                return new SlowEyelidClosureEvent(instant, this.readDuration());
+            case EventJournalFormat.PENDING_SLOW_EYELID_CLOSURE:
+                return new PendingSlowEyelidClosureEvent(instant, this.readDuration());
+            case EventJournalFormat.AWAKE:
+                return new AwakeEvent(instant, this.in.readDouble());
+            case EventJournalFormat.LIKELY_DROWSY:
+                return new LikelyDrowsyEvent(instant, this.in.readDouble());
+            case EventJournalFormat.DROWSY:
+                return new DrowsyEvent(instant, this.in.readDouble());
+            case EventJournalFormat.DROWSINESS_TREND:
+                return new DrowsinessTrendEvent(instant, this.in.readDouble(), this.readDuration());
+            case EventJournalFormat.APP_ACTIVE:
+                return new AppActiveEvent(instant, this.readDuration());
+            case EventJournalFormat.APP_IDLE:
+                return new AppIdleEvent(instant, this.readDuration());
+            case EventJournalFormat.DETECTOR_STALLED:
+                return new DetectorStalledEvent(instant, this.readDuration());
+            case EventJournalFormat.DETECTOR_RESUMED:
+                return new DetectorResumedEvent(instant, this.readDuration());
+            case EventJournalFormat.HEAD_NOD:
+                return new HeadNodEvent(instant, this.readDuration());
+            case EventJournalFormat.HEAD_SLUMP:
+                return new HeadSlumpEvent(instant, this.readDuration());
+            default:
+                throw new IOException("unknown tag " + tag);
+        }
+    }
+
+    private Instant readInstant() throws IOException {
+        this.previousMillis += EventJournalFormat.unzigzag(this.readVarint());
+        return new Instant(this.previousMillis);
+    }
+
+    private Duration readDuration() throws IOException {
+        return new Duration(this.readVarint());
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = this.in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("varint too long");
+    }
+}
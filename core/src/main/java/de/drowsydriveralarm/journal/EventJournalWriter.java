@@ -0,0 +1,249 @@
+package de.drowsydriveralarm.journal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.drowsydriveralarm.event.Event;
+
+/**
+ * Writes the events posted on the event bus into a binary journal, see {@link EventJournalFormat}, to be read by the
+ * {@link EventJournalReader}. {@code UpdateEvent}s are not journaled.
+ * <p>
+ * The records are encoded into a direct buffer, which is written to the file by a background thread every
+ * {@code flushInterval}, or as soon as it is full. Two buffers take turns, so encoding does not wait for the file,
+ * unless the other buffer is still being written when the buffer is full. A journal exceeding {@code maxBytes} is
+ * started over when opened, a record torn by a crash while writing is cut off.
+ */
+public class EventJournalWriter implements Closeable {
+
+    private static final int BUFFER_BYTES = 16 * 1024;
+
+    private final FileChannel channel;
+    private final ScheduledExecutorService flusher;
+    private final Object channelLock = new Object();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final Runnable writeFullBufferTask = new Runnable() {
+
+        @Override
+        public void run() {
+            try {
+                EventJournalWriter.this.writeFullBuffer();
+            } catch (final IOException e) {
+                EventJournalWriter.this.failedFlushes.incrementAndGet();
+            }
+        }
+    };
+    // guarded by this
+    private final EventJournalEncoder encoder = new EventJournalEncoder();
+    private ByteBuffer activeBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    // null while the other buffer is full or being written
+    private ByteBuffer spareBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private ByteBuffer fullBuffer;
+
+    public EventJournalWriter(final File file, final long maxBytes, final Duration flushInterval) throws IOException {
+        final long length = file.length() > 0 && file.length() <= maxBytes ? EventJournalReader.getCompleteLength(file) : 0;
+        this.channel = new RandomAccessFile(file, "rw").getChannel();
+        this.channel.truncate(length);
+        this.channel.position(length);
+        if (length == 0) {
+            this.activeBuffer.putInt(EventJournalFormat.MAGIC);
+        }
+        this.encoder.encodeSession(this.activeBuffer);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "EventJournalWriter");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.flusher.scheduleWithFixedDelay(
+                new Runnable() {
+
+                    @Override
+                    public void run() {
+                        EventJournalWriter.this.flushCountingFailures();
+                    }
+                },
+                flushInterval.getMillis(),
+                flushInterval.getMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Subscribe
+    public void recordEvent(final Event event) {
+        final Byte tag = EventJournalFormat.TAGS.get(event.getClass());
+        if (tag == null) {
+            return;
+        }
+
+        try {
+            if (this.encode(tag, event)) {
+                this.flusher.execute(this.writeFullBufferTask);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final RejectedExecutionException e) {
+            // closed
+        }
+    }
+
+    /**
+     * Writes the records encoded so far to the file.
+     */
+    public void flush() throws IOException {
+        synchronized (this.channelLock) {
+            // a buffer handed over when full first, to keep the order of the records
+            this.writeFullBuffer();
+            if (this.handOverActiveBuffer()) {
+                this.writeFullBuffer();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.flusher.shutdown();
+        this.flush();
+        this.channel.close();
+    }
+
+    /**
+     * Writes the events as a journal of a single session, e.g. as part of another file.
+     */
+    public static void writeAll(final OutputStream out, final Iterable<? extends Event> events) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+        final EventJournalEncoder encoder = new EventJournalEncoder();
+        buffer.putInt(EventJournalFormat.MAGIC);
+        encoder.encodeSession(buffer);
+        for (final Event event : events) {
+            final Byte tag = EventJournalFormat.TAGS.get(event.getClass());
+            if (tag == null) {
+                continue;
+            }
+            if (buffer.remaining() < EventJournalFormat.MAX_RECORD_BYTES) {
+                out.write(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            encoder.encode(buffer, tag, event);
+        }
+        out.write(buffer.array(), 0, buffer.position());
+    }
+
+    public static boolean isJournaled(final Class<? extends Event> eventClass) {
+        return EventJournalFormat.TAGS.containsKey(eventClass);
+    }
+
+    /**
+     * Encodes the event as a record standing on its own, its instant relative to zero, e.g. to be queued for upload.
+     * Decoded by {@link EventJournalReader#decodeRecord(byte[])}.
+     */
+    public static byte[] encodeRecord(final Event event) {
+        return encodeRecord(event, event.getInstant());
+    }
+
+    /**
+     * Encodes the event as a record standing on its own at the given instant instead of its own, e.g. converted to
+     * wall clock time.
+     */
+    public static byte[] encodeRecord(final Event event, final Instant instant) {
+        final Byte tag = EventJournalFormat.TAGS.get(event.getClass());
+        Preconditions.checkArgument(tag != null, "%s is not journaled", event.getClass());
+        final ByteBuffer buffer = ByteBuffer.allocate(EventJournalFormat.MAX_RECORD_BYTES);
+        new EventJournalEncoder().encode(buffer, tag, event, instant.getMillis());
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    public long getFailedFlushes() {
+        return this.failedFlushes.get();
+    }
+
+    private void flushCountingFailures() {
+        try {
+            this.flush();
+        } catch (final IOException e) {
+            this.failedFlushes.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return whether the active buffer was full and is handed over to be written
+     */
+    private synchronized boolean encode(final byte tag, final Event event) throws InterruptedException {
+        boolean handedOver = false;
+        if (this.activeBuffer.remaining() < EventJournalFormat.MAX_RECORD_BYTES) {
+            // the flusher lags behind by a whole buffer
+            while (this.spareBuffer == null) {
+                if (this.flusher.isShutdown()) {
+                    // closed, the event is dropped
+                    return false;
+                }
+                this.wait();
+            }
+            handedOver = this.handOverActiveBuffer();
+        }
+
+        this.encoder.encode(this.activeBuffer, tag, event);
+        return handedOver;
+    }
+
+    /**
+     * @return false if the active buffer is empty or the other buffer is not yet written
+     */
+    private synchronized boolean handOverActiveBuffer() {
+        if (this.activeBuffer.position() == 0 || this.spareBuffer == null) {
+            return false;
+        }
+
+        this.fullBuffer = this.activeBuffer;
+        this.activeBuffer = this.spareBuffer;
+        this.spareBuffer = null;
+        return true;
+    }
+
+    private void writeFullBuffer() throws IOException {
+        synchronized (this.channelLock) {
+            final ByteBuffer buffer;
+            synchronized (this) {
+                buffer = this.fullBuffer;
+                this.fullBuffer = null;
+            }
+            if (buffer == null) {
+                return;
+            }
+
+            // the records of a failed write are dropped
+            try {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    this.channel.write(buffer);
+                }
+            } finally {
+                buffer.clear();
+                synchronized (this) {
+                    this.spareBuffer = buffer;
+                    this.notifyAll();
+                }
+            }
+        }
+    }
+}
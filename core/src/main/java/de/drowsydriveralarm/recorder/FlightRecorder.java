@@ -0,0 +1,315 @@
+package de.drowsydriveralarm.recorder;
+
+import com.google.common.base.Preconditions;
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.FrameRecorder;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.UpdateEvent;
+import de.drowsydriveralarm.journal.EventJournalWriter;
+
+/**
+ * Keeps the frames and events of the last {@code window} in memory, to be dumped into {@code directory} on every
+ * {@link DrowsyEvent} or on demand, e.g. to review an alarm disputed by the driver. See {@link FlightRecording} for
+ * reading a dump.
+ * <p>
+ * The features of the frames are kept in preallocated columns used as ring, so recording a frame allocates nothing.
+ * A dump copies the rings into preallocated snapshot columns, which a background thread writes to the file while
+ * the recording goes on. A dump requested while the previous one is still being written is skipped. Only the newest
+ * {@code maxDumps} dumps are kept.
+ */
+public class FlightRecorder implements FrameRecorder, Closeable {
+
+    static final int MAGIC = 0x44444652;
+    static final String DUMP_PREFIX = "flight-";
+    static final String DUMP_SUFFIX = ".rec";
+
+    private final File directory;
+    private final int maxDumps;
+    private final long windowMillis;
+    private final ExecutorService dumper;
+    private final AtomicBoolean dumping = new AtomicBoolean();
+    private final AtomicLong skippedDumps = new AtomicLong();
+    private final AtomicLong failedDumps = new AtomicLong();
+    // guarded by this
+    private final FrameColumns frames;
+    private final Event[] events;
+    private int nextEvent;
+    private int numberOfEvents;
+    // owned by the dump in progress, see dumping
+    private final FrameColumns frameSnapshot;
+    private final Event[] eventSnapshot;
+    private int eventSnapshotSize;
+
+    public FlightRecorder(final File directory, final int maxDumps, final Duration window, final int frameCapacity, final int eventCapacity) {
+        Preconditions.checkArgument(maxDumps > 0, "maxDumps must be positive");
+        Preconditions.checkArgument(frameCapacity > 0, "frameCapacity must be positive");
+        Preconditions.checkArgument(eventCapacity > 0, "eventCapacity must be positive");
+        this.directory = directory;
+        this.maxDumps = maxDumps;
+        this.windowMillis = window.getMillis();
+        this.frames = new FrameColumns(frameCapacity);
+        this.frameSnapshot = new FrameColumns(frameCapacity);
+        this.events = new Event[eventCapacity];
+        this.eventSnapshot = new Event[eventCapacity];
+        this.dumper = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "FlightRecorder");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    public synchronized void recordFrame(final FrameFeatures features) {
+        this.frames.add(features);
+    }
+
+    @Subscribe
+    public void recordEvent(final Event event) {
+        if (event instanceof UpdateEvent) {
+            return;
+        }
+
+        synchronized (this) {
+            this.events[this.nextEvent] = event;
+            this.nextEvent = (this.nextEvent + 1) % this.events.length;
+            this.numberOfEvents = Math.min(this.numberOfEvents + 1, this.events.length);
+        }
+        if (event instanceof DrowsyEvent) {
+            this.dump(event.getInstant().getMillis());
+        }
+    }
+
+    /**
+     * Freezes the frames and events recorded so far and writes them to a file in the background.
+     *
+     * @return false if skipped, as the previous dump is still being written or the recorder is closed
+     */
+    public boolean dump() {
+        return this.dump(-1);
+    }
+
+    /**
+     * Waits for the dump being written, if any, and stops recording dumps.
+     *
+     * @throws InterruptedIOException if interrupted while waiting, with the interrupt status set again
+     */
+    @Override
+    public void close() throws IOException {
+        this.dumper.shutdown();
+        try {
+            this.dumper.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the dump being written.");
+        }
+    }
+
+    /**
+     * The files of the dumps, oldest first.
+     */
+    public List<File> getDumps() {
+        final File[] files = this.directory.listFiles();
+        if (files == null) {
+            return Collections.emptyList();
+        }
+
+        final List<File> dumps = new ArrayList<>();
+        for (final File file : files) {
+            if (file.getName().startsWith(DUMP_PREFIX) && file.getName().endsWith(DUMP_SUFFIX)) {
+                dumps.add(file);
+            }
+        }
+        Collections.sort(dumps);
+        return dumps;
+    }
+
+    public long getSkippedDumps() {
+        return this.skippedDumps.get();
+    }
+
+    public long getFailedDumps() {
+        return this.failedDumps.get();
+    }
+
+    private boolean dump(final long triggerMillis) {
+        if (!this.dumping.compareAndSet(false, true)) {
+            this.skippedDumps.incrementAndGet();
+            return false;
+        }
+
+        final long dumpMillis;
+        synchronized (this) {
+            final long cutoffMillis = this.frames.size > 0 ? this.frames.getNewestTimestampMillis() - this.windowMillis : Long.MIN_VALUE;
+            this.frameSnapshot.copyFrom(this.frames, cutoffMillis);
+            this.eventSnapshotSize = 0;
+            for (int i = 0; i < this.numberOfEvents; i++) {
+                final Event event = this.events[(this.nextEvent - this.numberOfEvents + i + this.events.length) % this.events.length];
+                if (event.getInstant().getMillis() >= cutoffMillis) {
+                    this.eventSnapshot[this.eventSnapshotSize++] = event;
+                }
+            }
+            dumpMillis = triggerMillis >= 0 ? triggerMillis : this.frameSnapshot.size > 0 ? this.frameSnapshot.getNewestTimestampMillis() : 0;
+        }
+        try {
+            this.dumper.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        FlightRecorder.this.writeSnapshot(dumpMillis);
+                        FlightRecorder.this.deleteOldestDumps();
+                    } catch (final IOException e) {
+                        FlightRecorder.this.failedDumps.incrementAndGet();
+                    } finally {
+                        Arrays.fill(FlightRecorder.this.eventSnapshot, null);
+                        FlightRecorder.this.dumping.set(false);
+                    }
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            // closed
+            this.dumping.set(false);
+            return false;
+        }
+        return true;
+    }
+
+    // written to a temporary file first not to leave a partial dump
+    private void writeSnapshot(final long dumpMillis) throws IOException {
+        if (!this.directory.isDirectory() && !this.directory.mkdirs()) {
+            throw new IOException("cannot create " + this.directory);
+        }
+
+        final File file = new File(this.directory, String.format("%s%020d%s", DUMP_PREFIX, dumpMillis, DUMP_SUFFIX));
+        final File temporaryFile = new File(this.directory, file.getName() + ".tmp");
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)));
+        try {
+            out.writeInt(MAGIC);
+            this.frameSnapshot.writeTo(out);
+            EventJournalWriter.writeAll(out, Arrays.asList(this.eventSnapshot).subList(0, this.eventSnapshotSize));
+        } finally {
+            out.close();
+        }
+        if (!temporaryFile.renameTo(file)) {
+            throw new IOException("cannot replace " + file);
+        }
+    }
+
+    private void deleteOldestDumps() throws IOException {
+        final List<File> dumps = this.getDumps();
+        for (final File dump : dumps.subList(0, Math.max(0, dumps.size() - this.maxDumps))) {
+            if (!dump.delete() && dump.exists()) {
+                throw new IOException("cannot delete " + dump);
+            }
+        }
+    }
+
+    private static class FrameColumns {
+
+        private final long[] timestampsMillis;
+        private final byte[] landmarkFlags;
+        private final float[] leftEyeOpenProbabilities;
+        private final float[] rightEyeOpenProbabilities;
+        private final float[] faceCentersY;
+        private final float[] faceHeights;
+        private final float[] headYaws;
+        private final float[] headRolls;
+        // of the ring, the snapshot starts at 0
+        private int next;
+        private int size;
+
+        FrameColumns(final int capacity) {
+            this.timestampsMillis = new long[capacity];
+            this.landmarkFlags = new byte[capacity];
+            this.leftEyeOpenProbabilities = new float[capacity];
+            this.rightEyeOpenProbabilities = new float[capacity];
+            this.faceCentersY = new float[capacity];
+            this.faceHeights = new float[capacity];
+            this.headYaws = new float[capacity];
+            this.headRolls = new float[capacity];
+        }
+
+        void add(final FrameFeatures features) {
+            final int i = this.next;
+            this.timestampsMillis[i] = features.getTimestampMillis();
+            this.landmarkFlags[i] = (byte) ((features.isLeftEyeRecognized() ? FrameBatch.LEFT_EYE_RECOGNIZED : 0) | (features.isRightEyeRecognized() ? FrameBatch.RIGHT_EYE_RECOGNIZED : 0));
+            this.leftEyeOpenProbabilities[i] = features.getLeftEyeOpenProbability();
+            this.rightEyeOpenProbabilities[i] = features.getRightEyeOpenProbability();
+            this.faceCentersY[i] = features.getFaceCenterY();
+            this.faceHeights[i] = features.getFaceHeight();
+            this.headYaws[i] = features.getHeadYaw();
+            this.headRolls[i] = features.getHeadRoll();
+            this.next = (i + 1) % this.timestampsMillis.length;
+            this.size = Math.min(this.size + 1, this.timestampsMillis.length);
+        }
+
+        long getNewestTimestampMillis() {
+            return this.timestampsMillis[(this.next - 1 + this.timestampsMillis.length) % this.timestampsMillis.length];
+        }
+
+        // oldest first from index 0, without the frames before cutoffMillis
+        void copyFrom(final FrameColumns ring, final long cutoffMillis) {
+            final int capacity = ring.timestampsMillis.length;
+            this.size = 0;
+            for (int j = 0; j < ring.size; j++) {
+                final int i = (ring.next - ring.size + j + capacity) % capacity;
+                if (ring.timestampsMillis[i] < cutoffMillis) {
+                    continue;
+                }
+                this.timestampsMillis[this.size] = ring.timestampsMillis[i];
+                this.landmarkFlags[this.size] = ring.landmarkFlags[i];
+                this.leftEyeOpenProbabilities[this.size] = ring.leftEyeOpenProbabilities[i];
+                this.rightEyeOpenProbabilities[this.size] = ring.rightEyeOpenProbabilities[i];
+                this.faceCentersY[this.size] = ring.faceCentersY[i];
+                this.faceHeights[this.size] = ring.faceHeights[i];
+                this.headYaws[this.size] = ring.headYaws[i];
+                this.headRolls[this.size] = ring.headRolls[i];
+                this.size++;
+            }
+            this.next = this.size % capacity;
+        }
+
+        void writeTo(final DataOutputStream out) throws IOException {
+            out.writeInt(this.size);
+            for (int i = 0; i < this.size; i++) {
+                out.writeLong(this.timestampsMillis[i]);
+                out.writeByte(this.landmarkFlags[i]);
+                out.writeFloat(this.leftEyeOpenProbabilities[i]);
+                out.writeFloat(this.rightEyeOpenProbabilities[i]);
+                out.writeFloat(this.faceCentersY[i]);
+                out.writeFloat(this.faceHeights[i]);
+                out.writeFloat(this.headYaws[i]);
+                out.writeFloat(this.headRolls[i]);
+            }
+        }
+    }
+}
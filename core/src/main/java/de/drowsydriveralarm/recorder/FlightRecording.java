@@ -0,0 +1,78 @@
+package de.drowsydriveralarm.recorder;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.journal.EventJournalReader;
+
+/**
+ * A dump of the {@link FlightRecorder}: the {@link FlightRecorder#MAGIC}, the number of frames and the features of
+ * every frame, followed by the events as an event journal.
+ */
+public class FlightRecording {
+
+    private final List<FrameFeatures> frames;
+    private final List<Event> events;
+
+    FlightRecording(final List<FrameFeatures> frames, final List<Event> events) {
+        this.frames = frames;
+        this.events = events;
+    }
+
+    public static FlightRecording read(final File file) throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != FlightRecorder.MAGIC) {
+                throw new IOException("not a flight recording");
+            }
+            final int numberOfFrames = in.readInt();
+            final ImmutableList.Builder<FrameFeatures> frames = ImmutableList.builder();
+            for (int i = 0; i < numberOfFrames; i++) {
+                frames.add(readFrame(in));
+            }
+            return new FlightRecording(frames.build(), EventJournalReader.readAll(in));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Oldest first.
+     */
+    public List<FrameFeatures> getFrames() {
+        return this.frames;
+    }
+
+    /**
+     * Oldest first, without {@code UpdateEvent}s.
+     */
+    public List<Event> getEvents() {
+        return this.events;
+    }
+
+    private static FrameFeatures readFrame(final DataInputStream in) throws IOException {
+        final long timestampMillis = in.readLong();
+        final byte landmarkFlags = in.readByte();
+        return FrameFeatures
+                .builder()
+                .withTimestampMillis(timestampMillis)
+                .withLeftEyeRecognized((landmarkFlags & FrameBatch.LEFT_EYE_RECOGNIZED) != 0)
+                .withRightEyeRecognized((landmarkFlags & FrameBatch.RIGHT_EYE_RECOGNIZED) != 0)
+                .withLeftEyeOpenProbability(in.readFloat())
+                .withRightEyeOpenProbability(in.readFloat())
+                .withFaceCenterY(in.readFloat())
+                .withFaceHeight(in.readFloat())
+                .withHeadYaw(in.readFloat())
+                .withHeadRoll(in.readFloat())
+                .build();
+    }
+}
@@ -0,0 +1,316 @@
+package de.drowsydriveralarm.rollup;
+
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import de.drowsydriveralarm.AppIdleCalculator;
+import de.drowsydriveralarm.Clock;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.FrameRecorder;
+import de.drowsydriveralarm.event.AppActiveEvent;
+import de.drowsydriveralarm.event.AppIdleEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.NormalEyeBlinkEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+import de.drowsydriveralarm.eventproducer.ClockFrameTimeSynchronizer;
+
+/**
+ * Sums up the driving of months in buckets per minute, per hour and per day, to query the drowsiness of any time
+ * range without keeping the events, see {@link DrowsinessSummary}.
+ * <p>
+ * Every bucket sums up the time the eyes were observed, i.e. of the frames with an eye recognized, the time the eyes
+ * were closed by slow eyelid closures, the numbers of slow eyelid closures and of normal eye blinks, and the idle time
+ * of the app as calculated by the {@link AppIdleCalculator}. Closures and idle times are split between the buckets they
+ * overlap. As only sums are kept, every tier is exact and a range is summed up from the coarsest buckets fitting into
+ * it.
+ * <p>
+ * Every tier is a ring of a fixed number of buckets, {@link #MINUTE_BUCKETS}, {@link #HOUR_BUCKETS} and
+ * {@link #DAY_BUCKETS}, so a bucket is dropped when its slot is taken by a newer one. The buckets are kept in
+ * columns of a mapped file, a record updates the columns in place.
+ * <p>
+ * The buckets are keyed by wall clock time, aligned to UTC, so the drives of all sessions add up in the buckets of
+ * their time. The timestamps of the frames and the instants of the events are frame time, e.g. relative to the start
+ * of the camera, and converted by a {@link ClockFrameTimeSynchronizer} fed by the frames. Events before the first
+ * frame are not converted and dropped.
+ */
+public class DrowsinessRollups implements FrameRecorder, Closeable {
+
+    public static final int MINUTE_BUCKETS = 24 * 60;
+    public static final int HOUR_BUCKETS = 92 * 24;
+    public static final int DAY_BUCKETS = 10 * 366;
+
+    static final int MAGIC = 0x44445231;
+
+    private static final int HEADER_BYTES = 4;
+    // bucket numbers, observed, closed and idle millis, slow eyelid closures and normal eye blinks
+    private static final int BUCKET_BYTES = 4 * 8 + 2 * 4;
+    private static final long MAX_FRAME_GAP_MILLIS = 1000;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer buffer;
+    // finest first
+    private final Tier[] tiers;
+    private final Clock clock;
+    private final AppIdleCalculator appIdleCalculator = new AppIdleCalculator();
+    // guarded by this
+    // remembers about 10 seconds of frames at 30 frames per second, as the FrameEventProducer
+    private final ClockFrameTimeSynchronizer timeSynchronizer = new ClockFrameTimeSynchronizer(1.0 / 300, 0.001);
+    private long previousFrameMillis = Long.MIN_VALUE;
+    private Duration appIdleDuration = Duration.ZERO;
+    // the app idle and active events in wall clock time never go backwards, as the AppIdleCalculator requires
+    private long previousAppStateMillis = Long.MIN_VALUE;
+
+    public DrowsinessRollups(final File file, final Clock clock) throws IOException {
+        this.clock = clock;
+        final int[] bucketLengths = {60 * 1000, 60 * 60 * 1000, 24 * 60 * 60 * 1000};
+        final int[] numbersOfBuckets = {MINUTE_BUCKETS, HOUR_BUCKETS, DAY_BUCKETS};
+        long length = HEADER_BYTES;
+        for (final int numberOfBuckets : numbersOfBuckets) {
+            length += (long) numberOfBuckets * BUCKET_BYTES;
+        }
+
+        this.file = new RandomAccessFile(file, "rw");
+        final boolean valid = this.file.length() == length && this.file.readInt() == MAGIC;
+        if (!valid) {
+            // starts over, the buckets are zero
+            this.file.setLength(0);
+        }
+        this.buffer = this.file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        this.buffer.putInt(0, MAGIC);
+        this.tiers = new Tier[bucketLengths.length];
+        int offset = HEADER_BYTES;
+        for (int i = 0; i < this.tiers.length; i++) {
+            this.tiers[i] = new Tier(this.buffer, offset, bucketLengths[i], numbersOfBuckets[i]);
+            offset += numbersOfBuckets[i] * BUCKET_BYTES;
+        }
+    }
+
+    @Override
+    public synchronized void recordFrame(final FrameFeatures features) {
+        final long frameMillis = features.getTimestampMillis();
+        this.timeSynchronizer.addSample(this.clock.nanoTime(), frameMillis);
+        final long gapMillis = frameMillis - this.previousFrameMillis;
+        this.previousFrameMillis = frameMillis;
+        if (!features.isAnyEyeRecognized() || gapMillis <= 0 || gapMillis > MAX_FRAME_GAP_MILLIS) {
+            return;
+        }
+
+        final long millis = this.toWallClockMillis(frameMillis);
+        for (final Tier tier : this.tiers) {
+            final int slot = tier.getSlot(millis);
+            if (slot >= 0) {
+                tier.observedMillis.put(slot, tier.observedMillis.get(slot) + gapMillis);
+            }
+        }
+    }
+
+    @Subscribe
+    public synchronized void recordSlowEyelidClosureEvent(final SlowEyelidClosureEvent event) {
+        if (!this.timeSynchronizer.isSynchronized()) {
+            return;
+        }
+
+        final long startMillis = this.toWallClockMillis(event.getInstant().getMillis());
+        for (final Tier tier : this.tiers) {
+            final int slot = tier.getSlot(startMillis);
+            if (slot >= 0) {
+                tier.slowEyelidClosures.put(slot, tier.slowEyelidClosures.get(slot) + 1);
+            }
+            tier.addSplit(tier.closedMillis, startMillis, startMillis + event.getDuration().getMillis());
+        }
+    }
+
+    @Subscribe
+    public synchronized void recordNormalEyeBlinkEvent(final NormalEyeBlinkEvent event) {
+        if (!this.timeSynchronizer.isSynchronized()) {
+            return;
+        }
+
+        final long millis = this.toWallClockMillis(event.getInstant().getMillis());
+        for (final Tier tier : this.tiers) {
+            final int slot = tier.getSlot(millis);
+            if (slot >= 0) {
+                tier.normalEyeBlinks.put(slot, tier.normalEyeBlinks.get(slot) + 1);
+            }
+        }
+    }
+
+    @Subscribe
+    public synchronized void recordAppIdleEvent(final AppIdleEvent event) {
+        if (!this.timeSynchronizer.isSynchronized()) {
+            return;
+        }
+
+        this.appIdleCalculator.onAppIdle(new AppIdleEvent(this.toAppStateInstant(event), event.getDuration()));
+    }
+
+    /**
+     * Adds the idle time ended by the event.
+     */
+    @Subscribe
+    public synchronized void recordAppActiveEvent(final AppActiveEvent event) {
+        if (!this.timeSynchronizer.isSynchronized()) {
+            return;
+        }
+
+        final Instant now = this.toAppStateInstant(event);
+        this.appIdleCalculator.onAppActive(new AppActiveEvent(now, event.getDuration()));
+        final Duration appIdleDuration = this.appIdleCalculator.getAppIdleDuration(now);
+        final long idleMillis = appIdleDuration.minus(this.appIdleDuration).getMillis();
+        this.appIdleDuration = appIdleDuration;
+        for (final Tier tier : this.tiers) {
+            tier.addSplit(tier.idleMillis, now.getMillis() - idleMillis, now.getMillis());
+        }
+    }
+
+    /**
+     * Sums up the buckets within [fromMillis, toMillis) of wall clock time, the range rounded to minutes. Where the
+     * minute buckets are dropped already, the minutes not making up a whole hour are missing.
+     */
+    public synchronized DrowsinessSummary query(final long fromMillis, final long toMillis) {
+        final DrowsinessSummary.Builder summary = DrowsinessSummary.builder();
+        final Tier minutes = this.tiers[0];
+        final long endMillis = minutes.getBucketStartMillis(toMillis);
+        long millis = minutes.getBucketStartMillis(fromMillis);
+        while (millis < endMillis) {
+            Tier tier = minutes;
+            for (int i = this.tiers.length - 1; i > 0; i--) {
+                if (this.tiers[i].getBucketStartMillis(millis) == millis && millis + this.tiers[i].bucketLength <= endMillis) {
+                    tier = this.tiers[i];
+                    break;
+                }
+            }
+            final int slot = tier.findSlot(millis);
+            if (slot >= 0) {
+                summary.add(
+                        tier.observedMillis.get(slot),
+                        tier.closedMillis.get(slot),
+                        tier.idleMillis.get(slot),
+                        tier.slowEyelidClosures.get(slot),
+                        tier.normalEyeBlinks.get(slot));
+            }
+            millis += tier.bucketLength;
+        }
+        return summary.build();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.buffer.force();
+        this.file.close();
+    }
+
+    private long toWallClockMillis(final long frameMillis) {
+        return this.timeSynchronizer.toWallClockTime(new Instant(frameMillis), this.clock).getMillis();
+    }
+
+    private Instant toAppStateInstant(final Event event) {
+        this.previousAppStateMillis = Math.max(this.previousAppStateMillis, this.toWallClockMillis(event.getInstant().getMillis()));
+        return new Instant(this.previousAppStateMillis);
+    }
+
+    /**
+     * The columns of the buckets of one length.
+     */
+    private static class Tier {
+
+        private final long bucketLength;
+        private final int numberOfBuckets;
+        private final LongBuffer bucketNumbers;
+        private final LongBuffer observedMillis;
+        private final LongBuffer closedMillis;
+        private final LongBuffer idleMillis;
+        private final IntBuffer slowEyelidClosures;
+        private final IntBuffer normalEyeBlinks;
+
+        Tier(final MappedByteBuffer buffer, final int offset, final long bucketLength, final int numberOfBuckets) {
+            this.bucketLength = bucketLength;
+            this.numberOfBuckets = numberOfBuckets;
+            this.bucketNumbers = column(buffer, offset).asLongBuffer();
+            this.observedMillis = column(buffer, offset + numberOfBuckets * 8).asLongBuffer();
+            this.closedMillis = column(buffer, offset + numberOfBuckets * 2 * 8).asLongBuffer();
+            this.idleMillis = column(buffer, offset + numberOfBuckets * 3 * 8).asLongBuffer();
+            this.slowEyelidClosures = column(buffer, offset + numberOfBuckets * 4 * 8).asIntBuffer();
+            this.normalEyeBlinks = column(buffer, offset + numberOfBuckets * (4 * 8 + 4)).asIntBuffer();
+        }
+
+        private static ByteBuffer column(final MappedByteBuffer buffer, final int position) {
+            final ByteBuffer column = buffer.duplicate();
+            column.position(position);
+            return column.slice();
+        }
+
+        long getBucketStartMillis(final long millis) {
+            return this.getBucketNumber(millis) * this.bucketLength - this.bucketLength;
+        }
+
+        /**
+         * The slot of the bucket of the time, emptied if it held an older bucket.
+         *
+         * @return -1 if the slot holds a newer bucket already
+         */
+        int getSlot(final long millis) {
+            final long bucketNumber = this.getBucketNumber(millis);
+            final int slot = this.getSlotOf(bucketNumber);
+            final long slotBucketNumber = this.bucketNumbers.get(slot);
+            if (slotBucketNumber > bucketNumber) {
+                return -1;
+            }
+            if (slotBucketNumber < bucketNumber) {
+                this.bucketNumbers.put(slot, bucketNumber);
+                this.observedMillis.put(slot, 0);
+                this.closedMillis.put(slot, 0);
+                this.idleMillis.put(slot, 0);
+                this.slowEyelidClosures.put(slot, 0);
+                this.normalEyeBlinks.put(slot, 0);
+            }
+            return slot;
+        }
+
+        /**
+         * @return the slot of the bucket starting at the time, -1 if not kept
+         */
+        int findSlot(final long millis) {
+            final long bucketNumber = this.getBucketNumber(millis);
+            final int slot = this.getSlotOf(bucketNumber);
+            return this.bucketNumbers.get(slot) == bucketNumber ? slot : -1;
+        }
+
+        /**
+         * Adds the millis of [startMillis, endMillis) to the buckets they fall into.
+         */
+        void addSplit(final LongBuffer column, final long startMillis, final long endMillis) {
+            long millis = startMillis;
+            while (millis < endMillis) {
+                final long bucketEndMillis = this.getBucketStartMillis(millis) + this.bucketLength;
+                final long splitEndMillis = Math.min(endMillis, bucketEndMillis);
+                final int slot = this.getSlot(millis);
+                if (slot >= 0) {
+                    column.put(slot, column.get(slot) + splitEndMillis - millis);
+                }
+                millis = splitEndMillis;
+            }
+        }
+
+        // 0 marks an empty slot, so the bucket numbers start at 1, rounded down for times before 1970 as well
+        private long getBucketNumber(final long millis) {
+            return (millis >= 0 ? millis / this.bucketLength : (millis + 1) / this.bucketLength - 1) + 1;
+        }
+
+        private int getSlotOf(final long bucketNumber) {
+            return (int) (((bucketNumber % this.numberOfBuckets) + this.numberOfBuckets) % this.numberOfBuckets);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package de.drowsydriveralarm.rollup;
+
+import com.google.common.base.MoreObjects;
+
+import org.joda.time.Duration;
+
+/**
+ * The drowsiness of a time range summed up by the {@link DrowsinessRollups}.
+ */
+public class DrowsinessSummary {
+
+    private final long observedMillis;
+    private final long closedMillis;
+    private final long idleMillis;
+    private final long slowEyelidClosures;
+    private final long normalEyeBlinks;
+
+    private DrowsinessSummary(final Builder builder) {
+        this.observedMillis = builder.observedMillis;
+        this.closedMillis = builder.closedMillis;
+        this.idleMillis = builder.idleMillis;
+        this.slowEyelidClosures = builder.slowEyelidClosures;
+        this.normalEyeBlinks = builder.normalEyeBlinks;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * The time of the frames with an eye recognized.
+     */
+    public Duration getObservedDuration() {
+        return new Duration(this.observedMillis);
+    }
+
+    /**
+     * The time the eyes were closed by slow eyelid closures.
+     */
+    public Duration getClosedDuration() {
+        return new Duration(this.closedMillis);
+    }
+
+    /**
+     * The closed duration per observed duration, 0 if nothing was observed.
+     */
+    public double getPerclos() {
+        return this.observedMillis > 0 ? (double) this.closedMillis / this.observedMillis : 0;
+    }
+
+    public Duration getAppIdleDuration() {
+        return new Duration(this.idleMillis);
+    }
+
+    public long getSlowEyelidClosures() {
+        return this.slowEyelidClosures;
+    }
+
+    public long getNormalEyeBlinks() {
+        return this.normalEyeBlinks;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects
+                .toStringHelper(this)
+                .add("observedMillis", this.observedMillis)
+                .add("closedMillis", this.closedMillis)
+                .add("idleMillis", this.idleMillis)
+                .add("slowEyelidClosures", this.slowEyelidClosures)
+                .add("normalEyeBlinks", this.normalEyeBlinks)
+                .toString();
+    }
+
+    static class Builder {
+
+        private long observedMillis;
+        private long closedMillis;
+        private long idleMillis;
+        private long slowEyelidClosures;
+        private long normalEyeBlinks;
+
+        Builder add(final long observedMillis, final long closedMillis, final long idleMillis, final long slowEyelidClosures, final long normalEyeBlinks) {
+            this.observedMillis += observedMillis;
+            this.closedMillis += closedMillis;
+            this.idleMillis += idleMillis;
+            this.slowEyelidClosures += slowEyelidClosures;
+            this.normalEyeBlinks += normalEyeBlinks;
+            return this;
+        }
+
+        DrowsinessSummary build() {
+            return new DrowsinessSummary(this);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package de.drowsydriveralarm.statistics;
+
+import org.joda.time.Duration;
+
+/**
+ * Least squares line through a stream of (time, value) samples, each sample weighted by
+ * {@code exp(-age / timeConstant)}. Only weighted means and co-moments are kept, so an update takes constant time and
+ * no history is stored.
+ * <p>
+ * Not thread safe, callers must synchronize.
+ */
+public class ExponentiallyWeightedLinearRegression {
+
+    private final double timeConstantMillis;
+
+    private long samples;
+    private long originMillis;
+    private long lastMillis;
+    private double weightSum;
+    private double meanTime;
+    private double meanValue;
+    private double timeVariance;
+    private double covariance;
+
+    public ExponentiallyWeightedLinearRegression(final Duration timeConstant) {
+        this.timeConstantMillis = timeConstant.getMillis();
+    }
+
+    public void add(final long timeMillis, final double value) {
+        if (this.samples == 0) {
+            this.originMillis = timeMillis;
+            this.lastMillis = timeMillis;
+        }
+
+        final long elapsedMillis = Math.max(0, timeMillis - this.lastMillis);
+        this.weightSum = this.weightSum * Math.exp(-elapsedMillis / this.timeConstantMillis) + 1;
+        final double weight = 1 / this.weightSum;
+        final double dt = timeMillis - this.originMillis - this.meanTime;
+        final double dv = value - this.meanValue;
+        this.meanTime += weight * dt;
+        this.meanValue += weight * dv;
+        this.timeVariance = (1 - weight) * (this.timeVariance + weight * dt * dt);
+        this.covariance = (1 - weight) * (this.covariance + weight * dt * dv);
+        this.lastMillis = Math.max(this.lastMillis, timeMillis);
+        this.samples++;
+    }
+
+    public long getSamples() {
+        return this.samples;
+    }
+
+    /**
+     * @return change of the value per millisecond, 0 for less than two distinct sample times
+     */
+    public double getSlope() {
+        return this.timeVariance > 0 ? this.covariance / this.timeVariance : 0;
+    }
+
+    /**
+     * @return the value of the line at {@code timeMillis}
+     */
+    public double getValueAt(final long timeMillis) {
+        return this.meanValue + this.getSlope() * (timeMillis - this.originMillis - this.meanTime);
+    }
+
+    public void reset() {
+        this.samples = 0;
+        this.weightSum = 0;
+        this.meanTime = 0;
+        this.meanValue = 0;
+        this.timeVariance = 0;
+        this.covariance = 0;
+    }
+}
@@ -0,0 +1,109 @@
+package de.drowsydriveralarm.statistics;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative long values with a fixed set of buckets: values below {@code 2^subBucketBits} get a bucket
+ * each, above that every power of two is divided into {@code 2^(subBucketBits - 1)} linear buckets. So a bucket is
+ * never wider than {@code 2^-(subBucketBits - 1)} of its values, and recording takes constant time. Values above
+ * {@code maxValue} are counted in the last bucket.
+ * <p>
+ * Not thread safe, callers must synchronize.
+ */
+public class LogLinearHistogram {
+
+    private final int subBucketBits;
+    private final int subBucketCount;
+    private final int halfSubBucketCount;
+    private final long[] counts;
+    private long totalCount;
+
+    public LogLinearHistogram(final int subBucketBits, final long maxValue) {
+        Preconditions.checkArgument(subBucketBits >= 1 && subBucketBits <= 16, "subBucketBits must be within [1, 16]");
+        Preconditions.checkArgument(maxValue >= 0, "maxValue must not be negative");
+        this.subBucketBits = subBucketBits;
+        this.subBucketCount = 1 << subBucketBits;
+        this.halfSubBucketCount = this.subBucketCount / 2;
+        this.counts = new long[this.bucketIndexOf(maxValue) + 1];
+    }
+
+    public void record(final long value) {
+        this.counts[Math.min(this.bucketIndexOf(value), this.counts.length - 1)]++;
+        this.totalCount++;
+    }
+
+    public long getTotalCount() {
+        return this.totalCount;
+    }
+
+    public int getBucketCount() {
+        return this.counts.length;
+    }
+
+    public long getCount(final int bucketIndex) {
+        return this.counts[bucketIndex];
+    }
+
+    /**
+     * @return the smallest value counted in the bucket
+     */
+    public long getLowerBound(final int bucketIndex) {
+        if (bucketIndex < this.subBucketCount) {
+            return bucketIndex;
+        }
+
+        final int shift = (bucketIndex - this.subBucketCount) / this.halfSubBucketCount + 1;
+        final long subBucket = (bucketIndex - this.subBucketCount) % this.halfSubBucketCount + this.halfSubBucketCount;
+        return subBucket << shift;
+    }
+
+    /**
+     * @return the middle of the bucket holding the {@code quantile} (within [0, 1]) of the recorded values, 0 if none
+     * were recorded
+     */
+    public long getQuantile(final double quantile) {
+        Preconditions.checkArgument(quantile >= 0 && quantile <= 1, "quantile must be within [0, 1]");
+        if (this.totalCount == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(quantile * this.totalCount));
+        long cumulativeCount = 0;
+        for (int bucketIndex = 0; bucketIndex < this.counts.length; bucketIndex++) {
+            cumulativeCount += this.counts[bucketIndex];
+            if (cumulativeCount >= rank) {
+                return this.getMiddle(bucketIndex);
+            }
+        }
+        return this.getMiddle(this.counts.length - 1);
+    }
+
+    void subtract(final LogLinearHistogram other) {
+        for (int bucketIndex = 0; bucketIndex < this.counts.length; bucketIndex++) {
+            this.counts[bucketIndex] -= other.counts[bucketIndex];
+        }
+        this.totalCount -= other.totalCount;
+    }
+
+    void clear() {
+        Arrays.fill(this.counts, 0);
+        this.totalCount = 0;
+    }
+
+    private int bucketIndexOf(final long value) {
+        if (value < this.subBucketCount) {
+            return (int) Math.max(0, value);
+        }
+
+        final int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = highestBit - this.subBucketBits + 1;
+        return this.subBucketCount + (shift - 1) * this.halfSubBucketCount + (int) ((value >> shift) - this.halfSubBucketCount);
+    }
+
+    private long getMiddle(final int bucketIndex) {
+        final long lowerBound = this.getLowerBound(bucketIndex);
+        return lowerBound + (this.getLowerBound(bucketIndex + 1) - lowerBound - 1) / 2;
+    }
+}
@@ -0,0 +1,118 @@
+package de.drowsydriveralarm.statistics;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Estimates a quantile of a stream of values with the P² algorithm (Jain and Chlamtac, 1985): five markers track the
+ * minimum, the quantile, the maximum and two quantiles in between, and are moved along a piecewise parabolic fit as
+ * values arrive. Memory and the time per value are constant, however many values are added.
+ * <p>
+ * Not thread safe, callers must synchronize.
+ */
+public class P2QuantileEstimator {
+
+    private static final int MARKERS = 5;
+
+    private final double quantile;
+    private final double[] heights = new double[MARKERS];
+    private final double[] positions = new double[MARKERS];
+    private final double[] desiredPositions = new double[MARKERS];
+    private final double[] increments;
+    private long count;
+
+    /**
+     * @param quantile within (0, 1), e.g. 0.5 for the median
+     */
+    public P2QuantileEstimator(final double quantile) {
+        Preconditions.checkArgument(quantile > 0 && quantile < 1, "quantile must be within (0, 1)");
+        this.quantile = quantile;
+        this.increments = new double[]{0, quantile / 2, quantile, (1 + quantile) / 2, 1};
+    }
+
+    public void add(final double value) {
+        if (this.count < MARKERS) {
+            this.heights[(int) this.count++] = value;
+            if (this.count == MARKERS) {
+                Arrays.sort(this.heights);
+                for (int i = 0; i < MARKERS; i++) {
+                    this.positions[i] = i + 1;
+                    this.desiredPositions[i] = 1 + 4 * this.increments[i];
+                }
+            }
+            return;
+        }
+
+        this.count++;
+        final int cell = this.findCellAndAdjustExtremes(value);
+        for (int i = cell + 1; i < MARKERS; i++) {
+            this.positions[i]++;
+        }
+        for (int i = 0; i < MARKERS; i++) {
+            this.desiredPositions[i] += this.increments[i];
+        }
+        for (int i = 1; i < MARKERS - 1; i++) {
+            this.adjustMarker(i);
+        }
+    }
+
+    public long getCount() {
+        return this.count;
+    }
+
+    /**
+     * @return the estimated quantile, NaN if no value was added
+     */
+    public double getQuantile() {
+        if (this.count == 0) {
+            return Double.NaN;
+        }
+        if (this.count < MARKERS) {
+            final double[] values = Arrays.copyOf(this.heights, (int) this.count);
+            Arrays.sort(values);
+            return values[(int) Math.round(this.quantile * (values.length - 1))];
+        }
+        return this.heights[2];
+    }
+
+    private int findCellAndAdjustExtremes(final double value) {
+        if (value < this.heights[0]) {
+            this.heights[0] = value;
+            return 0;
+        }
+        if (value >= this.heights[MARKERS - 1]) {
+            this.heights[MARKERS - 1] = value;
+            return MARKERS - 2;
+        }
+
+        int cell = 0;
+        while (value >= this.heights[cell + 1]) {
+            cell++;
+        }
+        return cell;
+    }
+
+    private void adjustMarker(final int i) {
+        final double offset = this.desiredPositions[i] - this.positions[i];
+        if (offset >= 1 && this.positions[i + 1] - this.positions[i] > 1
+                || offset <= -1 && this.positions[i - 1] - this.positions[i] < -1) {
+            final int direction = offset > 0 ? 1 : -1;
+            final double height = this.parabolic(i, direction);
+            this.heights[i] = this.heights[i - 1] < height && height < this.heights[i + 1] ? height : this.linear(i, direction);
+            this.positions[i] += direction;
+        }
+    }
+
+    private double parabolic(final int i, final int direction) {
+        final double[] q = this.heights;
+        final double[] n = this.positions;
+        return q[i] + direction / (n[i + 1] - n[i - 1])
+                * ((n[i] - n[i - 1] + direction) * (q[i + 1] - q[i]) / (n[i + 1] - n[i])
+                + (n[i + 1] - n[i] - direction) * (q[i] - q[i - 1]) / (n[i] - n[i - 1]));
+    }
+
+    private double linear(final int i, final int direction) {
+        return this.heights[i] + direction * (this.heights[i + direction] - this.heights[i]) / (this.positions[i + direction] - this.positions[i]);
+    }
+}
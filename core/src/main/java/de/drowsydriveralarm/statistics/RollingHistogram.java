@@ -0,0 +1,55 @@
+package de.drowsydriveralarm.statistics;
+
+import org.joda.time.Duration;
+
+/**
+ * {@link LogLinearHistogram} of the values within a rolling time window.
+ * <p>
+ * Every slot has a histogram of its own, and a histogram of the whole window is kept as their sum: recording adds to
+ * both, a slot leaving the window is subtracted once. The counts are integers, so the sum never drifts.
+ * <p>
+ * Not thread safe, callers must synchronize.
+ */
+public class RollingHistogram extends SlottedWindow {
+
+    private final LogLinearHistogram[] slotHistograms;
+    private final LogLinearHistogram windowHistogram;
+
+    public RollingHistogram(final Duration window, final int slots, final int subBucketBits, final long maxValue) {
+        super(window, slots);
+        this.slotHistograms = new LogLinearHistogram[slots];
+        for (int slot = 0; slot < slots; slot++) {
+            this.slotHistograms[slot] = new LogLinearHistogram(subBucketBits, maxValue);
+        }
+        this.windowHistogram = new LogLinearHistogram(subBucketBits, maxValue);
+    }
+
+    public void record(final long timeMillis, final long value) {
+        final int slot = this.slotOf(timeMillis);
+        if (slot < 0) {
+            return;
+        }
+
+        this.slotHistograms[slot].record(value);
+        this.windowHistogram.record(value);
+    }
+
+    public long getTotalCount(final long nowMillis) {
+        this.advanceTo(nowMillis);
+        return this.windowHistogram.getTotalCount();
+    }
+
+    /**
+     * @see LogLinearHistogram#getQuantile(double)
+     */
+    public long getQuantile(final long nowMillis, final double quantile) {
+        this.advanceTo(nowMillis);
+        return this.windowHistogram.getQuantile(quantile);
+    }
+
+    @Override
+    void clearSlot(final int slot) {
+        this.windowHistogram.subtract(this.slotHistograms[slot]);
+        this.slotHistograms[slot].clear();
+    }
+}
@@ -0,0 +1,89 @@
+package de.drowsydriveralarm.statistics;
+
+import org.joda.time.Duration;
+
+/**
+ * Count, mean and variance of the values within a rolling time window.
+ * <p>
+ * Every slot keeps its own count, mean and sum of squared deviations (Welford), a read combines the slots pairwise
+ * (Chan et al.). This stays numerically stable however long the window rolls, as nothing is ever subtracted.
+ * <p>
+ * Not thread safe, callers must synchronize.
+ */
+public class RollingWindow extends SlottedWindow {
+
+    private final long[] counts;
+    private final double[] means;
+    private final double[] squaredDeviations;
+
+    public RollingWindow(final Duration window, final int slots) {
+        super(window, slots);
+        this.counts = new long[slots];
+        this.means = new double[slots];
+        this.squaredDeviations = new double[slots];
+    }
+
+    public void add(final long timeMillis, final double value) {
+        final int slot = this.slotOf(timeMillis);
+        if (slot < 0) {
+            return;
+        }
+
+        this.counts[slot]++;
+        final double delta = value - this.means[slot];
+        this.means[slot] += delta / this.counts[slot];
+        this.squaredDeviations[slot] += delta * (value - this.means[slot]);
+    }
+
+    public long getCount(final long nowMillis) {
+        this.advanceTo(nowMillis);
+        long count = 0;
+        for (int slot = 0; slot < this.getSlots(); slot++) {
+            count += this.counts[slot];
+        }
+        return count;
+    }
+
+    /**
+     * @return the mean of the values within the window, 0 for an empty window
+     */
+    public double getMean(final long nowMillis) {
+        this.advanceTo(nowMillis);
+        long count = 0;
+        double mean = 0;
+        for (int slot = 0; slot < this.getSlots(); slot++) {
+            if (this.counts[slot] > 0) {
+                count += this.counts[slot];
+                mean += (this.means[slot] - mean) * this.counts[slot] / count;
+            }
+        }
+        return mean;
+    }
+
+    /**
+     * @return the population variance of the values within the window, 0 for less than two values
+     */
+    public double getVariance(final long nowMillis) {
+        this.advanceTo(nowMillis);
+        long count = 0;
+        double mean = 0;
+        double squaredDeviations = 0;
+        for (int slot = 0; slot < this.getSlots(); slot++) {
+            if (this.counts[slot] > 0) {
+                final long combinedCount = count + this.counts[slot];
+                final double delta = this.means[slot] - mean;
+                squaredDeviations += this.squaredDeviations[slot] + delta * delta * count * this.counts[slot] / combinedCount;
+                mean += delta * this.counts[slot] / combinedCount;
+                count = combinedCount;
+            }
+        }
+        return count > 1 ? squaredDeviations / count : 0;
+    }
+
+    @Override
+    void clearSlot(final int slot) {
+        this.counts[slot] = 0;
+        this.means[slot] = 0;
+        this.squaredDeviations[slot] = 0;
+    }
+}
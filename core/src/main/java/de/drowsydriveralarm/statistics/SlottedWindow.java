@@ -0,0 +1,64 @@
+package de.drowsydriveralarm.statistics;
+
+import com.google.common.base.Preconditions;
+
+import org.joda.time.Duration;
+
+/**
+ * A rolling time window divided into a fixed number of slots, each collecting the values of one slot interval. When
+ * time moves on, the slots of intervals which left the window are cleared and reused, so memory stays fixed and
+ * advancing costs constant amortized time.
+ * <p>
+ * Times are non-negative milliseconds. Values older than the window are ignored, values within the window may arrive
+ * out of order.
+ */
+abstract class SlottedWindow {
+
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private final long slotMillis;
+    private final int slots;
+    private long latestSlotInterval = NOT_STARTED;
+
+    SlottedWindow(final Duration window, final int slots) {
+        Preconditions.checkArgument(slots > 0, "slots must be positive");
+        Preconditions.checkArgument(window.getMillis() >= slots, "window must be at least one millisecond per slot");
+        this.slotMillis = window.getMillis() / slots;
+        this.slots = slots;
+    }
+
+    final int getSlots() {
+        return this.slots;
+    }
+
+    /**
+     * @return the slot collecting values of {@code timeMillis}, or -1 if that time already left the window
+     */
+    final int slotOf(final long timeMillis) {
+        this.advanceTo(timeMillis);
+        final long slotInterval = timeMillis / this.slotMillis;
+        if (slotInterval <= this.latestSlotInterval - this.slots) {
+            return -1;
+        }
+        return (int) (slotInterval % this.slots);
+    }
+
+    /**
+     * Clears the slots of all intervals which left the window at {@code nowMillis}.
+     */
+    final void advanceTo(final long nowMillis) {
+        final long slotInterval = nowMillis / this.slotMillis;
+        if (this.latestSlotInterval == NOT_STARTED) {
+            this.latestSlotInterval = slotInterval;
+            return;
+        }
+
+        final long newSlotIntervals = Math.min(slotInterval - this.latestSlotInterval, this.slots);
+        for (long i = slotInterval - newSlotIntervals + 1; i <= slotInterval; i++) {
+            this.clearSlot((int) (i % this.slots));
+        }
+        this.latestSlotInterval = Math.max(this.latestSlotInterval, slotInterval);
+    }
+
+    abstract void clearSlot(int slot);
+}
@@ -0,0 +1,358 @@
+package de.drowsydriveralarm.upload;
+
+import com.google.common.base.Preconditions;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * A durable FIFO queue of records in a directory, e.g. of the events to be uploaded while the head unit is offline.
+ * <p>
+ * The records are appended to segment files of about {@code segmentBytes}, each record prefixed by its length and its
+ * CRC32. Records are read by {@link #peek(int)} and removed by {@link #remove(Batch)} once they are processed, the
+ * read position is kept in a file of its own. If the records exceed {@code maxBytes}, the oldest segments are deleted
+ * although not yet read. A record torn by a crash while appending is cut off when the queue is opened again.
+ */
+public class SegmentedDiskQueue {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String HEAD_FILE = "head";
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private final File directory;
+    private final long segmentBytes;
+    private final long maxBytes;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    private FileChannel tail;
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(1024);
+    // the head is always within the first segment
+    private long headSequence;
+    private long headOffset;
+    private long diskBytes;
+    private long evictedBytes;
+
+    public SegmentedDiskQueue(final File directory, final long segmentBytes, final long maxBytes) throws IOException {
+        Preconditions.checkArgument(segmentBytes > 0, "segmentBytes must be positive");
+        Preconditions.checkArgument(maxBytes >= 2 * segmentBytes, "maxBytes must hold at least two segments");
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.open();
+    }
+
+    public synchronized void append(final byte[] record) throws IOException {
+        final Segment last = this.segments.getLast();
+        if (last.length > 0 && last.length + RECORD_HEADER_BYTES + record.length > this.segmentBytes) {
+            this.roll();
+        }
+
+        if (this.writeBuffer.capacity() < RECORD_HEADER_BYTES + record.length) {
+            this.writeBuffer = ByteBuffer.allocate(Math.max(2 * this.writeBuffer.capacity(), RECORD_HEADER_BYTES + record.length));
+        }
+        this.writeBuffer.clear();
+        this.writeBuffer.putInt(record.length);
+        this.writeBuffer.putInt(this.checksum(record, 0, record.length));
+        this.writeBuffer.put(record);
+        this.writeBuffer.flip();
+        final Segment tailSegment = this.segments.getLast();
+        while (this.writeBuffer.hasRemaining()) {
+            this.tail.write(this.writeBuffer, tailSegment.length + this.writeBuffer.position());
+        }
+        tailSegment.length += RECORD_HEADER_BYTES + record.length;
+        this.diskBytes += RECORD_HEADER_BYTES + record.length;
+        this.evictOldestSegments();
+    }
+
+    /**
+     * The oldest records, at most {@code maxRecords}, without removing them.
+     */
+    public synchronized Batch peek(final int maxRecords) throws IOException {
+        final List<byte[]> records = new ArrayList<>();
+        long sequence = this.headSequence;
+        long offset = this.headOffset;
+        for (final Segment segment : this.segments) {
+            if (segment.sequence < this.headSequence) {
+                continue;
+            }
+            if (segment.sequence > sequence) {
+                sequence = segment.sequence;
+                offset = 0;
+            }
+            offset = this.read(segment, offset, maxRecords - records.size(), records);
+            if (records.size() == maxRecords) {
+                break;
+            }
+        }
+        return new Batch(records, sequence, offset);
+    }
+
+    /**
+     * Removes the records of the batch, which must have been peeked last.
+     */
+    public synchronized void remove(final Batch batch) throws IOException {
+        if (batch.sequence < this.headSequence || batch.sequence == this.headSequence && batch.offset <= this.headOffset) {
+            // evicted meanwhile
+            return;
+        }
+
+        this.headSequence = batch.sequence;
+        this.headOffset = batch.offset;
+        this.deleteReadSegments();
+        this.writeHead();
+    }
+
+    /**
+     * Bytes of the records not yet removed, including their headers.
+     */
+    public synchronized long getSizeBytes() {
+        return this.diskBytes - this.headOffset;
+    }
+
+    /**
+     * Bytes of all segments, read or not.
+     */
+    public synchronized long getDiskBytes() {
+        return this.diskBytes;
+    }
+
+    /**
+     * Bytes of the records deleted without being read, as {@code maxBytes} was exceeded.
+     */
+    public synchronized long getEvictedBytes() {
+        return this.evictedBytes;
+    }
+
+    public synchronized int getNumberOfSegments() {
+        return this.segments.size();
+    }
+
+    public synchronized void close() throws IOException {
+        this.tail.close();
+    }
+
+    private void open() throws IOException {
+        final File[] files = this.directory.listFiles(new FilenameFilter() {
+
+            @Override
+            public boolean accept(final File dir, final String name) {
+                return name.endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        final List<Long> sequences = new ArrayList<>();
+        for (final File file : files) {
+            sequences.add(Long.parseLong(file.getName().substring(0, file.getName().length() - SEGMENT_SUFFIX.length())));
+        }
+        Collections.sort(sequences);
+        this.readHead(sequences.isEmpty() ? 0 : sequences.get(0));
+        for (final long sequence : sequences) {
+            final File file = this.getSegmentFile(sequence);
+            if (sequence < this.headSequence) {
+                this.delete(file);
+            } else {
+                this.segments.addLast(new Segment(sequence, file, file.length()));
+            }
+        }
+        if (this.segments.isEmpty()) {
+            this.segments.addLast(new Segment(this.headSequence, this.getSegmentFile(this.headSequence), 0));
+        }
+        if (this.segments.getFirst().sequence != this.headSequence) {
+            this.headSequence = this.segments.getFirst().sequence;
+            this.headOffset = 0;
+        }
+
+        final Segment last = this.segments.getLast();
+        last.length = this.read(last, 0, Integer.MAX_VALUE, null);
+        this.tail = new RandomAccessFile(last.file, "rw").getChannel();
+        this.tail.truncate(last.length);
+        for (final Segment segment : this.segments) {
+            this.diskBytes += segment.length;
+        }
+        this.headOffset = Math.min(this.headOffset, this.segments.getFirst().length);
+    }
+
+    private void roll() throws IOException {
+        this.tail.close();
+        final long sequence = this.segments.getLast().sequence + 1;
+        final Segment segment = new Segment(sequence, this.getSegmentFile(sequence), 0);
+        this.segments.addLast(segment);
+        this.tail = new RandomAccessFile(segment.file, "rw").getChannel();
+    }
+
+    private void evictOldestSegments() throws IOException {
+        while (this.diskBytes > this.maxBytes && this.segments.size() > 1) {
+            final Segment oldest = this.segments.removeFirst();
+            this.diskBytes -= oldest.length;
+            this.evictedBytes += oldest.length - this.headOffset;
+            this.delete(oldest.file);
+            this.headSequence = this.segments.getFirst().sequence;
+            this.headOffset = 0;
+            this.writeHead();
+        }
+    }
+
+    private void deleteReadSegments() throws IOException {
+        while (this.segments.size() > 1) {
+            final Segment first = this.segments.getFirst();
+            if (first.sequence >= this.headSequence && !(first.sequence == this.headSequence && this.headOffset >= first.length)) {
+                return;
+            }
+            this.segments.removeFirst();
+            this.diskBytes -= first.length;
+            this.delete(first.file);
+            if (this.segments.getFirst().sequence > this.headSequence) {
+                this.headSequence = this.segments.getFirst().sequence;
+                this.headOffset = 0;
+            }
+        }
+    }
+
+    /**
+     * Reads the valid records of the segment from the offset, adding them to {@code records} if not null.
+     *
+     * @return the offset after the last valid record read
+     */
+    private long read(final Segment segment, final long offset, final int maxRecords, final List<byte[]> records) throws IOException {
+        if (offset >= segment.length || maxRecords <= 0) {
+            return offset;
+        }
+
+        final RandomAccessFile file = new RandomAccessFile(segment.file, "r");
+        try {
+            final long fileLength = file.length();
+            long position = offset;
+            int count = 0;
+            file.seek(position);
+            while (count < maxRecords && position + RECORD_HEADER_BYTES <= fileLength) {
+                final int length = file.readInt();
+                final int checksum = file.readInt();
+                if (length < 0 || position + RECORD_HEADER_BYTES + length > fileLength) {
+                    break;
+                }
+                final byte[] record = new byte[length];
+                file.readFully(record);
+                if (this.checksum(record, 0, length) != checksum) {
+                    break;
+                }
+                if (records != null) {
+                    records.add(record);
+                }
+                position += RECORD_HEADER_BYTES + length;
+                count++;
+            }
+            return position;
+        } finally {
+            file.close();
+        }
+    }
+
+    private int checksum(final byte[] bytes, final int offset, final int length) {
+        this.crc.reset();
+        this.crc.update(bytes, offset, length);
+        return (int) this.crc.getValue();
+    }
+
+    private void readHead(final long firstSequence) throws IOException {
+        final File file = new File(this.directory, HEAD_FILE);
+        if (!file.exists()) {
+            this.headSequence = firstSequence;
+            this.headOffset = 0;
+            return;
+        }
+
+        final DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            this.headSequence = in.readLong();
+            this.headOffset = in.readLong();
+        } finally {
+            in.close();
+        }
+    }
+
+    // written to a temporary file first to be replaced atomically
+    private void writeHead() throws IOException {
+        final File temporaryFile = new File(this.directory, HEAD_FILE + ".tmp");
+        final FileOutputStream fileOutputStream = new FileOutputStream(temporaryFile);
+        final DataOutputStream out = new DataOutputStream(fileOutputStream);
+        try {
+            out.writeLong(this.headSequence);
+            out.writeLong(this.headOffset);
+            out.flush();
+            fileOutputStream.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!temporaryFile.renameTo(new File(this.directory, HEAD_FILE))) {
+            throw new IOException("cannot replace " + HEAD_FILE + " in " + this.directory);
+        }
+    }
+
+    private File getSegmentFile(final long sequence) {
+        return new File(this.directory, String.format("%020d%s", sequence, SEGMENT_SUFFIX));
+    }
+
+    private void delete(final File file) throws IOException {
+        if (!file.delete() && file.exists()) {
+            throw new IOException("cannot delete " + file);
+        }
+    }
+
+    private static class Segment {
+
+        private final long sequence;
+        private final File file;
+        private long length;
+
+        Segment(final long sequence, final File file, final long length) {
+            this.sequence = sequence;
+            this.file = file;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Records peeked from the queue and the read position after them.
+     */
+    public static class Batch {
+
+        private final List<byte[]> records;
+        private final long sequence;
+        private final long offset;
+
+        Batch(final List<byte[]> records, final long sequence, final long offset) {
+            this.records = records;
+            this.sequence = sequence;
+            this.offset = offset;
+        }
+
+        public List<byte[]> getRecords() {
+            return this.records;
+        }
+
+        public boolean isEmpty() {
+            return this.records.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "Batch{records=" + this.records.size() + ", sequence=" + this.sequence + ", offset=" + this.offset + '}';
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package de.drowsydriveralarm.upload;
+
+import com.google.common.base.Optional;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Instant;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.drowsydriveralarm.Clock;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.FrameRecorder;
+import de.drowsydriveralarm.event.AppActiveEvent;
+import de.drowsydriveralarm.event.AppIdleEvent;
+import de.drowsydriveralarm.event.AwakeEvent;
+import de.drowsydriveralarm.event.DetectorResumedEvent;
+import de.drowsydriveralarm.event.DetectorStalledEvent;
+import de.drowsydriveralarm.event.DrowsinessTrendEvent;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.HeadNodEvent;
+import de.drowsydriveralarm.event.HeadSlumpEvent;
+import de.drowsydriveralarm.event.LikelyDrowsyEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+import de.drowsydriveralarm.eventproducer.ClockFrameTimeSynchronizer;
+import de.drowsydriveralarm.journal.EventJournalReader;
+import de.drowsydriveralarm.journal.EventJournalWriter;
+
+/**
+ * Appends the events of the given classes posted on the event bus to a {@link SegmentedDiskQueue}, one record per
+ * event: the start of the session in milliseconds as a long, followed by the event as encoded by
+ * {@link EventJournalWriter#encodeRecord(Event, Instant)}. See {@link #decodeSessionStart(byte[])} and
+ * {@link #decodeEvent(byte[])}.
+ * <p>
+ * The uploaded events are in wall clock time, stamped with the session they belong to, so the events of several
+ * sessions can be told apart. The session is identified by the wall clock time of its start, as a trip of the
+ * {@code TripDatabase}. The instants of the events are frame time, e.g. relative to the start of the camera, and
+ * converted by a {@link ClockFrameTimeSynchronizer} fed by the frames recorded. Events before the first frame are not
+ * converted and dropped.
+ * <p>
+ * The subscriber only converts and encodes the event into a bounded in-memory queue, so the thread posting never
+ * waits for the disk. A thread of its own appends the records to the disk. Events are dropped while that queue is
+ * full.
+ */
+public class TelemetryRecorder implements Runnable, FrameRecorder {
+
+    /**
+     * The events worth uploading, without the events of every frame or blink.
+     */
+    public static final Set<Class<? extends Event>> DEFAULT_EVENT_CLASSES =
+            ImmutableSet.<Class<? extends Event>> of(
+                    AwakeEvent.class,
+                    LikelyDrowsyEvent.class,
+                    DrowsyEvent.class,
+                    DrowsinessTrendEvent.class,
+                    SlowEyelidClosureEvent.class,
+                    HeadNodEvent.class,
+                    HeadSlumpEvent.class,
+                    AppIdleEvent.class,
+                    AppActiveEvent.class,
+                    DetectorStalledEvent.class,
+                    DetectorResumedEvent.class);
+
+    private static final long POLL_MILLIS = 100;
+
+    private static final int SESSION_START_BYTES = 8;
+
+    private final SegmentedDiskQueue diskQueue;
+    private final Set<Class<? extends Event>> eventClasses;
+    private final Instant sessionStart;
+    private final Clock clock;
+    private final BlockingQueue<byte[]> records;
+    private final Thread thread;
+    private final AtomicLong droppedEvents = new AtomicLong();
+    // guarded by this
+    // remembers about 10 seconds of frames at 30 frames per second, as the FrameEventProducer
+    private final ClockFrameTimeSynchronizer timeSynchronizer = new ClockFrameTimeSynchronizer(1.0 / 300, 0.001);
+    private volatile boolean closed;
+    private volatile long failedAppends;
+
+    /**
+     * @param eventClasses journaled by the {@link EventJournalWriter}
+     * @param sessionStart wall clock time, stamped on every record
+     */
+    public TelemetryRecorder(final SegmentedDiskQueue diskQueue, final Set<Class<? extends Event>> eventClasses, final Instant sessionStart, final int capacity, final Clock clock) {
+        for (final Class<? extends Event> eventClass : eventClasses) {
+            Preconditions.checkArgument(EventJournalWriter.isJournaled(eventClass), "%s is not journaled", eventClass);
+        }
+        this.diskQueue = diskQueue;
+        this.eventClasses = eventClasses;
+        this.sessionStart = sessionStart;
+        this.clock = clock;
+        this.records = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this, "TelemetryRecorder");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        this.thread.start();
+    }
+
+    /**
+     * Appends the events already recorded and stops.
+     */
+    public void close() throws InterruptedException {
+        this.closed = true;
+        this.thread.join();
+    }
+
+    @Override
+    public synchronized void recordFrame(final FrameFeatures features) {
+        this.timeSynchronizer.addSample(this.clock.nanoTime(), features.getTimestampMillis());
+    }
+
+    // exactly the classes given, e.g. not the PendingSlowEyelidClosureEvents extending SlowEyelidClosureEvent
+    @Subscribe
+    public void recordEvent(final Event event) {
+        if (!this.eventClasses.contains(event.getClass())) {
+            return;
+        }
+
+        final Optional<Instant> instant = this.toWallClockTime(event.getInstant());
+        if (!instant.isPresent() || !this.records.offer(this.encodeRecord(event, instant.get()))) {
+            this.droppedEvents.incrementAndGet();
+        }
+    }
+
+    public Instant getSessionStart() {
+        return this.sessionStart;
+    }
+
+    public long getDroppedEvents() {
+        return this.droppedEvents.get();
+    }
+
+    public long getFailedAppends() {
+        return this.failedAppends;
+    }
+
+    // not interrupted to be closed, as that would close the file channel of the disk queue
+    @Override
+    public void run() {
+        try {
+            while (!this.closed || !this.records.isEmpty()) {
+                final byte[] record = this.records.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    this.append(record);
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The start of the session a record appended by a {@link TelemetryRecorder} belongs to.
+     */
+    public static Instant decodeSessionStart(final byte[] record) throws IOException {
+        if (record.length < SESSION_START_BYTES) {
+            throw new IOException("torn record");
+        }
+        return new Instant(ByteBuffer.wrap(record).getLong());
+    }
+
+    /**
+     * The event of a record appended by a {@link TelemetryRecorder}, in wall clock time.
+     */
+    public static Event decodeEvent(final byte[] record) throws IOException {
+        if (record.length < SESSION_START_BYTES) {
+            throw new IOException("torn record");
+        }
+        return EventJournalReader.decodeRecord(Arrays.copyOfRange(record, SESSION_START_BYTES, record.length));
+    }
+
+    private synchronized Optional<Instant> toWallClockTime(final Instant frameTime) {
+        if (!this.timeSynchronizer.isSynchronized()) {
+            return Optional.absent();
+        }
+
+        return Optional.of(this.timeSynchronizer.toWallClockTime(frameTime, this.clock));
+    }
+
+    private byte[] encodeRecord(final Event event, final Instant instant) {
+        final byte[] eventRecord = EventJournalWriter.encodeRecord(event, instant);
+        return ByteBuffer.allocate(SESSION_START_BYTES + eventRecord.length)
+                .putLong(this.sessionStart.getMillis())
+                .put(eventRecord)
+                .array();
+    }
+
+    private void append(final byte[] record) {
+        try {
+            this.diskQueue.append(record);
+        } catch (final IOException e) {
+            this.failedAppends++;
+        }
+    }
+}
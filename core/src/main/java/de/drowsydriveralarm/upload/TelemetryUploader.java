@@ -0,0 +1,148 @@
+package de.drowsydriveralarm.upload;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Preconditions;
+import com.google.common.io.BaseEncoding;
+
+import org.joda.time.Duration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Drains a {@link SegmentedDiskQueue} by posting its records in batches of at most {@code maxBatchRecords} to an
+ * HTTP endpoint, one record per line in base64, gzipped. A batch is removed from the queue only when the endpoint
+ * answered with 2xx, otherwise it is retried after a backoff doubling from {@code initialBackoff} up to
+ * {@code maxBackoff}. The queue failing to be read or written counts as a failed upload as well, a batch uploaded but
+ * not removed is uploaded again. While the queue is empty, it is polled every {@code initialBackoff}.
+ */
+public class TelemetryUploader implements Runnable {
+
+    private static final int TIMEOUT_MILLIS = 10000;
+    private static final BaseEncoding BASE64 = BaseEncoding.base64();
+
+    private final SegmentedDiskQueue diskQueue;
+    private final URL endpoint;
+    private final int maxBatchRecords;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile long uploadedRecords;
+    private volatile long failedUploads;
+
+    public TelemetryUploader(final SegmentedDiskQueue diskQueue, final URL endpoint, final int maxBatchRecords, final Duration initialBackoff, final Duration maxBackoff) {
+        Preconditions.checkArgument(maxBatchRecords > 0, "maxBatchRecords must be positive");
+        Preconditions.checkArgument(initialBackoff.getMillis() > 0, "initialBackoff must be positive");
+        Preconditions.checkArgument(!maxBackoff.isShorterThan(initialBackoff), "maxBackoff must not be shorter than initialBackoff");
+        this.diskQueue = diskQueue;
+        this.endpoint = endpoint;
+        this.maxBatchRecords = maxBatchRecords;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.thread = new Thread(this, "TelemetryUploader");
+        this.thread.setDaemon(true);
+    }
+
+    public void start() {
+        this.thread.start();
+    }
+
+    public void close() throws InterruptedException {
+        this.closed = true;
+        this.thread.interrupt();
+        this.thread.join();
+    }
+
+    public long getUploadedRecords() {
+        return this.uploadedRecords;
+    }
+
+    public long getFailedUploads() {
+        return this.failedUploads;
+    }
+
+    @Override
+    public void run() {
+        long backoffMillis = this.initialBackoff.getMillis();
+        try {
+            while (!this.closed) {
+                if (this.uploadBatch()) {
+                    backoffMillis = this.initialBackoff.getMillis();
+                } else {
+                    this.failedUploads++;
+                    Thread.sleep(backoffMillis);
+                    backoffMillis = Math.min(2 * backoffMillis, this.maxBackoff.getMillis());
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return false if the batch was not uploaded or the queue failed, e.g. as the disk is full for the moment
+     */
+    private boolean uploadBatch() throws InterruptedException {
+        try {
+            final SegmentedDiskQueue.Batch batch = this.diskQueue.peek(this.maxBatchRecords);
+            if (batch.isEmpty()) {
+                Thread.sleep(this.initialBackoff.getMillis());
+                return true;
+            }
+            if (!this.upload(batch)) {
+                return false;
+            }
+            this.diskQueue.remove(batch);
+            this.uploadedRecords += batch.getRecords().size();
+            return true;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    private boolean upload(final SegmentedDiskQueue.Batch batch) {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) this.endpoint.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            connection.setRequestProperty("Content-Type", "text/plain; charset=utf-8");
+            connection.setRequestProperty("Content-Encoding", "gzip");
+            final OutputStream out = new GZIPOutputStream(connection.getOutputStream());
+            try {
+                for (final byte[] record : batch.getRecords()) {
+                    out.write(BASE64.encode(record).getBytes(Charsets.US_ASCII));
+                    out.write('\n');
+                }
+            } finally {
+                out.close();
+            }
+            final int responseCode = connection.getResponseCode();
+            drain(responseCode < 400 ? connection.getInputStream() : connection.getErrorStream());
+            return responseCode >= 200 && responseCode < 300;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+
+    // lets the connection be kept alive for the next batch
+    private static void drain(final InputStream in) throws IOException {
+        if (in == null) {
+            return;
+        }
+        try {
+            final byte[] buffer = new byte[256];
+            while (in.read(buffer) >= 0) {
+                // discard
+            }
+        } finally {
+            in.close();
+        }
+    }
+}
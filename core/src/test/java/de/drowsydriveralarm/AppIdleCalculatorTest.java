@@ -35,8 +35,8 @@ public class AppIdleCalculatorTest {
         final int now = intervalEnd + 5;
         this.shouldGetAppIdleDuration(
                 Arrays.asList(
-                        new AppIdleEvent(new Instant(0)),
-                        new AppActiveEvent(new Instant(intervalEnd))),
+                        new AppIdleEvent(new Instant(0), Duration.ZERO),
+                        new AppActiveEvent(new Instant(intervalEnd), Duration.ZERO)),
                 new Instant(now),
                 new Duration(10));
     }
@@ -47,8 +47,8 @@ public class AppIdleCalculatorTest {
         final int now = intervalEnd;
         this.shouldGetAppIdleDuration(
                 Arrays.asList(
-                        new AppIdleEvent(new Instant(0)),
-                        new AppActiveEvent(new Instant(intervalEnd))),
+                        new AppIdleEvent(new Instant(0), Duration.ZERO),
+                        new AppActiveEvent(new Instant(intervalEnd), Duration.ZERO)),
                 new Instant(now),
                 new Duration(10));
     }
@@ -57,7 +57,7 @@ public class AppIdleCalculatorTest {
     public void shouldGetAppIdleDuration_appIdleDurationIsZero() {
         this.shouldGetAppIdleDuration(
                 Arrays.asList(
-                        new AppActiveEvent(new Instant(10))),
+                        new AppActiveEvent(new Instant(10), Duration.ZERO)),
                 new Instant(15),
                 new Duration(0));
     }
@@ -68,8 +68,8 @@ public class AppIdleCalculatorTest {
         final int now = intervalEnd + 2;
         this.shouldGetAppIdleDuration(
                 Arrays.asList(
-                        new AppIdleEvent(new Instant(20)),
-                        new AppActiveEvent(new Instant(intervalEnd))),
+                        new AppIdleEvent(new Instant(20), Duration.ZERO),
+                        new AppActiveEvent(new Instant(intervalEnd), Duration.ZERO)),
                 new Instant(now),
                 new Duration(5));
     }
@@ -78,10 +78,10 @@ public class AppIdleCalculatorTest {
     public void shouldGetAppIdleDuration_twoAppIdleIntervals() {
         this.shouldGetAppIdleDuration(
                 Arrays.asList(
-                        new AppIdleEvent(new Instant(0)),
-                        new AppActiveEvent(new Instant(10)),
-                        new AppIdleEvent(new Instant(50)),
-                        new AppActiveEvent(new Instant(70))),
+                        new AppIdleEvent(new Instant(0), Duration.ZERO),
+                        new AppActiveEvent(new Instant(10), Duration.ZERO),
+                        new AppIdleEvent(new Instant(50), Duration.ZERO),
+                        new AppActiveEvent(new Instant(70), Duration.ZERO)),
                 new Instant(80),
                 new Duration((10 - 0) + (70 - 50)));
     }
@@ -90,20 +90,20 @@ public class AppIdleCalculatorTest {
     public void shouldGetAppIdleDuration_onePendingAppIdleInterval() {
         this.shouldGetAppIdleDuration(
                 Arrays.asList(
-                        new AppIdleEvent(new Instant(10))),
+                        new AppIdleEvent(new Instant(10), Duration.ZERO)),
                 new Instant(15),
                 new Duration(5));
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void shouldNotGetAppIdleDurationForPast() {
-        this.eventBus.post(new AppIdleEvent(new Instant(50)));
+        this.eventBus.post(new AppIdleEvent(new Instant(50), Duration.ZERO));
         this.appIdleCalculator.getAppIdleDuration(new Instant(40));
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void shouldNotGetAppIdleDurationForPast2() {
-        this.eventBus.post(new AppActiveEvent(new Instant(50)));
+        this.eventBus.post(new AppActiveEvent(new Instant(50), Duration.ZERO));
         this.appIdleCalculator.getAppIdleDuration(new Instant(40));
     }
 
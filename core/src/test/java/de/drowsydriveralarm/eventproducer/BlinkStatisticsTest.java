@@ -0,0 +1,92 @@
+package de.drowsydriveralarm.eventproducer;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.drowsydriveralarm.event.EyesClosedEvent;
+import de.drowsydriveralarm.event.NormalEyeBlinkEvent;
+import de.drowsydriveralarm.event.PendingSlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.UpdateEvent;
+
+import static de.drowsydriveralarm.eventproducer.FrameFeaturesHelper.createFeatures;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class BlinkStatisticsTest {
+
+    private BlinkStatistics blinkStatistics;
+
+    @Before
+    public void setup() {
+        this.blinkStatistics = new BlinkStatistics(Duration.standardSeconds(30), 6);
+    }
+
+    @Test
+    public void shouldCalculateBlinkRatePerMinute() {
+        // When
+        this.blinkStatistics.recordNormalEyeBlinkEvent(new NormalEyeBlinkEvent(new Instant(1000), new Duration(150)));
+        this.blinkStatistics.recordNormalEyeBlinkEvent(new NormalEyeBlinkEvent(new Instant(5000), new Duration(150)));
+        this.blinkStatistics.recordSlowEyelidClosureEvent(new SlowEyelidClosureEvent(new Instant(9000), new Duration(600)));
+        this.blinkStatistics.recordSlowEyelidClosureEvent(new PendingSlowEyelidClosureEvent(new Instant(12000), new Duration(600)));
+
+        // Then
+        assertThat(this.blinkStatistics.getBlinkRatePerMinute(new Instant(12000)), closeTo(6, 1e-9));
+    }
+
+    @Test
+    public void shouldForgetBlinksLeavingTheWindow() {
+        // Given
+        this.blinkStatistics.recordNormalEyeBlinkEvent(new NormalEyeBlinkEvent(new Instant(1000), new Duration(150)));
+        this.blinkStatistics.recordNormalEyeBlinkEvent(new NormalEyeBlinkEvent(new Instant(20000), new Duration(150)));
+
+        // When
+        final Instant now = new Instant(40000);
+
+        // Then
+        assertThat(this.blinkStatistics.getBlinkRatePerMinute(now), closeTo(2, 1e-9));
+    }
+
+    @Test
+    public void shouldEstimateBlinkDurationQuantiles() {
+        // When
+        this.blinkStatistics.recordNormalEyeBlinkEvent(new NormalEyeBlinkEvent(new Instant(1000), new Duration(100)));
+        this.blinkStatistics.recordNormalEyeBlinkEvent(new NormalEyeBlinkEvent(new Instant(2000), new Duration(200)));
+        this.blinkStatistics.recordSlowEyelidClosureEvent(new SlowEyelidClosureEvent(new Instant(3000), new Duration(800)));
+
+        // Then
+        final Instant now = new Instant(4000);
+        assertThat((double) this.blinkStatistics.getBlinkDurationQuantile(0.5, now).getMillis(), closeTo(200, 200 / 16.0));
+        assertThat((double) this.blinkStatistics.getBlinkDurationQuantile(1, now).getMillis(), closeTo(800, 800 / 16.0));
+    }
+
+    @Test
+    public void shouldCalculateInterBlinkIntervalVariance() {
+        // When
+        this.blinkStatistics.recordNormalEyeBlinkEvent(new NormalEyeBlinkEvent(new Instant(1000), new Duration(100)));
+        this.blinkStatistics.recordNormalEyeBlinkEvent(new NormalEyeBlinkEvent(new Instant(3000), new Duration(100)));
+        this.blinkStatistics.recordNormalEyeBlinkEvent(new NormalEyeBlinkEvent(new Instant(7000), new Duration(100)));
+
+        // Then
+        assertThat(this.blinkStatistics.getInterBlinkIntervalVariance(new Instant(7000)), closeTo(1000000, 1e-3));
+    }
+
+    @Test
+    public void shouldCalculateMeanClosureSpeed() {
+        // When
+        this.closeEyes(0, 0.9f, 100, 0.1f);
+        this.closeEyes(1000, 0.8f, 1200, 0.2f);
+
+        // Then
+        assertThat(this.blinkStatistics.getMeanClosureSpeed(new Instant(1200)), closeTo(5.5, 1e-6));
+    }
+
+    private void closeEyes(final long openedMillis, final float openedProbability, final long closedMillis, final float closedProbability) {
+        this.blinkStatistics.recordUpdateEvent(new UpdateEvent(createFeatures(openedMillis, openedProbability, openedProbability)));
+        this.blinkStatistics.recordUpdateEvent(new UpdateEvent(createFeatures(closedMillis, closedProbability, closedProbability)));
+        this.blinkStatistics.recordEyesClosedEvent(new EyesClosedEvent(new Instant(closedMillis)));
+    }
+}
@@ -0,0 +1,105 @@
+package de.drowsydriveralarm.eventproducer;
+
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class ClockFrameTimeSynchronizerTest {
+
+    private static final long FRAME_INTERVAL_MILLIS = 33;
+    private static final long CLOCK_ORIGIN_NANOS = 123456789000L;
+    private static final long MEAN_LATENCY_MILLIS = 12;
+
+    private ClockFrameTimeSynchronizer synchronizer;
+
+    @Before
+    public void setup() {
+        this.synchronizer = new ClockFrameTimeSynchronizer(1.0 / 300, 0.001);
+    }
+
+    @Test
+    public void shouldConvertWithConstantOffset() {
+        // Given
+        this.addSamples(0, 100, 1.0);
+
+        // When
+        final Instant frameTime = this.synchronizer.toFrameTime(toClockNanos(100 * FRAME_INTERVAL_MILLIS + MEAN_LATENCY_MILLIS));
+
+        // Then
+        assertThat(frameTime, is(new Instant(100 * FRAME_INTERVAL_MILLIS)));
+    }
+
+    @Test
+    public void shouldFollowDriftingFrameClock() {
+        // Given
+        // the frame clock runs 500 ppm fast, a constant offset would be 1.8 seconds off after an hour
+        final int frames = (int) (3600000 / FRAME_INTERVAL_MILLIS);
+        this.addSamples(0, frames, 1.0005);
+
+        // When
+        final long clockMillis = frames * FRAME_INTERVAL_MILLIS;
+        final Instant frameTime = this.synchronizer.toFrameTime(toClockNanos(clockMillis + MEAN_LATENCY_MILLIS));
+
+        // Then
+        assertThat(this.synchronizer.getSkew(), is(closeTo(1.0005, 0.00005)));
+        assertThat((double) frameTime.getMillis(), is(closeTo(clockMillis * 1.0005, 5)));
+    }
+
+    @Test
+    public void shouldRejectOutlier() {
+        // Given
+        this.addSamples(0, 100, 1.0);
+
+        // When
+        // a frame timestamp 300 milliseconds off
+        this.synchronizer.addSample(toClockNanos(100 * FRAME_INTERVAL_MILLIS + MEAN_LATENCY_MILLIS), 100 * FRAME_INTERVAL_MILLIS + 300);
+
+        // Then
+        assertThat(this.synchronizer.toFrameTime(toClockNanos(101 * FRAME_INTERVAL_MILLIS + MEAN_LATENCY_MILLIS)), is(new Instant(101 * FRAME_INTERVAL_MILLIS)));
+    }
+
+    @Test
+    public void shouldStartOverAfterFrameClockJumped() {
+        // Given
+        this.addSamples(0, 100, 1.0);
+
+        // When
+        // the frame clock restarts at 0
+        for (int i = 100; i < 140; i++) {
+            this.synchronizer.addSample(toClockNanos(i * FRAME_INTERVAL_MILLIS + MEAN_LATENCY_MILLIS), (i - 100) * FRAME_INTERVAL_MILLIS);
+        }
+
+        // Then
+        assertThat(this.synchronizer.toFrameTime(toClockNanos(140 * FRAME_INTERVAL_MILLIS + MEAN_LATENCY_MILLIS)), is(new Instant(40 * FRAME_INTERVAL_MILLIS)));
+    }
+
+    @Test
+    public void shouldNotGoBackInTime() {
+        // Given
+        this.addSamples(0, 100, 1.0);
+        final Instant frameTime = this.synchronizer.toFrameTime(toClockNanos(100 * FRAME_INTERVAL_MILLIS));
+
+        // When
+        final Instant earlierFrameTime = this.synchronizer.toFrameTime(toClockNanos(90 * FRAME_INTERVAL_MILLIS));
+
+        // Then
+        assertThat(earlierFrameTime, is(frameTime));
+    }
+
+    private void addSamples(final int from, final int to, final double frameClockRate) {
+        for (int i = from; i < to; i++) {
+            final long clockMillis = i * FRAME_INTERVAL_MILLIS;
+            // the frames reach the clock with a latency jittering between 10 and 14 milliseconds
+            final long latencyMillis = 10 + 2 * (i % 3);
+            this.synchronizer.addSample(toClockNanos(clockMillis + latencyMillis), Math.round(clockMillis * frameClockRate));
+        }
+    }
+
+    private static long toClockNanos(final long clockMillis) {
+        return CLOCK_ORIGIN_NANOS + clockMillis * 1000000L;
+    }
+}
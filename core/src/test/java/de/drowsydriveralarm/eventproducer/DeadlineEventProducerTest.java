@@ -0,0 +1,95 @@
+package de.drowsydriveralarm.eventproducer;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.drowsydriveralarm.EventListener;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.PendingSlowEyelidClosureEvent;
+
+import static de.drowsydriveralarm.eventproducer.FrameFeaturesHelper.createFeaturesWithEyesClosed;
+import static de.drowsydriveralarm.eventproducer.FrameFeaturesHelper.createFeaturesWithEyesOpened;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class DeadlineEventProducerTest {
+
+    private EventListener listener;
+    private MockedClock clock;
+    private DrowsyEventDetector drowsyEventDetector;
+
+    @Before
+    public void setup() {
+        this.clock = new MockedClock();
+        this.drowsyEventDetector =
+                new DrowsyEventDetector(
+                        DrowsyEventDetectorConfigTestFactory
+                                .createConfigBuilder()
+                                .withTimeWindow(new Duration(15000))
+                                .build(),
+                        this.clock);
+        this.listener = new EventListener();
+        this.drowsyEventDetector.getEventBus().register(this.listener);
+    }
+
+    @Test
+    public void shouldCreatePendingSlowEyelidClosureEventWithoutFrames() {
+        // Given
+        this.receiveFrame(0, false);
+
+        // When
+        this.tick(499);
+        this.tick(500);
+
+        // Then
+        assertThat(
+                this.listener.filterEventsBy(PendingSlowEyelidClosureEvent.class),
+                contains(new PendingSlowEyelidClosureEvent(new Instant(0), new Duration(500))));
+    }
+
+    @Test
+    public void shouldCreateDrowsyEventWithoutFrames() {
+        // Given
+        this.receiveFrame(0, false);
+        this.tick(500);
+
+        // When
+        // PERCLOS reaches 0.15 after 0.15 * 15000 = 2250 milliseconds of closed eyes
+        this.tick(2249);
+        this.tick(2250);
+
+        // Then
+        assertThat(
+                this.listener.filterEventsBy(DrowsyEvent.class),
+                contains(new DrowsyEvent(new Instant(2250), 0.15)));
+    }
+
+    @Test
+    public void shouldCancelDeadlineWhenEyesOpen() {
+        // Given
+        this.receiveFrame(0, false);
+        this.receiveFrame(300, true);
+
+        // When
+        this.tick(3000);
+
+        // Then
+        assertThat(this.listener.filterEventsBy(PendingSlowEyelidClosureEvent.class), empty());
+    }
+
+    private void receiveFrame(final long millis, final boolean eyesOpened) {
+        this.clock.setNow(new Instant(millis));
+        this.drowsyEventDetector
+                .getFrameEventProducer()
+                .onFrame(eyesOpened ? createFeaturesWithEyesOpened(millis) : createFeaturesWithEyesClosed(millis));
+    }
+
+    private void tick(final long millis) {
+        this.clock.setNow(new Instant(millis));
+        this.drowsyEventDetector.onTick();
+    }
+}
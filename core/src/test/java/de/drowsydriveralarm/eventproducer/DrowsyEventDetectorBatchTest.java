@@ -0,0 +1,124 @@
+package de.drowsydriveralarm.eventproducer;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import de.drowsydriveralarm.EventListener;
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.AwakeEvent;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.EyesClosedEvent;
+import de.drowsydriveralarm.event.EyesOpenedEvent;
+import de.drowsydriveralarm.event.LikelyDrowsyEvent;
+import de.drowsydriveralarm.event.NormalEyeBlinkEvent;
+import de.drowsydriveralarm.event.PendingSlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+
+import static de.drowsydriveralarm.eventproducer.FrameBatchHelper.FRAME_MILLIS;
+import static de.drowsydriveralarm.eventproducer.FrameBatchHelper.createBatch;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class DrowsyEventDetectorBatchTest {
+
+    private static final int FRAMES = 3000;
+
+    private FrameBatch batch;
+
+    @Before
+    public void setup() {
+        this.batch = createBatch(0, FRAMES, 1);
+    }
+
+    @Test
+    public void shouldPostSameEventsAsSingleFrames() {
+        // Given
+        final MockedClock clock = new MockedClock();
+        final EventListener singleFrameListener = new EventListener();
+        final DrowsyEventDetector singleFrameDetector = this.createDrowsyEventDetector(singleFrameListener, clock);
+        final EventListener batchListener = new EventListener();
+        final DrowsyEventDetector batchDetector = this.createDrowsyEventDetector(batchListener, new MockedClock());
+
+        // When
+        this.receiveFrames(singleFrameDetector, clock);
+        batchDetector.processBatch(this.batch);
+
+        // Then
+        assertThat(batchListener.filterEventsBy(DrowsyEvent.class), is(not(empty())));
+        assertThat(filterDetectedEvents(batchListener), is(equalTo(filterDetectedEvents(singleFrameListener))));
+        assertThat(batchDetector.getEyesStateClassifier().getFramesBySingleEye(), is(singleFrameDetector.getEyesStateClassifier().getFramesBySingleEye()));
+    }
+
+    @Test
+    public void shouldWriteEyesStatesAndPerclos() {
+        // Given
+        final EventListener listener = new EventListener();
+        final DrowsyEventDetector drowsyEventDetector = this.createDrowsyEventDetector(listener, new MockedClock());
+
+        // When
+        drowsyEventDetector.processBatch(this.batch);
+
+        // Then
+        assertThat(this.batch.getEyesStates()[0], is(FrameBatch.SKIPPED));
+        assertThat(Double.isNaN(this.batch.getPerclos()[0]), is(true));
+        assertThat((int) this.batch.getEyesStates()[1], is(EyesStateClassifier.CLOSED));
+        assertThat((int) this.batch.getEyesStates()[50], is(EyesStateClassifier.OPENED));
+        final LikelyDrowsyEvent likelyDrowsyEvent = listener.filterEventsBy(LikelyDrowsyEvent.class).get(0);
+        final int likelyDrowsyFrame = (int) (likelyDrowsyEvent.getInstant().getMillis() / FRAME_MILLIS);
+        assertThat(new LikelyDrowsyEvent(likelyDrowsyEvent.getInstant(), this.batch.getPerclos()[likelyDrowsyFrame]), is(likelyDrowsyEvent));
+    }
+
+    // all but the UpdateEvents, which are posted by the single frame path only
+    private static List<Event> filterDetectedEvents(final EventListener listener) {
+        return listener.filterEventsBy(
+                EyesOpenedEvent.class,
+                EyesClosedEvent.class,
+                NormalEyeBlinkEvent.class,
+                SlowEyelidClosureEvent.class,
+                PendingSlowEyelidClosureEvent.class,
+                AwakeEvent.class,
+                LikelyDrowsyEvent.class,
+                DrowsyEvent.class);
+    }
+
+    private DrowsyEventDetector createDrowsyEventDetector(final EventListener listener, final MockedClock clock) {
+        final DrowsyEventDetector drowsyEventDetector =
+                new DrowsyEventDetector(
+                        DrowsyEventDetectorConfigTestFactory
+                                .createConfigBuilder()
+                                .withTimeWindow(new Duration(15000))
+                                .build(),
+                        clock);
+        drowsyEventDetector.getEventBus().register(listener);
+        return drowsyEventDetector;
+    }
+
+    // without ticks, as the batch does not expire deadlines either
+    private void receiveFrames(final DrowsyEventDetector drowsyEventDetector, final MockedClock clock) {
+        for (int i = 0; i < this.batch.size(); i++) {
+            clock.setNow(new Instant(this.batch.getTimestampsMillis()[i]));
+            drowsyEventDetector.getFrameEventProducer().onFrame(this.createFeatures(i));
+        }
+    }
+
+    private FrameFeatures createFeatures(final int i) {
+        return FrameFeatures
+                .builder()
+                .withTimestampMillis(this.batch.getTimestampsMillis()[i])
+                .withLeftEyeRecognized((this.batch.getLandmarkFlags()[i] & FrameBatch.LEFT_EYE_RECOGNIZED) != 0)
+                .withRightEyeRecognized((this.batch.getLandmarkFlags()[i] & FrameBatch.RIGHT_EYE_RECOGNIZED) != 0)
+                .withLeftEyeOpenProbability(this.batch.getLeftEyeOpenProbabilities()[i])
+                .withRightEyeOpenProbability(this.batch.getRightEyeOpenProbabilities()[i])
+                .build();
+    }
+}
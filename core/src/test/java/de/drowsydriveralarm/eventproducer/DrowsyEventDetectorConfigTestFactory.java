@@ -0,0 +1,25 @@
+package de.drowsydriveralarm.eventproducer;
+
+import org.joda.time.Duration;
+
+public class DrowsyEventDetectorConfigTestFactory {
+
+    /**
+     * The configuration the tests rely on, with the time window yet to be set.
+     */
+    public static DrowsyEventDetectorConfigBuilder createConfigBuilder() {
+        return DrowsyEventDetectorConfig
+                .builder()
+                .withEyeOpenProbabilityThreshold(0.5f)
+                .withConfig(
+                        DrowsyEventProducer.Config
+                                .builder()
+                                .withDrowsyThreshold(0.15)
+                                .withLikelyDrowsyThreshold(0.08)
+                                .withDrowsyExitThreshold(0.12)
+                                .withLikelyDrowsyExitThreshold(0.06)
+                                .withMinDwell(new Duration(3000))
+                                .build())
+                .withSlowEyelidClosureMinDuration(new Duration(500));
+    }
+}
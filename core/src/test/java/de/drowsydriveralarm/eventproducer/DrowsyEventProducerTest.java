@@ -0,0 +1,305 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.collect.Iterables;
+import com.google.common.eventbus.EventBus;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import de.drowsydriveralarm.EventListener;
+import de.drowsydriveralarm.SystemClock;
+import de.drowsydriveralarm.event.AwakeEvent;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.HeadNodEvent;
+import de.drowsydriveralarm.event.HeadSlumpEvent;
+import de.drowsydriveralarm.event.LikelyDrowsyEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.UpdateEvent;
+
+import static de.drowsydriveralarm.eventproducer.FrameFeaturesHelper.createFeaturesWithEyesClosed;
+import static de.drowsydriveralarm.eventproducer.FrameFeaturesHelper.createFeaturesWithEyesOpened;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.core.Is.isA;
+import static org.hamcrest.core.IsNot.not;
+
+public class DrowsyEventProducerTest {
+
+    private EventListener listener;
+    private EventBus eventBus;
+    private DrowsyEventProducer drowsyEventProducer;
+
+    @Before
+    public void setup() {
+        final DrowsyEventDetector drowsyEventDetector =
+                new DrowsyEventDetector(
+                        DrowsyEventDetectorConfigTestFactory
+                                .createConfigBuilder()
+                                .withTimeWindow(new Duration(2000))
+                                .build(),
+                        new SystemClock());
+        this.listener = new EventListener();
+        this.eventBus = drowsyEventDetector.getEventBus();
+        this.drowsyEventProducer = drowsyEventDetector.getDrowsyEventProducer();
+        this.eventBus.register(this.listener);
+    }
+
+    @Test
+    public void shouldCreateDrowsyEvent() {
+        // Given
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(100), new Duration(600)));
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(1000), new Duration(550)));
+        final double perclos = (600.0 + 550.0) / 2000.0; // = 0.575 > 0.15
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+
+        // Then
+        assertThat(this.listener.getEvent(), is((Event) new DrowsyEvent(new Instant(2000), perclos)));
+    }
+
+    @Test
+    public void shouldCreateDrowsyEventForEyesClosedTheWholeTime() {
+        // Given
+        this.eventBus.post(new UpdateEvent(createFeaturesWithEyesClosed(0)));
+        this.eventBus.post(new UpdateEvent(createFeaturesWithEyesClosed(2000)));
+        final double perclos = 1.0; // > 0.15
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+
+        // Then
+        assertThat(this.listener.getEvent(), is((Event) new DrowsyEvent(new Instant(2000), perclos)));
+    }
+
+    // TODO: test mit IndefiniteEyeState dazwischenmogeln
+
+    @Test
+    public void shouldCreateDrowsyEventForEyesClosedButNotYetOpenedWhenMaybeProducingDrowsyEvent() {
+        // Given
+        this.eventBus.post(new UpdateEvent(createFeaturesWithEyesClosed(0)));
+        this.eventBus.post(new UpdateEvent(createFeaturesWithEyesOpened(501)));
+        this.eventBus.post(new UpdateEvent(createFeaturesWithEyesClosed(510)));
+        this.eventBus.post(new UpdateEvent(createFeaturesWithEyesClosed(2000)));
+        final double perclos = (501.0 + (2000.0 - 510.0)) / 2000.0; // = 0.9955  > 0.15
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+
+        // Then
+        assertThat(this.listener.getEvent(), is((Event) new DrowsyEvent(new Instant(2000), perclos)));
+    }
+
+    @Test
+    public void shouldCreateDrowsyEventForEyesClosedButNotYetOpenedWhenMaybeProducingDrowsyEvent2() {
+        // Given
+        this.eventBus.post(new UpdateEvent(createFeaturesWithEyesClosed(0)));
+        this.eventBus.post(new UpdateEvent(createFeaturesWithEyesOpened(501)));
+        this.eventBus.post(new UpdateEvent(createFeaturesWithEyesClosed(510)));
+        this.eventBus.post(new UpdateEvent(createFeaturesWithEyesClosed(1000)));
+        this.eventBus.post(new UpdateEvent(createFeaturesWithEyesClosed(2000)));
+        final double perclos = (501.0 + (2000.0 - 510.0)) / 2000.0; // = 0.9955  > 0.15
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+
+        // Then
+        assertThat(this.listener.getEvents(), hasItem(new DrowsyEvent(new Instant(2000), perclos)));
+    }
+
+    @Test
+    public void shouldCreateLikelyDrowsyEvent() {
+        // Given
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(100), new Duration(150)));
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(1000), new Duration(55)));
+        final double perclos = (150 + 55.0) / 2000.0; // = 0.1025 which is between 0.08 and 0.15
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+
+        // Then
+        assertThat(this.listener.getEvent(), is((Event) new LikelyDrowsyEvent(new Instant(2000), perclos)));
+    }
+
+    @Test
+    public void shouldCreateAwakeEvent() {
+        // Given
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+
+        // Then
+        assertThat(this.listener.getEvent(), is((Event) new AwakeEvent(new Instant(2000), 0)));
+    }
+
+    @Test
+    public void shouldCreateNoDrowsyEvents() {
+        // Given
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(100), new Duration(150)));
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(1000), new Duration(55)));
+
+        // When
+        // given SlowEyelidClosureEvents are not within time window
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(5000));
+
+        // Then
+        assertThat(this.listener.getEvents(), not(hasItem(isA(LikelyDrowsyEvent.class))));
+        assertThat(this.listener.getEvents(), not(hasItem(isA(DrowsyEvent.class))));
+    }
+
+    @Test
+    public void shouldCreateASingleDrowsyEvent() {
+        // Given
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(100), new Duration(600)));
+        final double perclos = 600.0 / 2000.0; // = 0.3 > 0.15
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2033));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2066));
+
+        // Then
+        assertThat(this.getLevelEvents(), contains((Event) new DrowsyEvent(new Instant(2000), perclos)));
+    }
+
+    @Test
+    public void shouldCreateASingleLikelyDrowsyEvent() {
+        // Given
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(100), new Duration(200)));
+        final double perclos = 200.0 / 2000.0; // = 0.1 which is between 0.08 and 0.15
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2033));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2066));
+
+        // Then
+        assertThat(this.getLevelEvents(), contains((Event) new LikelyDrowsyEvent(new Instant(2000), perclos)));
+    }
+
+    @Test
+    public void shouldCreateASingleAwakeEvent() {
+        // Given
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2033));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2066));
+
+        // Then
+        assertThat(this.getLevelEvents(), contains((Event) new AwakeEvent(new Instant(2000), 0)));
+    }
+
+    @Test
+    public void shouldEscalateImmediately() {
+        // Given
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(2100), new Duration(600)));
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2700));
+
+        // Then
+        assertThat(Iterables.getLast(this.getLevelEvents()), is((Event) new DrowsyEvent(new Instant(2700), 600.0 / 2000.0)));
+    }
+
+    @Test
+    public void shouldNotLeaveDrowsyBeforeMinDwell() {
+        // Given
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(100), new Duration(600)));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+
+        // When
+        // PERCLOS is 0, but drowsy is only held for 2000 < 3000 milliseconds
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(4000));
+
+        // Then
+        assertThat(Iterables.getLast(this.getLevelEvents()), is((Event) new DrowsyEvent(new Instant(2000), 600.0 / 2000.0)));
+    }
+
+    @Test
+    public void shouldLeaveDrowsyAfterMinDwell() {
+        // Given
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(100), new Duration(600)));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(5000));
+
+        // Then
+        assertThat(Iterables.getLast(this.getLevelEvents()), is((Event) new AwakeEvent(new Instant(5000), 0)));
+    }
+
+    @Test
+    public void shouldStayDrowsyWhilePerclosIsAboveExitThreshold() {
+        // Given
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(100), new Duration(600)));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(3200), new Duration(260)));
+
+        // When
+        // PERCLOS is 260 / 2000 = 0.13 which is between the exit threshold 0.12 and the enter threshold 0.15
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(5100));
+
+        // Then
+        assertThat(Iterables.getLast(this.getLevelEvents()), is((Event) new DrowsyEvent(new Instant(2000), 600.0 / 2000.0)));
+    }
+
+    @Test
+    public void shouldBecomeLikelyDrowsyOnHeadNod() {
+        // Given
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+
+        // When
+        this.eventBus.post(new HeadNodEvent(new Instant(2100), new Duration(800)));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2933));
+
+        // Then
+        assertThat(Iterables.getLast(this.getLevelEvents()), is((Event) new LikelyDrowsyEvent(new Instant(2933), 0)));
+    }
+
+    @Test
+    public void shouldStayDrowsyOnHeadNod() {
+        // Given
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(100), new Duration(600)));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+
+        // When
+        this.eventBus.post(new HeadNodEvent(new Instant(2100), new Duration(800)));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2933));
+
+        // Then
+        assertThat(this.getLevelEvents(), contains((Event) new DrowsyEvent(new Instant(2000), 600.0 / 2000.0)));
+    }
+
+    @Test
+    public void shouldBeDrowsyOnHeadSlumpUntilHoldTimeIsOver() {
+        // Given
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(2000));
+        this.eventBus.post(new HeadSlumpEvent(new Instant(1000), new Duration(2000)));
+
+        // When
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(3000));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(3000 + DrowsyEventProducer.HEAD_SLUMP_HOLD_MILLIS - 1));
+        this.drowsyEventProducer.maybeProduceDrowsyEvent(new Instant(3000 + DrowsyEventProducer.HEAD_SLUMP_HOLD_MILLIS));
+
+        // Then
+        assertThat(
+                this.getLevelEvents(),
+                contains(
+                        (Event) new AwakeEvent(new Instant(2000), 0),
+                        new DrowsyEvent(new Instant(3000), 0),
+                        new AwakeEvent(new Instant(3000 + DrowsyEventProducer.HEAD_SLUMP_HOLD_MILLIS), 0)));
+    }
+
+    private List<Event> getLevelEvents() {
+        return this.listener.filterEventsBy(AwakeEvent.class, LikelyDrowsyEvent.class, DrowsyEvent.class);
+    }
+}
@@ -0,0 +1,100 @@
+package de.drowsydriveralarm.eventproducer;
+
+import org.joda.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.event.UpdateEvent;
+
+import static de.drowsydriveralarm.eventproducer.FrameFeaturesHelper.createFeatures;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class EyeOpenProbabilityCalibratorTest {
+
+    private EyeOpenProbabilityThresholds thresholds;
+    private EyeOpenProbabilityCalibrator calibrator;
+
+    @Before
+    public void setup() {
+        this.thresholds = new EyeOpenProbabilityThresholds(0.5f);
+        this.calibrator = new EyeOpenProbabilityCalibrator(this.thresholds, 0.5f, Duration.standardSeconds(10));
+    }
+
+    @Test
+    public void shouldKeepThresholdsDuringCalibration() {
+        // When
+        this.receiveFrames(0, 9000, 0.6f, 0.8f);
+
+        // Then
+        assertThat(this.calibrator.isCalibrated(), is(false));
+        assertThat((double) this.thresholds.getLeftEyeThreshold(), closeTo(0.5, 1e-6));
+        assertThat((double) this.thresholds.getRightEyeThreshold(), closeTo(0.5, 1e-6));
+    }
+
+    @Test
+    public void shouldScaleThresholdsByRestingEyeOpenProbabilityPerEye() {
+        // When
+        this.receiveFrames(0, 10000, 0.6f, 0.8f);
+
+        // Then
+        assertThat(this.calibrator.isCalibrated(), is(true));
+        assertThat((double) this.thresholds.getLeftEyeThreshold(), closeTo(0.3, 1e-3));
+        assertThat((double) this.thresholds.getRightEyeThreshold(), closeTo(0.4, 1e-3));
+    }
+
+    @Test
+    public void shouldNotBeDisturbedByBlinks() {
+        // When
+        for (long millis = 0; millis <= 10000; millis += 50) {
+            final float probability = millis % 1000 == 0 ? 0.05f : 0.6f;
+            this.receiveFrame(millis, probability, probability);
+        }
+
+        // Then
+        assertThat((double) this.thresholds.getLeftEyeThreshold(), closeTo(0.3, 1e-3));
+    }
+
+    @Test
+    public void shouldWaitForEnoughSamples() {
+        // When
+        this.receiveFrame(0, 0.6f, 0.6f);
+        this.receiveFrame(20000, 0.6f, 0.6f);
+
+        // Then
+        assertThat(this.calibrator.isCalibrated(), is(false));
+    }
+
+    @Test
+    public void shouldNotChangeThresholdsAfterCalibration() {
+        // Given
+        this.receiveFrames(0, 10000, 0.6f, 0.6f);
+
+        // When
+        this.receiveFrames(10050, 30000, 0.9f, 0.9f);
+
+        // Then
+        assertThat((double) this.thresholds.getLeftEyeThreshold(), closeTo(0.3, 1e-3));
+    }
+
+    @Test
+    public void shouldIgnoreUncomputedProbabilities() {
+        // When
+        this.receiveFrames(0, 10000, FrameFeatures.UNCOMPUTED_PROBABILITY, 0.6f);
+
+        // Then
+        assertThat(this.calibrator.isCalibrated(), is(false));
+    }
+
+    private void receiveFrames(final long fromMillis, final long toMillis, final float leftEyeOpenProbability, final float rightEyeOpenProbability) {
+        for (long millis = fromMillis; millis <= toMillis; millis += 50) {
+            this.receiveFrame(millis, leftEyeOpenProbability, rightEyeOpenProbability);
+        }
+    }
+
+    private void receiveFrame(final long millis, final float leftEyeOpenProbability, final float rightEyeOpenProbability) {
+        this.calibrator.recordUpdateEvent(new UpdateEvent(createFeatures(millis, leftEyeOpenProbability, rightEyeOpenProbability)));
+    }
+}
@@ -0,0 +1,108 @@
+package de.drowsydriveralarm.eventproducer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.event.UpdateEvent;
+import de.drowsydriveralarm.filter.MedianFilter;
+
+import static de.drowsydriveralarm.eventproducer.FrameFeaturesHelper.createFeatures;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class EyesStateClassifierTest {
+
+    private EyeOpenProbabilityThresholds thresholds;
+    private EyesStateClassifier classifier;
+
+    @Before
+    public void setup() {
+        this.thresholds = new EyeOpenProbabilityThresholds(0.5f);
+        this.classifier = new EyesStateClassifier(this.thresholds);
+    }
+
+    @Test
+    public void shouldClassifyByBothEyes() {
+        assertThat(this.classify(createFeatures(0, 0.8f, 0.9f)), is(EyesStateClassifier.OPENED));
+        assertThat(this.classify(createFeatures(0, 0.4f, 0.3f)), is(EyesStateClassifier.CLOSED));
+        assertThat(this.classify(createFeatures(0, 0.8f, 0.3f)), is(EyesStateClassifier.UNDECIDED));
+        assertThat(this.classifier.getFramesByBothEyes(), is(2L));
+        assertThat(this.classifier.getFramesUndecided(), is(1L));
+    }
+
+    @Test
+    public void shouldFallBackToConfidentSingleEye() {
+        assertThat(this.classify(createFeatures(0, FrameFeatures.UNCOMPUTED_PROBABILITY, 0.2f)), is(EyesStateClassifier.CLOSED));
+        assertThat(this.classify(createFeatures(0, 0.9f, FrameFeatures.UNCOMPUTED_PROBABILITY)), is(EyesStateClassifier.OPENED));
+        assertThat(this.classify(createFeatures(0, FrameFeatures.UNCOMPUTED_PROBABILITY, 0.6f)), is(EyesStateClassifier.UNDECIDED));
+        assertThat(this.classifier.getFramesBySingleEye(), is(2L));
+        assertThat(this.classifier.getFramesUndecided(), is(1L));
+    }
+
+    @Test
+    public void shouldClassifyUncomputedProbabilitiesAsUnknown() {
+        assertThat(this.classify(createFeatures(0, FrameFeatures.UNCOMPUTED_PROBABILITY, FrameFeatures.UNCOMPUTED_PROBABILITY)), is(EyesStateClassifier.UNKNOWN));
+        assertThat(this.classifier.getFramesUndecided(), is(1L));
+    }
+
+    @Test
+    public void shouldIgnoreProbabilityOfUnrecognizedEye() {
+        // Given
+        final FrameFeatures features =
+                FrameFeatures
+                        .builder()
+                        .withLeftEyeRecognized(true)
+                        .withLeftEyeOpenProbability(0.1f)
+                        .withRightEyeOpenProbability(0.9f)
+                        .build();
+
+        // Then
+        assertThat(this.classify(features), is(EyesStateClassifier.CLOSED));
+        assertThat(this.classify(FrameFeatures.builder().build()), is(EyesStateClassifier.UNKNOWN));
+    }
+
+    @Test
+    public void shouldUseThresholdOfEachEye() {
+        // Given
+        this.thresholds.setThresholds(0.3f, 0.6f);
+
+        // Then
+        assertThat(this.classify(createFeatures(0, 0.4f, 0.7f)), is(EyesStateClassifier.OPENED));
+        assertThat(this.classify(createFeatures(0, 0.2f, 0.5f)), is(EyesStateClassifier.CLOSED));
+    }
+
+    @Test
+    public void shouldClassifyEventOnlyOnce() {
+        // Given
+        final UpdateEvent event = new UpdateEvent(createFeatures(0, 0.8f, 0.8f));
+
+        // When
+        this.classifier.classify(event);
+        this.classifier.classify(event);
+
+        // Then
+        assertThat(this.classifier.getFramesByBothEyes(), is(1L));
+    }
+
+    @Test
+    public void shouldNotCloseEyesOnSingleFrameDipWithMedianFilter() {
+        // Given
+        this.classifier = new EyesStateClassifier(this.thresholds, new MedianFilter(3), new MedianFilter(3));
+
+        // When
+        this.classify(createFeatures(0, 0.9f, 0.9f));
+        this.classify(createFeatures(33, 0.9f, 0.9f));
+        final int dip = this.classify(createFeatures(66, 0.1f, 0.1f));
+        this.classify(createFeatures(99, 0.1f, 0.1f));
+        final int closure = this.classify(createFeatures(132, 0.1f, 0.1f));
+
+        // Then
+        assertThat(dip, is(EyesStateClassifier.OPENED));
+        assertThat(closure, is(EyesStateClassifier.CLOSED));
+    }
+
+    private int classify(final FrameFeatures features) {
+        return this.classifier.classify(new UpdateEvent(features));
+    }
+}
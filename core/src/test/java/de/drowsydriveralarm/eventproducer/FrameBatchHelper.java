@@ -0,0 +1,31 @@
+package de.drowsydriveralarm.eventproducer;
+
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.FrameFeatures;
+
+public class FrameBatchHelper {
+
+    public static final long FRAME_MILLIS = 33;
+
+    /**
+     * Synthetic frames every {@link #FRAME_MILLIS}, with the eyes closed for the first 20 of every 100 frames, longer
+     * and longer by {@code closureGrowth} frames per 100 frames, and blinking every 17 frames. Now and then the right
+     * eye open probability is not computed, only the left eye is recognized or no eye at all.
+     */
+    public static FrameBatch createBatch(final int firstFrame, final int frames, final int closureGrowth) {
+        final long[] timestampsMillis = new long[frames];
+        final float[] leftEyeOpenProbabilities = new float[frames];
+        final float[] rightEyeOpenProbabilities = new float[frames];
+        final byte[] landmarkFlags = new byte[frames];
+        for (int j = 0; j < frames; j++) {
+            final int i = firstFrame + j;
+            timestampsMillis[j] = i * FRAME_MILLIS;
+            final int phase = i % 100;
+            final boolean closed = phase < 20 + closureGrowth * (i / 100) || phase % 17 == 0;
+            leftEyeOpenProbabilities[j] = closed ? 0.2f : 0.9f;
+            rightEyeOpenProbabilities[j] = i % 23 == 0 ? FrameFeatures.UNCOMPUTED_PROBABILITY : leftEyeOpenProbabilities[j];
+            landmarkFlags[j] = i % 31 == 0 ? 0 : i % 11 == 0 ? FrameBatch.LEFT_EYE_RECOGNIZED : (byte) (FrameBatch.LEFT_EYE_RECOGNIZED | FrameBatch.RIGHT_EYE_RECOGNIZED);
+        }
+        return new FrameBatch(timestampsMillis, leftEyeOpenProbabilities, rightEyeOpenProbabilities, landmarkFlags);
+    }
+}
@@ -0,0 +1,25 @@
+package de.drowsydriveralarm.eventproducer;
+
+import de.drowsydriveralarm.FrameFeatures;
+
+public class FrameFeaturesHelper {
+
+    static FrameFeatures createFeaturesWithEyesClosed(final long timestampMillis) {
+        return createFeatures(timestampMillis, 0.4f, 0.4f);
+    }
+
+    static FrameFeatures createFeaturesWithEyesOpened(final long timestampMillis) {
+        return createFeatures(timestampMillis, 0.8f, 0.8f);
+    }
+
+    static FrameFeatures createFeatures(final long timestampMillis, final float leftEyeOpenProbability, final float rightEyeOpenProbability) {
+        return FrameFeatures
+                .builder()
+                .withTimestampMillis(timestampMillis)
+                .withLeftEyeRecognized(true)
+                .withRightEyeRecognized(true)
+                .withLeftEyeOpenProbability(leftEyeOpenProbability)
+                .withRightEyeOpenProbability(rightEyeOpenProbability)
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.eventbus.EventBus;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.drowsydriveralarm.EventListener;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.HeadNodEvent;
+import de.drowsydriveralarm.event.HeadSlumpEvent;
+import de.drowsydriveralarm.event.UpdateEvent;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class HeadPoseEventProducerTest {
+
+    private static final float FACE_HEIGHT = 100;
+    private static final long FRAME_MILLIS = 100;
+
+    private EventListener listener;
+    private HeadPoseEventProducer producer;
+    private long nowMillis;
+
+    @Before
+    public void setup() {
+        final EventBus eventBus = new EventBus();
+        this.listener = new EventListener();
+        eventBus.register(this.listener);
+        this.producer = new HeadPoseEventProducer(eventBus);
+    }
+
+    @Test
+    public void shouldDetectNod() {
+        // Given
+        this.receiveFrames(20, 0, 0, 0);
+
+        // When
+        final long nodMillis = this.nowMillis;
+        this.receiveFrames(5, 30, 0, 0);
+        this.receiveFrames(5, 0, 0, 0);
+
+        // Then
+        assertThat(this.listener.getEvents(), contains((Event) new HeadNodEvent(new Instant(nodMillis), new Duration(500))));
+    }
+
+    @Test
+    public void shouldDetectSlumpOnceAndNoNod() {
+        // Given
+        this.receiveFrames(20, 0, 0, 0);
+
+        // When
+        final long slumpMillis = this.nowMillis;
+        this.receiveFrames(30, 0, 25, 0);
+        this.receiveFrames(5, 0, 0, 0);
+
+        // Then
+        assertThat(this.listener.getEvents(), contains((Event) new HeadSlumpEvent(new Instant(slumpMillis), new Duration(2000))));
+    }
+
+    @Test
+    public void shouldDetectNodAfterPostureShift() {
+        // Given
+        // e.g. the seat reclined: a slump at first, then the new resting pose
+        this.receiveFrames(20, 0, 0, 0);
+        final long shiftMillis = this.nowMillis;
+        this.receiveFrames(150, 20, 0, 0);
+
+        // When
+        final long nodMillis = this.nowMillis;
+        this.receiveFrames(5, 50, 0, 0);
+        this.receiveFrames(5, 20, 0, 0);
+
+        // Then
+        assertThat(
+                this.listener.getEvents(),
+                contains(
+                        (Event) new HeadSlumpEvent(new Instant(shiftMillis), new Duration(2000)),
+                        new HeadNodEvent(new Instant(nodMillis), new Duration(500))));
+    }
+
+    @Test
+    public void shouldFollowRestingPose() {
+        // Given
+        this.receiveFrames(20, 0, 0, 0);
+
+        // When
+        for (int y = 2; y <= 40; y += 2) {
+            this.receiveFrames(5, y, 0, 0);
+        }
+
+        // Then
+        assertThat(this.listener.getEvents(), empty());
+    }
+
+    @Test
+    public void shouldIgnoreTurnedHead() {
+        // Given
+        this.receiveFrames(20, 0, 0, 0);
+
+        // When
+        this.receiveFrames(5, 30, 0, 45);
+        this.receiveFrames(5, 0, 0, 0);
+
+        // Then
+        assertThat(this.listener.getEvents(), empty());
+    }
+
+    private void receiveFrames(final int frames, final float faceCenterY, final float roll, final float yaw) {
+        for (int frame = 0; frame < frames; frame++) {
+            this.producer.onUpdateEvent(new UpdateEvent(this.createFeatures(faceCenterY, roll, yaw)));
+            this.nowMillis += FRAME_MILLIS;
+        }
+    }
+
+    private FrameFeatures createFeatures(final float faceCenterY, final float roll, final float yaw) {
+        return FrameFeatures
+                .builder()
+                .withTimestampMillis(this.nowMillis)
+                .withFaceCenterY(faceCenterY)
+                .withFaceHeight(FACE_HEIGHT)
+                .withHeadRoll(roll)
+                .withHeadYaw(yaw)
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.eventbus.Subscribe;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.DrowsyEvent;
+
+import static de.drowsydriveralarm.eventproducer.FrameBatchHelper.createBatch;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Feeds thousands of synthetic streams through the {@link MultiStreamDrowsyEventDetector}, once by a single shard and
+ * once by a shard per core, and prints the throughput of both.
+ */
+public class MultiStreamDrowsyEventDetectorLoadTest {
+
+    private static final int NUMBER_OF_STREAMS = 2000;
+    private static final int FRAMES_PER_STREAM = 1500;
+    private static final int FRAMES_PER_BATCH = 150;
+
+    @Test
+    public void shouldDetectDrowsinessOfAllStreams() throws InterruptedException {
+        final int cores = Runtime.getRuntime().availableProcessors();
+        for (final int numberOfShards : new int[]{1, cores}) {
+            // Given
+            final AtomicInteger drowsyStreams = new AtomicInteger();
+            final MultiStreamDrowsyEventDetector multiStreamDrowsyEventDetector =
+                    new MultiStreamDrowsyEventDetector(
+                            MultiStreamDrowsyEventDetectorTest.createConfig(),
+                            numberOfShards,
+                            64,
+                            this.createStreamListener(drowsyStreams),
+                            new MockedClock());
+            final FrameBatch[][] batches = this.createBatches();
+
+            // When
+            final long startNanos = System.nanoTime();
+            for (int batch = 0; batch < FRAMES_PER_STREAM / FRAMES_PER_BATCH; batch++) {
+                for (int stream = 0; stream < NUMBER_OF_STREAMS; stream++) {
+                    multiStreamDrowsyEventDetector.submit("stream-" + stream, batches[stream][batch]);
+                }
+            }
+            multiStreamDrowsyEventDetector.shutdown();
+            assertThat(multiStreamDrowsyEventDetector.awaitTermination(60000), is(true));
+            final long elapsedNanos = System.nanoTime() - startNanos;
+
+            // Then
+            assertThat(drowsyStreams.get(), is(NUMBER_OF_STREAMS));
+            System.out.println(
+                    String.format(
+                            "%d shards: %d frames of %d streams in %d ms, %.0f frames/s",
+                            numberOfShards,
+                            NUMBER_OF_STREAMS * FRAMES_PER_STREAM,
+                            NUMBER_OF_STREAMS,
+                            elapsedNanos / 1000000,
+                            NUMBER_OF_STREAMS * FRAMES_PER_STREAM * 1e9 / elapsedNanos));
+        }
+    }
+
+    private FrameBatch[][] createBatches() {
+        final FrameBatch[][] batches = new FrameBatch[NUMBER_OF_STREAMS][FRAMES_PER_STREAM / FRAMES_PER_BATCH];
+        for (int stream = 0; stream < NUMBER_OF_STREAMS; stream++) {
+            for (int batch = 0; batch < batches[stream].length; batch++) {
+                batches[stream][batch] = createBatch(batch * FRAMES_PER_BATCH, FRAMES_PER_BATCH, 1 + stream % 3);
+            }
+        }
+        return batches;
+    }
+
+    private MultiStreamDrowsyEventDetector.StreamListener createStreamListener(final AtomicInteger drowsyStreams) {
+        return new MultiStreamDrowsyEventDetector.StreamListener() {
+
+            @Override
+            public void onStreamOpened(final String streamId, final DrowsyEventDetector drowsyEventDetector) {
+                drowsyEventDetector.getEventBus().register(new Object() {
+
+                    private boolean drowsy;
+
+                    @Subscribe
+                    public void onDrowsyEvent(final DrowsyEvent drowsyEvent) {
+                        if (!this.drowsy) {
+                            this.drowsy = true;
+                            drowsyStreams.incrementAndGet();
+                        }
+                    }
+                });
+            }
+
+            @Override
+            public void onStreamFailed(final String streamId, final RuntimeException exception) {
+                throw exception;
+            }
+        };
+    }
+}
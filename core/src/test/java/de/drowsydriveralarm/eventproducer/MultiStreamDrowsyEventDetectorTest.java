@@ -0,0 +1,183 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.eventbus.Subscribe;
+
+import org.joda.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.drowsydriveralarm.EventListener;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.DrowsyEventBase;
+import de.drowsydriveralarm.event.Event;
+
+import static de.drowsydriveralarm.eventproducer.FrameBatchHelper.createBatch;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class MultiStreamDrowsyEventDetectorTest {
+
+    private static final int FRAMES = 3000;
+    private static final int FRAMES_PER_BATCH = 300;
+
+    private final ConcurrentMap<String, EventListener> listeners = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Thread>> threads = new ConcurrentHashMap<>();
+    private final List<String> openedStreams = Collections.synchronizedList(new ArrayList<String>());
+    private final List<String> failedStreams = Collections.synchronizedList(new ArrayList<String>());
+    private MultiStreamDrowsyEventDetector multiStreamDrowsyEventDetector;
+
+    @Before
+    public void setup() {
+        this.multiStreamDrowsyEventDetector = new MultiStreamDrowsyEventDetector(createConfig(), 2, 4, this.createStreamListener(), new MockedClock());
+    }
+
+    @After
+    public void shutdown() throws InterruptedException {
+        this.multiStreamDrowsyEventDetector.shutdown();
+        this.multiStreamDrowsyEventDetector.awaitTermination(10000);
+    }
+
+    @Test
+    public void shouldDetectEveryStreamLikeASingleDetector() throws InterruptedException {
+        // Given
+        final String[] streamIds = {"truck-1", "truck-2", "truck-3"};
+
+        // When
+        for (int firstFrame = 0; firstFrame < FRAMES; firstFrame += FRAMES_PER_BATCH) {
+            for (int closureGrowth = 0; closureGrowth < streamIds.length; closureGrowth++) {
+                this.multiStreamDrowsyEventDetector.submit(streamIds[closureGrowth], createBatch(firstFrame, FRAMES_PER_BATCH, closureGrowth));
+            }
+        }
+        this.awaitTermination();
+
+        // Then
+        for (int closureGrowth = 0; closureGrowth < streamIds.length; closureGrowth++) {
+            final EventListener listener = new EventListener();
+            final DrowsyEventDetector drowsyEventDetector = new DrowsyEventDetector(createConfig(), new MockedClock());
+            drowsyEventDetector.getEventBus().register(listener);
+            drowsyEventDetector.processBatch(createBatch(0, FRAMES, closureGrowth));
+            assertThat(this.listeners.get(streamIds[closureGrowth]).getEvents(), is(equalTo(listener.getEvents())));
+        }
+        assertThat(this.listeners.get("truck-3").filterEventsBy(DrowsyEventBase.class), is(not(empty())));
+    }
+
+    @Test
+    public void shouldEvaluateEveryStreamByOneThread() throws InterruptedException {
+        // Given
+        final int numberOfStreams = 20;
+
+        // When
+        for (int firstFrame = 0; firstFrame < FRAMES; firstFrame += FRAMES_PER_BATCH) {
+            for (int i = 0; i < numberOfStreams; i++) {
+                this.multiStreamDrowsyEventDetector.submit("car-" + i, createBatch(firstFrame, FRAMES_PER_BATCH, 1));
+            }
+        }
+        this.awaitTermination();
+
+        // Then
+        final Set<Thread> allThreads = new HashSet<>();
+        for (int i = 0; i < numberOfStreams; i++) {
+            assertThat(this.threads.get("car-" + i), hasSize(1));
+            allThreads.addAll(this.threads.get("car-" + i));
+        }
+        assertThat(allThreads, hasSize(2));
+    }
+
+    @Test
+    public void shouldStartOverAfterClosingStream() throws InterruptedException {
+        // Given
+        this.multiStreamDrowsyEventDetector.submit("car", createBatch(0, FRAMES_PER_BATCH, 1));
+
+        // When
+        this.multiStreamDrowsyEventDetector.closeStream("car");
+        this.multiStreamDrowsyEventDetector.submit("car", createBatch(FRAMES_PER_BATCH, FRAMES_PER_BATCH, 1));
+        this.awaitTermination();
+
+        // Then
+        assertThat(this.openedStreams, contains("car", "car"));
+    }
+
+    @Test
+    public void shouldReportFailedStream() throws InterruptedException {
+        // Given
+        this.multiStreamDrowsyEventDetector.submit("broken-car", createBatch(0, FRAMES_PER_BATCH, 1));
+
+        // When
+        this.multiStreamDrowsyEventDetector.submit("broken-car", createBatch(FRAMES_PER_BATCH, FRAMES_PER_BATCH, 1));
+        this.awaitTermination();
+
+        // Then
+        assertThat(this.failedStreams, contains("broken-car", "broken-car"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRejectBatchAfterShutdown() throws InterruptedException {
+        // Given
+        this.multiStreamDrowsyEventDetector.shutdown();
+
+        // When
+        this.multiStreamDrowsyEventDetector.submit("car", createBatch(0, FRAMES_PER_BATCH, 1));
+
+        // Then
+    }
+
+    static DrowsyEventDetectorConfig createConfig() {
+        return DrowsyEventDetectorConfigTestFactory
+                .createConfigBuilder()
+                .withTimeWindow(new Duration(15000))
+                .build();
+    }
+
+    private void awaitTermination() throws InterruptedException {
+        this.multiStreamDrowsyEventDetector.shutdown();
+        assertThat(this.multiStreamDrowsyEventDetector.awaitTermination(10000), is(true));
+    }
+
+    private MultiStreamDrowsyEventDetector.StreamListener createStreamListener() {
+        return new MultiStreamDrowsyEventDetector.StreamListener() {
+
+            @Override
+            public void onStreamOpened(final String streamId, final DrowsyEventDetector drowsyEventDetector) {
+                MultiStreamDrowsyEventDetectorTest.this.openedStreams.add(streamId);
+                if (streamId.startsWith("broken")) {
+                    throw new IllegalStateException(streamId);
+                }
+                final EventListener listener = new EventListener();
+                MultiStreamDrowsyEventDetectorTest.this.listeners.put(streamId, listener);
+                drowsyEventDetector.getEventBus().register(listener);
+                drowsyEventDetector.getEventBus().register(new Object() {
+
+                    @Subscribe
+                    public void recordThread(final Event event) {
+                        recordThreadOf(streamId);
+                    }
+                });
+                recordThreadOf(streamId);
+            }
+
+            @Override
+            public void onStreamFailed(final String streamId, final RuntimeException exception) {
+                MultiStreamDrowsyEventDetectorTest.this.failedStreams.add(streamId);
+            }
+        };
+    }
+
+    private void recordThreadOf(final String streamId) {
+        this.threads.putIfAbsent(streamId, Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>()));
+        this.threads.get(streamId).add(Thread.currentThread());
+    }
+}
@@ -0,0 +1,73 @@
+package de.drowsydriveralarm.eventproducer;
+
+import com.google.common.base.Optional;
+
+import org.joda.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class PerclosTrendTest {
+
+    private static final double DROWSY_THRESHOLD = 0.15;
+
+    private PerclosTrend perclosTrend;
+
+    @Before
+    public void setup() {
+        this.perclosTrend = new PerclosTrend(DROWSY_THRESHOLD, Duration.standardSeconds(60));
+    }
+
+    @Test
+    public void shouldReportRiseReachingThresholdWithinHorizon() {
+        // Given
+        // PERCLOS rises by 0.001 per second and reaches 0.15 after 150 seconds
+        Optional<Duration> timeToDrowsy = Optional.absent();
+        long reportedMillis = 0;
+
+        // When
+        for (long millis = 0; millis < 150000 && !timeToDrowsy.isPresent(); millis += 100) {
+            timeToDrowsy = this.perclosTrend.update(millis, millis / 1000000.0);
+            reportedMillis = millis;
+        }
+
+        // Then
+        assertThat(timeToDrowsy.isPresent(), is(true));
+        assertThat((double) reportedMillis, closeTo(90000, 100));
+        assertThat((double) timeToDrowsy.get().getMillis(), closeTo(60000, 100));
+    }
+
+    @Test
+    public void shouldReportRiseOnce() {
+        // Given
+        int reports = 0;
+
+        // When
+        for (long millis = 0; millis < 150000; millis += 100) {
+            if (this.perclosTrend.update(millis, millis / 1000000.0).isPresent()) {
+                reports++;
+            }
+        }
+
+        // Then
+        assertThat(reports, is(1));
+    }
+
+    @Test
+    public void shouldNotReportConstantPerclos() {
+        for (long millis = 0; millis < 300000; millis += 100) {
+            assertThat(this.perclosTrend.update(millis, 0.1).isPresent(), is(false));
+        }
+    }
+
+    @Test
+    public void shouldNotReportDuringWarmup() {
+        // PERCLOS rises by 0.01 per second
+        for (long millis = 0; millis < 14000; millis += 100) {
+            assertThat(this.perclosTrend.update(millis, millis / 100000.0).isPresent(), is(false));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package de.drowsydriveralarm.eventproducer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+public class TimingWheelTest {
+
+    private TimingWheel<String> timingWheel;
+    private List<String> expired;
+    private TimingWheel.ExpiryListener<String> listener;
+
+    @Before
+    public void setup() {
+        this.timingWheel = new TimingWheel<>(10, 8);
+        this.expired = new ArrayList<>();
+        this.listener = new TimingWheel.ExpiryListener<String>() {
+
+            @Override
+            public void onExpired(final String payload, final long deadlineMillis) {
+                TimingWheelTest.this.expired.add(payload + "@" + deadlineMillis);
+            }
+        };
+    }
+
+    @Test
+    public void shouldNotExpireBeforeDeadline() {
+        // Given
+        this.timingWheel.schedule(500, "a");
+
+        // When
+        this.timingWheel.advanceTo(490, this.listener);
+
+        // Then
+        assertThat(this.expired, empty());
+    }
+
+    @Test
+    public void shouldExpireAtDeadline() {
+        // Given
+        this.timingWheel.schedule(500, "a");
+        this.timingWheel.advanceTo(490, this.listener);
+
+        // When
+        this.timingWheel.advanceTo(500, this.listener);
+
+        // Then
+        assertThat(this.expired, contains("a@500"));
+    }
+
+    @Test
+    public void shouldKeepTimeoutsOfLaterRevolutions() {
+        // Given
+        this.timingWheel.advanceTo(0, this.listener);
+        this.timingWheel.schedule(100, "a");
+        this.timingWheel.schedule(20, "b");
+
+        // When
+        // both share a bucket, 100 is one revolution (8 buckets of 10 milliseconds) after 20
+        this.timingWheel.advanceTo(50, this.listener);
+
+        // Then
+        assertThat(this.expired, contains("b@20"));
+    }
+
+    @Test
+    public void shouldExpireAllTimeoutsAfterLongGap() {
+        // Given
+        this.timingWheel.schedule(100, "a");
+        this.timingWheel.schedule(170, "b");
+        this.timingWheel.schedule(5000, "c");
+
+        // When
+        this.timingWheel.advanceTo(1000, this.listener);
+
+        // Then
+        assertThat(this.expired, contains("a@100", "b@170"));
+    }
+
+    @Test
+    public void shouldNotExpireCancelledTimeout() {
+        // Given
+        this.timingWheel.schedule(500, "a").cancel();
+
+        // When
+        this.timingWheel.advanceTo(600, this.listener);
+
+        // Then
+        assertThat(this.expired, empty());
+    }
+
+    @Test
+    public void shouldExpirePassedDeadlineOnNextTick() {
+        // Given
+        this.timingWheel.schedule(500, "a");
+        this.timingWheel.advanceTo(600, this.listener);
+        this.timingWheel.schedule(550, "b");
+
+        // When
+        this.timingWheel.advanceTo(610, this.listener);
+
+        // Then
+        assertThat(this.expired, contains("a@500", "b@550"));
+    }
+}
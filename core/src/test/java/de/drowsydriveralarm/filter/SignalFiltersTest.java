@@ -0,0 +1,98 @@
+package de.drowsydriveralarm.filter;
+
+import org.joda.time.Duration;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class SignalFiltersTest {
+
+    private static final long FRAME_MILLIS = 33;
+    private static final double OPEN = 0.9;
+    private static final double CLOSED = 0.1;
+    private static final double THRESHOLD = 0.5;
+
+    @Test
+    public void shouldSuppressSingleFrameDip() {
+        for (final String name : new String[]{SignalFilters.EXPONENTIAL_MOVING_AVERAGE, SignalFilters.MEDIAN, SignalFilters.KALMAN}) {
+            // Given
+            final SignalFilter filter = SignalFilters.create(name);
+            this.feed(filter, 0, 10, OPEN);
+
+            // When
+            final double dip = filter.filter(10 * FRAME_MILLIS, CLOSED);
+
+            // Then
+            assertThat(name, dip, greaterThan(THRESHOLD));
+        }
+    }
+
+    @Test
+    public void shouldFollowClosureWithinTwoFrames() {
+        for (final String name : new String[]{SignalFilters.NONE, SignalFilters.EXPONENTIAL_MOVING_AVERAGE, SignalFilters.MEDIAN, SignalFilters.KALMAN}) {
+            // Given
+            final SignalFilter filter = SignalFilters.create(name);
+            this.feed(filter, 0, 10, OPEN);
+
+            // When
+            this.feed(filter, 10, 2, CLOSED);
+            final double closed = filter.filter(12 * FRAME_MILLIS, CLOSED);
+
+            // Then
+            assertThat(name, closed, lessThan(THRESHOLD));
+        }
+    }
+
+    @Test
+    public void shouldTakeMedianOfWindow() {
+        // Given
+        final MedianFilter filter = new MedianFilter(5);
+
+        // When
+        filter.filter(0, 5);
+        filter.filter(1, 1);
+        filter.filter(2, 4);
+        filter.filter(3, 2);
+        final double median = filter.filter(4, 3);
+
+        // Then
+        assertThat(median, is(3.0));
+        assertThat(filter.filter(5, 9), is(3.0));
+    }
+
+    @Test
+    public void shouldWeighByElapsedTime() {
+        // Given
+        final ExponentialMovingAverageFilter filter = new ExponentialMovingAverageFilter(new Duration(100));
+        filter.filter(0, 0);
+
+        // When
+        final double average = filter.filter(100, 1);
+
+        // Then
+        assertThat(average, closeTo(1 - Math.exp(-1), 1e-9));
+    }
+
+    @Test
+    public void shouldStartOverAfterReset() {
+        // Given
+        final KalmanFilter filter = new KalmanFilter(1, 1);
+        filter.filter(0, 0);
+
+        // When
+        filter.reset();
+
+        // Then
+        assertThat(filter.filter(33, 1), is(1.0));
+    }
+
+    private void feed(final SignalFilter filter, final int fromFrame, final int frames, final double value) {
+        for (int frame = fromFrame; frame < fromFrame + frames; frame++) {
+            filter.filter(frame * FRAME_MILLIS, value);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package de.drowsydriveralarm.history;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.EyesClosedEvent;
+
+import static de.drowsydriveralarm.eventproducer.FrameBatchHelper.FRAME_MILLIS;
+import static de.drowsydriveralarm.eventproducer.FrameBatchHelper.createBatch;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class TripStoreTest {
+
+    private static final int SEGMENT_FRAMES = 1000;
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private TripStore tripStore;
+    private FrameBatch batch;
+
+    @Before
+    public void setup() {
+        this.tripStore = new TripStore(this.temporaryFolder.getRoot(), SEGMENT_FRAMES, Duration.standardMinutes(1));
+        this.batch = createBatch(0, 5000, 1);
+    }
+
+    @Test
+    public void shouldReadSliceAcrossSegments() throws IOException {
+        // Given
+        final TripRecorder tripRecorder = this.tripStore.startTrip(42);
+        this.recordFrames(tripRecorder, 0, this.batch.size());
+        tripRecorder.recordEvent(new EyesClosedEvent(new Instant(999 * FRAME_MILLIS)));
+        tripRecorder.recordEvent(new DrowsyEvent(new Instant(1500 * FRAME_MILLIS), 0.2));
+        tripRecorder.recordEvent(new EyesClosedEvent(new Instant(2001 * FRAME_MILLIS)));
+        tripRecorder.close();
+
+        // When
+        final TripSlice tripSlice = this.tripStore.readSlice(42, 1000 * FRAME_MILLIS, 2001 * FRAME_MILLIS);
+
+        // Then
+        assertThat(tripSlice.size(), is(1001));
+        assertThat(tripSlice.getTimestampMillis(0), is(1000 * FRAME_MILLIS));
+        assertThat(tripSlice.getTimestampMillis(1000), is(2000 * FRAME_MILLIS));
+        assertThat(tripSlice.getEvents(), contains((Event) new DrowsyEvent(new Instant(1500 * FRAME_MILLIS), 0.2)));
+        final FrameBatch slicedBatch = tripSlice.toFrameBatch();
+        assertThat(slicedBatch.getTimestampsMillis(), is(Arrays.copyOfRange(this.batch.getTimestampsMillis(), 1000, 2001)));
+        assertThat(slicedBatch.getLeftEyeOpenProbabilities(), is(Arrays.copyOfRange(this.batch.getLeftEyeOpenProbabilities(), 1000, 2001)));
+        assertThat(slicedBatch.getRightEyeOpenProbabilities(), is(Arrays.copyOfRange(this.batch.getRightEyeOpenProbabilities(), 1000, 2001)));
+        assertThat(slicedBatch.getLandmarkFlags(), is(Arrays.copyOfRange(this.batch.getLandmarkFlags(), 1000, 2001)));
+        assertThat(tripSlice.getFrame(500).getHeadYaw(), is(1500f));
+    }
+
+    @Test
+    public void shouldReadSliceBetweenFrames() throws IOException {
+        // Given
+        final TripRecorder tripRecorder = this.tripStore.startTrip(42);
+        this.recordFrames(tripRecorder, 0, this.batch.size());
+        tripRecorder.close();
+
+        // When
+        final TripSlice tripSlice = this.tripStore.readSlice(42, 1000 * FRAME_MILLIS + 1, 1001 * FRAME_MILLIS + 1);
+        final TripSlice emptySlice = this.tripStore.readSlice(42, 1000 * FRAME_MILLIS + 1, 1000 * FRAME_MILLIS + 2);
+        final TripSlice lastSlice = this.tripStore.readSlice(42, 4999 * FRAME_MILLIS, Long.MAX_VALUE);
+
+        // Then
+        assertThat(tripSlice.size(), is(1));
+        assertThat(tripSlice.getTimestampMillis(0), is(1001 * FRAME_MILLIS));
+        assertThat(emptySlice.size(), is(0));
+        assertThat(lastSlice.size(), is(1));
+    }
+
+    @Test
+    public void shouldReadSliceOfTripNotEnded() throws IOException {
+        // Given
+        final TripRecorder tripRecorder = this.tripStore.startTrip(42);
+        this.recordFrames(tripRecorder, 0, 1500);
+
+        // When
+        final TripSlice tripSlice = this.tripStore.readSlice(42, 0, Long.MAX_VALUE);
+
+        // Then
+        assertThat(tripSlice.size(), is(1500));
+        assertThat(tripSlice.getTimestampMillis(1499), is(1499 * FRAME_MILLIS));
+        tripRecorder.close();
+    }
+
+    @Test
+    public void shouldDropFramesOutOfOrder() throws IOException {
+        // Given
+        final TripRecorder tripRecorder = this.tripStore.startTrip(42);
+
+        // When
+        this.recordFrames(tripRecorder, 10, 1);
+        this.recordFrames(tripRecorder, 9, 1);
+        this.recordFrames(tripRecorder, 11, 1);
+        tripRecorder.close();
+
+        // Then
+        assertThat(tripRecorder.getNumberOfFrames(), is(2L));
+        assertThat(tripRecorder.getDroppedFrames(), is(1L));
+        assertThat(this.tripStore.readSlice(42, 0, Long.MAX_VALUE).size(), is(2));
+    }
+
+    @Test
+    public void shouldListAndDeleteTrips() throws IOException {
+        // Given
+        this.tripStore.startTrip(2000).close();
+        this.tripStore.startTrip(1000).close();
+
+        // When
+        this.tripStore.deleteTrip(2000);
+
+        // Then
+        assertThat(this.tripStore.getTrips(), contains(1000L));
+        this.tripStore.deleteTrip(1000);
+        assertThat(this.tripStore.getTrips(), is(empty()));
+    }
+
+    private void recordFrames(final TripRecorder tripRecorder, final int firstFrame, final int frames) {
+        for (int i = firstFrame; i < firstFrame + frames; i++) {
+            tripRecorder.recordFrame(
+                    FrameFeatures
+                            .builder()
+                            .withTimestampMillis(this.batch.getTimestampsMillis()[i])
+                            .withLeftEyeRecognized((this.batch.getLandmarkFlags()[i] & FrameBatch.LEFT_EYE_RECOGNIZED) != 0)
+                            .withRightEyeRecognized((this.batch.getLandmarkFlags()[i] & FrameBatch.RIGHT_EYE_RECOGNIZED) != 0)
+                            .withLeftEyeOpenProbability(this.batch.getLeftEyeOpenProbabilities()[i])
+                            .withRightEyeOpenProbability(this.batch.getRightEyeOpenProbabilities()[i])
+                            .withHeadYaw(i)
+                            .build());
+        }
+    }
+}
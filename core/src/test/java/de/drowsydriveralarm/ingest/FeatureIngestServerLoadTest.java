@@ -0,0 +1,136 @@
+package de.drowsydriveralarm.ingest;
+
+import com.google.common.eventbus.Subscribe;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.EyesClosedEvent;
+import de.drowsydriveralarm.event.EyesOpenedEvent;
+import de.drowsydriveralarm.eventproducer.DrowsyEventDetector;
+import de.drowsydriveralarm.eventproducer.MultiStreamDrowsyEventDetector;
+
+import static de.drowsydriveralarm.eventproducer.FrameBatchHelper.createBatch;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Connects many head units by the {@link LoopbackClientSimulator} and prints the throughput of the
+ * {@link FeatureIngestServer} and the 99th percentile of the latency from sending a frame until the detector posts
+ * its eyes opened or closed event. Run by {@code gradlew :core:loadTest}, not part of {@code check}, with 100 head
+ * units by default. The full load are 10000 head units by {@code -Dingest.connections=10000}, each one a connection on
+ * both ends, so the limit of open files must exceed 20000 then.
+ */
+public class FeatureIngestServerLoadTest {
+
+    private static final int ROUNDS = 100;
+
+    private final LatencyRecorder latencyRecorder = new LatencyRecorder();
+
+    @Test
+    public void shouldReceiveAllFramesOfManyConnections() throws IOException, InterruptedException {
+        // Given
+        final int connections = Integer.getInteger("ingest.connections", 100);
+        final MultiStreamDrowsyEventDetector multiStreamDrowsyEventDetector =
+                new MultiStreamDrowsyEventDetector(
+                        FeatureIngestServerTest.createConfig(),
+                        Runtime.getRuntime().availableProcessors(),
+                        1024,
+                        this.createStreamListener(),
+                        new MockedClock());
+        final FeatureIngestServer server =
+                new FeatureIngestServer(
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                        multiStreamDrowsyEventDetector,
+                        new DirectBufferPool(4096, 256));
+        server.start();
+        final LoopbackClientSimulator simulator = new LoopbackClientSimulator(server.getLocalAddress(), connections);
+        final FrameBatch batch = createBatch(0, ROUNDS, 1);
+
+        // When
+        final long startNanos = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            simulator.sendRound(batch, round);
+        }
+        final long frames = (long) connections * ROUNDS;
+        for (int i = 0; i < 6000 && server.getReceivedFrames() < frames; i++) {
+            Thread.sleep(10);
+        }
+        final long elapsedNanos = System.nanoTime() - startNanos;
+
+        // Then
+        assertThat(server.getReceivedFrames(), is(frames));
+        assertThat(server.getProtocolErrors(), is(0L));
+        simulator.close();
+        server.close();
+        multiStreamDrowsyEventDetector.shutdown();
+        assertThat(multiStreamDrowsyEventDetector.awaitTermination(60000), is(true));
+        assertThat(this.latencyRecorder.size(), is(greaterThan(0)));
+        System.out.println(
+                String.format(
+                        "%d connections: %d frames in %d ms, %.0f frames/s, p99 latency %d ms",
+                        connections,
+                        frames,
+                        elapsedNanos / 1000000,
+                        frames * 1e9 / elapsedNanos,
+                        this.latencyRecorder.getPercentile(0.99)));
+    }
+
+    private MultiStreamDrowsyEventDetector.StreamListener createStreamListener() {
+        return new MultiStreamDrowsyEventDetector.StreamListener() {
+
+            @Override
+            public void onStreamOpened(final String streamId, final DrowsyEventDetector drowsyEventDetector) {
+                drowsyEventDetector.getEventBus().register(new Object() {
+
+                    @Subscribe
+                    public void onEyesOpenedEvent(final EyesOpenedEvent event) {
+                        FeatureIngestServerLoadTest.this.latencyRecorder.record(event);
+                    }
+
+                    @Subscribe
+                    public void onEyesClosedEvent(final EyesClosedEvent event) {
+                        FeatureIngestServerLoadTest.this.latencyRecorder.record(event);
+                    }
+                });
+            }
+
+            @Override
+            public void onStreamFailed(final String streamId, final RuntimeException exception) {
+                throw exception;
+            }
+        };
+    }
+
+    private static class LatencyRecorder {
+
+        private long[] latenciesMillis = new long[1024];
+        private int size;
+
+        // the event is at the timestamp of the frame, which is the time it was sent
+        synchronized void record(final Event event) {
+            if (this.size == this.latenciesMillis.length) {
+                this.latenciesMillis = Arrays.copyOf(this.latenciesMillis, 2 * this.latenciesMillis.length);
+            }
+            this.latenciesMillis[this.size++] = System.currentTimeMillis() - event.getInstant().getMillis();
+        }
+
+        synchronized int size() {
+            return this.size;
+        }
+
+        synchronized long getPercentile(final double percentile) {
+            final long[] sorted = Arrays.copyOf(this.latenciesMillis, this.size);
+            Arrays.sort(sorted);
+            return sorted[(int) Math.min(sorted.length - 1, Math.floor(percentile * sorted.length))];
+        }
+    }
+}
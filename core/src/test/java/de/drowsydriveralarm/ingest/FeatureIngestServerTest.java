@@ -0,0 +1,292 @@
+package de.drowsydriveralarm.ingest;
+
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.joda.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import de.drowsydriveralarm.EventListener;
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.eventproducer.DrowsyEventDetector;
+import de.drowsydriveralarm.eventproducer.DrowsyEventDetectorConfig;
+import de.drowsydriveralarm.eventproducer.DrowsyEventDetectorConfigTestFactory;
+import de.drowsydriveralarm.eventproducer.MultiStreamDrowsyEventDetector;
+
+import static de.drowsydriveralarm.eventproducer.FrameBatchHelper.createBatch;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+
+public class FeatureIngestServerTest {
+
+    private static final int FRAMES = 3000;
+
+    private final ConcurrentMap<String, EventListener> listeners = new ConcurrentHashMap<>();
+    private MultiStreamDrowsyEventDetector multiStreamDrowsyEventDetector;
+    private DirectBufferPool bufferPool;
+    private FeatureIngestServer server;
+
+    @Before
+    public void setup() throws IOException {
+        this.multiStreamDrowsyEventDetector = new MultiStreamDrowsyEventDetector(createConfig(), 2, 16, this.createStreamListener(), new MockedClock());
+        this.bufferPool = new DirectBufferPool(4096, 16);
+        this.server = new FeatureIngestServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), this.multiStreamDrowsyEventDetector, this.bufferPool);
+        this.server.start();
+    }
+
+    @After
+    public void shutdown() throws InterruptedException {
+        this.server.close();
+        this.multiStreamDrowsyEventDetector.shutdown();
+        this.multiStreamDrowsyEventDetector.awaitTermination(10000);
+    }
+
+    @Test
+    public void shouldDetectLikeASingleDetector() throws IOException, InterruptedException {
+        // Given
+        final FrameBatch batch = createBatch(0, FRAMES, 1);
+        final SocketChannel channel = SocketChannel.open(this.server.getLocalAddress());
+
+        // When
+        final ByteBuffer buffer = ByteBuffer.allocate(FRAMES * 20 + 100);
+        FeatureRecordProtocol.putHello(buffer, "truck");
+        for (int i = 0; i < FRAMES; i++) {
+            FeatureRecordProtocol.putFrame(buffer, batch.getTimestampsMillis()[i], batch.getLeftEyeOpenProbabilities()[i], batch.getRightEyeOpenProbabilities()[i], batch.getLandmarkFlags()[i]);
+        }
+        write(channel, buffer);
+        this.awaitReceivedFrames(FRAMES);
+        channel.close();
+        this.awaitDetection();
+
+        // Then
+        final EventListener listener = new EventListener();
+        final DrowsyEventDetector drowsyEventDetector = new DrowsyEventDetector(createConfig(), new MockedClock());
+        drowsyEventDetector.getEventBus().register(listener);
+        drowsyEventDetector.processBatch(createBatch(0, FRAMES, 1));
+        assertThat(this.listeners.get("truck").getEvents(), is(equalTo(listener.getEvents())));
+        assertThat(listener.filterEventsBy(DrowsyEvent.class), is(not(empty())));
+    }
+
+    @Test
+    public void shouldReceiveRecordsSplitAcrossReads() throws IOException, InterruptedException {
+        // Given
+        final SocketChannel channel = SocketChannel.open(this.server.getLocalAddress());
+        channel.socket().setTcpNoDelay(true);
+        final ByteBuffer buffer = ByteBuffer.allocate(100);
+        FeatureRecordProtocol.putHello(buffer, "car");
+        FeatureRecordProtocol.putFrame(buffer, 0, 0.9f, 0.9f, (byte) 3);
+        FeatureRecordProtocol.putFrame(buffer, 33, 0.9f, 0.9f, (byte) 3);
+        buffer.flip();
+
+        // When
+        while (buffer.hasRemaining()) {
+            channel.write(ByteBuffer.wrap(new byte[]{buffer.get()}));
+            Thread.sleep(1);
+        }
+        this.awaitReceivedFrames(2);
+
+        // Then
+        assertThat(this.server.getProtocolErrors(), is(0L));
+        assertThat(this.bufferPool.getAllocatedBuffers(), is(lessThanOrEqualTo(2L)));
+        channel.close();
+    }
+
+    @Test
+    public void shouldCloseConnectionViolatingProtocol() throws IOException, InterruptedException {
+        // Given
+        final SocketChannel channel = SocketChannel.open(this.server.getLocalAddress());
+        final ByteBuffer buffer = ByteBuffer.allocate(100);
+
+        // When
+        FeatureRecordProtocol.putFrame(buffer, 0, 0.9f, 0.9f, (byte) 3);
+        write(channel, buffer);
+
+        // Then
+        assertThat(channel.read(ByteBuffer.allocate(1)), is(-1));
+        assertThat(this.server.getProtocolErrors(), is(1L));
+        assertThat(this.server.getReceivedFrames(), is(0L));
+    }
+
+    @Test
+    public void shouldKeepServingAfterConnectionsResetBeforeAccept() throws IOException, InterruptedException {
+        // Given
+        for (int i = 0; i < 20; i++) {
+            final SocketChannel resetChannel = SocketChannel.open(this.server.getLocalAddress());
+            resetChannel.socket().setSoLinger(true, 0);
+            resetChannel.close();
+        }
+
+        // When
+        final SocketChannel channel = SocketChannel.open(this.server.getLocalAddress());
+        final ByteBuffer buffer = ByteBuffer.allocate(100);
+        FeatureRecordProtocol.putHello(buffer, "van");
+        FeatureRecordProtocol.putFrame(buffer, 0, 0.9f, 0.9f, (byte) 3);
+        write(channel, buffer);
+
+        // Then
+        this.awaitReceivedFrames(1);
+        assertThat(this.server.getProtocolErrors(), is(0L));
+        channel.close();
+    }
+
+    @Test
+    public void shouldReceiveFramesOfLongestVehicleId() throws IOException, InterruptedException {
+        // Given
+        final String vehicleId = Strings.repeat("v", FeatureRecordProtocol.MAX_VEHICLE_ID_BYTES);
+        final SocketChannel channel = SocketChannel.open(this.server.getLocalAddress());
+        final ByteBuffer buffer = ByteBuffer.allocate(FeatureRecordProtocol.MAX_RECORD_BYTES + 100);
+
+        // When
+        FeatureRecordProtocol.putHello(buffer, vehicleId);
+        FeatureRecordProtocol.putFrame(buffer, 0, 0.9f, 0.9f, (byte) 3);
+        write(channel, buffer);
+
+        // Then
+        this.awaitReceivedFrames(1);
+        assertThat(this.server.getProtocolErrors(), is(0L));
+        channel.close();
+    }
+
+    @Test
+    public void shouldServeOtherVehiclesWhileShardOfOneIsBusy() throws IOException, InterruptedException {
+        // Given
+        // the shard of the truck hangs in opening its stream, its queue takes one batch
+        final String stalledVehicleId = "truck";
+        final String vehicleId = findVehicleIdOfOtherShard(stalledVehicleId, 2);
+        final CountDownLatch shardReleased = new CountDownLatch(1);
+        final MultiStreamDrowsyEventDetector multiStreamDrowsyEventDetector = new MultiStreamDrowsyEventDetector(createConfig(), 2, 1, this.createStreamListener(stalledVehicleId, shardReleased), new MockedClock());
+        final FeatureIngestServer server = new FeatureIngestServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), multiStreamDrowsyEventDetector, new DirectBufferPool(4096, 16));
+        server.start();
+        try {
+            final SocketChannel stalledChannel = SocketChannel.open(server.getLocalAddress());
+            writeFrames(stalledChannel, stalledVehicleId, 0, 10);
+            awaitReceivedFrames(server, 10);
+            writeFrames(stalledChannel, null, 10, 10);
+            awaitReceivedFrames(server, 20);
+            writeFrames(stalledChannel, null, 20, 10);
+            for (int i = 0; i < 1000 && server.getPausedReads() == 0; i++) {
+                Thread.sleep(10);
+            }
+
+            // When
+            final SocketChannel channel = SocketChannel.open(server.getLocalAddress());
+            writeFrames(channel, vehicleId, 0, 10);
+
+            // Then
+            awaitReceivedFrames(server, 30);
+            assertThat(server.getPausedReads(), is(1L));
+            shardReleased.countDown();
+            awaitReceivedFrames(server, 40);
+            stalledChannel.close();
+            channel.close();
+        } finally {
+            shardReleased.countDown();
+            server.close();
+            multiStreamDrowsyEventDetector.shutdown();
+            multiStreamDrowsyEventDetector.awaitTermination(10000);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectVehicleIdTooLong() {
+        FeatureRecordProtocol.putHello(ByteBuffer.allocate(1024), Strings.repeat("v", FeatureRecordProtocol.MAX_VEHICLE_ID_BYTES + 1));
+    }
+
+    static DrowsyEventDetectorConfig createConfig() {
+        return DrowsyEventDetectorConfigTestFactory
+                .createConfigBuilder()
+                .withTimeWindow(new Duration(15000))
+                .build();
+    }
+
+    static void write(final SocketChannel channel, final ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    // the hello first if the vehicle id is given
+    private static void writeFrames(final SocketChannel channel, final String vehicleId, final int firstFrame, final int numberOfFrames) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(numberOfFrames * 20 + 100);
+        if (vehicleId != null) {
+            FeatureRecordProtocol.putHello(buffer, vehicleId);
+        }
+        for (int i = firstFrame; i < firstFrame + numberOfFrames; i++) {
+            FeatureRecordProtocol.putFrame(buffer, i * 33, 0.9f, 0.9f, (byte) 3);
+        }
+        write(channel, buffer);
+    }
+
+    // by the shard index of the MultiStreamDrowsyEventDetector
+    private static String findVehicleIdOfOtherShard(final String vehicleId, final int numberOfShards) {
+        final int shard = (vehicleId.hashCode() & Integer.MAX_VALUE) % numberOfShards;
+        for (int i = 0; ; i++) {
+            final String otherVehicleId = "car-" + i;
+            if ((otherVehicleId.hashCode() & Integer.MAX_VALUE) % numberOfShards != shard) {
+                return otherVehicleId;
+            }
+        }
+    }
+
+    private void awaitReceivedFrames(final long frames) throws InterruptedException {
+        awaitReceivedFrames(this.server, frames);
+    }
+
+    private static void awaitReceivedFrames(final FeatureIngestServer server, final long frames) throws InterruptedException {
+        for (int i = 0; i < 1000 && server.getReceivedFrames() < frames; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(server.getReceivedFrames(), is(frames));
+    }
+
+    // after the server closed the streams
+    private void awaitDetection() throws InterruptedException {
+        for (int i = 0; i < 1000 && this.server.getConnections() > 0; i++) {
+            Thread.sleep(10);
+        }
+        this.multiStreamDrowsyEventDetector.shutdown();
+        assertThat(this.multiStreamDrowsyEventDetector.awaitTermination(10000), is(true));
+    }
+
+    private MultiStreamDrowsyEventDetector.StreamListener createStreamListener() {
+        return this.createStreamListener(null, new CountDownLatch(0));
+    }
+
+    // the thread of the shard of the stalled stream waits for being released when opening that stream
+    private MultiStreamDrowsyEventDetector.StreamListener createStreamListener(final String stalledStreamId, final CountDownLatch shardReleased) {
+        return new MultiStreamDrowsyEventDetector.StreamListener() {
+
+            @Override
+            public void onStreamOpened(final String streamId, final DrowsyEventDetector drowsyEventDetector) {
+                final EventListener listener = new EventListener();
+                FeatureIngestServerTest.this.listeners.put(streamId, listener);
+                drowsyEventDetector.getEventBus().register(listener);
+                if (streamId.equals(stalledStreamId)) {
+                    Uninterruptibles.awaitUninterruptibly(shardReleased);
+                }
+            }
+
+            @Override
+            public void onStreamFailed(final String streamId, final RuntimeException exception) {
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package de.drowsydriveralarm.ingest;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import de.drowsydriveralarm.FrameBatch;
+
+/**
+ * Head units connected to a {@link FeatureIngestServer} on the loopback interface, sending their frames round by
+ * round, one frame per head unit and round.
+ */
+class LoopbackClientSimulator {
+
+    private final SocketChannel[] channels;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    LoopbackClientSimulator(final SocketAddress address, final int numberOfHeadUnits) throws IOException {
+        this.channels = new SocketChannel[numberOfHeadUnits];
+        for (int i = 0; i < numberOfHeadUnits; i++) {
+            this.channels[i] = SocketChannel.open(address);
+            this.channels[i].socket().setTcpNoDelay(true);
+            this.buffer.clear();
+            FeatureRecordProtocol.putHello(this.buffer, getVehicleId(i));
+            this.write(this.channels[i]);
+        }
+    }
+
+    static String getVehicleId(final int headUnit) {
+        return "vehicle-" + headUnit;
+    }
+
+    /**
+     * Sends frame {@code frame} of the batch by every head unit, timestamped by now.
+     */
+    void sendRound(final FrameBatch batch, final int frame) throws IOException {
+        for (final SocketChannel channel : this.channels) {
+            this.buffer.clear();
+            FeatureRecordProtocol.putFrame(
+                    this.buffer,
+                    System.currentTimeMillis(),
+                    batch.getLeftEyeOpenProbabilities()[frame],
+                    batch.getRightEyeOpenProbabilities()[frame],
+                    batch.getLandmarkFlags()[frame]);
+            this.write(channel);
+        }
+    }
+
+    void close() throws IOException {
+        for (final SocketChannel channel : this.channels) {
+            channel.close();
+        }
+    }
+
+    private void write(final SocketChannel channel) throws IOException {
+        this.buffer.flip();
+        while (this.buffer.hasRemaining()) {
+            channel.write(this.buffer);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package de.drowsydriveralarm.journal;
+
+import com.google.common.collect.ImmutableList;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.event.AppActiveEvent;
+import de.drowsydriveralarm.event.AppIdleEvent;
+import de.drowsydriveralarm.event.AwakeEvent;
+import de.drowsydriveralarm.event.DetectorResumedEvent;
+import de.drowsydriveralarm.event.DetectorStalledEvent;
+import de.drowsydriveralarm.event.DrowsinessTrendEvent;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.EyesClosedEvent;
+import de.drowsydriveralarm.event.EyesOpenedEvent;
+import de.drowsydriveralarm.event.HeadNodEvent;
+import de.drowsydriveralarm.event.HeadSlumpEvent;
+import de.drowsydriveralarm.event.LikelyDrowsyEvent;
+import de.drowsydriveralarm.event.NormalEyeBlinkEvent;
+import de.drowsydriveralarm.event.PendingSlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.UpdateEvent;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+public class EventJournalTest {
+
+    private static final Duration FLUSH_INTERVAL = Duration.standardMinutes(1);
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldReadEventsAsWritten() throws IOException {
+        // Given
+        final File file = this.temporaryFolder.newFile();
+        final EventJournalWriter writer = new EventJournalWriter(file, 1024 * 1024, FLUSH_INTERVAL);
+        final List<Event> events = createEvents(new Instant(1500000000000L));
+
+        // When
+        record(writer, events);
+        writer.close();
+
+        // Then
+        assertThat(EventJournalReader.readAll(file), is(equalTo(events)));
+        assertThat(file.length(), is(lessThan(getToStringLength(events) / 4)));
+    }
+
+    @Test
+    public void shouldSkipUpdateEvents() throws IOException {
+        // Given
+        final File file = this.temporaryFolder.newFile();
+        final EventJournalWriter writer = new EventJournalWriter(file, 1024 * 1024, FLUSH_INTERVAL);
+
+        // When
+        writer.recordEvent(new UpdateEvent(FrameFeatures.builder().withTimestampMillis(1000).build()));
+        writer.recordEvent(new EyesClosedEvent(new Instant(2000)));
+        writer.close();
+
+        // Then
+        assertThat(EventJournalReader.readAll(file), contains((Event) new EyesClosedEvent(new Instant(2000))));
+    }
+
+    @Test
+    public void shouldAppendSessions() throws IOException {
+        // Given
+        final File file = this.temporaryFolder.newFile();
+        final EventJournalWriter writer = new EventJournalWriter(file, 1024 * 1024, FLUSH_INTERVAL);
+        writer.recordEvent(new EyesClosedEvent(new Instant(5000)));
+        writer.close();
+
+        // When
+        final EventJournalWriter reopenedWriter = new EventJournalWriter(file, 1024 * 1024, FLUSH_INTERVAL);
+        reopenedWriter.recordEvent(new EyesOpenedEvent(new Instant(3000)));
+        reopenedWriter.close();
+
+        // Then
+        assertThat(EventJournalReader.readAll(file), contains(new EyesClosedEvent(new Instant(5000)), (Event) new EyesOpenedEvent(new Instant(3000))));
+    }
+
+    @Test
+    public void shouldEndAtTornRecord() throws IOException {
+        // Given
+        final File file = this.temporaryFolder.newFile();
+        final EventJournalWriter writer = new EventJournalWriter(file, 1024 * 1024, FLUSH_INTERVAL);
+        writer.recordEvent(new EyesClosedEvent(new Instant(5000)));
+        writer.close();
+
+        // When
+        final FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            // a drowsy event missing most of its PERCLOS
+            out.write(new byte[]{EventJournalFormat.DROWSY, 2, 0x3f});
+        } finally {
+            out.close();
+        }
+
+        // Then
+        assertThat(EventJournalReader.readAll(file), contains((Event) new EyesClosedEvent(new Instant(5000))));
+    }
+
+    @Test
+    public void shouldCutOffTornRecordBeforeAppendingSession() throws IOException {
+        // Given
+        final File file = this.temporaryFolder.newFile();
+        final EventJournalWriter writer = new EventJournalWriter(file, 1024 * 1024, FLUSH_INTERVAL);
+        writer.recordEvent(new EyesClosedEvent(new Instant(5000)));
+        writer.close();
+        final FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            out.write(new byte[]{EventJournalFormat.DROWSY, 2, 0x3f});
+        } finally {
+            out.close();
+        }
+
+        // When
+        final EventJournalWriter reopenedWriter = new EventJournalWriter(file, 1024 * 1024, FLUSH_INTERVAL);
+        reopenedWriter.recordEvent(new EyesOpenedEvent(new Instant(3000)));
+        reopenedWriter.close();
+
+        // Then
+        assertThat(EventJournalReader.readAll(file), contains(new EyesClosedEvent(new Instant(5000)), (Event) new EyesOpenedEvent(new Instant(3000))));
+    }
+
+    @Test
+    public void shouldStartOverIfNotAJournal() throws IOException {
+        // Given
+        final File file = this.temporaryFolder.newFile();
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[]{1, 2, 3, 4, 5});
+        } finally {
+            out.close();
+        }
+
+        // When
+        final EventJournalWriter writer = new EventJournalWriter(file, 1024 * 1024, FLUSH_INTERVAL);
+        writer.recordEvent(new EyesOpenedEvent(new Instant(3000)));
+        writer.close();
+
+        // Then
+        assertThat(EventJournalReader.readAll(file), contains((Event) new EyesOpenedEvent(new Instant(3000))));
+    }
+
+    @Test
+    public void shouldStartOverIfExceedingMaxBytes() throws IOException {
+        // Given
+        final File file = this.temporaryFolder.newFile();
+        final EventJournalWriter writer = new EventJournalWriter(file, 64, FLUSH_INTERVAL);
+        record(writer, createEvents(new Instant(0)));
+        writer.close();
+
+        // When
+        final EventJournalWriter reopenedWriter = new EventJournalWriter(file, 64, FLUSH_INTERVAL);
+        reopenedWriter.recordEvent(new EyesOpenedEvent(new Instant(3000)));
+        reopenedWriter.close();
+
+        // Then
+        assertThat(EventJournalReader.readAll(file), contains((Event) new EyesOpenedEvent(new Instant(3000))));
+    }
+
+    @Test
+    public void shouldFlushWhenBufferIsFull() throws IOException {
+        // Given
+        final File file = this.temporaryFolder.newFile();
+        final EventJournalWriter writer = new EventJournalWriter(file, 1024 * 1024, FLUSH_INTERVAL);
+        final List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            events.add(new DrowsyEvent(new Instant(33L * i), i / 10000.0));
+        }
+
+        // When
+        record(writer, events);
+        writer.close();
+
+        // Then
+        assertThat(EventJournalReader.readAll(file), is(equalTo(events)));
+        assertThat(writer.getFailedFlushes(), is(0L));
+    }
+
+    @Test
+    public void shouldWriteFullBufferInBackground() throws IOException, InterruptedException {
+        // Given
+        final File file = this.temporaryFolder.newFile();
+        final EventJournalWriter writer = new EventJournalWriter(file, 1024 * 1024, FLUSH_INTERVAL);
+        final List<Event> events = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            events.add(new DrowsyEvent(new Instant(33L * i), i / 2000.0));
+        }
+
+        // When
+        record(writer, events);
+        for (int i = 0; i < 500 && file.length() == 0; i++) {
+            Thread.sleep(10);
+        }
+
+        // Then
+        // the first buffer, long before the flush interval
+        assertThat(file.length(), is(greaterThan(0L)));
+        writer.close();
+        assertThat(EventJournalReader.readAll(file), is(equalTo(events)));
+    }
+
+    // every journaled event class, partly out of order
+    private static List<Event> createEvents(final Instant start) {
+        final Duration duration = new Duration(250);
+        return ImmutableList.of(
+                new EyesOpenedEvent(start),
+                new EyesClosedEvent(start.plus(1200)),
+                new NormalEyeBlinkEvent(start.plus(1400), duration),
+                new SlowEyelidClosureEvent(start.plus(3000), new Duration(900)),
+                new PendingSlowEyelidClosureEvent(start.plus(2800), new Duration(700)),
+                new AwakeEvent(start.plus(4000), 0.05),
+                new LikelyDrowsyEvent(start.plus(5000), 0.12),
+                new DrowsyEvent(start.plus(6000), 0.2),
+                new DrowsinessTrendEvent(start.plus(6500), 0.1, Duration.standardMinutes(3)),
+                new AppActiveEvent(start.plus(7000), Duration.standardHours(1)),
+                new AppIdleEvent(start.plus(8000), duration),
+                new DetectorStalledEvent(start.plus(9000), duration),
+                new DetectorResumedEvent(start.plus(9500), duration),
+                new HeadNodEvent(start.plus(10000), duration),
+                new HeadSlumpEvent(start.plus(11000), Duration.standardSeconds(2)));
+    }
+
+    private static long getToStringLength(final List<Event> events) {
+        long length = 0;
+        for (final Event event : events) {
+            length += event.toString().length();
+        }
+        return length;
+    }
+
+    private static void record(final EventJournalWriter writer, final List<Event> events) {
+        for (final Event event : events) {
+            writer.recordEvent(event);
+        }
+    }
+}
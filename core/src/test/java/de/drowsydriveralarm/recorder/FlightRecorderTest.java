@@ -0,0 +1,178 @@
+package de.drowsydriveralarm.recorder;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.eventbus.EventBus;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import de.drowsydriveralarm.FrameBatch;
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.FrameRecorder;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.EyesClosedEvent;
+import de.drowsydriveralarm.event.NormalEyeBlinkEvent;
+import de.drowsydriveralarm.event.UpdateEvent;
+import de.drowsydriveralarm.eventproducer.DrowsyEventDetector;
+import de.drowsydriveralarm.eventproducer.DrowsyEventDetectorConfigTestFactory;
+
+import static de.drowsydriveralarm.eventproducer.FrameBatchHelper.createBatch;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class FlightRecorderTest {
+
+    private static final long FRAME_MILLIS = 33;
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldDumpFramesAndEventsOnDemand() throws IOException, InterruptedException {
+        // Given
+        final FlightRecorder flightRecorder = this.createFlightRecorder(10, Duration.standardSeconds(30), 100);
+        this.recordFrames(flightRecorder, 0, 10);
+        flightRecorder.recordEvent(new EyesClosedEvent(new Instant(33)));
+        flightRecorder.recordEvent(new UpdateEvent(createFeatures(66)));
+        flightRecorder.recordEvent(new NormalEyeBlinkEvent(new Instant(99), new Duration(66)));
+
+        // When
+        final boolean dumped = flightRecorder.dump();
+        flightRecorder.close();
+
+        // Then
+        assertThat(dumped, is(true));
+        assertThat(flightRecorder.getDumps(), hasSize(1));
+        final FlightRecording flightRecording = FlightRecording.read(flightRecorder.getDumps().get(0));
+        assertThat(flightRecording.getFrames(), hasSize(10));
+        final FrameFeatures frame = flightRecording.getFrames().get(9);
+        assertThat(frame.getTimestampMillis(), is(9 * FRAME_MILLIS));
+        assertThat(frame.isLeftEyeRecognized(), is(true));
+        assertThat(frame.isRightEyeRecognized(), is(false));
+        assertThat(frame.getLeftEyeOpenProbability(), is(0.9f));
+        assertThat(frame.getHeadYaw(), is(9f));
+        assertThat(flightRecording.getEvents(), contains(new EyesClosedEvent(new Instant(33)), (Event) new NormalEyeBlinkEvent(new Instant(99), new Duration(66))));
+    }
+
+    @Test
+    public void shouldDumpLastWindowOnly() throws IOException, InterruptedException {
+        // Given
+        final FlightRecorder flightRecorder = this.createFlightRecorder(10, Duration.standardSeconds(1), 100);
+        flightRecorder.recordEvent(new EyesClosedEvent(new Instant(0)));
+        this.recordFrames(flightRecorder, 0, 1000);
+
+        // When
+        flightRecorder.dump();
+        flightRecorder.close();
+
+        // Then
+        final FlightRecording flightRecording = FlightRecording.read(flightRecorder.getDumps().get(0));
+        assertThat(flightRecording.getFrames(), hasSize(31));
+        assertThat(flightRecording.getFrames().get(0).getTimestampMillis(), is(969 * FRAME_MILLIS));
+        assertThat(flightRecording.getEvents(), hasSize(0));
+    }
+
+    @Test
+    public void shouldDumpOnDrowsyEvent() throws IOException, InterruptedException {
+        // Given
+        final FlightRecorder flightRecorder = this.createFlightRecorder(10, Duration.standardSeconds(30), 100);
+        final MockedClock clock = new MockedClock();
+        final DrowsyEventDetector drowsyEventDetector =
+                new DrowsyEventDetector(
+                        DrowsyEventDetectorConfigTestFactory
+                                .createConfigBuilder()
+                                .withTimeWindow(new Duration(15000))
+                                .build(),
+                        new EventBus(),
+                        ImmutableList.<FrameRecorder> of(flightRecorder),
+                        clock);
+        final FrameBatch batch = createBatch(0, 3000, 1);
+
+        // When
+        for (int i = 0; i < batch.size(); i++) {
+            clock.setNow(new Instant(batch.getTimestampsMillis()[i]));
+            drowsyEventDetector.getFrameEventProducer().onFrame(createFeatures(batch, i));
+        }
+        flightRecorder.close();
+
+        // Then
+        assertThat(flightRecorder.getDumps(), is(not(empty())));
+        final FlightRecording flightRecording = FlightRecording.read(flightRecorder.getDumps().get(0));
+        final List<Event> events = flightRecording.getEvents();
+        assertThat(events.get(events.size() - 1), is(instanceOf(DrowsyEvent.class)));
+        final FrameFeatures lastFrame = flightRecording.getFrames().get(flightRecording.getFrames().size() - 1);
+        assertThat(lastFrame.getTimestampMillis(), is(events.get(events.size() - 1).getInstant().getMillis()));
+    }
+
+    @Test
+    public void shouldKeepNewestDumps() throws IOException, InterruptedException {
+        // Given
+        final FlightRecorder flightRecorder = this.createFlightRecorder(2, Duration.standardSeconds(30), 100);
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            this.recordFrames(flightRecorder, i, 1);
+            dumpWhenPossible(flightRecorder);
+        }
+        flightRecorder.close();
+
+        // Then
+        final List<File> dumps = flightRecorder.getDumps();
+        assertThat(dumps, hasSize(2));
+        assertThat(FlightRecording.read(dumps.get(0)).getFrames(), hasSize(2));
+        assertThat(FlightRecording.read(dumps.get(1)).getFrames(), hasSize(3));
+    }
+
+    private FlightRecorder createFlightRecorder(final int maxDumps, final Duration window, final int frameCapacity) {
+        return new FlightRecorder(new File(this.temporaryFolder.getRoot(), "dumps"), maxDumps, window, frameCapacity, 16);
+    }
+
+    private void recordFrames(final FlightRecorder flightRecorder, final int firstFrame, final int frames) {
+        for (int i = firstFrame; i < firstFrame + frames; i++) {
+            flightRecorder.recordFrame(createFeatures(i * FRAME_MILLIS));
+        }
+    }
+
+    // waits for the previous dump to be written
+    private static void dumpWhenPossible(final FlightRecorder flightRecorder) throws InterruptedException {
+        while (!flightRecorder.dump()) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static FrameFeatures createFeatures(final long timestampMillis) {
+        return FrameFeatures
+                .builder()
+                .withTimestampMillis(timestampMillis)
+                .withLeftEyeRecognized(true)
+                .withLeftEyeOpenProbability(0.9f)
+                .withRightEyeOpenProbability(FrameFeatures.UNCOMPUTED_PROBABILITY)
+                .withHeadYaw(timestampMillis / FRAME_MILLIS)
+                .build();
+    }
+
+    private static FrameFeatures createFeatures(final FrameBatch batch, final int i) {
+        return FrameFeatures
+                .builder()
+                .withTimestampMillis(batch.getTimestampsMillis()[i])
+                .withLeftEyeRecognized((batch.getLandmarkFlags()[i] & FrameBatch.LEFT_EYE_RECOGNIZED) != 0)
+                .withRightEyeRecognized((batch.getLandmarkFlags()[i] & FrameBatch.RIGHT_EYE_RECOGNIZED) != 0)
+                .withLeftEyeOpenProbability(batch.getLeftEyeOpenProbabilities()[i])
+                .withRightEyeOpenProbability(batch.getRightEyeOpenProbabilities()[i])
+                .build();
+    }
+}
@@ -0,0 +1,206 @@
+package de.drowsydriveralarm.rollup;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.AppActiveEvent;
+import de.drowsydriveralarm.event.AppIdleEvent;
+import de.drowsydriveralarm.event.NormalEyeBlinkEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class DrowsinessRollupsTest {
+
+    private static final long MINUTE = 60 * 1000;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    // the wall clock at the start of the camera, whose timestamps start at zero
+    private static final long START = 17000 * DAY;
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final MockedClock clock = new MockedClock();
+    private File file;
+    private DrowsinessRollups rollups;
+
+    @Before
+    public void setup() throws IOException {
+        this.file = this.temporaryFolder.newFile();
+        this.rollups = new DrowsinessRollups(this.file, this.clock);
+    }
+
+    @After
+    public void teardown() throws IOException {
+        this.rollups.close();
+    }
+
+    @Test
+    public void shouldSumUpObservedTimeAndClosuresSplitBetweenMinutes() {
+        // Given
+        this.recordFrames(0, 2 * MINUTE, 100, true);
+
+        // When
+        this.rollups.recordSlowEyelidClosureEvent(new SlowEyelidClosureEvent(new Instant(MINUTE - 300), new Duration(500)));
+        this.rollups.recordNormalEyeBlinkEvent(new NormalEyeBlinkEvent(new Instant(MINUTE + 1000), new Duration(100)));
+
+        // Then
+        final DrowsinessSummary firstMinute = this.rollups.query(START, START + MINUTE);
+        assertThat(firstMinute.getObservedDuration(), is(new Duration(MINUTE - 100)));
+        assertThat(firstMinute.getClosedDuration(), is(new Duration(300)));
+        assertThat(firstMinute.getSlowEyelidClosures(), is(1L));
+        assertThat(firstMinute.getNormalEyeBlinks(), is(0L));
+        final DrowsinessSummary secondMinute = this.rollups.query(START + MINUTE, START + 2 * MINUTE);
+        assertThat(secondMinute.getClosedDuration(), is(new Duration(200)));
+        assertThat(secondMinute.getSlowEyelidClosures(), is(0L));
+        assertThat(secondMinute.getNormalEyeBlinks(), is(1L));
+        assertThat(this.rollups.query(START, START + 2 * MINUTE).getPerclos(), closeTo(500.0 / (2 * MINUTE - 100), 1e-9));
+    }
+
+    @Test
+    public void shouldNotObserveFramesWithoutEyesOrAfterGap() {
+        // Given
+        this.recordFrames(0, 1000, 100, false);
+
+        // When
+        this.recordFrames(1000, 2000, 100, true);
+        this.recordFrames(5000, 5100, 100, true);
+
+        // Then
+        // the gaps ending at the frames with eyes recognized, but not the gap of more than a second
+        assertThat(this.rollups.query(START, START + MINUTE).getObservedDuration(), is(new Duration(1000)));
+    }
+
+    @Test
+    public void shouldSumUpAppIdleTime() {
+        // Given
+        this.recordFrames(0, 2 * MINUTE, 100, true);
+        this.rollups.recordAppIdleEvent(new AppIdleEvent(new Instant(MINUTE - 1000), Duration.ZERO));
+
+        // When
+        this.rollups.recordAppActiveEvent(new AppActiveEvent(new Instant(MINUTE + 3000), Duration.ZERO));
+        this.rollups.recordAppIdleEvent(new AppIdleEvent(new Instant(MINUTE + 5000), Duration.ZERO));
+        this.rollups.recordAppActiveEvent(new AppActiveEvent(new Instant(MINUTE + 6000), Duration.ZERO));
+
+        // Then
+        assertThat(this.rollups.query(START, START + MINUTE).getAppIdleDuration(), is(new Duration(1000)));
+        assertThat(this.rollups.query(START + MINUTE, START + 2 * MINUTE).getAppIdleDuration(), is(new Duration(4000)));
+    }
+
+    @Test
+    public void shouldQueryMonthAfterMinutesAreDropped() {
+        // Given
+        final long start = 0;
+        for (int day = 0; day < 30; day++) {
+            final long millis = start + day * DAY + 12 * 60 * MINUTE;
+            this.recordFrames(millis, millis + 1000, 100, true);
+            this.rollups.recordSlowEyelidClosureEvent(new SlowEyelidClosureEvent(new Instant(millis), new Duration(400)));
+        }
+
+        // When
+        final DrowsinessSummary month = this.rollups.query(START + start, START + start + 30 * DAY);
+
+        // Then
+        assertThat(month.getObservedDuration(), is(new Duration(30 * 900)));
+        assertThat(month.getClosedDuration(), is(new Duration(30 * 400)));
+        assertThat(month.getSlowEyelidClosures(), is(30L));
+        assertThat(this.rollups.query(START + start + 29 * DAY, START + start + 30 * DAY).getSlowEyelidClosures(), is(1L));
+    }
+
+    @Test
+    public void shouldKeepBucketsAfterReopen() throws IOException {
+        // Given
+        this.recordFrames(0, 1000, 100, true);
+        this.rollups.close();
+
+        // When
+        this.rollups = new DrowsinessRollups(this.file, this.clock);
+
+        // Then
+        assertThat(this.rollups.query(START, START + DAY).getObservedDuration(), is(new Duration(900)));
+    }
+
+    @Test
+    public void shouldKeyBucketsOfEverySessionOnWallClock() throws IOException {
+        // Given
+        this.recordFrames(0, 1000, 100, true);
+        this.rollups.close();
+
+        // When
+        // the next day, the timestamps of the camera start at zero again
+        this.rollups = new DrowsinessRollups(this.file, this.clock);
+        this.recordFrames(START + DAY, 0, 2000, 100, true);
+        this.rollups.recordSlowEyelidClosureEvent(new SlowEyelidClosureEvent(new Instant(1000), new Duration(500)));
+
+        // Then
+        // by the hours, as the minutes of the day before are dropped already
+        assertThat(this.rollups.query(START, START + HOUR).getObservedDuration(), is(new Duration(900)));
+        assertThat(this.rollups.query(START, START + HOUR).getSlowEyelidClosures(), is(0L));
+        assertThat(this.rollups.query(START + DAY, START + DAY + HOUR).getObservedDuration(), is(new Duration(1900)));
+        assertThat(this.rollups.query(START + DAY, START + DAY + HOUR).getClosedDuration(), is(new Duration(500)));
+        assertThat(this.rollups.query(0, DAY).getObservedDuration(), is(Duration.ZERO));
+    }
+
+    @Test
+    public void shouldSumUpAppIdleTimeOfEventsInFrameTime() {
+        // Given
+        this.recordFrames(0, 1000, 100, true);
+        this.rollups.recordAppIdleEvent(new AppIdleEvent(new Instant(500), Duration.ZERO));
+        this.recordFrames(1000, 5000, 100, false);
+
+        // When
+        this.rollups.recordAppActiveEvent(new AppActiveEvent(new Instant(4500), Duration.ZERO));
+        // slightly before the idle event, once converted to wall clock
+        this.rollups.recordAppIdleEvent(new AppIdleEvent(new Instant(4600), Duration.ZERO));
+        this.rollups.recordAppActiveEvent(new AppActiveEvent(new Instant(4599), Duration.ZERO));
+
+        // Then
+        assertThat(this.rollups.query(START, START + MINUTE).getAppIdleDuration(), is(new Duration(4000)));
+    }
+
+    @Test
+    public void shouldDropEventsBeforeFirstFrame() {
+        // When
+        this.rollups.recordSlowEyelidClosureEvent(new SlowEyelidClosureEvent(new Instant(1000), new Duration(500)));
+        this.rollups.recordAppIdleEvent(new AppIdleEvent(new Instant(1000), Duration.ZERO));
+        this.recordFrames(2000, 3000, 100, true);
+        this.rollups.recordAppActiveEvent(new AppActiveEvent(new Instant(2500), Duration.ZERO));
+
+        // Then
+        final DrowsinessSummary minute = this.rollups.query(START, START + MINUTE);
+        assertThat(minute.getSlowEyelidClosures(), is(0L));
+        assertThat(minute.getAppIdleDuration(), is(Duration.ZERO));
+        assertThat(minute.getObservedDuration(), is(new Duration(900)));
+    }
+
+    private void recordFrames(final long fromMillis, final long toMillis, final long frameMillis, final boolean eyesRecognized) {
+        this.recordFrames(START, fromMillis, toMillis, frameMillis, eyesRecognized);
+    }
+
+    // camera timestamps from 0, the clock from cameraStart
+    private void recordFrames(final long cameraStart, final long fromMillis, final long toMillis, final long frameMillis, final boolean eyesRecognized) {
+        for (long millis = fromMillis; millis < toMillis; millis += frameMillis) {
+            this.clock.setNow(new Instant(cameraStart + millis));
+            this.rollups.recordFrame(
+                    FrameFeatures
+                            .builder()
+                            .withTimestampMillis(millis)
+                            .withLeftEyeRecognized(eyesRecognized)
+                            .withRightEyeRecognized(eyesRecognized)
+                            .build());
+        }
+    }
+}
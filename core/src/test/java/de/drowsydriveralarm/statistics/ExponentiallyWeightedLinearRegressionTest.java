@@ -0,0 +1,44 @@
+package de.drowsydriveralarm.statistics;
+
+import org.joda.time.Duration;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+
+public class ExponentiallyWeightedLinearRegressionTest {
+
+    @Test
+    public void shouldFitLine() {
+        // Given
+        final ExponentiallyWeightedLinearRegression regression = new ExponentiallyWeightedLinearRegression(Duration.standardMinutes(1));
+
+        // When
+        for (long millis = 1000000; millis <= 1060000; millis += 100) {
+            regression.add(millis, 0.02 + 0.001 * (millis - 1000000) / 1000.0);
+        }
+
+        // Then
+        assertThat(regression.getSlope(), closeTo(0.000001, 1e-12));
+        assertThat(regression.getValueAt(1060000), closeTo(0.08, 1e-9));
+        assertThat(regression.getValueAt(1120000), closeTo(0.14, 1e-9));
+    }
+
+    @Test
+    public void shouldForgetOldTrend() {
+        // Given
+        final ExponentiallyWeightedLinearRegression regression = new ExponentiallyWeightedLinearRegression(Duration.standardSeconds(10));
+        for (long millis = 0; millis <= 60000; millis += 100) {
+            regression.add(millis, millis / 1000.0);
+        }
+
+        // When
+        for (long millis = 60100; millis <= 180000; millis += 100) {
+            regression.add(millis, 60);
+        }
+
+        // Then
+        assertThat(regression.getSlope(), closeTo(0, 1e-6));
+        assertThat(regression.getValueAt(180000), closeTo(60, 1e-3));
+    }
+}
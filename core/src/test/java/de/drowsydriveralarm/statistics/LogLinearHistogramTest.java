@@ -0,0 +1,86 @@
+package de.drowsydriveralarm.statistics;
+
+import org.joda.time.Duration;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class LogLinearHistogramTest {
+
+    @Test
+    public void shouldKeepSmallValuesExact() {
+        // Given
+        final LogLinearHistogram histogram = new LogLinearHistogram(3, 1000);
+
+        // When
+        histogram.record(1);
+        histogram.record(5);
+        histogram.record(7);
+
+        // Then
+        assertThat(histogram.getQuantile(0), is(1L));
+        assertThat(histogram.getQuantile(0.5), is(5L));
+        assertThat(histogram.getQuantile(1), is(7L));
+    }
+
+    @Test
+    public void shouldBoundRelativeErrorOfLargeValues() {
+        // Given
+        final LogLinearHistogram histogram = new LogLinearHistogram(4, 100000);
+
+        for (long value = 16; value < 100000; value += 997) {
+            // When
+            histogram.clear();
+            histogram.record(value);
+
+            // Then
+            final long error = Math.abs(histogram.getQuantile(0.5) - value);
+            assertThat(error * 8, lessThanOrEqualTo(value));
+        }
+    }
+
+    @Test
+    public void shouldHaveContiguousBuckets() {
+        // Given
+        final LogLinearHistogram histogram = new LogLinearHistogram(3, 5000);
+
+        for (int bucketIndex = 1; bucketIndex < histogram.getBucketCount(); bucketIndex++) {
+            // When
+            histogram.clear();
+            histogram.record(histogram.getLowerBound(bucketIndex) - 1);
+
+            // Then
+            assertThat(histogram.getCount(bucketIndex - 1), is(1L));
+        }
+    }
+
+    @Test
+    public void shouldCountValuesAboveMaxValueInLastBucket() {
+        // Given
+        final LogLinearHistogram histogram = new LogLinearHistogram(3, 100);
+
+        // When
+        histogram.record(1000000);
+
+        // Then
+        assertThat(histogram.getCount(histogram.getBucketCount() - 1), is(1L));
+    }
+
+    @Test
+    public void shouldForgetValuesLeavingRollingWindow() {
+        // Given
+        final RollingHistogram histogram = new RollingHistogram(new Duration(1000), 4, 3, 1000);
+        histogram.record(0, 200);
+        histogram.record(300, 100);
+        histogram.record(600, 10);
+
+        // When
+        final long nowMillis = 1100;
+
+        // Then
+        assertThat(histogram.getTotalCount(nowMillis), is(2L));
+        assertThat(histogram.getQuantile(nowMillis, 1), is(103L));
+    }
+}
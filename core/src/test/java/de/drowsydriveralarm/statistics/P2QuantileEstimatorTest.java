@@ -0,0 +1,57 @@
+package de.drowsydriveralarm.statistics;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class P2QuantileEstimatorTest {
+
+    @Test
+    public void shouldBeExactForFewValues() {
+        // Given
+        final P2QuantileEstimator estimator = new P2QuantileEstimator(0.5);
+
+        // When
+        estimator.add(3);
+        estimator.add(1);
+        estimator.add(2);
+
+        // Then
+        assertThat(estimator.getQuantile(), is(2.0));
+    }
+
+    @Test
+    public void shouldEstimateMedianOfUniformValues() {
+        // Given
+        final P2QuantileEstimator estimator = new P2QuantileEstimator(0.5);
+        final Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 10000; i++) {
+            estimator.add(random.nextDouble());
+        }
+
+        // Then
+        assertThat(estimator.getQuantile(), closeTo(0.5, 0.02));
+        assertThat(estimator.getCount(), is(10000L));
+    }
+
+    @Test
+    public void shouldEstimateUpperQuantileOfNormalValues() {
+        // Given
+        final P2QuantileEstimator estimator = new P2QuantileEstimator(0.9);
+        final Random random = new Random(42);
+
+        // When
+        for (int i = 0; i < 10000; i++) {
+            estimator.add(random.nextGaussian());
+        }
+
+        // Then
+        assertThat(estimator.getQuantile(), closeTo(1.2816, 0.05));
+    }
+}
@@ -0,0 +1,78 @@
+package de.drowsydriveralarm.statistics;
+
+import org.joda.time.Duration;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+public class RollingWindowTest {
+
+    private RollingWindow rollingWindow;
+
+    @Before
+    public void setup() {
+        this.rollingWindow = new RollingWindow(new Duration(1000), 10);
+    }
+
+    @Test
+    public void shouldCalculateMeanAndVarianceOverSlots() {
+        // When
+        this.rollingWindow.add(0, 2);
+        this.rollingWindow.add(50, 4);
+        this.rollingWindow.add(350, 4);
+        this.rollingWindow.add(720, 5);
+        this.rollingWindow.add(990, 5);
+
+        // Then
+        assertThat(this.rollingWindow.getCount(990), is(5L));
+        assertThat(this.rollingWindow.getMean(990), closeTo(4, 1e-9));
+        assertThat(this.rollingWindow.getVariance(990), closeTo(1.2, 1e-9));
+    }
+
+    @Test
+    public void shouldForgetValuesLeavingTheWindow() {
+        // Given
+        this.rollingWindow.add(0, 100);
+        this.rollingWindow.add(500, 1);
+        this.rollingWindow.add(600, 3);
+
+        // When
+        final long nowMillis = 1050;
+
+        // Then
+        assertThat(this.rollingWindow.getCount(nowMillis), is(2L));
+        assertThat(this.rollingWindow.getMean(nowMillis), closeTo(2, 1e-9));
+        assertThat(this.rollingWindow.getVariance(nowMillis), closeTo(1, 1e-9));
+    }
+
+    @Test
+    public void shouldIgnoreValuesOlderThanTheWindow() {
+        // Given
+        this.rollingWindow.add(5000, 1);
+
+        // When
+        this.rollingWindow.add(3000, 100);
+
+        // Then
+        assertThat(this.rollingWindow.getCount(5000), is(1L));
+        assertThat(this.rollingWindow.getMean(5000), closeTo(1, 1e-9));
+    }
+
+    @Test
+    public void shouldBeEmptyAfterLongGap() {
+        // Given
+        this.rollingWindow.add(0, 1);
+        this.rollingWindow.add(900, 2);
+
+        // When
+        final long nowMillis = 60000;
+
+        // Then
+        assertThat(this.rollingWindow.getCount(nowMillis), is(0L));
+        assertThat(this.rollingWindow.getMean(nowMillis), closeTo(0, 1e-9));
+        assertThat(this.rollingWindow.getVariance(nowMillis), closeTo(0, 1e-9));
+    }
+}
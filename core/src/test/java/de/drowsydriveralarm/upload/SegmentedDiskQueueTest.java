@@ -0,0 +1,139 @@
+package de.drowsydriveralarm.upload;
+
+import com.google.common.base.Charsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class SegmentedDiskQueueTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldPeekRecordsInOrderAcrossSegments() throws IOException {
+        // Given
+        final SegmentedDiskQueue queue = this.openQueue(64, 1024);
+
+        // When
+        this.append(queue, 0, 10);
+
+        // Then
+        assertThat(queue.getNumberOfSegments(), is(greaterThan(1)));
+        assertThat(toStrings(queue.peek(100)), contains("record-0", "record-1", "record-2", "record-3", "record-4", "record-5", "record-6", "record-7", "record-8", "record-9"));
+        assertThat(toStrings(queue.peek(2)), contains("record-0", "record-1"));
+    }
+
+    @Test
+    public void shouldRemovePeekedRecordsDurably() throws IOException {
+        // Given
+        final SegmentedDiskQueue queue = this.openQueue(64, 1024);
+        this.append(queue, 0, 5);
+
+        // When
+        // the first segment holds 4 records
+        queue.remove(queue.peek(4));
+        queue.close();
+
+        // Then
+        final SegmentedDiskQueue reopenedQueue = this.openQueue(64, 1024);
+        assertThat(toStrings(reopenedQueue.peek(100)), contains("record-4"));
+        assertThat(reopenedQueue.getSizeBytes(), is(8 + 8L));
+        assertThat(reopenedQueue.getNumberOfSegments(), is(1));
+    }
+
+    @Test
+    public void shouldResumeWithinSegment() throws IOException {
+        // Given
+        final SegmentedDiskQueue queue = this.openQueue(64, 1024);
+        this.append(queue, 0, 5);
+
+        // When
+        queue.remove(queue.peek(3));
+        queue.close();
+
+        // Then
+        final SegmentedDiskQueue reopenedQueue = this.openQueue(64, 1024);
+        assertThat(toStrings(reopenedQueue.peek(100)), contains("record-3", "record-4"));
+        assertThat(reopenedQueue.getSizeBytes(), is(2 * (8 + 8L)));
+    }
+
+    @Test
+    public void shouldCutOffTornRecord() throws IOException {
+        // Given
+        final SegmentedDiskQueue queue = this.openQueue(1024, 4096);
+        this.append(queue, 0, 2);
+        queue.close();
+        this.appendToLastSegment(new byte[]{0, 0, 0, 42, 1, 2});
+
+        // When
+        final SegmentedDiskQueue reopenedQueue = this.openQueue(1024, 4096);
+        this.append(reopenedQueue, 2, 1);
+
+        // Then
+        assertThat(toStrings(reopenedQueue.peek(100)), contains("record-0", "record-1", "record-2"));
+    }
+
+    @Test
+    public void shouldEvictOldestSegmentsWhenFull() throws IOException {
+        // Given
+        final SegmentedDiskQueue queue = this.openQueue(64, 128);
+
+        // When
+        this.append(queue, 0, 20);
+
+        // Then
+        assertThat(queue.getDiskBytes(), is(lessThanOrEqualTo(128L)));
+        assertThat(queue.getEvictedBytes(), is(greaterThan(0L)));
+        final List<String> records = toStrings(queue.peek(100));
+        assertThat(records.get(records.size() - 1), is("record-19"));
+        assertThat(records.size(), is(lessThanOrEqualTo(8)));
+    }
+
+    private SegmentedDiskQueue openQueue(final long segmentBytes, final long maxBytes) throws IOException {
+        return new SegmentedDiskQueue(new File(this.temporaryFolder.getRoot(), "queue"), segmentBytes, maxBytes);
+    }
+
+    private void append(final SegmentedDiskQueue queue, final int first, final int number) throws IOException {
+        for (int i = first; i < first + number; i++) {
+            queue.append(("record-" + i).getBytes(Charsets.UTF_8));
+        }
+    }
+
+    private void appendToLastSegment(final byte[] bytes) throws IOException {
+        final File[] segments = new File(this.temporaryFolder.getRoot(), "queue").listFiles();
+        File last = null;
+        for (final File segment : segments) {
+            if (segment.getName().endsWith(".seg") && (last == null || segment.getName().compareTo(last.getName()) > 0)) {
+                last = segment;
+            }
+        }
+        final FileOutputStream out = new FileOutputStream(last, true);
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static List<String> toStrings(final SegmentedDiskQueue.Batch batch) {
+        final List<String> records = new ArrayList<>();
+        for (final byte[] record : batch.getRecords()) {
+            records.add(new String(record, Charsets.UTF_8));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,113 @@
+package de.drowsydriveralarm.upload;
+
+import com.google.common.eventbus.EventBus;
+
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.drowsydriveralarm.FrameFeatures;
+import de.drowsydriveralarm.MockedClock;
+import de.drowsydriveralarm.event.DrowsyEvent;
+import de.drowsydriveralarm.event.Event;
+import de.drowsydriveralarm.event.EyesClosedEvent;
+import de.drowsydriveralarm.event.PendingSlowEyelidClosureEvent;
+import de.drowsydriveralarm.event.SlowEyelidClosureEvent;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class TelemetryRecorderTest {
+
+    // 2016-07-18, the wall clock time the camera starts at
+    private static final long START = 1468800000000L;
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final MockedClock clock = new MockedClock();
+    private final EventBus eventBus = new EventBus();
+    private SegmentedDiskQueue queue;
+    private TelemetryRecorder recorder;
+
+    @Before
+    public void setup() throws IOException {
+        this.queue = new SegmentedDiskQueue(this.temporaryFolder.newFolder("queue"), 1024, 4096);
+        this.recorder = new TelemetryRecorder(this.queue, TelemetryRecorder.DEFAULT_EVENT_CLASSES, new Instant(START), 16, this.clock);
+        this.eventBus.register(this.recorder);
+        this.recorder.start();
+    }
+
+    @Test
+    public void shouldAppendEventsOfGivenClassesInWallClockTime() throws IOException, InterruptedException {
+        // Given
+        this.recordFrames(0, 3000, 100);
+
+        // When
+        this.eventBus.post(new EyesClosedEvent(new Instant(1000)));
+        this.eventBus.post(new PendingSlowEyelidClosureEvent(new Instant(1000), new Duration(500)));
+        this.eventBus.post(new SlowEyelidClosureEvent(new Instant(1000), new Duration(600)));
+        this.eventBus.post(new DrowsyEvent(new Instant(2000), 0.2));
+        this.recorder.close();
+
+        // Then
+        assertThat(
+                this.readEvents(),
+                contains(
+                        (Event) new SlowEyelidClosureEvent(new Instant(START + 1000), new Duration(600)),
+                        new DrowsyEvent(new Instant(START + 2000), 0.2)));
+    }
+
+    @Test
+    public void shouldStampRecordsWithSessionStart() throws IOException, InterruptedException {
+        // Given
+        this.recordFrames(0, 1000, 100);
+
+        // When
+        this.eventBus.post(new DrowsyEvent(new Instant(500), 0.2));
+        this.recorder.close();
+
+        // Then
+        final List<Instant> sessionStarts = new ArrayList<>();
+        for (final byte[] record : this.queue.peek(100).getRecords()) {
+            sessionStarts.add(TelemetryRecorder.decodeSessionStart(record));
+        }
+        assertThat(sessionStarts, contains(new Instant(START)));
+    }
+
+    @Test
+    public void shouldDropEventsBeforeFirstFrame() throws IOException, InterruptedException {
+        // When
+        this.eventBus.post(new DrowsyEvent(new Instant(500), 0.2));
+        this.recorder.close();
+
+        // Then
+        assertThat(this.readEvents(), is(empty()));
+        assertThat(this.recorder.getDroppedEvents(), is(1L));
+    }
+
+    private List<Event> readEvents() throws IOException {
+        final List<Event> events = new ArrayList<>();
+        for (final byte[] record : this.queue.peek(100).getRecords()) {
+            events.add(TelemetryRecorder.decodeEvent(record));
+        }
+        return events;
+    }
+
+    // camera timestamps from 0, the clock from START
+    private void recordFrames(final long fromMillis, final long toMillis, final long frameMillis) {
+        for (long millis = fromMillis; millis < toMillis; millis += frameMillis) {
+            this.clock.setNow(new Instant(START + millis));
+            this.recorder.recordFrame(FrameFeatures.builder().withTimestampMillis(millis).build());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package de.drowsydriveralarm.upload;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.joda.time.Duration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+public class TelemetryUploaderTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final List<List<String>> receivedBatches = Collections.synchronizedList(new ArrayList<List<String>>());
+    private final AtomicInteger failuresToAnswer = new AtomicInteger();
+    private HttpServer server;
+    private SegmentedDiskQueue queue;
+    private TelemetryUploader uploader;
+
+    @Before
+    public void setup() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/telemetry", new HttpHandler() {
+
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                TelemetryUploaderTest.this.receive(exchange);
+            }
+        });
+        this.server.start();
+        this.queue = new SegmentedDiskQueue(this.temporaryFolder.newFolder("queue"), 64, 4096);
+        this.uploader =
+                new TelemetryUploader(
+                        this.queue,
+                        new URL("http", "localhost", this.server.getAddress().getPort(), "/telemetry"),
+                        10,
+                        new Duration(10),
+                        new Duration(40));
+    }
+
+    @After
+    public void shutdown() throws InterruptedException {
+        this.uploader.close();
+        this.server.stop(0);
+    }
+
+    @Test
+    public void shouldUploadGzippedBatches() throws IOException, InterruptedException {
+        // Given
+        this.append(25);
+
+        // When
+        this.uploader.start();
+        this.awaitUploadedRecords(25);
+
+        // Then
+        assertThat(this.receivedBatches.get(0), is(equalTo(this.createRecords(0, 10))));
+        assertThat(this.receivedBatches.get(1), is(equalTo(this.createRecords(10, 20))));
+        assertThat(this.receivedBatches.get(2), is(equalTo(this.createRecords(20, 25))));
+        assertThat(this.queue.getSizeBytes(), is(0L));
+    }
+
+    @Test
+    public void shouldRetryUntilAccepted() throws IOException, InterruptedException {
+        // Given
+        this.append(5);
+        this.failuresToAnswer.set(3);
+
+        // When
+        this.uploader.start();
+        this.awaitUploadedRecords(5);
+
+        // Then
+        assertThat(this.uploader.getFailedUploads(), is(3L));
+        assertThat(this.receivedBatches, contains(this.createRecords(0, 5)));
+    }
+
+    @Test
+    public void shouldBackOffWhileQueueFails() throws IOException, InterruptedException {
+        // Given
+        this.append(5);
+        // the segment cannot be read while a directory is in its place
+        final File segmentFile = new File(this.temporaryFolder.getRoot(), "queue").listFiles()[0];
+        final File movedSegmentFile = new File(segmentFile.getPath() + ".moved");
+        assertThat(segmentFile.renameTo(movedSegmentFile), is(true));
+        assertThat(segmentFile.mkdir(), is(true));
+
+        // When
+        this.uploader.start();
+        for (int i = 0; i < 500 && this.uploader.getFailedUploads() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(segmentFile.delete(), is(true));
+        assertThat(movedSegmentFile.renameTo(segmentFile), is(true));
+        this.awaitUploadedRecords(5);
+
+        // Then
+        assertThat(this.uploader.getFailedUploads(), is(greaterThanOrEqualTo(2L)));
+        assertThat(this.receivedBatches, contains(this.createRecords(0, 5)));
+    }
+
+    private void receive(final HttpExchange exchange) throws IOException {
+        final byte[] body = ByteStreams.toByteArray(new GZIPInputStream(exchange.getRequestBody()));
+        if (this.failuresToAnswer.getAndDecrement() > 0) {
+            exchange.sendResponseHeaders(503, -1);
+        } else {
+            final List<String> records = new ArrayList<>();
+            for (final String line : new String(body, Charsets.US_ASCII).split("\n")) {
+                records.add(new String(BaseEncoding.base64().decode(line), Charsets.UTF_8));
+            }
+            this.receivedBatches.add(records);
+            exchange.sendResponseHeaders(204, -1);
+        }
+        exchange.close();
+    }
+
+    private void append(final int number) throws IOException {
+        for (final String record : this.createRecords(0, number)) {
+            this.queue.append(record.getBytes(Charsets.UTF_8));
+        }
+    }
+
+    private List<String> createRecords(final int from, final int to) {
+        final List<String> records = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            records.add("record-" + i);
+        }
+        return records;
+    }
+
+    private void awaitUploadedRecords(final long records) throws InterruptedException {
+        for (int i = 0; i < 500 && this.uploader.getUploadedRecords() < records; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(this.uploader.getUploadedRecords(), is(records));
+    }
+}
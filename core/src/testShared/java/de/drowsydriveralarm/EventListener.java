@@ -1,7 +1,5 @@
 package de.drowsydriveralarm;
 
-import android.support.annotation.NonNull;
-
 import com.google.common.base.Predicate;
 import com.google.common.collect.FluentIterable;
 import com.google.common.eventbus.Subscribe;
@@ -39,12 +37,10 @@ public class EventListener {
                 .toList();
     }
 
-    @NonNull
     private FluentIterable<Event> getListenerEvents() {
         return FluentIterable.from(this.events);
     }
 
-    @NonNull
     private Predicate<Event> isListenerEventClassContainedIn(final Class[] eventClasses) {
         return new Predicate<Event>() {
 
@@ -55,7 +51,6 @@ public class EventListener {
                         .anyMatch(this.hasSameClassAs(listenerEvent.getClass()));
             }
 
-            @NonNull
             private Predicate<Class> hasSameClassAs(final Class listenerEventClass) {
                 return new Predicate<Class>() {
 
@@ -11,6 +11,11 @@ public class MockedClock implements Clock {
         return this.now;
     }
 
+    @Override
+    public long nanoTime() {
+        return this.now.getMillis() * 1000000L;
+    }
+
     public void setNow(final Instant now) {
         this.now = now;
     }